@@ -0,0 +1,72 @@
+-- Monthly range partitioning of execution history for a tenant schema (PostgreSQL 12+).
+-- Run once per tenant schema with search_path set to it, e.g.
+--   SET search_path TO tenant_acme, public;  \i sql/executions_partitioning.sql
+--
+-- executions are partitioned by started_at and execution_steps by created_at (the
+-- start time of their execution), so one month of history is one table pair that
+-- ExecutionRetention archives and then drops in O(1). Rows outside the created
+-- partitions land in the *_default partitions. New partitions are created ahead by
+-- ExecutionRetention through testnext_ensure_execution_partitions().
+
+BEGIN;
+
+ALTER TABLE execution_steps ADD COLUMN IF NOT EXISTS created_at TIMESTAMP;
+UPDATE execution_steps s SET created_at = e.started_at
+  FROM executions e WHERE s.execution_id = e.id AND s.created_at IS NULL;
+UPDATE executions SET started_at = now() WHERE started_at IS NULL;
+UPDATE execution_steps SET created_at = now() WHERE created_at IS NULL;
+
+ALTER TABLE executions RENAME TO executions_unpartitioned;
+ALTER TABLE execution_steps RENAME TO execution_steps_unpartitioned;
+
+CREATE TABLE executions (LIKE executions_unpartitioned INCLUDING DEFAULTS) PARTITION BY RANGE (started_at);
+ALTER TABLE executions ALTER COLUMN started_at SET NOT NULL;
+ALTER TABLE executions ADD PRIMARY KEY (id, started_at);
+CREATE INDEX ON executions (started_at, id);
+CREATE INDEX ON executions (test_id, started_at, id);
+CREATE INDEX ON executions (status, started_at, id);
+CREATE INDEX ON executions (tenant_id, started_at, id);
+CREATE INDEX ON executions (project_id, started_at, id);
+CREATE TABLE executions_default PARTITION OF executions DEFAULT;
+
+CREATE TABLE execution_steps (LIKE execution_steps_unpartitioned INCLUDING DEFAULTS) PARTITION BY RANGE (created_at);
+ALTER TABLE execution_steps ALTER COLUMN created_at SET NOT NULL;
+ALTER TABLE execution_steps ALTER COLUMN created_at SET DEFAULT now();
+ALTER TABLE execution_steps ADD PRIMARY KEY (id, created_at);
+CREATE INDEX ON execution_steps (execution_id);
+CREATE INDEX ON execution_steps (result_ref);
+CREATE INDEX ON execution_steps (parameters_ref);
+CREATE TABLE execution_steps_default PARTITION OF execution_steps DEFAULT;
+
+-- Creates the monthly partitions from the month of from_ts up to months_ahead months later.
+CREATE OR REPLACE FUNCTION testnext_ensure_execution_partitions(from_ts TIMESTAMP, months_ahead INT)
+RETURNS VOID AS $$
+DECLARE
+  m DATE := date_trunc('month', from_ts)::date;
+  suffix TEXT;
+BEGIN
+  FOR i IN 0..months_ahead LOOP
+    suffix := to_char(m, '"p"YYYY_MM');
+    EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF executions FOR VALUES FROM (%L) TO (%L)',
+                   'executions_' || suffix, m, (m + interval '1 month')::date);
+    EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF execution_steps FOR VALUES FROM (%L) TO (%L)',
+                   'execution_steps_' || suffix, m, (m + interval '1 month')::date);
+    m := (m + interval '1 month')::date;
+  END LOOP;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Partitions for the existing history, then copy it over.
+SELECT testnext_ensure_execution_partitions(
+  COALESCE((SELECT min(started_at) FROM executions_unpartitioned), now()::timestamp),
+  (SELECT (EXTRACT(YEAR FROM age(now(), COALESCE(min(started_at), now()))) * 12
+         + EXTRACT(MONTH FROM age(now(), COALESCE(min(started_at), now()))))::int + 2
+     FROM executions_unpartitioned));
+
+INSERT INTO executions SELECT * FROM executions_unpartitioned;
+INSERT INTO execution_steps SELECT * FROM execution_steps_unpartitioned;
+
+DROP TABLE execution_steps_unpartitioned;
+DROP TABLE executions_unpartitioned;
+
+COMMIT;
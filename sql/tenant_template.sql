@@ -1,5 +1,6 @@
--- Tenant template DDL
--- Run this in a new schema for each tenant, e.g. SET search_path TO ${schema}, public;
+-- Tenant template DDL (original design sketch, not applied by the application).
+-- Tenant schemas are created and upgraded by TenantMigrationRunner from the versioned
+-- scripts in src/main/resources/db/tenant; change those, not this file.
 
 -- USERS
 CREATE TABLE IF NOT EXISTS users (
@@ -95,6 +96,9 @@ CREATE TABLE IF NOT EXISTS executions (
   FOREIGN KEY (test_id) REFERENCES tests(id)
 );
 CREATE INDEX IF NOT EXISTS idx_executions_test ON executions(test_id);
+CREATE INDEX IF NOT EXISTS idx_executions_started ON executions(started_at, id);
+CREATE INDEX IF NOT EXISTS idx_executions_test_started ON executions(test_id, started_at, id);
+CREATE INDEX IF NOT EXISTS idx_executions_status_started ON executions(status, started_at, id);
 
 -- EXECUTION STEPS (per-step results)
 CREATE TABLE IF NOT EXISTS execution_steps (
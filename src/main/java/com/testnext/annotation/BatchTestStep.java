@@ -0,0 +1,17 @@
+package com.testnext.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a method that runs many parameter rows of an existing {@link TestStep} in
+ * one call. The method takes {@code List<Map<String, Object>>} and returns one
+ * output map per row, in the same order; throwing fails every row of the batch.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface BatchTestStep {
+    String id(); // Id of the @TestStep this method executes in bulk
+}
@@ -13,4 +13,12 @@ public @interface TestStep {
     String name();
 
     String description() default "";
+
+    boolean cacheable() default false; // Memoize results per tenant; only for idempotent, side-effect free steps
+
+    long ttlSeconds() default 300; // Lifetime of a memoized result when cacheable
+
+    String bulkhead() default ""; // Concurrency group shared with other steps; defaults to the step id
+
+    int maxConcurrency() default 0; // Max in-flight invocations across the node for the group; 0 = unlimited
 }
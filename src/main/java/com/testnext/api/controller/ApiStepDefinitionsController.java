@@ -2,7 +2,6 @@ package com.testnext.api.controller;
 
 import com.testnext.api.dto.StepDefinitionDto;
 import com.testnext.service.StepDefinitionService;
-import com.testnext.repository.StepDefinitionRepository;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -11,11 +10,9 @@ import java.util.List;
 @RequestMapping("/api/test-steps-library")
 public class ApiStepDefinitionsController {
     private final StepDefinitionService svc;
-    private final StepDefinitionRepository repo;
 
-    public ApiStepDefinitionsController(StepDefinitionService svc, StepDefinitionRepository repo) {
+    public ApiStepDefinitionsController(StepDefinitionService svc) {
         this.svc = svc;
-        this.repo = repo;
     }
 
     @GetMapping
@@ -30,7 +27,7 @@ public class ApiStepDefinitionsController {
 
     @DeleteMapping("/{id}")
     public void delete(@PathVariable Long id) {
-        repo.deleteById(id);
+        svc.delete(id);
     }
 
     @PostMapping("/load-runtime")
@@ -43,7 +40,7 @@ public class ApiStepDefinitionsController {
     }
 
     private void createIfMissing(String name, String definition) {
-        if (svc.list().stream().noneMatch(s -> s.name.equals(name))) {
+        if (!svc.existsByName(name)) {
             StepDefinitionDto dto = new StepDefinitionDto();
             dto.name = name;
             dto.description = definition;
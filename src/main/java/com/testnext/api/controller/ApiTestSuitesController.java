@@ -2,11 +2,10 @@ package com.testnext.api.controller;
 
 import com.testnext.api.dto.TestSuiteDto;
 import com.testnext.model.TestSuiteEntity;
-import com.testnext.model.TestEntity;
 import com.testnext.repository.TestSuiteRepository;
-import com.testnext.repository.TestRepository;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -15,25 +14,24 @@ import java.util.stream.Collectors;
 @RequestMapping("/api/test-suites")
 public class ApiTestSuitesController {
     private final TestSuiteRepository suiteRepo;
-    private final TestRepository testRepo;
+    private final com.testnext.service.EntityCache cache;
 
-    public ApiTestSuitesController(TestSuiteRepository suiteRepo, TestRepository testRepo) {
+    public ApiTestSuitesController(TestSuiteRepository suiteRepo, com.testnext.service.EntityCache cache) {
         this.suiteRepo = suiteRepo;
-        this.testRepo = testRepo;
+        this.cache = cache;
     }
 
     @GetMapping
     public List<Map<String, Object>> list() {
-        var suites = suiteRepo.findAll();
-        var tests = testRepo.findAll();
-        var counts = tests.stream().collect(Collectors.groupingBy(t -> t.suiteId, Collectors.counting()));
-        return suites.stream().map(s -> Map.<String,Object>of(
-                "id", s.id,
-                "projectId", s.projectId,
-                "name", s.name,
-                "description", s.description,
-                "testCount", counts.getOrDefault(s.id, 0L)
-        )).collect(Collectors.toList());
+        return suiteRepo.findAllWithTestCounts().stream().map(s -> {
+            Map<String, Object> m = new LinkedHashMap<>(); // description may be null
+            m.put("id", s.id());
+            m.put("projectId", s.projectId());
+            m.put("name", s.name());
+            m.put("description", s.description());
+            m.put("testCount", s.testCount());
+            return m;
+        }).collect(Collectors.toList());
     }
 
     @PostMapping
@@ -54,9 +52,10 @@ public class ApiTestSuitesController {
         if (in.name != null) e.name = in.name;
         if (in.description != null) e.description = in.description;
         e = suiteRepo.save(e);
+        cache.evictSuite(id);
         TestSuiteDto out = new TestSuiteDto(); out.id = e.id; out.projectId = e.projectId; out.name = e.name; out.description = e.description; return out;
     }
 
     @DeleteMapping("/{id}")
-    public void delete(@PathVariable Long id) { suiteRepo.deleteById(id); }
+    public void delete(@PathVariable Long id) { suiteRepo.deleteById(id); cache.evictSuite(id); }
 }
@@ -1,16 +1,27 @@
 package com.testnext.api.controller;
 
 import com.testnext.api.dto.ExecutionDto;
+import com.testnext.api.dto.ExecutionPage;
+import com.testnext.repository.ExecutionFilter;
 import com.testnext.service.ExecutionService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.time.Instant;
 import java.util.Map;
+import java.util.function.Consumer;
 
 @RestController
 public class ExecutionController {
     private final ExecutionService svc;
+    private final tools.jackson.databind.ObjectMapper mapper; // Spring's, so streamed lists match every other response
 
-    public ExecutionController(ExecutionService svc) {
+    public ExecutionController(ExecutionService svc, tools.jackson.databind.ObjectMapper mapper) {
         this.svc = svc;
+        this.mapper = mapper;
     }
 
     @PostMapping("/api/tests/{testId}/executions")
@@ -26,9 +37,30 @@ public class ExecutionController {
         return svc.startSuite(body.get("suiteId"));
     }
 
+    /** All visible executions, newest first, written to the response as they are read. */
     @GetMapping("/api/executions")
-    public java.util.List<ExecutionDto> list(org.springframework.security.core.Authentication auth) {
-        return svc.list(auth);
+    public void list(org.springframework.security.core.Authentication auth,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Long testId,
+            @RequestParam(required = false) Long suiteId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            HttpServletResponse response) throws IOException {
+        ExecutionFilter filter = filter(status, testId, suiteId, from, to);
+        writeArray(response, sink -> svc.forEach(auth, filter, sink));
+    }
+
+    /** Keyset-paginated listing; pass the returned {@code nextCursor} to get the next page. */
+    @GetMapping("/api/executions/page")
+    public ExecutionPage page(org.springframework.security.core.Authentication auth,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Long testId,
+            @RequestParam(required = false) Long suiteId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        return svc.page(auth, filter(status, testId, suiteId, from, to), cursor, limit);
     }
 
     @GetMapping("/api/executions/{executionId}")
@@ -37,8 +69,15 @@ public class ExecutionController {
     }
 
     @GetMapping("/api/projects/{projectId}/executions")
-    public java.util.List<ExecutionDto> listByProject(@PathVariable Long projectId) {
-        return svc.listByProject(projectId);
+    public void listByProject(@PathVariable Long projectId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Long testId,
+            @RequestParam(required = false) Long suiteId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            HttpServletResponse response) throws IOException {
+        ExecutionFilter filter = filter(status, testId, suiteId, from, to);
+        writeArray(response, sink -> svc.forEachByProject(projectId, filter, sink));
     }
 
     @DeleteMapping("/api/executions/{executionId}")
@@ -46,4 +85,23 @@ public class ExecutionController {
     public void delete(@PathVariable java.util.UUID executionId) {
         svc.delete(executionId);
     }
+
+    private static ExecutionFilter filter(String status, Long testId, Long suiteId, Instant from, Instant to) {
+        ExecutionFilter f = new ExecutionFilter();
+        f.status = status;
+        f.testId = testId;
+        f.suiteId = suiteId;
+        f.from = from;
+        f.to = to;
+        return f;
+    }
+
+    private void writeArray(HttpServletResponse response, Consumer<Consumer<ExecutionDto>> source) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        try (tools.jackson.core.JsonGenerator json = mapper.createGenerator(response.getOutputStream())) {
+            json.writeStartArray();
+            source.accept(json::writePOJO);
+            json.writeEndArray();
+        }
+    }
 }
@@ -10,10 +10,13 @@ import java.util.List;
 public class TenantController {
     private final TenantService svc;
     private final com.testnext.user.SystemUserRepository userRepo;
+    private final com.testnext.db.TenantMigrationRunner migrations;
 
-    public TenantController(TenantService svc, com.testnext.user.SystemUserRepository userRepo) {
+    public TenantController(TenantService svc, com.testnext.user.SystemUserRepository userRepo,
+            com.testnext.db.TenantMigrationRunner migrations) {
         this.svc = svc;
         this.userRepo = userRepo;
+        this.migrations = migrations;
     }
 
     @PostMapping
@@ -41,4 +44,22 @@ public class TenantController {
     public java.util.List<com.testnext.user.SystemUser> listUsers(@PathVariable Long id) {
         return userRepo.findByTenantId(id);
     }
+
+    /** Progress of the current or last run of tenant schema migrations. */
+    @GetMapping("/migrations")
+    @org.springframework.security.access.prepost.PreAuthorize("hasRole('SYSTEM_ADMIN')")
+    public com.testnext.db.TenantMigrationRunner.Progress migrationProgress() {
+        return migrations.progress();
+    }
+
+    /**
+     * Starts migrating every tenant schema in the background and returns the new
+     * run's progress; poll GET /migrations for more. 409 while a run is in flight.
+     */
+    @PostMapping("/migrations")
+    @org.springframework.security.access.prepost.PreAuthorize("hasRole('SYSTEM_ADMIN')")
+    @ResponseStatus(org.springframework.http.HttpStatus.ACCEPTED)
+    public com.testnext.db.TenantMigrationRunner.Progress migrateAll() {
+        return migrations.startAll();
+    }
 }
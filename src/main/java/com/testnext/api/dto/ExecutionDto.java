@@ -13,12 +13,16 @@ public class ExecutionDto {
     public String status;
     public Instant startedAt;
     public Instant finishedAt;
+    public Long stepCount;
+    public Long failedStepCount; // FAILED or CIRCUIT_OPEN
     public List<ExecutionStepDto> steps;
+    public Map<String, Object> iterations;
 
     public static class ExecutionStepDto {
         public UUID id;
         public Long stepDefinitionId;
         public String status;
+        public Map<String, Object> parameters;
         public Map<String, Object> result;
     }
 }
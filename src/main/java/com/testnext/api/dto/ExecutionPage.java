@@ -0,0 +1,9 @@
+package com.testnext.api.dto;
+
+import java.util.List;
+
+/** One page of an execution listing; {@code nextCursor} is null on the last page. */
+public class ExecutionPage {
+    public List<ExecutionDto> items;
+    public String nextCursor;
+}
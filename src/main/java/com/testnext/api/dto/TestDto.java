@@ -8,9 +8,11 @@ public class TestDto {
     public Long suiteId;
     public String name;
     public List<TestStepDto> steps;
+    public Map<String, Object> dataset;
 
     public static class TestStepDto {
         public Long stepDefinitionId;
         public Map<String, Object> parameters;
+        public Object assertions; // list of checks, or {"failFast": true, "checks": [...]}
     }
 }
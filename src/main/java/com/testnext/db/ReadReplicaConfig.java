@@ -0,0 +1,79 @@
+package com.testnext.db;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Application datasource with a read replica, active when
+ * {@code testnext.datasource.replica.url} is set (otherwise Spring Boot's single
+ * pool from {@code spring.datasource.*} is used unchanged).
+ *
+ * The primary pool is built from {@code spring.datasource.*}; the replica from
+ * {@code testnext.datasource.replica.}: {@code url}, {@code username},
+ * {@code password} (both default to the primary's), optional
+ * {@code driver-class-name} and {@code max-pool-size} (default 10). Methods marked
+ * {@code @Transactional(readOnly = true)} read from the replica while its lag is at
+ * most {@code max-lag-ms} (default 5000), measured every
+ * {@code lag-check-interval-ms} (default 1000) with {@code lag-query} (PostgreSQL
+ * streaming replication by default).
+ *
+ * The layers, outermost first: lazy connection proxy (defers the fetch until the
+ * read-only flag is known), {@link TenantRoutingDataSource} (added by
+ * {@link TenantDataSourceConfig}, sets search_path on whichever connection was
+ * chosen), {@link ReplicaRoutingDataSource} (chooses the pool).
+ */
+@Configuration
+@ConditionalOnProperty(name = "testnext.datasource.replica.url")
+public class ReadReplicaConfig {
+    static final String PG_LAG_QUERY = "SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+            + "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END";
+
+    @Bean(destroyMethod = "close")
+    public ReplicaRoutingDataSource replicaRoutingDataSource(Environment env, MeterRegistry meterRegistry) {
+        String r = "testnext.datasource.replica.";
+        HikariDataSource primary = pool("testnext-primary", env.getProperty("spring.datasource.url"),
+                env.getProperty("spring.datasource.username"), env.getProperty("spring.datasource.password"),
+                env.getProperty("spring.datasource.driver-class-name"),
+                env.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10));
+        HikariDataSource replica = pool("testnext-replica", env.getProperty(r + "url"),
+                env.getProperty(r + "username", env.getProperty("spring.datasource.username")),
+                env.getProperty(r + "password", env.getProperty("spring.datasource.password")),
+                env.getProperty(r + "driver-class-name", env.getProperty("spring.datasource.driver-class-name")),
+                env.getProperty(r + "max-pool-size", Integer.class, 10));
+        replica.setReadOnly(true);
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, replica,
+                env.getProperty(r + "lag-query", PG_LAG_QUERY), env.getProperty(r + "max-lag-ms", Long.class, 5000L))
+                .bindTo(meterRegistry);
+        routing.start(env.getProperty(r + "lag-check-interval-ms", Long.class, 1000L));
+        return routing;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource routing) {
+        // TenantDataSourceConfig adds tenant routing inside the proxy, as for the single-pool setup
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    private static HikariDataSource pool(String name, String url, String username, String password, String driver,
+            int maxPoolSize) {
+        HikariConfig cfg = new HikariConfig();
+        cfg.setPoolName(name);
+        cfg.setJdbcUrl(url);
+        cfg.setUsername(username);
+        cfg.setPassword(password);
+        if (driver != null)
+            cfg.setDriverClassName(driver);
+        cfg.setMaximumPoolSize(maxPoolSize);
+        return new HikariDataSource(cfg);
+    }
+}
@@ -0,0 +1,158 @@
+package com.testnext.db;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Sends connections of read-only transactions to a replica and everything else to
+ * the primary. The decision is made when the connection is fetched, so this must
+ * sit behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}:
+ * the transaction manager opens its connection before the read-only flag is
+ * published, the lazy proxy defers that until the first statement.
+ *
+ * The replica is used only while it is known to be close enough: {@link #checkLag}
+ * runs {@code lagQuery} on the replica and takes it out of rotation while the lag
+ * exceeds {@code maxLagMillis} or the query fails. A replica connection that
+ * cannot be opened falls back to the primary at once and marks the replica down
+ * until the next successful check.
+ */
+public class ReplicaRoutingDataSource implements DataSource, AutoCloseable {
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final String lagQuery;
+    private final long maxLagMillis;
+    private volatile boolean replicaUsable = true;
+    private volatile double lagSeconds;
+    private Counter primaryReads;
+    private Counter replicaReads;
+    private ScheduledExecutorService scheduler;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, String lagQuery, long maxLagMillis) {
+        this.primary = primary;
+        this.replica = replica;
+        this.lagQuery = lagQuery;
+        this.maxLagMillis = maxLagMillis;
+    }
+
+    /** Registers {@code datasource.reads} (by target) and {@code datasource.replica.lag} meters. */
+    public ReplicaRoutingDataSource bindTo(MeterRegistry registry) {
+        primaryReads = Counter.builder("datasource.reads").description("Read-only connections by target")
+                .tag("target", "primary").register(registry);
+        replicaReads = Counter.builder("datasource.reads").description("Read-only connections by target")
+                .tag("target", "replica").register(registry);
+        Gauge.builder("datasource.replica.lag", this, r -> r.lagSeconds).baseUnit("seconds")
+                .description("Replication lag at the last check").register(registry);
+        return this;
+    }
+
+    /** Checks the lag every {@code intervalMillis} on a daemon thread until {@link #close}. */
+    public synchronized void start(long intervalMillis) {
+        if (scheduler != null)
+            return;
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "testnext-replica-lag");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::checkLag, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /** Measures the replica's lag and updates whether reads may use it; returns the new state. */
+    public boolean checkLag() {
+        boolean usable;
+        try (Connection c = replica.getConnection(); Statement st = c.createStatement();
+                ResultSet rs = st.executeQuery(lagQuery)) {
+            lagSeconds = rs.next() ? rs.getDouble(1) : 0;
+            usable = lagSeconds * 1000 <= maxLagMillis;
+        } catch (SQLException | RuntimeException ex) {
+            log.debug("Replica lag check failed", ex);
+            usable = false;
+        }
+        if (usable != replicaUsable)
+            log.info(usable ? "Read replica back in rotation (lag {}s)" : "Read replica out of rotation (lag {}s)", lagSeconds);
+        replicaUsable = usable;
+        return usable;
+    }
+
+    public DataSource getPrimary() {
+        return primary;
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly())
+            return primary.getConnection();
+        if (replicaUsable) {
+            try {
+                Connection c = replica.getConnection();
+                if (replicaReads != null)
+                    replicaReads.increment();
+                return c;
+            } catch (SQLException ex) {
+                replicaUsable = false;
+                log.warn("Read replica unavailable, reading from the primary until the next lag check", ex);
+            }
+        }
+        if (primaryReads != null)
+            primaryReads.increment();
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    @Override
+    public synchronized void close() throws Exception {
+        if (scheduler != null)
+            scheduler.shutdownNow();
+        scheduler = null;
+        if (replica instanceof AutoCloseable c)
+            c.close();
+        if (primary instanceof AutoCloseable c)
+            c.close();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this))
+            return iface.cast(this);
+        return primary.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || primary.isWrapperFor(iface);
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException { return primary.getLogWriter(); }
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException { primary.setLogWriter(out); }
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException { primary.setLoginTimeout(seconds); }
+    @Override
+    public int getLoginTimeout() throws SQLException { return primary.getLoginTimeout(); }
+    @Override
+    public Logger getParentLogger() { try { return primary.getParentLogger(); } catch (Exception e) { throw new RuntimeException(e); } }
+}
@@ -0,0 +1,127 @@
+package com.testnext.db;
+
+import com.testnext.execution.CircuitBreaker;
+import com.testnext.execution.CircuitBreakerRegistry;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Connection pools for the databases that test steps run against (systems under
+ * test, not TestNext's own schema). A target is configured under
+ * {@code testnext.db.targets.<name>.}: {@code url}, {@code username}, {@code password},
+ * optional {@code driver-class-name} and {@code max-pool-size} (default 10).
+ *
+ * Each target gets one Hikari pool, created on first use. Prepared statements are
+ * cached by the JDBC driver per pooled connection; the driver settings for that
+ * are applied here for the drivers we ship (PostgreSQL and MySQL/MariaDB).
+ *
+ * Work run through {@link #withConnection} is guarded by the target's circuit
+ * breaker ({@code db:<name>}): once the database stops answering, steps against it
+ * fail at once instead of each waiting for a connection timeout.
+ */
+@Component
+public class TargetDataSources implements DisposableBean {
+    private final Environment env;
+    private final Map<String, HikariDataSource> pools = new ConcurrentHashMap<>();
+    private final CircuitBreakerRegistry circuits;
+
+    public TargetDataSources(Environment env) {
+        this.env = env;
+        this.circuits = new CircuitBreakerRegistry(env::getProperty, null);
+    }
+
+    /** Work done on a connection of a target. */
+    @FunctionalInterface
+    public interface SqlWork<T> {
+        T apply(Connection connection) throws SQLException;
+    }
+
+    /**
+     * Runs the work on a pooled connection of the target. Connection failures and
+     * timeouts count against the target's circuit; other SQL errors (syntax,
+     * constraints) mean the database answered and count as healthy calls.
+     */
+    public <T> T withConnection(String target, SqlWork<T> work) throws SQLException {
+        String name = target == null || target.isBlank() ? "default" : target;
+        CircuitBreaker circuit = circuits.get("db:" + name);
+        if (circuit != null)
+            circuit.acquire();
+        try (Connection c = get(name).getConnection()) {
+            T result = work.apply(c);
+            if (circuit != null)
+                circuit.onSuccess();
+            return result;
+        } catch (SQLException ex) {
+            if (circuit != null) {
+                if (isConnectionFailure(ex))
+                    circuit.onFailure();
+                else
+                    circuit.onSuccess();
+            }
+            throw ex;
+        } catch (RuntimeException ex) {
+            if (circuit != null)
+                circuit.onIgnored();
+            throw ex;
+        }
+    }
+
+    private static boolean isConnectionFailure(SQLException ex) {
+        String state = ex.getSQLState();
+        return ex instanceof SQLTransientConnectionException || ex instanceof SQLNonTransientConnectionException
+                || ex instanceof SQLTimeoutException || ex instanceof SQLRecoverableException
+                || (state != null && state.startsWith("08"));
+    }
+
+    public DataSource get(String target) {
+        String name = target == null || target.isBlank() ? "default" : target;
+        return pools.computeIfAbsent(name, this::create);
+    }
+
+    private HikariDataSource create(String name) {
+        String prefix = "testnext.db.targets." + name + ".";
+        String url = env.getProperty(prefix + "url");
+        if (url == null)
+            throw new IllegalArgumentException("Unknown database target: " + name);
+
+        HikariConfig cfg = new HikariConfig();
+        cfg.setPoolName("testnext-target-" + name);
+        cfg.setJdbcUrl(url);
+        cfg.setUsername(env.getProperty(prefix + "username"));
+        cfg.setPassword(env.getProperty(prefix + "password"));
+        String driver = env.getProperty(prefix + "driver-class-name");
+        if (driver != null)
+            cfg.setDriverClassName(driver);
+        cfg.setMaximumPoolSize(env.getProperty(prefix + "max-pool-size", Integer.class, 10));
+        cfg.setMinimumIdle(0); // targets used by one suite should not hold connections afterwards
+        if (url.startsWith("jdbc:postgresql:")) {
+            cfg.addDataSourceProperty("prepareThreshold", "1");
+            cfg.addDataSourceProperty("preparedStatementCacheQueries", "256");
+        } else if (url.startsWith("jdbc:mysql:") || url.startsWith("jdbc:mariadb:")) {
+            cfg.addDataSourceProperty("cachePrepStmts", "true");
+            cfg.addDataSourceProperty("prepStmtCacheSize", "256");
+            cfg.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+            cfg.addDataSourceProperty("useServerPrepStmts", "true");
+        }
+        return new HikariDataSource(cfg);
+    }
+
+    @Override
+    public void destroy() {
+        pools.values().forEach(HikariDataSource::close);
+        pools.clear();
+    }
+}
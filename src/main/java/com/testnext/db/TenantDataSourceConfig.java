@@ -0,0 +1,39 @@
+package com.testnext.db;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Puts {@link TenantRoutingDataSource} inside the lazy connection proxy of
+ * {@link ReadReplicaConfig}, so search_path is set on the connection actually
+ * chosen once the read-only flag is known. Spring Boot's single pool (no replica
+ * configured) is only wrapped when {@code testnext.datasource.tenant-routing.enabled}
+ * is true: with routing, requests carrying a tenant read that tenant's schema
+ * instead of public, so turn it on once tenant data lives in tenant schemas.
+ */
+@Configuration
+public class TenantDataSourceConfig {
+
+    @Bean
+    public static BeanPostProcessor tenantRoutingDataSourcePostProcessor(Environment env) {
+        boolean singlePool = env.getProperty("testnext.datasource.tenant-routing.enabled", Boolean.class, false);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!"dataSource".equals(beanName) || !(bean instanceof DataSource ds) || bean instanceof TenantRoutingDataSource)
+                    return bean;
+                if (bean instanceof LazyConnectionDataSourceProxy lazy) {
+                    if (lazy.getTargetDataSource() instanceof ReplicaRoutingDataSource replicas)
+                        lazy.setTargetDataSource(new TenantRoutingDataSource(replicas));
+                    return lazy;
+                }
+                return singlePool ? new TenantRoutingDataSource(ds) : bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,333 @@
+package com.testnext.db;
+
+import com.testnext.repository.TenantRepository;
+import com.testnext.tenant.entity.TenantEntity;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Versioned migrations for tenant schemas. Scripts live in
+ * {@code classpath:db/tenant/V<version>__<description>.sql} and are applied in
+ * version order; each schema records what it has applied in its own
+ * {@code tenant_schema_history} table, so a schema only runs the versions it is
+ * missing. A migration and its history row commit together (on PostgreSQL, where
+ * DDL is transactional), under an advisory lock per schema so two nodes starting at
+ * once do not both apply it; within one node a schema is migrated by one caller at
+ * a time.
+ *
+ * Scripts are plain SQL split on {@code ;} at line ends, with placeholders
+ * {@code ${schema}} (the quoted schema), {@code ${text}} and {@code ${bytes}} (large
+ * text and binary types of the database in use).
+ *
+ * {@link #migrateAll} brings every registered tenant up to date, running
+ * {@code testnext.tenant-migrations.concurrency} schemas at a time (default 8; keep
+ * it below the connection pool size). It runs at startup unless
+ * {@code testnext.tenant-migrations.on-startup=false}, before other startup work
+ * that reads tenant schemas. A failing schema is reported and does not stop the
+ * others; {@link #progress} shows how far the current or last run got. Only one
+ * run is in flight at a time: starting another, synchronously or with
+ * {@link #startAll}, fails with IllegalStateException until it finishes.
+ */
+@Component
+public class TenantMigrationRunner implements DisposableBean {
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(TenantMigrationRunner.class);
+    private static final Pattern SCRIPT = Pattern.compile("V(\\d+)__(.+)\\.sql");
+    private static final String HISTORY = "tenant_schema_history";
+
+    public record Migration(int version, String description, String sql, long checksum) {
+    }
+
+    /** Snapshot of a {@link #migrateAll} run; {@code failures} maps schema to error. */
+    public record Progress(boolean running, Instant startedAt, Instant finishedAt, int total, int completed,
+            int migrated, int failed, int latestVersion, Map<String, String> failures) {
+    }
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final TenantRepository tenantRepository;
+    private final Environment env;
+    private final List<Migration> migrations;
+    private final Map<String, Object> schemaLocks = new java.util.concurrent.ConcurrentHashMap<>();
+    private final ExecutorService background = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "testnext-tenant-migrate-all");
+        t.setDaemon(true);
+        return t;
+    });
+    private volatile String dialect;
+    private volatile Run current;
+
+    public TenantMigrationRunner(JdbcTemplate jdbc, PlatformTransactionManager transactionManager,
+            TenantRepository tenantRepository, Environment env) {
+        this(jdbc, transactionManager, tenantRepository, env, load("classpath:db/tenant/V*__*.sql"));
+    }
+
+    TenantMigrationRunner(JdbcTemplate jdbc, PlatformTransactionManager transactionManager,
+            TenantRepository tenantRepository, Environment env, List<Migration> migrations) {
+        this.jdbc = jdbc;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.tenantRepository = tenantRepository;
+        this.env = env;
+        this.migrations = migrations;
+    }
+
+    static List<Migration> load(String pattern) {
+        try {
+            List<Migration> out = new ArrayList<>();
+            for (Resource r : new PathMatchingResourcePatternResolver().getResources(pattern)) {
+                Matcher m = SCRIPT.matcher(r.getFilename());
+                if (!m.matches())
+                    continue;
+                String sql = r.getContentAsString(StandardCharsets.UTF_8);
+                CRC32 crc = new CRC32();
+                crc.update(sql.getBytes(StandardCharsets.UTF_8));
+                out.add(new Migration(Integer.parseInt(m.group(1)), m.group(2).replace('_', ' '), sql, crc.getValue()));
+            }
+            out.sort(Comparator.comparingInt(Migration::version));
+            for (int i = 1; i < out.size(); i++) {
+                if (out.get(i).version() == out.get(i - 1).version())
+                    throw new IllegalStateException("Duplicate tenant migration version " + out.get(i).version());
+            }
+            return List.copyOf(out);
+        } catch (IOException ex) {
+            throw new RuntimeException("Failed to load tenant migrations", ex);
+        }
+    }
+
+    public int latestVersion() {
+        return migrations.isEmpty() ? 0 : migrations.get(migrations.size() - 1).version();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onStartup() {
+        if (env.getProperty("testnext.tenant-migrations.on-startup", Boolean.class, true))
+            migrateAll();
+    }
+
+    /**
+     * Creates the schema if needed and applies the migrations it is missing.
+     * Returns the number applied.
+     */
+    public int migrate(String schemaName) {
+        if (schemaName == null || !schemaName.matches("[A-Za-z0-9_-]+"))
+            throw new IllegalArgumentException("Invalid schema name: " + schemaName);
+        // provisioning and a migrateAll run may reach the same schema at once; the
+        // advisory lock only covers PostgreSQL, so callers on this node take turns
+        synchronized (schemaLocks.computeIfAbsent(schemaName, k -> new Object())) {
+            return migrateLocked(schemaName);
+        }
+    }
+
+    private int migrateLocked(String schemaName) {
+        String schema = "\"" + schemaName + "\"";
+        jdbc.execute("CREATE SCHEMA IF NOT EXISTS " + schema);
+        jdbc.execute("CREATE TABLE IF NOT EXISTS " + schema + "." + HISTORY + " ("
+                + "version INT PRIMARY KEY, description VARCHAR(255) NOT NULL, checksum BIGINT NOT NULL, "
+                + "applied_at TIMESTAMP NOT NULL)");
+        Map<Integer, Long> applied = new LinkedHashMap<>();
+        jdbc.query("SELECT version, checksum FROM " + schema + "." + HISTORY,
+                rs -> { applied.put(rs.getInt(1), rs.getLong(2)); });
+        int count = 0;
+        for (Migration m : migrations) {
+            Long checksum = applied.get(m.version());
+            if (checksum != null) {
+                if (checksum != m.checksum())
+                    log.warn("Tenant migration V{} changed after it was applied to {}", m.version(), schemaName);
+                continue;
+            }
+            Boolean ran = tx.execute(status -> apply(schemaName, schema, m));
+            if (Boolean.TRUE.equals(ran))
+                count++;
+        }
+        return count;
+    }
+
+    private boolean apply(String schemaName, String schema, Migration m) {
+        if ("postgresql".equals(dialect())) {
+            jdbc.queryForList("SELECT pg_advisory_xact_lock(hashtext(?))", "testnext-migrate:" + schemaName);
+            Integer done = jdbc.queryForObject("SELECT COUNT(*) FROM " + schema + "." + HISTORY + " WHERE version = ?",
+                    Integer.class, m.version());
+            if (done != null && done > 0)
+                return false; // another node got here first
+        }
+        for (String statement : statements(m.sql(), schema, dialect()))
+            jdbc.execute(statement);
+        jdbc.update("INSERT INTO " + schema + "." + HISTORY + " (version, description, checksum, applied_at) VALUES (?, ?, ?, ?)",
+                m.version(), m.description(), m.checksum(), Timestamp.from(Instant.now()));
+        log.debug("Applied tenant migration V{} ({}) to {}", m.version(), m.description(), schemaName);
+        return true;
+    }
+
+    /** Splits a script into statements and fills in the placeholders. */
+    static List<String> statements(String sql, String schema, String dialect) {
+        boolean pg = "postgresql".equals(dialect);
+        StringBuilder body = new StringBuilder();
+        for (String line : sql.split("\n")) {
+            if (!line.trim().startsWith("--"))
+                body.append(line).append('\n');
+        }
+        String filled = body.toString()
+                .replace("${schema}", schema)
+                .replace("${text}", pg ? "TEXT" : "CLOB")
+                .replace("${bytes}", pg ? "BYTEA" : "BLOB");
+        List<String> out = new ArrayList<>();
+        for (String s : filled.split(";\\s*\n")) {
+            if (!s.isBlank())
+                out.add(s.trim().replaceAll(";$", ""));
+        }
+        return out;
+    }
+
+    private String dialect() {
+        String d = dialect;
+        if (d == null) {
+            d = jdbc.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName().toLowerCase());
+            dialect = d;
+        }
+        return d;
+    }
+
+    /**
+     * Brings every registered tenant schema up to date, several at a time, and
+     * returns the final progress.
+     */
+    public Progress migrateAll() {
+        execute(begin());
+        return progress();
+    }
+
+    /**
+     * Starts {@link #migrateAll} in the background and returns the progress of the
+     * run just started.
+     */
+    public Progress startAll() {
+        Run run = begin();
+        background.execute(() -> {
+            try {
+                execute(run);
+            } catch (RuntimeException ex) {
+                log.error("Tenant migrations failed", ex);
+            }
+        });
+        return progress();
+    }
+
+    /** Creates the next run, or fails when one is still in flight. */
+    private synchronized Run begin() {
+        Run previous = current;
+        if (previous != null && previous.finishedAt == null)
+            throw new IllegalStateException("Tenant migrations are already running");
+        Set<String> schemas = new HashSet<>();
+        for (TenantEntity t : tenantRepository.findAll()) {
+            if (t.getSchemaName() != null && !t.getSchemaName().isBlank())
+                schemas.add(t.getSchemaName());
+        }
+        Run run = new Run(schemas);
+        current = run;
+        return run;
+    }
+
+    private void execute(Run run) {
+        Set<String> schemas = run.schemas;
+        int concurrency = Math.max(1, env.getProperty("testnext.tenant-migrations.concurrency", Integer.class, 8));
+        log.info("Migrating {} tenant schema(s) to V{}, {} at a time", schemas.size(), latestVersion(), concurrency);
+        int step = Math.max(1, schemas.size() / 10);
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency, r -> {
+            Thread t = new Thread(r, "testnext-tenant-migrate");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (String schema : schemas) {
+                futures.add(workers.submit(() -> {
+                    try {
+                        if (migrate(schema) > 0)
+                            run.migrated.incrementAndGet();
+                    } catch (Exception ex) {
+                        log.warn("Tenant migration failed for schema {}", schema, ex);
+                        run.failures.put(schema, String.valueOf(ex.getMessage()));
+                    }
+                    int done = run.completed.incrementAndGet();
+                    if (done % step == 0 && done < run.total)
+                        log.info("Tenant migrations: {}/{} schema(s) done, {} failed", done, run.total, run.failures.size());
+                }));
+            }
+            for (Future<?> f : futures)
+                f.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (java.util.concurrent.ExecutionException ex) {
+            throw new RuntimeException("Tenant migration worker failed", ex.getCause());
+        } finally {
+            workers.shutdownNow();
+            run.finishedAt = Instant.now();
+        }
+        log.info("Tenant migrations finished in {} ms: {} schema(s), {} migrated, {} failed",
+                run.finishedAt.toEpochMilli() - run.startedAt.toEpochMilli(), run.total, run.migrated.get(),
+                run.failures.size());
+    }
+
+    @Override
+    public void destroy() {
+        background.shutdownNow();
+    }
+
+    /** Progress of the run in flight, or of the last one; all zero before the first run. */
+    public Progress progress() {
+        Run run = current;
+        if (run == null)
+            return new Progress(false, null, null, 0, 0, 0, 0, latestVersion(), Map.of());
+        Map<String, String> failures;
+        synchronized (run.failures) {
+            failures = new LinkedHashMap<>(run.failures);
+        }
+        return new Progress(run.finishedAt == null, run.startedAt, run.finishedAt, run.total, run.completed.get(),
+                run.migrated.get(), failures.size(), latestVersion(), failures);
+    }
+
+    private static final class Run {
+        final Set<String> schemas;
+        final int total;
+        final Instant startedAt = Instant.now();
+        volatile Instant finishedAt;
+        final AtomicInteger completed = new AtomicInteger();
+        final AtomicInteger migrated = new AtomicInteger();
+        final Map<String, String> failures = java.util.Collections.synchronizedMap(new LinkedHashMap<>());
+
+        Run(Set<String> schemas) {
+            this.schemas = schemas;
+            this.total = schemas.size();
+        }
+    }
+}
@@ -1,62 +1,117 @@
 package com.testnext.db;
 
-import com.testnext.tenant.SchemaNameValidator;
 import com.testnext.tenant.TenantContext;
 import javax.sql.DataSource;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
-// DataSource wrapper that sets search_path per connection. Uses SchemaNameValidator to sanitize and validate.
+/**
+ * DataSource wrapper that sets search_path on the connections it hands out: the
+ * current tenant's schema (then public) when {@link TenantContext} has one, plain
+ * public otherwise. Pooled connections keep session settings between borrowers, so
+ * a connection last used for tenant A must not serve a request without a tenant
+ * from A's schema; the path each physical connection was last given is remembered,
+ * and the {@code SET} is only sent when the borrower needs a different one.
+ *
+ * Tenant schemas follow the naming and quoting of {@link TenantMigrationRunner}
+ * ({@code [A-Za-z0-9_-]+}, used as a quoted identifier) and must be registered in
+ * {@code public.tenants}; registered names are remembered. Only PostgreSQL
+ * connections are routed; other databases (H2 in dev and tests) keep every tenant
+ * in one schema and are passed through untouched.
+ */
 public class TenantRoutingDataSource implements DataSource {
+    private static final java.util.regex.Pattern SCHEMA = java.util.regex.Pattern.compile("[A-Za-z0-9_-]+");
+    private static final String PUBLIC = "public";
+
     private final DataSource delegate;
-    private final SchemaNameValidator schemaValidator; // optional, can be null for basic validation
+    private final Set<String> registered = ConcurrentHashMap.newKeySet();
+    // physical connection -> search_path it was last given; weak so closed connections drop out
+    private final Map<Connection, String> paths = java.util.Collections.synchronizedMap(new java.util.WeakHashMap<>());
+    private volatile Boolean postgres;
 
     public TenantRoutingDataSource(DataSource delegate) {
-        this(delegate, null);
-    }
-
-    public TenantRoutingDataSource(DataSource delegate, SchemaNameValidator schemaValidator) {
         this.delegate = delegate;
-        this.schemaValidator = schemaValidator;
     }
 
     @Override
     public Connection getConnection() throws SQLException {
-        Connection c = delegate.getConnection();
-        TenantContext.getTenant().ifPresent(schema -> applyTenantSchema(c, schema));
-        return c;
+        return route(delegate.getConnection());
     }
 
     @Override
     public Connection getConnection(String username, String password) throws SQLException {
-        Connection c = delegate.getConnection(username, password);
-        TenantContext.getTenant().ifPresent(schema -> applyTenantSchema(c, schema));
-        return c;
+        return route(delegate.getConnection(username, password));
     }
 
-    private void applyTenantSchema(Connection c, String schema) {
+    private Connection route(Connection c) throws SQLException {
         try {
-            String safeSchema = schema;
-            if (schemaValidator != null) {
-                // sanitize and validate against central registry; will throw IllegalArgumentException if invalid
-                safeSchema = schemaValidator.sanitizeAndValidate(schema);
-            } else {
-                // Basic sanitation: lowercase and remove unsafe chars (best-effort). Prefer providing a SchemaNameValidator.
-                safeSchema = schema.toLowerCase().replaceAll("[^a-z0-9_]+", "_");
+            if (!isPostgres(c))
+                return c;
+            String tenant = TenantContext.getTenant().orElse(null);
+            String path = tenant == null ? PUBLIC : "\"" + tenantSchema(c, tenant) + "\"," + PUBLIC;
+            Connection physical = physical(c);
+            if (path.equals(paths.get(physical)))
+                return c;
+            try (Statement st = c.createStatement()) {
+                st.execute("SET search_path TO " + path);
+            }
+            if (c.getAutoCommit())
+                paths.put(physical, path);
+            else
+                paths.remove(physical); // a rollback of the open transaction would undo the SET
+            return c;
+        } catch (SQLException | RuntimeException e) {
+            c.close(); // never hand out a connection whose search_path is unknown
+            throw e;
+        }
+    }
+
+    /** The pooled connection behind the pool's per-checkout proxy. */
+    private static Connection physical(Connection c) throws SQLException {
+        Connection target = c.isWrapperFor(Connection.class) ? c.unwrap(Connection.class) : null;
+        return target == null ? c : target;
+    }
+
+    private String tenantSchema(Connection c, String schema) throws SQLException {
+        if (!SCHEMA.matcher(schema).matches())
+            throw new IllegalArgumentException("Invalid tenant schema: " + schema);
+        if (!registered.contains(schema)) {
+            // checked on the connection being routed, so validation never needs a second pooled connection
+            try (PreparedStatement ps = c.prepareStatement("SELECT 1 FROM public.tenants WHERE schema_name = ?")) {
+                ps.setString(1, schema);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (!rs.next())
+                        throw new IllegalArgumentException("Unknown tenant schema: " + schema);
+                }
             }
-            // safeSchema should now match pattern [a-z][a-z0-9_]*
-            c.createStatement().execute("SET search_path TO " + safeSchema + ",public");
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
+            registered.add(schema);
         }
+        return schema;
     }
 
-    // ... delegate other DataSource methods
+    private boolean isPostgres(Connection c) throws SQLException {
+        Boolean pg = postgres;
+        if (pg == null) {
+            pg = c.getMetaData().getDatabaseProductName().toLowerCase().contains("postgresql");
+            postgres = pg;
+        }
+        return pg;
+    }
 
     @Override
-    public <T> T unwrap(Class<T> iface) throws SQLException { return delegate.unwrap(iface); }
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this))
+            return iface.cast(this);
+        return delegate.unwrap(iface);
+    }
     @Override
-    public boolean isWrapperFor(Class<?> iface) throws SQLException { return delegate.isWrapperFor(iface); }
+    public boolean isWrapperFor(Class<?> iface) throws SQLException { return iface.isInstance(this) || delegate.isWrapperFor(iface); }
     @Override
     public java.io.PrintWriter getLogWriter() throws SQLException { return delegate.getLogWriter(); }
     @Override
@@ -0,0 +1,94 @@
+package com.testnext.execution;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Batch invocation of a step: a step whose parameters contain {@code batchRows}
+ * (a list of maps) runs once per row through {@link StepExecutor#executeBatch},
+ * each row overlaid on the step's other parameters.
+ *
+ * The per-row results are folded into a single result in columnar form, so a batch
+ * of thousands of rows is persisted as one row with the output keys written once:
+ * {@code {"batch": {"rows": n, "succeeded": k, "failed": m}, "columns": [...],
+ * "values": [[...], ...], "errors": {"12": "..."}}}.
+ */
+public final class BatchResults {
+    public static final String ROWS_PARAMETER = "batchRows";
+
+    private BatchResults() {
+    }
+
+    /** True when the parameters ask for a batch invocation. */
+    public static boolean isBatch(Map<String, Object> parameters) {
+        return parameters != null && parameters.get(ROWS_PARAMETER) instanceof List<?>;
+    }
+
+    /** The per-row parameter maps: shared parameters overlaid by each row. */
+    @SuppressWarnings("unchecked")
+    public static List<Map<String, Object>> rows(Map<String, Object> parameters) {
+        List<?> batch = (List<?>) parameters.get(ROWS_PARAMETER);
+        Map<String, Object> shared = new LinkedHashMap<>(parameters);
+        shared.remove(ROWS_PARAMETER);
+        List<Map<String, Object>> rows = new ArrayList<>(batch.size());
+        for (Object row : batch) {
+            Map<String, Object> merged = new LinkedHashMap<>(shared);
+            if (row instanceof Map<?, ?> m)
+                merged.putAll((Map<String, Object>) m);
+            rows.add(merged);
+        }
+        return rows;
+    }
+
+    /** Runs the batch on the executor and folds the row results into one result. */
+    public static StepResult execute(StepExecutor executor, String stepDefinitionId, Map<String, Object> parameters)
+            throws Exception {
+        List<Map<String, Object>> rows = rows(parameters);
+        List<StepResult> results = executor.executeBatch(stepDefinitionId, rows);
+        if (results.size() != rows.size())
+            return new StepResult(false, null,
+                    "Batch step returned " + results.size() + " results for " + rows.size() + " rows");
+        return combine(results);
+    }
+
+    public static StepResult combine(List<StepResult> results) {
+        Set<String> columns = new LinkedHashSet<>();
+        for (StepResult r : results) {
+            if (r.getOutput() != null)
+                columns.addAll(r.getOutput().keySet());
+        }
+        List<String> cols = new ArrayList<>(columns);
+        List<List<Object>> values = new ArrayList<>(results.size());
+        Map<String, String> errors = new LinkedHashMap<>();
+        int failed = 0;
+        for (int i = 0; i < results.size(); i++) {
+            StepResult r = results.get(i);
+            List<Object> row = new ArrayList<>(cols.size());
+            for (String c : cols)
+                row.add(r.getOutput() == null ? null : r.getOutput().get(c));
+            values.add(row);
+            if (!r.isSuccess()) {
+                failed++;
+                errors.put(String.valueOf(i), r.getErrorMessage());
+            }
+        }
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("rows", results.size());
+        summary.put("succeeded", results.size() - failed);
+        summary.put("failed", failed);
+        Map<String, Object> output = new LinkedHashMap<>();
+        output.put("batch", summary);
+        output.put("columns", cols);
+        output.put("values", values);
+        if (!errors.isEmpty())
+            output.put("errors", errors);
+        String error = failed == 0 ? null
+                : failed + " of " + results.size() + " rows failed: " + errors.values().iterator().next();
+        return new StepResult(failed == 0, output, error);
+    }
+}
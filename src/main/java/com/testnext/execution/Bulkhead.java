@@ -0,0 +1,132 @@
+package com.testnext.execution;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit shared by all steps of one bulkhead group.
+ *
+ * Permits are taken with {@link #tryAcquire()} and never block. A caller that
+ * cannot get a permit parks a continuation with {@link #onAvailable(Runnable)}
+ * and gives its worker thread back; the continuation runs when a permit is
+ * released and must try to acquire again, since another caller may win the race.
+ * Waiters are woken in the order they parked. A caller that stops waiting (its
+ * execution ended, or it timed out) cancels its {@link Waiter}; a wake-up it
+ * already received is handed to the next waiter, so none is lost.
+ */
+public class Bulkhead {
+    private final String name;
+    private volatile int maxConcurrent;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+
+    public Bulkhead(String name, int maxConcurrent) {
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+    }
+
+    public boolean tryAcquire() {
+        for (;;) {
+            int current = inFlight.get();
+            if (current >= maxConcurrent)
+                return false;
+            if (inFlight.compareAndSet(current, current + 1))
+                return true;
+        }
+    }
+
+    public void release() {
+        inFlight.decrementAndGet();
+        wakeOne();
+    }
+
+    /**
+     * Runs the callback once a permit may be free; the callback runs on the
+     * releasing thread. Returns the waiter, to cancel it when no longer needed.
+     */
+    public Waiter onAvailable(Runnable callback) {
+        Waiter waiter = new Waiter(callback);
+        waiters.add(waiter);
+        // a release may have happened between the failed tryAcquire and the add above
+        if (inFlight.get() < maxConcurrent)
+            wakeOne();
+        return waiter;
+    }
+
+    private void wakeOne() {
+        Waiter next;
+        while ((next = waiters.poll()) != null) {
+            if (next.fire())
+                return;
+            // cancelled: its wake-up goes to the next one
+        }
+    }
+
+    /** A parked continuation; runs at most once, or never once cancelled. */
+    public final class Waiter {
+        private static final int WAITING = 0, FIRED = 1, CANCELLED = 2;
+        private final Runnable callback;
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+
+        private Waiter(Runnable callback) {
+            this.callback = callback;
+        }
+
+        private boolean fire() {
+            if (!state.compareAndSet(WAITING, FIRED))
+                return false;
+            callback.run();
+            return true;
+        }
+
+        /**
+         * Stops waiting. If the waiter was already woken, the wake-up may not have
+         * been acted on, so it is passed to the next waiter.
+         */
+        public void cancel() {
+            if (state.compareAndSet(WAITING, CANCELLED)) {
+                waiters.remove(this);
+            } else if (state.compareAndSet(FIRED, CANCELLED) && inFlight.get() < maxConcurrent) {
+                wakeOne();
+            }
+        }
+    }
+
+    /**
+     * Blocking acquire for callers that run on their own (virtual) thread and can
+     * afford to wait: parks until a permit is taken or the timeout passes.
+     */
+    public boolean tryAcquire(long timeout, java.util.concurrent.TimeUnit unit) throws InterruptedException {
+        long timeoutNanos = unit.toNanos(timeout);
+        long start = System.nanoTime(); // elapsed time is compared, so Long.MAX_VALUE means no timeout
+        while (!tryAcquire()) {
+            java.util.concurrent.CompletableFuture<Void> available = new java.util.concurrent.CompletableFuture<>();
+            Waiter waiter = onAvailable(() -> available.complete(null));
+            long remaining = timeoutNanos - (System.nanoTime() - start);
+            try {
+                available.get(Math.max(0, remaining), java.util.concurrent.TimeUnit.NANOSECONDS);
+            } catch (java.util.concurrent.TimeoutException ex) {
+                waiter.cancel();
+                return false;
+            } catch (InterruptedException ex) {
+                waiter.cancel();
+                throw ex;
+            } catch (java.util.concurrent.ExecutionException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+        return true;
+    }
+
+    /** Lowers the limit when another declaration of the group is stricter. */
+    synchronized void tightenTo(int limit) {
+        if (limit < maxConcurrent)
+            maxConcurrent = limit;
+    }
+
+    public String getName() { return name; }
+    public int getMaxConcurrent() { return maxConcurrent; }
+    public int getInFlight() { return inFlight.get(); }
+    public int getWaiting() { return waiters.size(); }
+}
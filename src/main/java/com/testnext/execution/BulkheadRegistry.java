@@ -0,0 +1,28 @@
+package com.testnext.execution;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Named bulkhead groups. Steps declaring the same group share one limit; when
+ * several declarations disagree, the smallest limit wins.
+ */
+public class BulkheadRegistry {
+    private final Map<String, Bulkhead> groups = new ConcurrentHashMap<>();
+
+    /**
+     * Declares a group and returns its bulkhead, or null when no limit applies
+     * ({@code maxConcurrent <= 0} or no group name).
+     */
+    public Bulkhead define(String group, int maxConcurrent) {
+        if (group == null || group.isBlank() || maxConcurrent <= 0)
+            return null;
+        Bulkhead bulkhead = groups.computeIfAbsent(group, g -> new Bulkhead(g, maxConcurrent));
+        bulkhead.tightenTo(maxConcurrent);
+        return bulkhead;
+    }
+
+    public Bulkhead get(String group) {
+        return group == null ? null : groups.get(group);
+    }
+}
@@ -0,0 +1,105 @@
+package com.testnext.execution;
+
+/**
+ * Circuit breaker for one downstream target (an HTTP host or a database).
+ *
+ * While closed, calls pass and consecutive failures are counted; reaching
+ * {@code failureThreshold} opens the circuit. While open, {@link #tryAcquire()}
+ * refuses at once, so steps fail instantly instead of waiting out their timeouts.
+ * After {@code openMillis} the circuit is half-open: up to {@code halfOpenProbes}
+ * calls are let through, the first success closes it and a failure opens it again.
+ *
+ * Callers report every acquired call with {@link #onSuccess()}, {@link #onFailure()}
+ * or, when the outcome says nothing about the target's health, {@link #onIgnored()}.
+ */
+public class CircuitBreaker {
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(CircuitBreaker.class);
+
+    private final String key;
+    private final int failureThreshold;
+    private final long openNanos;
+    private final int halfOpenProbes;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private int probesInFlight;
+
+    public CircuitBreaker(String key, int failureThreshold, long openMillis, int halfOpenProbes) {
+        this.key = key;
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openNanos = openMillis * 1_000_000L;
+        this.halfOpenProbes = Math.max(1, halfOpenProbes);
+    }
+
+    /** True when the call may go ahead; false while the circuit is open or all probes are out. */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAt < openNanos)
+                return false;
+            transition(State.HALF_OPEN);
+            probesInFlight = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesInFlight >= halfOpenProbes)
+                return false;
+            probesInFlight++;
+        }
+        return true;
+    }
+
+    /** Acquires or throws {@link CircuitOpenException}. */
+    public void acquire() {
+        if (!tryAcquire())
+            throw new CircuitOpenException(key, retryAfterMillis());
+    }
+
+    public synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        if (state == State.HALF_OPEN)
+            transition(State.CLOSED);
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        if (state == State.CLOSED && ++consecutiveFailures >= failureThreshold)
+            open();
+    }
+
+    public synchronized void onIgnored() {
+        if (state == State.HALF_OPEN && probesInFlight > 0)
+            probesInFlight--;
+    }
+
+    private void open() {
+        transition(State.OPEN);
+        openedAt = System.nanoTime();
+        consecutiveFailures = 0;
+    }
+
+    private void transition(State next) {
+        if (state != next)
+            log.info("Circuit {} {} -> {}", key, state, next);
+        state = next;
+    }
+
+    /** Milliseconds until an open circuit lets a probe through (0 when not open). */
+    public synchronized long retryAfterMillis() {
+        if (state != State.OPEN)
+            return 0;
+        return Math.max(0, (openNanos - (System.nanoTime() - openedAt)) / 1_000_000L);
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public String getKey() {
+        return key;
+    }
+}
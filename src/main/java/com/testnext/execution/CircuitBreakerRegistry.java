@@ -0,0 +1,62 @@
+package com.testnext.execution;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Circuit breakers by target key, e.g. {@code http:api.example.com:443} or
+ * {@code db:default}. Breakers live as long as the registry, so all executions on
+ * the node share the state of a target.
+ *
+ * Settings come from {@code testnext.circuit.}: {@code failure-threshold} (5),
+ * {@code open-ms} (30000) and {@code half-open-probes} (1), each overridable per
+ * key with the key's colon replaced by a dot, e.g.
+ * {@code testnext.circuit.db.reporting.open-ms}. {@code testnext.circuit.enabled=false}
+ * turns breakers off.
+ */
+public class CircuitBreakerRegistry {
+    private static final String PREFIX = "testnext.circuit.";
+
+    private final Function<String, String> properties;
+    private final MeterRegistry meterRegistry; // optional
+    private final boolean enabled;
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    public CircuitBreakerRegistry(Function<String, String> properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.enabled = !"false".equals(properties.apply(PREFIX + "enabled"));
+    }
+
+    /** Breaker of the target, or null when breakers are disabled. */
+    public CircuitBreaker get(String key) {
+        if (!enabled)
+            return null;
+        return breakers.computeIfAbsent(key, this::create);
+    }
+
+    private CircuitBreaker create(String key) {
+        String own = PREFIX + key.replace(':', '.') + ".";
+        CircuitBreaker cb = new CircuitBreaker(key,
+                (int) setting(own, "failure-threshold", 5),
+                setting(own, "open-ms", 30_000),
+                (int) setting(own, "half-open-probes", 1));
+        if (meterRegistry != null)
+            Gauge.builder("circuit.state", cb, b -> b.getState().ordinal())
+                    .description("Circuit state per downstream target: 0 closed, 1 open, 2 half-open")
+                    .tag("target", key)
+                    .register(meterRegistry);
+        return cb;
+    }
+
+    private long setting(String own, String name, long defaultValue) {
+        String v = properties.apply(own + name);
+        if (v == null)
+            v = properties.apply(PREFIX + name);
+        return v == null ? defaultValue : Long.parseLong(v.trim());
+    }
+}
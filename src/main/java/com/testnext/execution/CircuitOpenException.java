@@ -0,0 +1,16 @@
+package com.testnext.execution;
+
+/** Thrown instead of calling a downstream target whose circuit is open. */
+public class CircuitOpenException extends RuntimeException {
+    private final String key;
+    private final long retryAfterMillis;
+
+    public CircuitOpenException(String key, long retryAfterMillis) {
+        super("Circuit open for " + key + ", retry in " + retryAfterMillis + " ms");
+        this.key = key;
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    public String getKey() { return key; }
+    public long getRetryAfterMillis() { return retryAfterMillis; }
+}
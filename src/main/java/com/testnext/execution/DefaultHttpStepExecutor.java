@@ -1,31 +1,194 @@
 package com.testnext.execution;
 
-import java.net.http.HttpClient;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.testnext.execution.http.HttpArchive;
+import com.testnext.execution.http.HttpArchives;
+import com.testnext.execution.http.HttpClientPool;
+import com.testnext.execution.http.LoadDriver;
+import com.testnext.execution.http.RequestMatcher;
+import com.testnext.execution.http.ResponseExpectations;
+import com.testnext.execution.http.StreamingBodyHandler;
+import com.testnext.tenant.TenantContext;
+
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.net.URI;
+import java.nio.file.Path;
 import java.time.Duration;
+import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.Set;
 
 /**
- * Example executor that performs HTTP requests for 'HTTP Request' step definitions.
- * In production use a robust HTTP client and proper timeout/retry handling.
+ * Executor for 'HTTP Request' step definitions.
+ *
+ * Parameters: {@code url} (required), {@code method} (default GET), {@code headers}
+ * (map of name to value or list of values), {@code body} (string, or any other value
+ * sent as JSON), {@code timeoutMs} and {@code profile} (client profile, see
+ * {@link HttpClientPool}). Requests go through the tenant's pooled client and the
+ * per-host concurrency limit.
+ *
+ * Response bodies are streamed: up to {@code maxBodyBytes} (default from
+ * configuration) are returned inline, a larger body is spilled to an artifact file
+ * referenced by {@code bodyArtifact}. {@code expect} and {@code extract} checks
+ * (see {@link ResponseExpectations}) are evaluated while the body streams.
+ *
+ * With a {@code load} parameter, e.g. {@code {"mode": "open", "rate": 500,
+ * "durationSeconds": 60, "concurrency": 64}}, the request is replayed by a
+ * {@link LoadDriver} and the output is a latency percentile summary; the step fails
+ * when the error ratio exceeds {@code load.maxErrorRate} (default 0).
+ *
+ * An {@code archive} parameter (or the configured default mode) records responses
+ * to, or replays them from, a local {@link HttpArchive}:
+ * {@code {"mode": "record" | "replay" | "off", "name": "trades", "match": ["method", "url", "body"]}}.
+ * Replay never touches the network; a request without a recording fails the step.
  */
 public class DefaultHttpStepExecutor implements StepExecutor {
-    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+    // headers the JDK client manages itself and rejects when set explicitly
+    private static final Set<String> RESTRICTED_HEADERS = Set.of("connection", "content-length", "expect", "host", "upgrade");
+
+    private final HttpClientPool pool;
+    private final Path artifactDir;
+    private final int maxInMemoryBytes;
+    private final LoadDriver loadDriver;
+    private final HttpArchives archives;
+    private final String defaultArchiveMode;
+    private final String defaultArchiveName;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    public DefaultHttpStepExecutor(HttpClientPool pool, Path artifactDir, int maxInMemoryBytes) {
+        this(pool, artifactDir, maxInMemoryBytes, null, "off", "default");
+    }
+
+    public DefaultHttpStepExecutor(HttpClientPool pool, Path artifactDir, int maxInMemoryBytes, HttpArchives archives,
+            String defaultArchiveMode, String defaultArchiveName) {
+        this.pool = pool;
+        this.loadDriver = new LoadDriver(pool);
+        this.artifactDir = artifactDir;
+        this.maxInMemoryBytes = maxInMemoryBytes;
+        this.archives = archives;
+        this.defaultArchiveMode = defaultArchiveMode;
+        this.defaultArchiveName = defaultArchiveName;
+    }
 
     @Override
     public StepResult execute(String stepDefinitionId, Map<String, Object> parameters) throws Exception {
         String url = (String) parameters.get("url");
         if (url == null) return new StepResult(false, null, "url parameter required");
+        String profile = (String) parameters.get("profile");
+
+        HttpRequest req = buildRequest(url, parameters, profile);
+        if (parameters.get("load") instanceof Map<?, ?> load)
+            return runLoad(req, profile, load);
+        ResponseExpectations expectations = ResponseExpectations.compile(parameters.get("expect"), parameters.get("extract"));
+        Object maxBody = parameters.get("maxBodyBytes");
+        StreamingBodyHandler handler = new StreamingBodyHandler(expectations,
+                maxBody != null ? Integer.parseInt(maxBody.toString()) : maxInMemoryBytes, artifactDir);
+        String tenant = TenantContext.getTenant().orElse("public");
+
+        // Record/replay: the archive key is computed from the configured request fields
+        Object archiveParam = parameters.get("archive");
+        Map<?, ?> archiveSettings = archiveParam instanceof Map<?, ?> m ? m : Map.of();
+        String archiveMode = archiveParam instanceof String mode ? mode
+                : String.valueOf(archiveSettings.containsKey("mode") ? archiveSettings.get("mode") : defaultArchiveMode);
+        HttpArchive archive = null;
+        String archiveKey = null;
+        if (archives != null && !"off".equals(archiveMode)) {
+            archive = archives.get(tenant, String.valueOf(
+                    archiveSettings.containsKey("name") ? archiveSettings.get("name") : defaultArchiveName));
+            List<String> match = archiveSettings.get("match") instanceof List<?> fields
+                    ? fields.stream().map(String::valueOf).toList()
+                    : RequestMatcher.DEFAULT_FIELDS;
+            archiveKey = new RequestMatcher(match).key(req.method(), req.uri(), parameters.get("body"));
+        }
 
-        HttpRequest req = HttpRequest.newBuilder().uri(URI.create(url)).timeout(Duration.ofSeconds(30)).header("Accept", "application/json").GET().build();
+        if (archive != null && "replay".equals(archiveMode)) {
+            HttpArchive.Recorded recorded = archive.find(archiveKey);
+            if (recorded == null)
+                return new StepResult(false, null, "No recorded response for " + req.method() + " " + req.uri());
+            return toResult(recorded.status, recorded.headers, "REPLAY",
+                    handler.replay(recorded.status, recorded.headers, recorded.body));
+        }
 
-        HttpResponse<String> resp = client.send(req, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<StreamingBodyHandler.StreamedBody> resp = pool.send(tenant, profile, req, handler);
+        if (archive != null && "record".equals(archiveMode)) {
+            StreamingBodyHandler.StreamedBody body = resp.body();
+            if (body.isSpilled())
+                archive.record(archiveKey, resp.statusCode(), resp.headers().map(), body.getArtifact(), body.getSize());
+            else
+                archive.record(archiveKey, resp.statusCode(), resp.headers().map(), body.bytes());
+        }
+        return toResult(resp.statusCode(), resp.headers().map(), resp.version().name(), resp.body());
+    }
+
+    private StepResult toResult(int status, Map<String, List<String>> headers, String protocol,
+            StreamingBodyHandler.StreamedBody body) {
         Map<String,Object> output = new HashMap<>();
-        output.put("status", resp.statusCode());
-        output.put("body", resp.body());
-        return new StepResult(resp.statusCode() >=200 && resp.statusCode() < 300, output, resp.statusCode() >=200 && resp.statusCode() < 300 ? null : "HTTP error");
+        output.put("status", status);
+        output.put("headers", headers);
+        output.put("protocol", protocol);
+        output.put("bodySize", body.getSize());
+        if (body.isSpilled()) {
+            output.put("bodyPreview", body.text());
+            output.put("bodyArtifact", body.getArtifact().toString());
+        } else {
+            output.put("body", body.text());
+        }
+        output.putAll(body.getExtracted());
+        boolean ok = body.getFailures().isEmpty();
+        if (!ok)
+            output.put("assertionFailures", body.getFailures());
+        return new StepResult(ok, output, ok ? null : "HTTP checks failed: " + String.join("; ", body.getFailures()));
+    }
+
+    private StepResult runLoad(HttpRequest req, String profile, Map<?, ?> load) throws Exception {
+        LoadDriver.Settings settings = LoadDriver.Settings.from(load);
+        Map<String, Object> summary = loadDriver.run(TenantContext.getTenant().orElse("public"), profile, req, settings);
+        long requests = (Long) summary.get("requests");
+        long errors = (Long) summary.get("errors");
+        double maxErrorRate = load.get("maxErrorRate") != null ? Double.parseDouble(load.get("maxErrorRate").toString()) : 0;
+        boolean ok = requests > 0 && errors <= maxErrorRate * requests;
+        return new StepResult(ok, summary, ok ? null : "Load run failed: " + errors + " errors in " + requests + " requests");
+    }
+
+    private HttpRequest buildRequest(String url, Map<String, Object> parameters, String profile) throws Exception {
+        String method = String.valueOf(parameters.getOrDefault("method", "GET")).toUpperCase();
+        Object timeout = parameters.get("timeoutMs");
+        HttpRequest.Builder b = HttpRequest.newBuilder().uri(URI.create(url))
+                .timeout(timeout != null ? Duration.ofMillis(Long.parseLong(timeout.toString())) : pool.requestTimeout(profile));
+
+        boolean hasContentType = false;
+        boolean hasAccept = false;
+        if (parameters.get("headers") instanceof Map<?, ?> headers) {
+            for (Map.Entry<?, ?> h : headers.entrySet()) {
+                String name = String.valueOf(h.getKey());
+                if (RESTRICTED_HEADERS.contains(name.toLowerCase()))
+                    continue;
+                hasContentType |= name.equalsIgnoreCase("Content-Type");
+                hasAccept |= name.equalsIgnoreCase("Accept");
+                if (h.getValue() instanceof List<?> values) {
+                    for (Object v : values)
+                        b.header(name, String.valueOf(v));
+                } else if (h.getValue() != null) {
+                    b.header(name, String.valueOf(h.getValue()));
+                }
+            }
+        }
+        if (!hasAccept)
+            b.header("Accept", "application/json");
+
+        Object body = parameters.get("body");
+        HttpRequest.BodyPublisher publisher;
+        if (body == null) {
+            publisher = HttpRequest.BodyPublishers.noBody();
+        } else if (body instanceof String s) {
+            publisher = HttpRequest.BodyPublishers.ofString(s);
+        } else {
+            publisher = HttpRequest.BodyPublishers.ofByteArray(mapper.writeValueAsBytes(body));
+            if (!hasContentType)
+                b.header("Content-Type", "application/json");
+        }
+        return b.method(method, publisher).build();
     }
 }
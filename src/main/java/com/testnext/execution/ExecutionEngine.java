@@ -20,6 +20,8 @@ public class ExecutionEngine {
     private final ExecutionRepository executionRepo;
     private final ExecutionStepRepository stepRepo;
     private final ObjectMapper objectMapper;
+    private volatile java.util.function.Function<String, Object> environment = name -> null;
+    private volatile java.util.function.Function<Long, com.testnext.repository.ExecutionOwner> ownerLookup = testId -> null;
 
     public ExecutionEngine(int poolSize, StepExecutorRegistry registry, ExecutionRepository executionRepo,
             ExecutionStepRepository stepRepo, ObjectMapper objectMapper) {
@@ -30,6 +32,16 @@ public class ExecutionEngine {
         this.executor = Executors.newFixedThreadPool(poolSize, new CustomizableThreadFactory("testnext-exec-"));
     }
 
+    /** Lookup for {@code ${env.name}} placeholders in step parameters. */
+    public void setEnvironment(java.util.function.Function<String, Object> environment) {
+        this.environment = environment == null ? name -> null : environment;
+    }
+
+    /** Resolves the tenant and project stamped on each execution from the plan's test id. */
+    public void setOwnerLookup(java.util.function.Function<Long, com.testnext.repository.ExecutionOwner> ownerLookup) {
+        this.ownerLookup = ownerLookup == null ? testId -> null : ownerLookup;
+    }
+
     public Future<ExecutionResult> runTest(TestPlan plan) {
         return executor.submit(() -> executePlan(plan));
     }
@@ -41,19 +53,54 @@ public class ExecutionEngine {
         // Persist execution as queued -> running
         ExecutionEntity execEntity = new ExecutionEntity();
         execEntity.id = execId;
-        execEntity.testId = null; // TestPlan doesn't seem to have testId easily available or it's null for now
+        execEntity.testId = plan.getTestId();
+        com.testnext.repository.ExecutionOwner owner = plan.getTestId() == null ? null : ownerLookup.apply(plan.getTestId());
+        if (owner != null) {
+            execEntity.tenantId = owner.tenantId();
+            execEntity.projectId = owner.projectId();
+        }
         execEntity.status = "running";
         execEntity.startedAt = Instant.now();
         executionRepo.save(execEntity);
 
+        // Compile: resolve each step's executor to a dispatch slot and its parameters
+        // to a template once per plan; running a step only resolves placeholders
+        StepDispatchTable table = registry.getTable();
+        Map<String, String> compileErrors = new HashMap<>();
+        Map<String, TestStep> stepsById = new HashMap<>();
+        Map<String, Integer> positions = new HashMap<>(); // plan order, for ${steps[n]}
+        for (TestStep s : plan.getSteps()) {
+            stepsById.put(s.getId(), s);
+            positions.put(s.getId(), positions.size());
+            s.setDispatchIndex(table.resolve(s.getExecutorName()));
+            try {
+                s.setTemplate(com.testnext.execution.template.ParameterTemplate.compile(s.getParameters()));
+            } catch (IllegalArgumentException ex) {
+                compileErrors.put(s.getId(), "Invalid step parameters: " + ex.getMessage());
+            }
+            try {
+                s.setCompiledAssertions(com.testnext.execution.assertion.Assertions.compile(s.getAssertions()));
+            } catch (IllegalArgumentException ex) {
+                compileErrors.put(s.getId(), "Invalid step assertions: " + ex.getMessage());
+            }
+        }
+        com.testnext.execution.template.TemplateContext context = new com.testnext.execution.template.TemplateContext(
+                environment);
+
         // Track step states
         Map<String, StepResult> stepResults = new ConcurrentHashMap<>();
         Map<String, TestStep> remaining = new ConcurrentHashMap<>();
         for (TestStep s : plan.getSteps())
             remaining.put(s.getId(), s);
 
-        CompletionService<StepExecutionOutcome> completionService = new ExecutorCompletionService<>(executor);
+        BlockingQueue<Future<StepExecutionOutcome>> completions = new LinkedBlockingQueue<>();
+        CompletionService<StepExecutionOutcome> completionService = new ExecutorCompletionService<>(executor,
+                completions);
         Map<String, Future<StepExecutionOutcome>> running = new ConcurrentHashMap<>();
+        // bulkheads this plan is parked on; a freed permit wakes the loop without holding a worker
+        Set<Bulkhead> parkedOn = ConcurrentHashMap.newKeySet();
+        // cancelled when the plan ends, so wake-ups it no longer needs go to other executions
+        Queue<Bulkhead.Waiter> waiters = new ConcurrentLinkedQueue<>();
 
         // Helper to determine readiness
         while (!remaining.isEmpty() || !running.isEmpty()) {
@@ -65,18 +112,42 @@ public class ExecutionEngine {
                     if (!stepResults.keySet().contains(s.getDependsOnKey()))
                         ready = false;
                 }
+                StepDispatchTable.StepHandle handle = table.handle(s.getDispatchIndex());
+                Bulkhead bulkhead = ready && handle != null ? handle.getBulkhead() : null;
+                if (bulkhead != null && !bulkhead.tryAcquire()) {
+                    // saturated step type: leave it queued instead of occupying a worker thread
+                    if (parkedOn.add(bulkhead)) {
+                        waiters.add(bulkhead.onAvailable(() -> {
+                            parkedOn.remove(bulkhead);
+                            completions.add(CompletableFuture.completedFuture(StepExecutionOutcome.WAKE_UP));
+                        }));
+                    }
+                    ready = false;
+                }
                 if (ready) {
                     // register execution step in DB
                     UUID stepExecId = UUID.randomUUID();
                     ExecutionStepEntity stepEntity = new ExecutionStepEntity();
                     stepEntity.id = stepExecId;
                     stepEntity.executionId = execId;
+                    stepEntity.createdAt = execEntity.startedAt;
                     stepEntity.stepDefinitionId = Long.parseLong(s.getStepDefinitionId());
                     stepEntity.status = "queued";
                     stepEntity.startedAt = Instant.now();
                     stepRepo.save(stepEntity);
 
-                    Future<StepExecutionOutcome> f = completionService.submit(() -> executeStep(s, stepExecId));
+                    Future<StepExecutionOutcome> f = completionService.submit(() -> {
+                        try {
+                            String compileError = compileErrors.get(s.getId());
+                            if (compileError != null)
+                                return new StepExecutionOutcome(s.getId(), stepExecId,
+                                        new StepResult(false, null, compileError), 0);
+                            return executeStep(s, handle, stepExecId, context);
+                        } finally {
+                            if (bulkhead != null)
+                                bulkhead.release();
+                        }
+                    });
                     running.put(s.getId(), f);
                     remaining.remove(s.getId());
                 }
@@ -88,13 +159,22 @@ public class ExecutionEngine {
                 if (completed == null)
                     continue;
                 StepExecutionOutcome outcome = completed.get();
+                if (outcome == StepExecutionOutcome.WAKE_UP)
+                    continue;
                 stepResults.put(outcome.stepId, outcome.result);
+                if (outcome.result.isSuccess()) {
+                    TestStep done = stepsById.get(outcome.stepId);
+                    if (done != null)
+                        context.putOutput(done.getOutputKey() != null ? done.getOutputKey() : done.getId(),
+                                positions.get(done.getId()), outcome.result.getOutput());
+                }
 
                 // Update step result in DB
                 Optional<ExecutionStepEntity> stepOpt = stepRepo.findById(outcome.stepExecId);
                 if (stepOpt.isPresent()) {
                     ExecutionStepEntity s = stepOpt.get();
-                    s.status = outcome.result.isSuccess() ? "success" : "failed";
+                    s.status = outcome.result.isSuccess() ? "success"
+                            : outcome.result.isCircuitOpen() ? "circuit_open" : "failed";
                     s.attempts = outcome.attempts;
                     s.finishedAt = Instant.now();
                     try {
@@ -120,6 +200,7 @@ public class ExecutionEngine {
                         executionRepo.save(e);
                     }
 
+                    waiters.forEach(Bulkhead.Waiter::cancel);
                     result = new ExecutionResult(execId);
                     result.getStepResults().putAll(stepResults);
                     return result;
@@ -129,6 +210,7 @@ public class ExecutionEngine {
             }
         }
 
+        waiters.forEach(Bulkhead.Waiter::cancel);
         Optional<ExecutionEntity> eOpt = executionRepo.findById(execId);
         if (eOpt.isPresent()) {
             ExecutionEntity e = eOpt.get();
@@ -141,19 +223,34 @@ public class ExecutionEngine {
         return result;
     }
 
-    private StepExecutionOutcome executeStep(TestStep ts, UUID stepExecId) {
-        StepExecutor exec = registry.get(ts.getExecutorName());
+    private StepExecutionOutcome executeStep(TestStep ts, StepDispatchTable.StepHandle handle, UUID stepExecId,
+            com.testnext.execution.template.TemplateContext context) {
+        if (handle == null)
+            return new StepExecutionOutcome(ts.getId(), stepExecId,
+                    new StepResult(false, null, "No executor registered for: " + ts.getExecutorName()), 0);
+        StepExecutor exec = handle.getExecutor();
+        Map<String, Object> params;
+        try {
+            params = ts.getTemplate() != null ? ts.getTemplate().resolve(context) : ts.getParameters();
+        } catch (IllegalArgumentException ex) {
+            return new StepExecutionOutcome(ts.getId(), stepExecId, new StepResult(false, null, ex.getMessage()), 0);
+        }
         StepResult sr = null;
         int attempts = 0;
         while (attempts < Math.max(1, ts.getMaxAttempts())) {
             attempts++;
             try {
-                sr = exec.execute(ts.getStepDefinitionId(), ts.getParameters());
+                sr = BatchResults.isBatch(params) ? BatchResults.execute(exec, ts.getStepDefinitionId(), params)
+                        : exec.execute(ts.getStepDefinitionId(), params);
+                if (ts.getCompiledAssertions() != null)
+                    sr = ts.getCompiledAssertions().apply(sr); // a failed assertion is retried like a failed step
                 if (sr != null && sr.isSuccess())
                     break;
             } catch (Exception ex) {
-                sr = new StepResult(false, null, ex.getMessage());
+                sr = StepResult.failure(ex);
             }
+            if (sr != null && sr.isCircuitOpen())
+                break; // the target is known to be down; retrying now would be refused as well
             if (attempts < ts.getMaxAttempts()) {
                 try {
                     Thread.sleep(ts.getRetryDelayMs());
@@ -173,6 +270,9 @@ public class ExecutionEngine {
     }
 
     private static class StepExecutionOutcome {
+        // signals that a bulkhead this plan waits on has a free permit
+        static final StepExecutionOutcome WAKE_UP = new StepExecutionOutcome(null, null, null, 0);
+
         final String stepId;
         final UUID stepExecId;
         final StepResult result;
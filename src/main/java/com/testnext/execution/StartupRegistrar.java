@@ -13,17 +13,45 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 public class StartupRegistrar {
 
     @Bean
-    public StepExecutorRegistry stepExecutorRegistry() {
-        StepExecutorRegistry r = new StepExecutorRegistry();
-        r.register("http-request", new DefaultHttpStepExecutor());
+    public StepExecutorRegistry stepExecutorRegistry(StepDispatchTable dispatchTable,
+            com.testnext.execution.http.HttpClientPool httpClientPool, com.testnext.execution.http.HttpArchives httpArchives,
+            org.springframework.core.env.Environment env) {
+        // share the dispatch table with SystemStepExecutor so all steps route through one table
+        StepExecutorRegistry r = new StepExecutorRegistry(dispatchTable);
+        int maxBodyBytes = env.getProperty("testnext.http.max-in-memory-body-bytes", Integer.class, 256 * 1024);
+        r.register("http-request", new DefaultHttpStepExecutor(httpClientPool, artifactDir(env), maxBodyBytes, httpArchives,
+                env.getProperty("testnext.http.archive.mode", "off"), env.getProperty("testnext.http.archive.name", "default")));
         return r;
     }
 
+    // closed on shutdown so archive files are flushed and their handles released
+    @Bean(destroyMethod = "close")
+    public com.testnext.execution.http.HttpArchives httpArchives(org.springframework.core.env.Environment env) {
+        return new com.testnext.execution.http.HttpArchives(java.nio.file.Path.of(
+                env.getProperty("testnext.http.archive.dir", artifactDir(env).resolve("http-archive").toString())));
+    }
+
+    private static java.nio.file.Path artifactDir(org.springframework.core.env.Environment env) {
+        return java.nio.file.Path.of(env.getProperty("testnext.artifacts.dir",
+                System.getProperty("java.io.tmpdir") + "/testnext-artifacts"));
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public com.testnext.execution.http.HttpClientPool httpClientPool(org.springframework.core.env.Environment env,
+            io.micrometer.core.instrument.MeterRegistry meterRegistry) {
+        return new com.testnext.execution.http.HttpClientPool(env, meterRegistry);
+    }
+
     @Bean
     public ExecutionEngine executionEngine(StepExecutorRegistry registry,
             com.testnext.repository.ExecutionRepository executionRepo,
-            com.testnext.repository.ExecutionStepRepository stepRepo) {
-        return new ExecutionEngine(10, registry, executionRepo, stepRepo, objectMapper()); // default pool size 10
+            com.testnext.repository.ExecutionStepRepository stepRepo,
+            com.testnext.service.EntityCache entityCache, org.springframework.core.env.Environment env) {
+        ExecutionEngine engine = new ExecutionEngine(10, registry, executionRepo, stepRepo, objectMapper()); // default pool size 10
+        engine.setOwnerLookup(entityCache::ownerOfTest);
+        // same ${env.name} source as ExecutionService
+        engine.setEnvironment(name -> env.getProperty("testnext.env." + name));
+        return engine;
     }
 
     @Bean
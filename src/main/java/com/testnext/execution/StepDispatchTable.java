@@ -0,0 +1,121 @@
+package com.testnext.execution;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Single routing table for every step executor: annotated system steps, the HTTP
+ * executor and plugin executors.
+ *
+ * Each registration occupies a slot whose index never changes while the executor
+ * is registered. Any number of keys (refId, display name, executor name) map to
+ * that slot. Plans resolve their keys to slot indexes once when they are compiled;
+ * dispatching a step is then a plain array read. Register and unregister build a
+ * new table and swap it atomically, so readers never lock and always see a
+ * consistent table.
+ */
+@Component
+public class StepDispatchTable {
+    /** Index returned by {@link #resolve(String)} for keys with no executor. */
+    public static final int UNRESOLVED = -1;
+
+    private final AtomicReference<Table> table = new AtomicReference<>(new Table(new StepHandle[0], Map.of()));
+    private final BulkheadRegistry bulkheads = new BulkheadRegistry();
+
+    /**
+     * Registers an executor under the given keys and returns its slot index. When one
+     * of the keys is already registered the executor replaces that slot in place, so
+     * plans compiled earlier dispatch to the new executor.
+     */
+    public synchronized int register(StepExecutor executor, String bulkheadGroup, int maxConcurrency, String... keys) {
+        if (keys.length == 0)
+            throw new IllegalArgumentException("At least one key is required to register a step executor");
+        Table current = table.get();
+        Integer index = null;
+        for (String key : keys) {
+            index = current.indexByKey.get(key);
+            if (index != null)
+                break;
+        }
+        StepHandle[] slots;
+        if (index == null) {
+            // freed slots are never reused, so a stale compiled index cannot reach an unrelated executor
+            index = current.slots.length;
+            slots = Arrays.copyOf(current.slots, index + 1);
+        } else {
+            slots = current.slots.clone();
+        }
+        String group = bulkheadGroup == null || bulkheadGroup.isBlank() ? keys[0] : bulkheadGroup;
+        slots[index] = new StepHandle(index, keys[0], executor, bulkheads.define(group, maxConcurrency));
+
+        Map<String, Integer> indexByKey = new HashMap<>(current.indexByKey);
+        for (String key : keys)
+            indexByKey.put(key, index);
+        table.set(new Table(slots, indexByKey));
+        return index;
+    }
+
+    /** Removes the executor registered under the key together with all its other keys. */
+    public synchronized void unregister(String key) {
+        Table current = table.get();
+        Integer index = current.indexByKey.get(key);
+        if (index == null)
+            return;
+        StepHandle[] slots = current.slots.clone();
+        slots[index] = null;
+        Map<String, Integer> indexByKey = new HashMap<>(current.indexByKey);
+        indexByKey.values().removeIf(index::equals);
+        table.set(new Table(slots, indexByKey));
+    }
+
+    /** Resolves a key to its slot index at plan compile time, or {@link #UNRESOLVED}. */
+    public int resolve(String key) {
+        Integer index = key == null ? null : table.get().indexByKey.get(key);
+        return index == null ? UNRESOLVED : index;
+    }
+
+    /** Hot-path dispatch: the handle in the slot, or null when it was unregistered. */
+    public StepHandle handle(int index) {
+        StepHandle[] slots = table.get().slots;
+        return index >= 0 && index < slots.length ? slots[index] : null;
+    }
+
+    /** Convenience lookup by key for callers that dispatch a single step. */
+    public StepHandle lookup(String key) {
+        return handle(resolve(key));
+    }
+
+    /** Executor bound to a slot, with the bulkhead limiting it (null when unlimited). */
+    public static final class StepHandle {
+        private final int index;
+        private final String key;
+        private final StepExecutor executor;
+        private final Bulkhead bulkhead;
+
+        StepHandle(int index, String key, StepExecutor executor, Bulkhead bulkhead) {
+            this.index = index;
+            this.key = key;
+            this.executor = executor;
+            this.bulkhead = bulkhead;
+        }
+
+        public int getIndex() { return index; }
+        public String getKey() { return key; }
+        public StepExecutor getExecutor() { return executor; }
+        public Bulkhead getBulkhead() { return bulkhead; }
+    }
+
+    private static final class Table {
+        final StepHandle[] slots;
+        final Map<String, Integer> indexByKey;
+
+        Table(StepHandle[] slots, Map<String, Integer> indexByKey) {
+            this.slots = slots;
+            this.indexByKey = indexByKey;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.testnext.execution;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -8,4 +10,21 @@ import java.util.Map;
  */
 public interface StepExecutor {
     StepResult execute(String stepDefinitionId, Map<String, Object> parameters) throws Exception;
+
+    /**
+     * Executes many parameter rows of the same step and returns one result per row,
+     * in order. Executors that can amortize work across rows (one connection, a bulk
+     * downstream API) override this; the default runs the rows one by one.
+     */
+    default List<StepResult> executeBatch(String stepDefinitionId, List<Map<String, Object>> rows) throws Exception {
+        List<StepResult> results = new ArrayList<>(rows.size());
+        for (Map<String, Object> row : rows) {
+            try {
+                results.add(execute(stepDefinitionId, row));
+            } catch (Exception ex) {
+                results.add(new StepResult(false, null, ex.getMessage()));
+            }
+        }
+        return results;
+    }
 }
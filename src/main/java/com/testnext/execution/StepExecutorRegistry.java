@@ -1,29 +1,51 @@
 package com.testnext.execution;
 
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.Map;
-
 /**
  * Runtime registry of available step executors. Supports dynamic registration
- * at runtime.
+ * at runtime. Executors are stored in a {@link StepDispatchTable}; when the
+ * table is the application-wide one, system steps registered by
+ * {@link SystemStepExecutor} and executors registered here share a single
+ * routing table.
  */
 public class StepExecutorRegistry {
-    private final Map<String, StepExecutor> executors = new ConcurrentHashMap<>();
+    private final StepDispatchTable table;
+
+    public StepExecutorRegistry() {
+        this(new StepDispatchTable());
+    }
+
+    public StepExecutorRegistry(StepDispatchTable table) {
+        this.table = table;
+    }
 
     public void register(String name, StepExecutor executor) {
-        executors.put(name, executor);
+        table.register(executor, null, 0, name);
+    }
+
+    /**
+     * Registers an executor whose invocations are limited to {@code maxConcurrency}
+     * in flight across every executor sharing {@code bulkheadGroup}.
+     */
+    public void register(String name, StepExecutor executor, String bulkheadGroup, int maxConcurrency) {
+        table.register(executor, bulkheadGroup, maxConcurrency, name);
     }
 
     public void unregister(String name) {
-        executors.remove(name);
+        table.unregister(name);
     }
 
     public StepExecutor get(String name) {
-        // For now, we can just return the SystemStepExecutor if it's a system step
-        // But the registry is currently manual.
-        // Ideally, we should have a unified way.
-        // For this task, let's assume the caller knows how to find the executor,
-        // or we inject SystemStepExecutor into the Registry.
-        return executors.get(name);
+        StepDispatchTable.StepHandle handle = table.lookup(name);
+        return handle == null ? null : handle.getExecutor();
+    }
+
+    /** Bulkhead limiting the named executor, or null when it is unlimited. */
+    public Bulkhead bulkheadFor(String name) {
+        StepDispatchTable.StepHandle handle = table.lookup(name);
+        return handle == null ? null : handle.getBulkhead();
+    }
+
+    public StepDispatchTable getTable() {
+        return table;
     }
 }
@@ -3,9 +3,13 @@ package com.testnext.execution;
 import java.util.Map;
 
 public class StepResult {
+    /** Error code of a step refused because the circuit of its downstream target is open. */
+    public static final String CIRCUIT_OPEN = "CIRCUIT_OPEN";
+
     private boolean success;
     private Map<String, Object> output;
     private String errorMessage;
+    private String errorCode; // set for failures that need a distinct status, e.g. CIRCUIT_OPEN
 
     public StepResult() {}
 
@@ -23,4 +27,18 @@ public class StepResult {
 
     public String getErrorMessage() { return errorMessage; }
     public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
+
+    public String getErrorCode() { return errorCode; }
+    public void setErrorCode(String errorCode) { this.errorCode = errorCode; }
+
+    public boolean isCircuitOpen() { return CIRCUIT_OPEN.equals(errorCode); }
+
+    /** Failed result for an exception thrown by a step, unwrapping reflective invocation. */
+    public static StepResult failure(Throwable ex) {
+        Throwable cause = ex instanceof java.lang.reflect.InvocationTargetException && ex.getCause() != null ? ex.getCause() : ex;
+        StepResult r = new StepResult(false, null, cause.getMessage());
+        if (cause instanceof CircuitOpenException)
+            r.errorCode = CIRCUIT_OPEN;
+        return r;
+    }
 }
@@ -0,0 +1,121 @@
+package com.testnext.execution;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Memoizes results of idempotent steps, keyed by step id and a canonical hash of
+ * the parameters. Each tenant gets its own LRU partition bounded by
+ * {@code maxEntriesPerTenant}, so one tenant's lookups can neither read nor evict
+ * another tenant's results. Only successful results are stored.
+ */
+public class StepResultCache {
+    private final int maxEntriesPerTenant;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Partition> partitions = new ConcurrentHashMap<>();
+    private final Map<String, Counter[]> lookups = new ConcurrentHashMap<>(); // tenant -> {hit, miss}
+    private final ObjectMapper canonicalMapper = new ObjectMapper()
+            .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+
+    public StepResultCache(int maxEntriesPerTenant, MeterRegistry meterRegistry) {
+        this.maxEntriesPerTenant = maxEntriesPerTenant;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Canonical cache key for a step invocation, or null when the parameters cannot
+     * be serialized deterministically (such invocations are simply not cached).
+     */
+    public String key(String stepId, Map<String, Object> parameters) {
+        try {
+            byte[] json = canonicalMapper.writeValueAsBytes(parameters == null ? Map.of() : parameters);
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            return stepId + ":" + HexFormat.of().formatHex(digest);
+        } catch (Exception ex) {
+            return null;
+        }
+    }
+
+    public StepResult get(String tenant, String key) {
+        Partition p = partitions.get(tenant);
+        StepResult r = p == null ? null : p.get(key, System.nanoTime());
+        lookups.computeIfAbsent(tenant, this::counters)[r != null ? 0 : 1].increment();
+        return r;
+    }
+
+    public void put(String tenant, String key, StepResult result, long ttlSeconds) {
+        if (result == null || !result.isSuccess() || ttlSeconds <= 0)
+            return;
+        Map<String, Object> output = result.getOutput() == null ? null
+                : Collections.unmodifiableMap(new LinkedHashMap<>(result.getOutput()));
+        StepResult frozen = new StepResult(true, output, null);
+        long expiresAt = System.nanoTime() + ttlSeconds * 1_000_000_000L;
+        partitions.computeIfAbsent(tenant, t -> new Partition(maxEntriesPerTenant))
+                .put(key, new Entry(frozen, expiresAt));
+    }
+
+    /** Drops all memoized results of a tenant, e.g. after reference data changed. */
+    public void invalidateTenant(String tenant) {
+        partitions.remove(tenant);
+    }
+
+    private Counter[] counters(String tenant) {
+        return new Counter[] { counter(tenant, "hit"), counter(tenant, "miss") };
+    }
+
+    private Counter counter(String tenant, String result) {
+        return Counter.builder("step.result.cache")
+                .description("Memoized step result lookups")
+                .tag("tenant", tenant)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static final class Entry {
+        final StepResult result;
+        final long expiresAtNanos;
+
+        Entry(StepResult result, long expiresAtNanos) {
+            this.result = result;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+
+    private static final class Partition {
+        private final LinkedHashMap<String, Entry> entries;
+
+        Partition(int maxEntries) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                    return size() > maxEntries;
+                }
+            };
+        }
+
+        synchronized StepResult get(String key, long now) {
+            Entry e = entries.get(key);
+            if (e == null)
+                return null;
+            if (now - e.expiresAtNanos >= 0) {
+                entries.remove(key);
+                return null;
+            }
+            return e.result;
+        }
+
+        synchronized void put(String key, Entry e) {
+            entries.put(key, e);
+        }
+    }
+}
@@ -1,47 +1,139 @@
 package com.testnext.execution;
 
 import com.testnext.annotation.TestStep;
+import com.testnext.tenant.TenantContext;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+/**
+ * Executes {@link TestStep}-annotated methods. Every annotated method is registered
+ * in the shared {@link StepDispatchTable} under its step id (the definition's refId)
+ * and its display name, so plans dispatch system steps through the same table as
+ * any other executor.
+ */
 @Component
 public class SystemStepExecutor implements StepExecutor {
-    private final Map<String, MethodHandler> handlers = new ConcurrentHashMap<>();
+    private final StepDispatchTable table;
     private final ObjectMapper mapper = new ObjectMapper();
+    private final StepResultCache resultCache;
+
+    public SystemStepExecutor(StepDispatchTable table, MeterRegistry meterRegistry,
+            @Value("${testnext.step-cache.max-entries-per-tenant:1000}") int maxCachedResultsPerTenant) {
+        this.table = table;
+        this.resultCache = new StepResultCache(maxCachedResultsPerTenant, meterRegistry);
+    }
 
     public void register(String stepName, Object bean, Method method) {
-        handlers.put(stepName, new MethodHandler(bean, method));
+        table.register(new MethodHandler(null, bean, method, false, 0), null, 0, stepName);
+    }
+
+    public void register(String stepName, TestStep annotation, Object bean, Method method) {
+        String group = annotation.bulkhead().isBlank() ? annotation.id() : annotation.bulkhead();
+        table.register(new MethodHandler(annotation.id(), bean, method, annotation.cacheable(), annotation.ttlSeconds()),
+                group, annotation.maxConcurrency(), annotation.id(), stepName);
+    }
+
+    /**
+     * Attaches a {@link com.testnext.annotation.BatchTestStep} method to an already
+     * registered step, so batch invocations of the step call it once for all rows.
+     */
+    public void registerBatch(String stepId, Object bean, Method method) {
+        StepDispatchTable.StepHandle handle = table.lookup(stepId);
+        if (handle == null || !(handle.getExecutor() instanceof MethodHandler mh))
+            throw new IllegalStateException("Batch method " + method.getName() + " refers to unknown step: " + stepId);
+        mh.batchBean = bean;
+        mh.batchMethod = method;
+    }
+
+    /** Bulkhead limiting the named step, or null when it is unlimited. */
+    public Bulkhead bulkheadFor(String stepName) {
+        StepDispatchTable.StepHandle handle = table.lookup(stepName);
+        return handle == null ? null : handle.getBulkhead();
+    }
+
+    public StepResultCache getResultCache() {
+        return resultCache;
     }
 
     @Override
     public StepResult execute(String stepName, Map<String, Object> parameters) throws Exception {
-        MethodHandler handler = handlers.get(stepName);
-        if (handler == null) {
+        StepDispatchTable.StepHandle handle = table.lookup(stepName);
+        if (handle == null) {
             return new StepResult(false, null, "No handler found for step: " + stepName);
         }
-
-        try {
-            // Simple parameter mapping: assume method takes Map or specific args
-            // For now, let's assume the method takes a Map<String, Object>
-            Object result = handler.method.invoke(handler.bean, parameters);
-            @SuppressWarnings("unchecked")
-            Map<String, Object> mapResult = (Map<String, Object>) result;
-            return new StepResult(true, mapResult, null);
-        } catch (Exception e) {
-            return new StepResult(false, null, e.getMessage());
-        }
+        return handle.getExecutor().execute(stepName, parameters);
     }
 
-    private static class MethodHandler {
+    private class MethodHandler implements StepExecutor {
+        final String stepId;
         final Object bean;
         final Method method;
+        final boolean cacheable;
+        final long ttlSeconds;
+        volatile Object batchBean;
+        volatile Method batchMethod;
 
-        MethodHandler(Object bean, Method method) {
+        MethodHandler(String stepId, Object bean, Method method, boolean cacheable, long ttlSeconds) {
+            this.stepId = stepId;
             this.bean = bean;
             this.method = method;
+            this.cacheable = cacheable && stepId != null;
+            this.ttlSeconds = ttlSeconds;
+        }
+
+        @Override
+        public StepResult execute(String stepDefinitionId, Map<String, Object> parameters) {
+            // Memoized steps are looked up per tenant by step id and canonical parameter hash
+            String tenant = null;
+            String cacheKey = null;
+            if (cacheable) {
+                tenant = TenantContext.getTenant().orElse("public");
+                cacheKey = resultCache.key(stepId, parameters);
+                if (cacheKey != null) {
+                    StepResult cached = resultCache.get(tenant, cacheKey);
+                    if (cached != null)
+                        return cached;
+                }
+            }
+
+            try {
+                // Simple parameter mapping: assume method takes Map or specific args
+                // For now, let's assume the method takes a Map<String, Object>
+                Object result = method.invoke(bean, parameters);
+                @SuppressWarnings("unchecked")
+                Map<String, Object> mapResult = (Map<String, Object>) result;
+                StepResult sr = new StepResult(true, mapResult, null);
+                if (cacheKey != null)
+                    resultCache.put(tenant, cacheKey, sr, ttlSeconds);
+                return sr;
+            } catch (Exception e) {
+                return StepResult.failure(e);
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public List<StepResult> executeBatch(String stepDefinitionId, List<Map<String, Object>> rows) throws Exception {
+            Method bulk = batchMethod;
+            if (bulk == null)
+                return StepExecutor.super.executeBatch(stepDefinitionId, rows);
+            List<StepResult> results = new ArrayList<>(rows.size());
+            try {
+                List<Map<String, Object>> outputs = (List<Map<String, Object>>) bulk.invoke(batchBean, rows);
+                for (Map<String, Object> out : outputs)
+                    results.add(new StepResult(true, out, null));
+            } catch (Exception e) {
+                results.clear();
+                for (int i = 0; i < rows.size(); i++)
+                    results.add(StepResult.failure(e));
+            }
+            return results;
         }
     }
 }
@@ -27,9 +27,13 @@ public class SystemStepScanner {
     public void onApplicationEvent() {
         Map<String, Object> beans = context.getBeansWithAnnotation(Component.class);
         java.util.Set<String> processedIds = new java.util.HashSet<>();
+        // batch methods attach to their step, so they are registered once all steps are known
+        java.util.List<Object[]> batchMethods = new java.util.ArrayList<>();
 
         for (Object bean : beans.values()) {
             for (Method method : bean.getClass().getMethods()) {
+                if (method.isAnnotationPresent(com.testnext.annotation.BatchTestStep.class))
+                    batchMethods.add(new Object[] { bean, method });
                 if (method.isAnnotationPresent(TestStep.class)) {
                     TestStep annotation = method.getAnnotation(TestStep.class);
                     String id = annotation.id();
@@ -69,8 +73,9 @@ public class SystemStepScanner {
                     }
 
                     // Register with executor (Legacy support if needed, or if executor uses ID now)
-                    // For now, executor uses name, so we keep that.
-                    executor.register(name, bean, method);
+                    // For now, executor uses name, so we keep that. The annotation carries the
+                    // memoization settings for cacheable steps.
+                    executor.register(name, annotation, bean, method);
 
                     // Sync DB
                     StepDefinitionDto dto = new StepDefinitionDto();
@@ -85,5 +90,10 @@ public class SystemStepScanner {
                 }
             }
         }
+        for (Object[] bm : batchMethods) {
+            Method method = (Method) bm[1];
+            executor.registerBatch(method.getAnnotation(com.testnext.annotation.BatchTestStep.class).id(), bm[0], method);
+        }
+        stepService.refreshCache();
     }
 }
@@ -5,10 +5,17 @@ import java.util.UUID;
 
 public class TestPlan {
     private final UUID executionId = UUID.randomUUID();
+    private final Long testId; // null for ad-hoc plans not backed by a stored test
     private final List<TestStep> steps;
 
-    public TestPlan(List<TestStep> steps) { this.steps = steps; }
+    public TestPlan(List<TestStep> steps) { this(null, steps); }
+
+    public TestPlan(Long testId, List<TestStep> steps) {
+        this.testId = testId;
+        this.steps = steps;
+    }
 
     public UUID getExecutionId() { return executionId; }
+    public Long getTestId() { return testId; }
     public List<TestStep> getSteps() { return steps; }
 }
@@ -13,6 +13,10 @@ public class TestStep {
     private int maxAttempts = 1;
     private long retryDelayMs = 1000;
     private String outputKey; // where to put outputs in context
+    private Object assertions; // declarative output checks, see Assertions
+    private int dispatchIndex = StepDispatchTable.UNRESOLVED; // executor slot resolved when the plan is compiled
+    private transient com.testnext.execution.template.ParameterTemplate template; // parameters compiled with the plan
+    private transient com.testnext.execution.assertion.Assertions compiledAssertions; // assertions compiled with the plan
 
     public String getId() { return id; }
     public void setId(String id) { this.id = id; }
@@ -34,4 +38,12 @@ public class TestStep {
     public void setRetryDelayMs(long retryDelayMs) { this.retryDelayMs = retryDelayMs; }
     public String getOutputKey() { return outputKey; }
     public void setOutputKey(String outputKey) { this.outputKey = outputKey; }
+    public int getDispatchIndex() { return dispatchIndex; }
+    public void setDispatchIndex(int dispatchIndex) { this.dispatchIndex = dispatchIndex; }
+    public com.testnext.execution.template.ParameterTemplate getTemplate() { return template; }
+    public void setTemplate(com.testnext.execution.template.ParameterTemplate template) { this.template = template; }
+    public Object getAssertions() { return assertions; }
+    public void setAssertions(Object assertions) { this.assertions = assertions; }
+    public com.testnext.execution.assertion.Assertions getCompiledAssertions() { return compiledAssertions; }
+    public void setCompiledAssertions(com.testnext.execution.assertion.Assertions compiledAssertions) { this.compiledAssertions = compiledAssertions; }
 }
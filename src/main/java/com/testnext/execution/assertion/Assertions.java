@@ -0,0 +1,153 @@
+package com.testnext.execution.assertion;
+
+import com.testnext.execution.StepResult;
+import com.testnext.execution.template.ValuePath;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Declarative checks on a step's output, stored with the test step as JSON:
+ *
+ * <pre>
+ * [ { "path": "status", "equals": 200 },
+ *   { "path": "trade.id", "matches": "^T-\\d+$" },
+ *   { "path": "price", "min": 0, "max": 1000 },
+ *   { "path": "body", "schema": { "type": "object", "required": ["id"] } },
+ *   { "path": "error", "exists": false } ]
+ * </pre>
+ *
+ * or {@code {"failFast": true, "checks": [...]}}. A check may combine several
+ * conditions. Paths use the placeholder syntax ({@code a.b[0]}, optional {@code $.})
+ * and are parsed, like regexes and schemas, once when the plan is compiled; checking
+ * reads the output map directly. All failures are reported in one compact diff of
+ * {@code {path, expected, actual}} entries unless {@code failFast} stops at the first.
+ */
+public final class Assertions {
+    /** No assertions: results pass through unchanged. */
+    public static final Assertions NONE = new Assertions(new Check[0], false);
+
+    private final Check[] checks;
+    private final boolean failFast;
+
+    private Assertions(Check[] checks, boolean failFast) {
+        this.checks = checks;
+        this.failFast = failFast;
+    }
+
+    /** Compiles a spec parsed from JSON (a list of checks or an object with {@code checks}). */
+    public static Assertions compile(Object spec) {
+        if (spec == null)
+            return NONE;
+        boolean failFast = false;
+        Object list = spec;
+        if (spec instanceof Map<?, ?> m) {
+            failFast = Boolean.TRUE.equals(m.get("failFast"));
+            list = m.get("checks");
+        }
+        if (!(list instanceof List<?> items))
+            throw new IllegalArgumentException("Assertions must be a list of checks");
+        List<Check> checks = new ArrayList<>();
+        for (Object item : items) {
+            if (!(item instanceof Map<?, ?> def) || def.get("path") == null)
+                throw new IllegalArgumentException("Each assertion needs a path: " + item);
+            ValuePath path = ValuePath.parse(def.get("path").toString());
+            for (Map.Entry<?, ?> e : def.entrySet()) {
+                String kind = e.getKey().toString();
+                if (!kind.equals("path") && !kind.equals("min") && !kind.equals("max"))
+                    checks.add(new Check(path, compileEvaluator(kind, e.getValue())));
+            }
+            if (def.containsKey("min") || def.containsKey("max"))
+                checks.add(new Check(path, range(def.get("min"), def.get("max"))));
+        }
+        return checks.isEmpty() ? NONE : new Assertions(checks.toArray(new Check[0]), failFast);
+    }
+
+    private static Evaluator compileEvaluator(String kind, Object expected) {
+        switch (kind) {
+            case "equals":
+                return actual -> Values.same(expected, actual) ? null : expected == null ? "null" : expected;
+            case "matches": {
+                Pattern pattern = Pattern.compile(String.valueOf(expected));
+                return actual -> actual != null && pattern.matcher(actual.toString()).find() ? null
+                        : "matches " + pattern.pattern();
+            }
+            case "exists": {
+                boolean wanted = Boolean.TRUE.equals(expected);
+                return actual -> (actual != null) == wanted ? null : wanted ? "present" : "absent";
+            }
+            case "schema":
+                if (!(expected instanceof Map<?, ?> schema))
+                    throw new IllegalArgumentException("schema must be an object");
+                return new SchemaEvaluator(schema);
+            default:
+                throw new IllegalArgumentException("Unknown assertion: " + kind);
+        }
+    }
+
+    /** Inclusive numeric range; either bound may be missing. Numeric strings are accepted. */
+    private static Evaluator range(Object minSpec, Object maxSpec) {
+        BigDecimal min = Values.number(minSpec);
+        BigDecimal max = Values.number(maxSpec);
+        if ((minSpec != null && min == null) || (maxSpec != null && max == null))
+            throw new IllegalArgumentException("min/max must be numbers");
+        String expected = "in [" + (min == null ? "" : min.toPlainString()) + ", "
+                + (max == null ? "" : max.toPlainString()) + "]";
+        return actual -> {
+            BigDecimal n = Values.number(actual);
+            boolean ok = n != null && (min == null || n.compareTo(min) >= 0) && (max == null || n.compareTo(max) <= 0);
+            return ok ? null : expected;
+        };
+    }
+
+    public boolean isEmpty() {
+        return checks.length == 0;
+    }
+
+    /** Failures of the output as diff entries; empty when every check passes. */
+    public List<Map<String, Object>> check(Map<String, Object> output) {
+        List<Map<String, Object>> failures = new ArrayList<>(0);
+        for (Check c : checks) {
+            Object actual = c.path.read(output);
+            Object expected = c.evaluator.mismatch(actual);
+            if (expected == null)
+                continue;
+            Map<String, Object> diff = new LinkedHashMap<>();
+            diff.put("path", c.path.getExpression());
+            diff.put("expected", expected);
+            diff.put("actual", Values.preview(actual));
+            failures.add(diff);
+            if (failFast)
+                break;
+        }
+        return failures;
+    }
+
+    /**
+     * Applies the checks to a successful result. A failing result comes back failed,
+     * keeping its output plus an {@code assertionFailures} diff; other results are
+     * returned as they are.
+     */
+    public StepResult apply(StepResult result) {
+        if (checks.length == 0 || result == null || !result.isSuccess())
+            return result;
+        Map<String, Object> output = result.getOutput() == null ? Map.of() : result.getOutput();
+        List<Map<String, Object>> failures = check(output);
+        if (failures.isEmpty())
+            return result;
+        Map<String, Object> failed = new LinkedHashMap<>(output);
+        failed.put("assertionFailures", failures);
+        StringBuilder message = new StringBuilder().append(failures.size()).append(" assertion(s) failed");
+        for (Map<String, Object> f : failures.subList(0, Math.min(3, failures.size())))
+            message.append("; ").append(f.get("path")).append(": expected ").append(f.get("expected"))
+                    .append(", was ").append(f.get("actual"));
+        return new StepResult(false, failed, message.toString());
+    }
+
+    private record Check(ValuePath path, Evaluator evaluator) {
+    }
+}
@@ -0,0 +1,8 @@
+package com.testnext.execution.assertion;
+
+/** One compiled check against a value read from a step output. */
+interface Evaluator {
+
+    /** Null when the value passes, otherwise what was expected (rendered in the diff). */
+    Object mismatch(Object actual);
+}
@@ -0,0 +1,158 @@
+package com.testnext.execution.assertion;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Conformance to a JSON Schema subset: {@code type}, {@code required},
+ * {@code properties}, {@code additionalProperties: false}, {@code items},
+ * {@code enum}, {@code minimum}/{@code maximum}, {@code minLength}/{@code maxLength}
+ * and {@code pattern}. The schema is compiled into a tree of nodes once; checking
+ * stops at the first violation and names where it is.
+ */
+final class SchemaEvaluator implements Evaluator {
+    private static final Set<String> TYPES = Set.of("object", "array", "string", "number", "integer", "boolean", "null");
+
+    private final Node root;
+
+    SchemaEvaluator(Map<?, ?> schema) {
+        this.root = compile(schema);
+    }
+
+    @Override
+    public Object mismatch(Object actual) {
+        String violation = root.check(actual, "");
+        return violation == null ? null : "schema: " + violation;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Node compile(Map<?, ?> schema) {
+        Node node = new Node();
+        Object type = schema.get("type");
+        if (type != null)
+            node.types = type instanceof List<?> l ? l.stream().map(String::valueOf).toList() : List.of(type.toString());
+        if (node.types != null && !TYPES.containsAll(node.types))
+            throw new IllegalArgumentException("Unknown schema type in " + node.types);
+        if (schema.get("required") instanceof List<?> req)
+            node.required = req.stream().map(String::valueOf).toList();
+        if (schema.get("properties") instanceof Map<?, ?> props) {
+            node.properties = new LinkedHashMap<>();
+            for (Map.Entry<?, ?> e : props.entrySet()) {
+                if (!(e.getValue() instanceof Map<?, ?> property))
+                    throw new IllegalArgumentException("Schema of property " + e.getKey() + " must be an object");
+                node.properties.put(e.getKey().toString(), compile(property));
+            }
+        }
+        node.closed = Boolean.FALSE.equals(schema.get("additionalProperties"));
+        if (schema.get("items") instanceof Map<?, ?> items)
+            node.items = compile(items);
+        if (schema.get("enum") instanceof List<?> values)
+            node.enumValues = (List<Object>) values;
+        node.minimum = Values.number(schema.get("minimum"));
+        node.maximum = Values.number(schema.get("maximum"));
+        if (schema.get("minLength") instanceof Number n)
+            node.minLength = n.intValue();
+        if (schema.get("maxLength") instanceof Number n)
+            node.maxLength = n.intValue();
+        if (schema.get("pattern") != null)
+            node.pattern = Pattern.compile(schema.get("pattern").toString());
+        return node;
+    }
+
+    private static final class Node {
+        List<String> types;
+        List<String> required;
+        Map<String, Node> properties;
+        boolean closed;
+        Node items;
+        List<Object> enumValues;
+        BigDecimal minimum;
+        BigDecimal maximum;
+        int minLength = -1;
+        int maxLength = -1;
+        Pattern pattern;
+
+        String check(Object value, String at) {
+            String where = at.isEmpty() ? "$" : at;
+            if (types != null && types.stream().noneMatch(t -> isType(t, value)))
+                return where + " is " + typeOf(value) + ", expected " + String.join("|", types);
+            if (enumValues != null && enumValues.stream().noneMatch(v -> Values.same(v, value)))
+                return where + " is not one of " + enumValues;
+            if (value instanceof Map<?, ?> map) {
+                if (required != null) {
+                    for (String r : required) {
+                        if (!map.containsKey(r))
+                            return where + "." + r + " is required";
+                    }
+                }
+                if (properties != null) {
+                    for (Map.Entry<String, Node> e : properties.entrySet()) {
+                        if (map.containsKey(e.getKey())) {
+                            String v = e.getValue().check(map.get(e.getKey()), where + "." + e.getKey());
+                            if (v != null)
+                                return v;
+                        }
+                    }
+                }
+                if (closed) {
+                    for (Object key : map.keySet()) {
+                        if (properties == null || !properties.containsKey(key.toString()))
+                            return where + "." + key + " is not allowed";
+                    }
+                }
+            }
+            if (value instanceof List<?> list && items != null) {
+                for (int i = 0; i < list.size(); i++) {
+                    String v = items.check(list.get(i), where + "[" + i + "]");
+                    if (v != null)
+                        return v;
+                }
+            }
+            if (value instanceof Number && (minimum != null || maximum != null)) {
+                BigDecimal n = Values.number(value);
+                if (minimum != null && n.compareTo(minimum) < 0)
+                    return where + " is below minimum " + minimum;
+                if (maximum != null && n.compareTo(maximum) > 0)
+                    return where + " is above maximum " + maximum;
+            }
+            if (value instanceof String s) {
+                if (minLength >= 0 && s.length() < minLength)
+                    return where + " is shorter than " + minLength;
+                if (maxLength >= 0 && s.length() > maxLength)
+                    return where + " is longer than " + maxLength;
+                if (pattern != null && !pattern.matcher(s).find())
+                    return where + " does not match " + pattern.pattern();
+            }
+            return null;
+        }
+    }
+
+    private static boolean isType(String type, Object value) {
+        return switch (type) {
+            case "object" -> value instanceof Map;
+            case "array" -> value instanceof List;
+            case "string" -> value instanceof String;
+            case "boolean" -> value instanceof Boolean;
+            case "null" -> value == null;
+            case "number" -> value instanceof Number;
+            case "integer" -> value instanceof Number n && Values.number(n).stripTrailingZeros().scale() <= 0;
+            default -> false;
+        };
+    }
+
+    private static String typeOf(Object value) {
+        if (value == null)
+            return "null";
+        if (value instanceof Map)
+            return "object";
+        if (value instanceof List)
+            return "array";
+        if (value instanceof Number)
+            return "number";
+        return value instanceof Boolean ? "boolean" : "string";
+    }
+}
@@ -0,0 +1,72 @@
+package com.testnext.execution.assertion;
+
+import java.math.BigDecimal;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/** Comparisons on parsed JSON trees, where 200, 200L and 200.0 are the same number. */
+final class Values {
+    private Values() {
+    }
+
+    static boolean same(Object expected, Object actual) {
+        if (expected == null || actual == null)
+            return expected == actual;
+        if (expected instanceof Number e && actual instanceof Number a)
+            return decimal(e).compareTo(decimal(a)) == 0;
+        if (expected instanceof Map<?, ?> e && actual instanceof Map<?, ?> a) {
+            if (e.size() != a.size())
+                return false;
+            for (Map.Entry<?, ?> entry : e.entrySet()) {
+                if (!a.containsKey(entry.getKey()) || !same(entry.getValue(), a.get(entry.getKey())))
+                    return false;
+            }
+            return true;
+        }
+        if (expected instanceof List<?> e && actual instanceof List<?> a) {
+            if (e.size() != a.size())
+                return false;
+            Iterator<?> ai = a.iterator();
+            for (Object item : e) {
+                if (!same(item, ai.next()))
+                    return false;
+            }
+            return true;
+        }
+        return expected.equals(actual);
+    }
+
+    /** The value as a number, accepting numeric strings; null when it is not numeric. */
+    static BigDecimal number(Object value) {
+        if (value instanceof Number n)
+            return decimal(n);
+        if (value instanceof String s) {
+            try {
+                return new BigDecimal(s.trim());
+            } catch (NumberFormatException ex) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private static BigDecimal decimal(Number n) {
+        if (n instanceof BigDecimal d)
+            return d;
+        if (n instanceof Double || n instanceof Float)
+            return BigDecimal.valueOf(n.doubleValue());
+        return n instanceof java.math.BigInteger b ? new BigDecimal(b) : BigDecimal.valueOf(n.longValue());
+    }
+
+    /** Short rendering of an actual value for the diff; long strings and large trees are cut. */
+    static Object preview(Object value) {
+        if (value instanceof String s && s.length() > 200)
+            return s.substring(0, 200) + "...(" + s.length() + " chars)";
+        if (value instanceof Map<?, ?> m && m.size() > 20)
+            return "{" + m.size() + " fields}";
+        if (value instanceof List<?> l && l.size() > 20)
+            return "[" + l.size() + " items]";
+        return value;
+    }
+}
@@ -0,0 +1,94 @@
+package com.testnext.execution.dataset;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * CSV dataset: the first line names the columns, every further non-empty line is a
+ * row. Fields may be double-quoted with {@code ""} as an escaped quote; quoted
+ * fields cannot span lines. Values are strings.
+ */
+final class CsvDatasetSource implements DatasetSource {
+    private final MappedLineReader reader;
+    private final String[] columns;
+    private byte[] next;
+
+    CsvDatasetSource(Path file) throws IOException {
+        this.reader = new MappedLineReader(file);
+        byte[] header = reader.readLine();
+        if (header == null)
+            throw new IllegalArgumentException("CSV dataset is empty: " + file.getFileName());
+        List<String> cols = parse(new String(header, StandardCharsets.UTF_8));
+        if (!cols.isEmpty() && cols.get(0).startsWith("\uFEFF"))
+            cols.set(0, cols.get(0).substring(1)); // byte order mark
+        this.columns = cols.toArray(new String[0]);
+        advance();
+    }
+
+    private void advance() throws IOException {
+        do {
+            next = reader.readLine();
+        } while (next != null && next.length == 0);
+    }
+
+    @Override
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    @Override
+    public Map<String, Object> next() {
+        if (next == null)
+            throw new NoSuchElementException();
+        List<String> values = parse(new String(next, StandardCharsets.UTF_8));
+        Map<String, Object> row = new LinkedHashMap<>(columns.length * 2);
+        for (int i = 0; i < columns.length; i++)
+            row.put(columns[i], i < values.size() ? values.get(i) : null);
+        try {
+            advance();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return row;
+    }
+
+    static List<String> parse(String line) {
+        List<String> out = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                out.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        out.add(field.toString());
+        return out;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,29 @@
+package com.testnext.execution.dataset;
+
+import com.testnext.db.TargetDataSources;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Rows of a dataset, read lazily one at a time. Only the current row (plus a small
+ * read-ahead) is in memory, whatever the size of the dataset.
+ */
+public interface DatasetSource extends Iterator<Map<String, Object>>, AutoCloseable {
+
+    @Override
+    void close() throws IOException;
+
+    /** Opens the dataset described by the spec; file paths must stay inside {@code datasetsDir}. */
+    static DatasetSource open(DatasetSpec spec, Path datasetsDir, TargetDataSources targets) throws Exception {
+        if (spec.type.equals("sql"))
+            return new SqlDatasetSource(targets.get(spec.target), spec.query, spec.fetchSize);
+        Path root = datasetsDir.toAbsolutePath().normalize();
+        Path file = root.resolve(spec.path).normalize();
+        if (!file.startsWith(root))
+            throw new IllegalArgumentException("Dataset path escapes the datasets directory: " + spec.path);
+        return spec.type.equals("csv") ? new CsvDatasetSource(file) : new JsonlDatasetSource(file);
+    }
+}
@@ -0,0 +1,58 @@
+package com.testnext.execution.dataset;
+
+import java.util.Map;
+
+/**
+ * Dataset binding of a test, stored as JSON on the test:
+ *
+ * <pre>
+ * { "type": "csv" | "jsonl", "path": "trades/2024-q1.csv" }
+ * { "type": "sql", "target": "default", "query": "select * from trades" }
+ * </pre>
+ *
+ * Optional: {@code alias} (placeholder root of the current row, default {@code row},
+ * e.g. {@code ${row.security_id}}), {@code maxInFlight} (iterations running at once,
+ * default 8), {@code limit} (maximum iterations) and {@code fetchSize} (SQL rows per
+ * round trip, default 500). File paths are relative to the datasets directory.
+ */
+public final class DatasetSpec {
+    public final String type;
+    public final String path;
+    public final String query;
+    public final String target;
+    public final String alias;
+    public final int maxInFlight;
+    public final long limit;
+    public final int fetchSize;
+
+    private DatasetSpec(String type, String path, String query, String target, String alias, int maxInFlight, long limit,
+            int fetchSize) {
+        this.type = type;
+        this.path = path;
+        this.query = query;
+        this.target = target;
+        this.alias = alias;
+        this.maxInFlight = maxInFlight;
+        this.limit = limit;
+        this.fetchSize = fetchSize;
+    }
+
+    public static DatasetSpec from(Map<String, Object> m) {
+        String type = String.valueOf(m.getOrDefault("type", "")).toLowerCase();
+        if (!type.equals("csv") && !type.equals("jsonl") && !type.equals("sql"))
+            throw new IllegalArgumentException("Dataset type must be csv, jsonl or sql: " + type);
+        String path = (String) m.get("path");
+        String query = (String) m.get("query");
+        if (type.equals("sql") ? query == null : path == null)
+            throw new IllegalArgumentException("Dataset of type " + type + " needs " + (type.equals("sql") ? "a query" : "a path"));
+        int maxInFlight = m.get("maxInFlight") == null ? 8 : Integer.parseInt(m.get("maxInFlight").toString());
+        if (maxInFlight <= 0)
+            throw new IllegalArgumentException("Dataset maxInFlight must be positive");
+        return new DatasetSpec(type, path, query,
+                (String) m.get("target"),
+                m.get("alias") == null ? "row" : m.get("alias").toString(),
+                maxInFlight,
+                m.get("limit") == null ? Long.MAX_VALUE : Long.parseLong(m.get("limit").toString()),
+                m.get("fetchSize") == null ? 500 : Integer.parseInt(m.get("fetchSize").toString()));
+    }
+}
@@ -0,0 +1,87 @@
+package com.testnext.execution.dataset;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Compact aggregate of a data-driven execution: counters per iteration and per
+ * step, a bitmap of failed iterations (one bit per iteration, base64 encoded when
+ * persisted) and the first few failures with their error, instead of one stored
+ * result per iteration and step. The bitmap covers the first
+ * {@code Integer.MAX_VALUE} iterations; later failures are counted and reported
+ * but have no bit.
+ */
+public class IterationSummary {
+    private final int maxReportedFailures;
+    private final AtomicLong iterations = new AtomicLong();
+    private final AtomicLong passed = new AtomicLong();
+    private final AtomicLongArray stepPassed;
+    private final AtomicLongArray stepFailed;
+    private final BitSet failedIterations = new BitSet();
+    private final List<Map<String, Object>> failures = new ArrayList<>();
+
+    public IterationSummary(int steps, int maxReportedFailures) {
+        this.stepPassed = new AtomicLongArray(steps);
+        this.stepFailed = new AtomicLongArray(steps);
+        this.maxReportedFailures = maxReportedFailures;
+    }
+
+    public void stepPassed(int step) {
+        stepPassed.incrementAndGet(step);
+    }
+
+    public void passed() {
+        iterations.incrementAndGet();
+        passed.incrementAndGet();
+    }
+
+    public void failed(long iteration, int step, String error) {
+        iterations.incrementAndGet();
+        if (step >= 0)
+            stepFailed.incrementAndGet(step);
+        synchronized (this) {
+            if (iteration < Integer.MAX_VALUE)
+                failedIterations.set((int) iteration);
+            if (failures.size() < maxReportedFailures) {
+                Map<String, Object> f = new LinkedHashMap<>();
+                f.put("iteration", iteration);
+                f.put("step", step);
+                f.put("error", error);
+                failures.add(f);
+            }
+        }
+    }
+
+    public long getFailed() {
+        return iterations.get() - passed.get();
+    }
+
+    public long getFailed(int step) {
+        return stepFailed.get(step);
+    }
+
+    /** Counts for one step across all iterations. */
+    public Map<String, Object> forStep(int step) {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("passed", stepPassed.get(step));
+        out.put("failed", stepFailed.get(step));
+        out.put("notRun", iterations.get() - stepPassed.get(step) - stepFailed.get(step));
+        return Map.of("iterations", out);
+    }
+
+    public synchronized Map<String, Object> toMap() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("iterations", iterations.get());
+        out.put("passed", passed.get());
+        out.put("failed", getFailed());
+        out.put("failedIterations", Base64.getEncoder().encodeToString(failedIterations.toByteArray()));
+        out.put("failures", new ArrayList<>(failures));
+        return out;
+    }
+}
@@ -0,0 +1,62 @@
+package com.testnext.execution.dataset;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/** JSON Lines dataset: one JSON object per non-empty line; values keep their JSON types. */
+final class JsonlDatasetSource implements DatasetSource {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<Map<String, Object>> ROW = new TypeReference<>() {
+    };
+
+    private final MappedLineReader reader;
+    private byte[] next;
+
+    JsonlDatasetSource(Path file) throws IOException {
+        this.reader = new MappedLineReader(file);
+        advance();
+    }
+
+    private void advance() throws IOException {
+        do {
+            next = reader.readLine();
+        } while (next != null && isBlank(next));
+    }
+
+    private static boolean isBlank(byte[] line) {
+        for (byte b : line) {
+            if (b != ' ' && b != '\t')
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    @Override
+    public Map<String, Object> next() {
+        if (next == null)
+            throw new NoSuchElementException();
+        try {
+            Map<String, Object> row = MAPPER.readValue(next, ROW);
+            advance();
+            return row;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
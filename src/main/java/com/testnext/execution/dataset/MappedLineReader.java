@@ -0,0 +1,65 @@
+package com.testnext.execution.dataset;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reads a file line by line through memory-mapped windows. Windows are mapped one
+ * after another, so files larger than a single mapping (2 GiB) work and the heap
+ * only ever holds the current line. Line terminators ({@code \n} or {@code \r\n})
+ * are stripped.
+ */
+final class MappedLineReader implements AutoCloseable {
+    private static final long WINDOW = 64L << 20;
+
+    private final FileChannel channel;
+    private final long size;
+    private long nextWindowAt;
+    private MappedByteBuffer window;
+    private byte[] line = new byte[256];
+    private int lineLength;
+
+    MappedLineReader(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.size = channel.size();
+    }
+
+    /** The next line, or null at the end of the file. */
+    byte[] readLine() throws IOException {
+        lineLength = 0;
+        boolean sawAny = false;
+        for (;;) {
+            if (window == null || !window.hasRemaining()) {
+                if (nextWindowAt >= size)
+                    return sawAny ? finish() : null;
+                long len = Math.min(WINDOW, size - nextWindowAt);
+                window = channel.map(FileChannel.MapMode.READ_ONLY, nextWindowAt, len);
+                nextWindowAt += len;
+            }
+            while (window.hasRemaining()) {
+                byte b = window.get();
+                sawAny = true;
+                if (b == '\n')
+                    return finish();
+                if (lineLength == line.length)
+                    line = Arrays.copyOf(line, line.length * 2);
+                line[lineLength++] = b;
+            }
+        }
+    }
+
+    private byte[] finish() {
+        int len = lineLength > 0 && line[lineLength - 1] == '\r' ? lineLength - 1 : lineLength;
+        return Arrays.copyOf(line, len);
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+}
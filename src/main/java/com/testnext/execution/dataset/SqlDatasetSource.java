@@ -0,0 +1,85 @@
+package com.testnext.execution.dataset;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * SQL dataset read through a forward-only cursor. Auto-commit is switched off so
+ * drivers such as PostgreSQL stream {@code fetchSize} rows per round trip instead of
+ * loading the whole result. Column labels are lower-cased so placeholders look the
+ * same on every database.
+ */
+final class SqlDatasetSource implements DatasetSource {
+    private final Connection connection;
+    private final PreparedStatement statement;
+    private final ResultSet rs;
+    private final String[] columns;
+    private boolean hasNext;
+
+    SqlDatasetSource(DataSource dataSource, String query, int fetchSize) throws SQLException {
+        this.connection = dataSource.getConnection();
+        try {
+            connection.setAutoCommit(false);
+            connection.setReadOnly(true);
+            this.statement = connection.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            this.rs = statement.executeQuery();
+            ResultSetMetaData md = rs.getMetaData();
+            this.columns = new String[md.getColumnCount()];
+            for (int i = 0; i < columns.length; i++)
+                columns[i] = md.getColumnLabel(i + 1).toLowerCase(Locale.ROOT);
+            this.hasNext = rs.next();
+        } catch (SQLException ex) {
+            connection.close();
+            throw ex;
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return hasNext;
+    }
+
+    @Override
+    public Map<String, Object> next() {
+        if (!hasNext)
+            throw new NoSuchElementException();
+        try {
+            Map<String, Object> row = new LinkedHashMap<>(columns.length * 2);
+            for (int i = 0; i < columns.length; i++)
+                row.put(columns[i], rs.getObject(i + 1));
+            hasNext = rs.next();
+            return row;
+        } catch (SQLException ex) {
+            throw new IllegalStateException("Reading dataset row failed", ex);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            rs.close();
+            statement.close();
+            connection.rollback(); // read-only; ends the cursor's transaction
+            connection.setReadOnly(false);
+            connection.setAutoCommit(true);
+        } catch (SQLException ex) {
+            throw new IOException(ex);
+        } finally {
+            try {
+                connection.close();
+            } catch (SQLException ignored) {
+                // returned to the pool or already gone
+            }
+        }
+    }
+}
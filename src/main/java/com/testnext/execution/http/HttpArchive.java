@@ -0,0 +1,187 @@
+package com.testnext.execution.http;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Local archive of recorded HTTP responses.
+ *
+ * The archive is a single append-only file of records
+ * {@code [keyLen][key][payloadLen][status][headersLen][headers JSON][body]}. Opening
+ * it scans only the keys and builds an in-memory index from request key to payload
+ * offset; payloads are served from a memory-mapped view of the file, so a replayed
+ * response costs a hash lookup and a copy. Re-recording a key appends a new record
+ * and the index points at the latest one.
+ */
+public class HttpArchive implements Closeable {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Path file;
+    private final FileChannel channel;
+    private final Map<String, long[]> index = new ConcurrentHashMap<>(); // key -> {payload offset, payload length}
+    private volatile MappedByteBuffer mapped;
+
+    private HttpArchive(Path file) throws IOException {
+        this.file = file;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        loadIndex();
+    }
+
+    public static HttpArchive open(Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        return new HttpArchive(file);
+    }
+
+    /** A recorded response. */
+    public static final class Recorded {
+        public final int status;
+        public final Map<String, List<String>> headers;
+        public final byte[] body;
+
+        Recorded(int status, Map<String, List<String>> headers, byte[] body) {
+            this.status = status;
+            this.headers = headers;
+            this.body = body;
+        }
+    }
+
+    private void loadIndex() throws IOException {
+        long size = channel.size();
+        long pos = 0;
+        ByteBuffer len = ByteBuffer.allocate(4);
+        while (pos + 4 <= size) {
+            int keyLen = readInt(len, pos);
+            if (keyLen <= 0 || pos + 4 + keyLen + 4 > size)
+                break; // torn tail from an interrupted write; later appends overwrite it
+            ByteBuffer key = ByteBuffer.allocate(keyLen);
+            channel.read(key, pos + 4);
+            int payloadLen = readInt(len, pos + 4 + keyLen);
+            long payloadAt = pos + 4 + keyLen + 4;
+            if (payloadLen < 0 || payloadAt + payloadLen > size)
+                break;
+            index.put(new String(key.array(), StandardCharsets.UTF_8), new long[] { payloadAt, payloadLen });
+            pos = payloadAt + payloadLen;
+        }
+        channel.truncate(pos);
+        channel.position(pos);
+    }
+
+    private int readInt(ByteBuffer buf, long at) throws IOException {
+        buf.clear();
+        channel.read(buf, at);
+        return buf.getInt(0);
+    }
+
+    public synchronized void record(String key, int status, Map<String, List<String>> headers, byte[] body)
+            throws IOException {
+        append(key, status, headers, body.length, at -> {
+            ByteBuffer buf = ByteBuffer.wrap(body);
+            while (buf.hasRemaining())
+                channel.write(buf, at + buf.position());
+        });
+    }
+
+    /**
+     * Records a body that was spilled to a file, copied from that file into the
+     * archive by the channel rather than read onto the heap.
+     */
+    public synchronized void record(String key, int status, Map<String, List<String>> headers, Path body, long bodySize)
+            throws IOException {
+        append(key, status, headers, bodySize, at -> {
+            try (FileChannel in = FileChannel.open(body, StandardOpenOption.READ)) {
+                for (long copied = 0; copied < bodySize; ) {
+                    long n = channel.transferFrom(in, at + copied, bodySize - copied);
+                    if (n <= 0)
+                        throw new IOException(body + " holds fewer than " + bodySize + " bytes");
+                    copied += n;
+                }
+            }
+        });
+    }
+
+    private interface BodyWriter {
+        void writeAt(long position) throws IOException;
+    }
+
+    private void append(String key, int status, Map<String, List<String>> headers, long bodySize, BodyWriter body)
+            throws IOException {
+        byte[] k = key.getBytes(StandardCharsets.UTF_8);
+        byte[] h = MAPPER.writeValueAsBytes(headers);
+        if (bodySize > Integer.MAX_VALUE - 8 - h.length)
+            throw new IllegalArgumentException("Response body of " + bodySize + " bytes is too large to archive");
+        int payloadLen = 4 + 4 + h.length + (int) bodySize;
+        ByteBuffer buf = ByteBuffer.allocate(4 + k.length + 4 + 4 + 4 + h.length);
+        buf.putInt(k.length).put(k).putInt(payloadLen).putInt(status).putInt(h.length).put(h).flip();
+        long at = channel.size();
+        try {
+            while (buf.hasRemaining())
+                channel.write(buf, at + buf.position());
+            body.writeAt(at + buf.limit());
+        } catch (IOException | RuntimeException ex) {
+            channel.truncate(at); // no torn record in front of the next append
+            throw ex;
+        }
+        index.put(key, new long[] { at + 4 + k.length + 4, payloadLen });
+    }
+
+    /** The latest response recorded under the key, or null. */
+    public Recorded find(String key) throws IOException {
+        long[] entry = index.get(key);
+        if (entry == null)
+            return null;
+        ByteBuffer view = view(entry[0], (int) entry[1]);
+        int status = view.getInt();
+        int headersLen = view.getInt();
+        byte[] h = new byte[headersLen];
+        view.get(h);
+        byte[] body = new byte[view.remaining()];
+        view.get(body);
+        return new Recorded(status, MAPPER.readValue(h, new TypeReference<Map<String, List<String>>>() {
+        }), body);
+    }
+
+    private ByteBuffer view(long offset, int length) throws IOException {
+        if (offset + length > Integer.MAX_VALUE) {
+            // beyond what one mapping can address; read the record directly
+            ByteBuffer buf = ByteBuffer.allocate(length);
+            while (buf.hasRemaining() && channel.read(buf, offset + buf.position()) >= 0)
+                ;
+            return buf.flip();
+        }
+        MappedByteBuffer m = mapped;
+        if (m == null || offset + length > m.capacity()) {
+            synchronized (this) {
+                m = mapped;
+                if (m == null || offset + length > m.capacity())
+                    mapped = m = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+        }
+        return m.slice((int) offset, length);
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,46 @@
+package com.testnext.execution.http;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Open {@link HttpArchive}s, one file per tenant and archive name under the archive
+ * directory. Archives stay open (and their index in memory) for the life of the
+ * application so replayed suites do not re-scan them.
+ */
+public class HttpArchives {
+    private static final java.util.regex.Pattern SAFE_NAME = java.util.regex.Pattern.compile("[A-Za-z0-9_-][A-Za-z0-9._-]*");
+
+    private final Path dir;
+    private final Map<String, HttpArchive> open = new ConcurrentHashMap<>();
+
+    public HttpArchives(Path dir) {
+        this.dir = dir;
+    }
+
+    public HttpArchive get(String tenant, String name) {
+        if (!SAFE_NAME.matcher(tenant).matches() || !SAFE_NAME.matcher(name).matches())
+            throw new IllegalArgumentException("Invalid archive name: " + tenant + "/" + name);
+        return open.computeIfAbsent(tenant + "/" + name, k -> {
+            try {
+                return HttpArchive.open(dir.resolve(tenant).resolve(name + ".archive"));
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+    }
+
+    public void close() {
+        open.values().forEach(a -> {
+            try {
+                a.close();
+            } catch (IOException ignored) {
+                // closing on shutdown only
+            }
+        });
+        open.clear();
+    }
+}
@@ -0,0 +1,205 @@
+package com.testnext.execution.http;
+
+import com.testnext.execution.Bulkhead;
+import com.testnext.execution.CircuitBreaker;
+import com.testnext.execution.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.core.env.Environment;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Shared HTTP clients for HTTP steps.
+ *
+ * One {@link HttpClient} is kept per tenant and profile, so all steps of a tenant
+ * reuse the same connection pool and HTTP/2 connections are multiplexed instead
+ * of opened per request. Calls to a host are limited by a per-host
+ * {@link Bulkhead}; a caller over the limit waits for a released permit (up to
+ * the request timeout) rather than piling more connections onto the host. Each
+ * host also has a {@link CircuitBreaker} ({@code http:<host>:<port>}, the port
+ * always included, e.g. {@code http:api.example.com:443}): connection errors,
+ * timeouts and 502/503/504 responses count as failures, and while the circuit is
+ * open requests fail at once with {@link com.testnext.execution.CircuitOpenException}.
+ *
+ * Configuration ({@code testnext.http.*}):
+ * <ul>
+ * <li>{@code max-concurrency-per-host}, overridable per host with {@code host.<host>.max-concurrency}</li>
+ * <li>per profile under {@code profile.<name>.}: {@code version} (HTTP_2 or HTTP_1_1),
+ * {@code connect-timeout-ms}, {@code request-timeout-ms}, {@code follow-redirects}</li>
+ * </ul>
+ *
+ * Keep-alive is not a builder setting of the JDK client: idle connections are
+ * governed JVM-wide by the startup flags {@code -Djdk.httpclient.keepalive.timeout}
+ * (HTTP/1.1, seconds), {@code -Djdk.httpclient.keepalive.timeout.h2} and
+ * {@code -Djdk.httpclient.connectionPoolSize}, read once when the first client is
+ * created. The Docker image sets them; see the README. Per host, the number of open
+ * connections is bounded by the host's max-concurrency.
+ */
+public class HttpClientPool {
+    private final Environment env;
+    private final MeterRegistry meterRegistry;
+    private final int defaultMaxPerHost;
+    private final ExecutorService ioExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, HttpClient> clients = new ConcurrentHashMap<>();
+    private final Map<String, Bulkhead> hostLimits = new ConcurrentHashMap<>();
+    private final Map<String, Timer> limitWaits = new ConcurrentHashMap<>();
+    private final Map<RequestTags, Timer> requestTimers = new ConcurrentHashMap<>();
+    private final Counter clientsCreated;
+    private final CircuitBreakerRegistry circuits;
+
+    public HttpClientPool(Environment env, MeterRegistry meterRegistry) {
+        this.env = env;
+        this.meterRegistry = meterRegistry;
+        this.defaultMaxPerHost = env.getProperty("testnext.http.max-concurrency-per-host", Integer.class, 32);
+        this.circuits = new CircuitBreakerRegistry(env::getProperty, meterRegistry);
+        this.clientsCreated = Counter.builder("http.step.clients.created")
+                .description("Pooled HTTP clients created; low values relative to requests mean high connection reuse")
+                .register(meterRegistry);
+        Gauge.builder("http.step.clients", clients, Map::size)
+                .description("HTTP clients currently pooled (one per tenant and profile)")
+                .register(meterRegistry);
+    }
+
+    /** Client shared by all HTTP steps of the tenant that use the profile. */
+    public HttpClient client(String tenant, String profile) {
+        String p = profile == null || profile.isBlank() ? "default" : profile;
+        return clients.computeIfAbsent(tenant + "/" + p, k -> {
+            clientsCreated.increment();
+            String prefix = "testnext.http.profile." + p + ".";
+            return HttpClient.newBuilder()
+                    .version(HttpClient.Version.valueOf(env.getProperty(prefix + "version", "HTTP_2")))
+                    .connectTimeout(Duration.ofMillis(env.getProperty(prefix + "connect-timeout-ms", Long.class, 10_000L)))
+                    .followRedirects(env.getProperty(prefix + "follow-redirects", Boolean.class, true)
+                            ? HttpClient.Redirect.NORMAL
+                            : HttpClient.Redirect.NEVER)
+                    .executor(ioExecutor)
+                    .build();
+        });
+    }
+
+    /** Default request timeout of a profile. */
+    public Duration requestTimeout(String profile) {
+        String p = profile == null || profile.isBlank() ? "default" : profile;
+        return Duration.ofMillis(env.getProperty("testnext.http.profile." + p + ".request-timeout-ms", Long.class, 30_000L));
+    }
+
+    /**
+     * Sends the request on the tenant's pooled client once a per-host permit is free.
+     * Waiting for the permit counts against the request's timeout.
+     */
+    public <T> HttpResponse<T> send(String tenant, String profile, HttpRequest request,
+            HttpResponse.BodyHandler<T> bodyHandler) throws Exception {
+        String host = hostOf(request.uri());
+        Bulkhead limit = hostLimit(host);
+        long timeoutNanos = request.timeout().orElse(requestTimeout(profile)).toNanos();
+
+        CircuitBreaker circuit = circuits.get(circuitKey(request.uri()));
+        if (circuit != null)
+            circuit.acquire();
+        long waitStart = System.nanoTime();
+        try {
+            acquire(limit, timeoutNanos);
+        } catch (Exception ex) {
+            if (circuit != null)
+                circuit.onIgnored(); // our own limit, not the host, kept the request back
+            throw ex;
+        }
+        long waited = System.nanoTime() - waitStart;
+        limitWaits.computeIfAbsent(host, h -> Timer.builder("http.step.limit.wait")
+                .description("Time HTTP steps waited for a per-host concurrency permit")
+                .tag("host", h)
+                .register(meterRegistry))
+                .record(waited, TimeUnit.NANOSECONDS);
+
+        long start = System.nanoTime();
+        String outcome = "error";
+        String protocol = "unknown";
+        try {
+            HttpResponse<T> response = client(tenant, profile).send(request, bodyHandler);
+            outcome = (response.statusCode() / 100) + "xx";
+            protocol = response.version().name();
+            if (circuit != null) {
+                int status = response.statusCode();
+                if (status == 502 || status == 503 || status == 504)
+                    circuit.onFailure();
+                else
+                    circuit.onSuccess();
+            }
+            return response;
+        } catch (java.io.IOException ex) {
+            if (circuit != null)
+                circuit.onFailure(); // connection refused, reset or timed out
+            throw ex;
+        } catch (Exception ex) {
+            if (circuit != null)
+                circuit.onIgnored();
+            throw ex;
+        } finally {
+            limit.release();
+            requestTimers.computeIfAbsent(new RequestTags(host, request.method(), protocol, outcome),
+                    t -> Timer.builder("http.step.requests")
+                            .description("HTTP step requests by host, method, negotiated protocol and status class")
+                            .tag("host", t.host())
+                            .tag("method", t.method())
+                            .tag("protocol", t.protocol())
+                            .tag("status", t.status())
+                            .register(meterRegistry))
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /** Tags of one {@code http.step.requests} timer; its timer is built once and kept. */
+    private record RequestTags(String host, String method, String protocol, String status) {
+    }
+
+    private void acquire(Bulkhead limit, long timeoutNanos) throws Exception {
+        if (!limit.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS))
+            throw new TimeoutException("Timed out waiting for a connection slot to " + limit.getName());
+    }
+
+    private Bulkhead hostLimit(String host) {
+        return hostLimits.computeIfAbsent(host, h -> {
+            int max = env.getProperty("testnext.http.host." + h + ".max-concurrency", Integer.class, defaultMaxPerHost);
+            Bulkhead b = new Bulkhead(h, max <= 0 ? Integer.MAX_VALUE : max);
+            Gauge.builder("http.step.inflight", b, Bulkhead::getInFlight)
+                    .description("HTTP step requests in flight per host")
+                    .tag("host", h)
+                    .register(meterRegistry);
+            Gauge.builder("http.step.waiting", b, Bulkhead::getWaiting)
+                    .description("HTTP step requests waiting for a per-host permit")
+                    .tag("host", h)
+                    .register(meterRegistry);
+            return b;
+        });
+    }
+
+    private static String hostOf(URI uri) {
+        int port = uri.getPort();
+        return port < 0 ? uri.getHost() : uri.getHost() + ":" + port;
+    }
+
+    /** Breaker key of the target, with the scheme's default port when the URI has none. */
+    static String circuitKey(URI uri) {
+        int port = uri.getPort();
+        if (port < 0)
+            port = "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+        return "http:" + uri.getHost() + ":" + port;
+    }
+
+    public void shutdown() {
+        ioExecutor.shutdown();
+    }
+}
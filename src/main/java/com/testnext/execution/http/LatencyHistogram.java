@@ -0,0 +1,101 @@
+package com.testnext.execution.http;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram in microseconds with log-linear buckets: values below
+ * 128 are exact, larger values keep their top 7 bits (under 1% error). Memory is a
+ * fixed array of a few thousand counters regardless of how many requests are
+ * recorded, so a load run never holds per-request samples.
+ *
+ * {@link #recordCorrected(long, long)} applies the usual coordinated-omission
+ * correction: when a response took longer than the interval at which requests were
+ * supposed to be issued, the requests that a stalled client failed to send are
+ * back-filled with the latencies they would have seen.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKETS = 128;
+    private static final int HALF = SUB_BUCKETS / 2;
+    private static final int MAX_SHIFT = 40;
+
+    private final AtomicLongArray counts = new AtomicLongArray(SUB_BUCKETS + MAX_SHIFT * HALF);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long micros) {
+        long v = Math.max(0, micros);
+        counts.incrementAndGet(indexOf(v));
+        total.incrementAndGet();
+        sum.addAndGet(v);
+        min.accumulateAndGet(v, Math::min);
+        max.accumulateAndGet(v, Math::max);
+    }
+
+    /** Records a latency and back-fills the samples a stalled client would have missed. */
+    public void recordCorrected(long micros, long expectedIntervalMicros) {
+        record(micros);
+        if (expectedIntervalMicros <= 0)
+            return;
+        for (long missed = micros - expectedIntervalMicros; missed >= expectedIntervalMicros; missed -= expectedIntervalMicros)
+            record(missed);
+    }
+
+    public long getCount() {
+        return total.get();
+    }
+
+    /** Latency at the given percentile (0-100), as the highest value of its bucket. */
+    public long percentile(double percentile) {
+        long n = total.get();
+        if (n == 0)
+            return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * n));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= rank)
+                return Math.min(highestValueOf(i), max.get());
+        }
+        return max.get();
+    }
+
+    /** Compact percentile summary in milliseconds, suitable for a step's output. */
+    public Map<String, Object> summaryMillis() {
+        long n = total.get();
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("count", n);
+        out.put("min", n == 0 ? 0.0 : millis(min.get()));
+        out.put("mean", n == 0 ? 0.0 : millis(sum.get() / n));
+        out.put("p50", millis(percentile(50)));
+        out.put("p90", millis(percentile(90)));
+        out.put("p99", millis(percentile(99)));
+        out.put("p99.9", millis(percentile(99.9)));
+        out.put("max", millis(max.get()));
+        return out;
+    }
+
+    private static double millis(long micros) {
+        return Math.round(micros / 10.0) / 100.0;
+    }
+
+    static int indexOf(long v) {
+        if (v < SUB_BUCKETS)
+            return (int) v;
+        int shift = Math.min(MAX_SHIFT, 63 - Long.numberOfLeadingZeros(v) - 6);
+        long sub = Math.min(SUB_BUCKETS - 1, v >> shift);
+        return SUB_BUCKETS + (shift - 1) * HALF + (int) (sub - HALF);
+    }
+
+    static long highestValueOf(int index) {
+        if (index < SUB_BUCKETS)
+            return index;
+        int shift = (index - SUB_BUCKETS) / HALF + 1;
+        long sub = (index - SUB_BUCKETS) % HALF + HALF;
+        return ((sub + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,167 @@
+package com.testnext.execution.http;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Load mode for HTTP steps: replays one request for a fixed duration and reduces
+ * the run to a {@link LatencyHistogram} and a few counters.
+ *
+ * <ul>
+ * <li>{@code open}: requests are issued at a constant {@code rate} per second,
+ * independent of how fast responses come back, with at most {@code concurrency}
+ * outstanding. Latency is measured from each request's scheduled start, so a
+ * server stall shows up in the percentiles instead of silently lowering the rate.</li>
+ * <li>{@code closed}: {@code concurrency} workers send back to back. With a
+ * {@code rate}, each worker is expected to send every {@code concurrency / rate}
+ * seconds and latencies are corrected for coordinated omission against that
+ * interval; without one they are reported uncorrected.</li>
+ * </ul>
+ */
+public class LoadDriver {
+    private final HttpClientPool pool;
+
+    public LoadDriver(HttpClientPool pool) {
+        this.pool = pool;
+    }
+
+    /** Load settings from a step's {@code load} parameter. */
+    public static final class Settings {
+        final String mode;
+        final double rate;
+        final int concurrency;
+        final long durationNanos;
+
+        Settings(String mode, double rate, int concurrency, long durationNanos) {
+            this.mode = mode;
+            this.rate = rate;
+            this.concurrency = concurrency;
+            this.durationNanos = durationNanos;
+        }
+
+        public static Settings from(Map<?, ?> load) {
+            String mode = String.valueOf(load.containsKey("mode") ? load.get("mode") : "closed").toLowerCase();
+            double rate = load.get("rate") != null ? Double.parseDouble(load.get("rate").toString()) : 0;
+            int concurrency = load.get("concurrency") != null ? Integer.parseInt(load.get("concurrency").toString()) : 1;
+            double seconds = load.get("durationSeconds") != null ? Double.parseDouble(load.get("durationSeconds").toString()) : 10;
+            if (!mode.equals("open") && !mode.equals("closed"))
+                throw new IllegalArgumentException("load.mode must be 'open' or 'closed': " + mode);
+            if (mode.equals("open") && rate <= 0)
+                throw new IllegalArgumentException("load.rate is required for the open model");
+            if (concurrency <= 0 || seconds <= 0)
+                throw new IllegalArgumentException("load.concurrency and load.durationSeconds must be positive");
+            return new Settings(mode, rate, concurrency, (long) (seconds * 1_000_000_000L));
+        }
+    }
+
+    public Map<String, Object> run(String tenant, String profile, HttpRequest request, Settings settings)
+            throws InterruptedException {
+        Run run = new Run(tenant, profile, request);
+        long start = System.nanoTime();
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            try {
+                if (settings.mode.equals("open"))
+                    runOpen(run, settings, workers, start);
+                else
+                    runClosed(run, settings, workers, start);
+            } catch (InterruptedException ex) {
+                workers.shutdownNow(); // abandon outstanding requests rather than wait them out
+                throw ex;
+            }
+        } // close() waits for outstanding requests
+        long elapsed = System.nanoTime() - start;
+
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("mode", settings.mode);
+        if (settings.rate > 0)
+            out.put("targetRate", settings.rate);
+        out.put("concurrency", settings.concurrency);
+        out.put("durationMs", TimeUnit.NANOSECONDS.toMillis(elapsed));
+        out.put("requests", run.sent.sum());
+        out.put("errors", run.errors.sum());
+        out.put("achievedRate", Math.round(run.sent.sum() * 1e11 / elapsed) / 100.0);
+        out.put("coordinatedOmissionCorrected", settings.mode.equals("open") || settings.rate > 0);
+        out.put("latencyMs", run.histogram.summaryMillis());
+        Map<String, Long> statuses = new LinkedHashMap<>();
+        run.statuses.forEach((k, v) -> statuses.put(k, v.get()));
+        out.put("statusCounts", statuses);
+        return out;
+    }
+
+    private void runOpen(Run run, Settings s, ExecutorService workers, long start) throws InterruptedException {
+        long period = (long) (1_000_000_000L / s.rate);
+        Semaphore outstanding = new Semaphore(s.concurrency);
+        for (long i = 0;; i++) {
+            long intended = start + i * period;
+            if (intended - start >= s.durationNanos)
+                break;
+            long wait = intended - System.nanoTime();
+            if (wait > 0)
+                LockSupport.parkNanos(wait);
+            outstanding.acquire();
+            workers.execute(() -> {
+                try {
+                    run.send(intended, 0);
+                } finally {
+                    outstanding.release();
+                }
+            });
+        }
+    }
+
+    private void runClosed(Run run, Settings s, ExecutorService workers, long start) {
+        long expectedIntervalMicros = s.rate > 0 ? (long) (s.concurrency * 1_000_000L / s.rate) : 0;
+        for (int w = 0; w < s.concurrency; w++) {
+            workers.execute(() -> {
+                while (System.nanoTime() - start < s.durationNanos && !Thread.currentThread().isInterrupted())
+                    run.send(System.nanoTime(), expectedIntervalMicros);
+            });
+        }
+    }
+
+    private final class Run {
+        final String tenant;
+        final String profile;
+        final HttpRequest request;
+        final LatencyHistogram histogram = new LatencyHistogram();
+        final LongAdder sent = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final Map<String, AtomicLong> statuses = new ConcurrentHashMap<>();
+
+        Run(String tenant, String profile, HttpRequest request) {
+            this.tenant = tenant;
+            this.profile = profile;
+            this.request = request;
+        }
+
+        /** Sends once and records latency measured from {@code startNanos}. */
+        void send(long startNanos, long expectedIntervalMicros) {
+            String status;
+            try {
+                HttpResponse<Void> response = pool.send(tenant, profile, request, HttpResponse.BodyHandlers.discarding());
+                status = (response.statusCode() / 100) + "xx";
+                if (response.statusCode() >= 400)
+                    errors.increment();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception ex) {
+                status = "error";
+                errors.increment();
+            }
+            sent.increment();
+            histogram.recordCorrected(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos), expectedIntervalMicros);
+            statuses.computeIfAbsent(status, k -> new AtomicLong()).incrementAndGet();
+        }
+    }
+}
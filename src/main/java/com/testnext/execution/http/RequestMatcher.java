@@ -0,0 +1,82 @@
+package com.testnext.execution.http;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Builds the key under which a request is recorded and looked up for replay. The
+ * fields taken into account are configurable: {@code method}, {@code url} (scheme
+ * and host lower-cased, query parameters sorted) and {@code body} (JSON re-serialized
+ * with sorted keys, other text with whitespace collapsed). The key is a SHA-256 of
+ * the normalized fields, so index entries have a fixed, small size.
+ */
+public class RequestMatcher {
+    public static final List<String> DEFAULT_FIELDS = List.of("method", "url", "body");
+
+    private static final ObjectMapper CANONICAL = new ObjectMapper()
+            .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+
+    private final boolean method;
+    private final boolean url;
+    private final boolean body;
+
+    public RequestMatcher(List<String> fields) {
+        Set<String> f = Set.copyOf(fields == null || fields.isEmpty() ? DEFAULT_FIELDS : fields);
+        this.method = f.contains("method");
+        this.url = f.contains("url");
+        this.body = f.contains("body");
+    }
+
+    public String key(String httpMethod, URI uri, Object requestBody) {
+        StringBuilder sb = new StringBuilder();
+        if (method)
+            sb.append(httpMethod.toUpperCase(Locale.ROOT));
+        sb.append('\n');
+        if (url)
+            sb.append(normalizeUrl(uri));
+        sb.append('\n');
+        if (body)
+            sb.append(normalizeBody(requestBody));
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(sb.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    static String normalizeUrl(URI uri) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(uri.getScheme() == null ? "" : uri.getScheme().toLowerCase(Locale.ROOT)).append("://");
+        sb.append(uri.getHost() == null ? "" : uri.getHost().toLowerCase(Locale.ROOT));
+        if (uri.getPort() >= 0)
+            sb.append(':').append(uri.getPort());
+        sb.append(uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath());
+        if (uri.getRawQuery() != null && !uri.getRawQuery().isEmpty()) {
+            String[] params = uri.getRawQuery().split("&");
+            Arrays.sort(params);
+            sb.append('?').append(String.join("&", params));
+        }
+        return sb.toString();
+    }
+
+    static String normalizeBody(Object requestBody) {
+        if (requestBody == null)
+            return "";
+        try {
+            Object tree = requestBody instanceof String s ? CANONICAL.readValue(s, Object.class) : requestBody;
+            return CANONICAL.writeValueAsString(tree);
+        } catch (Exception notJson) {
+            return requestBody.toString().trim().replaceAll("\\s+", " ");
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.testnext.execution.http;
+
+import com.testnext.execution.template.ValuePath;
+
+import java.net.http.HttpResponse;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Checks on an HTTP step's response, compiled from the step's {@code expect} and
+ * {@code extract} parameters:
+ *
+ * <pre>
+ * "expect":  { "status": [200, 201], "headers": { "Content-Type": "application/json" },
+ *              "json": { "$.status": "BOOKED", "$.legs[0].id": "L1" } }
+ * "extract": { "tradeId": "$.id" }
+ * </pre>
+ *
+ * Status and headers are checked as soon as the response head arrives; JSON paths
+ * are compiled to JSON pointers and matched while the body streams, so no check
+ * needs the body buffered as a string. Without a status expectation any 2xx passes.
+ */
+public class ResponseExpectations {
+    private final Set<Integer> statuses = new HashSet<>();
+    private final Map<String, String> headers = new LinkedHashMap<>();
+    private final Map<String, Object> expectedByPointer = new LinkedHashMap<>();
+    private final Map<String, String> expressionByPointer = new HashMap<>();
+    private final Map<String, String> extractByPointer = new LinkedHashMap<>(); // pointer -> output name
+    private int maxDepth;
+
+    public static ResponseExpectations compile(Object expect, Object extract) {
+        ResponseExpectations e = new ResponseExpectations();
+        if (expect instanceof Map<?, ?> m) {
+            Object status = m.get("status");
+            if (status instanceof List<?> list) {
+                for (Object s : list)
+                    e.statuses.add(Integer.parseInt(s.toString()));
+            } else if (status != null) {
+                e.statuses.add(Integer.parseInt(status.toString()));
+            }
+            if (m.get("headers") instanceof Map<?, ?> h)
+                h.forEach((k, v) -> e.headers.put(String.valueOf(k), String.valueOf(v)));
+            if (m.get("json") instanceof Map<?, ?> json) {
+                json.forEach((path, expected) -> {
+                    String pointer = e.pointer(String.valueOf(path));
+                    e.expectedByPointer.put(pointer, expected);
+                    e.expressionByPointer.put(pointer, String.valueOf(path));
+                });
+            }
+        }
+        if (extract instanceof Map<?, ?> x)
+            x.forEach((name, path) -> e.extractByPointer.put(e.pointer(String.valueOf(path)), String.valueOf(name)));
+        return e;
+    }
+
+    private String pointer(String path) {
+        ValuePath vp = ValuePath.parse(path);
+        maxDepth = Math.max(maxDepth, vp.size());
+        return vp.toJsonPointer();
+    }
+
+    /** Status and header checks, evaluated on the response head before the body is read. */
+    void checkHead(HttpResponse.ResponseInfo info, List<String> failures) {
+        int status = info.statusCode();
+        boolean statusOk = statuses.isEmpty() ? status >= 200 && status < 300 : statuses.contains(status);
+        if (!statusOk)
+            failures.add("status: expected " + (statuses.isEmpty() ? "2xx" : statuses) + " but was " + status);
+        headers.forEach((name, expected) -> {
+            String actual = info.headers().firstValue(name).orElse(null);
+            // media type headers commonly carry parameters such as charset
+            if (actual == null || !(actual.equals(expected) || actual.startsWith(expected + ";")))
+                failures.add("header " + name + ": expected " + expected + " but was " + actual);
+        });
+    }
+
+    boolean hasJsonPaths() {
+        return !expectedByPointer.isEmpty() || !extractByPointer.isEmpty();
+    }
+
+    /** Deepest path; streamed values below it are never matched. */
+    int maxDepth() {
+        return maxDepth;
+    }
+
+    boolean wants(String pointer) {
+        return expectedByPointer.containsKey(pointer) || extractByPointer.containsKey(pointer);
+    }
+
+    /** Compares the values seen while streaming and returns the extracted outputs. */
+    Map<String, Object> finish(Map<String, Object> seenByPointer, List<String> failures) {
+        expectedByPointer.forEach((pointer, expected) -> {
+            String expr = expressionByPointer.get(pointer);
+            if (!seenByPointer.containsKey(pointer))
+                failures.add(expr + ": not found");
+            else if (!matches(expected, seenByPointer.get(pointer)))
+                failures.add(expr + ": expected " + expected + " but was " + seenByPointer.get(pointer));
+        });
+        Map<String, Object> extracted = new LinkedHashMap<>();
+        extractByPointer.forEach((pointer, name) -> extracted.put(name, seenByPointer.get(pointer)));
+        return extracted;
+    }
+
+    private static boolean matches(Object expected, Object actual) {
+        if (expected instanceof Number a && actual instanceof Number b)
+            return a.doubleValue() == b.doubleValue();
+        return Objects.equals(expected, actual);
+    }
+}
@@ -0,0 +1,244 @@
+package com.testnext.execution.http;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+
+/**
+ * Reads an HTTP step's response body as it arrives instead of buffering it as one
+ * string. Up to {@code maxInMemoryBytes} are kept in memory; a larger body is
+ * written in full to a file under the artifact directory and only its first bytes
+ * stay in memory as a preview. JSON checks from {@link ResponseExpectations} run on
+ * a non-blocking parser fed chunk by chunk, so they cost no extra copy of the body.
+ */
+public class StreamingBodyHandler implements HttpResponse.BodyHandler<StreamingBodyHandler.StreamedBody> {
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private final ResponseExpectations expectations;
+    private final int maxInMemoryBytes;
+    private final Path artifactDir;
+
+    public StreamingBodyHandler(ResponseExpectations expectations, int maxInMemoryBytes, Path artifactDir) {
+        this.expectations = expectations;
+        this.maxInMemoryBytes = maxInMemoryBytes;
+        this.artifactDir = artifactDir;
+    }
+
+    /**
+     * Runs a response that did not come from the network (e.g. a replayed recording)
+     * through the same capping and checks as a live one.
+     */
+    public StreamedBody replay(int status, Map<String, List<String>> headers, byte[] body) throws Exception {
+        HttpHeaders h = HttpHeaders.of(headers, (name, value) -> true);
+        HttpResponse.BodySubscriber<StreamedBody> subscriber = apply(new HttpResponse.ResponseInfo() {
+            public int statusCode() { return status; }
+            public HttpHeaders headers() { return h; }
+            public HttpClient.Version version() { return HttpClient.Version.HTTP_1_1; }
+        });
+        subscriber.onSubscribe(new Flow.Subscription() {
+            public void request(long n) { }
+            public void cancel() { }
+        });
+        subscriber.onNext(List.of(ByteBuffer.wrap(body)));
+        subscriber.onComplete();
+        return subscriber.getBody().toCompletableFuture().get();
+    }
+
+    @Override
+    public HttpResponse.BodySubscriber<StreamedBody> apply(HttpResponse.ResponseInfo info) {
+        List<String> failures = new ArrayList<>();
+        expectations.checkHead(info, failures);
+        return new Subscriber(failures);
+    }
+
+    /** Body of a streamed response: in memory when small, otherwise an artifact file plus a preview. */
+    public static final class StreamedBody {
+        private final byte[] inMemory;
+        private final Path artifact;
+        private final long size;
+        private final List<String> failures;
+        private final Map<String, Object> extracted;
+
+        StreamedBody(byte[] inMemory, Path artifact, long size, List<String> failures, Map<String, Object> extracted) {
+            this.inMemory = inMemory;
+            this.artifact = artifact;
+            this.size = size;
+            this.failures = failures;
+            this.extracted = extracted;
+        }
+
+        /** Whole body when it fit in memory, otherwise the first bytes of it. */
+        public String text() { return new String(inMemory, StandardCharsets.UTF_8); }
+        public boolean isSpilled() { return artifact != null; }
+        public Path getArtifact() { return artifact; }
+        public long getSize() { return size; }
+        public List<String> getFailures() { return failures; }
+        public Map<String, Object> getExtracted() { return extracted; }
+
+        /** The complete body, read back from the artifact when it was spilled. */
+        public byte[] bytes() throws IOException {
+            return artifact != null ? Files.readAllBytes(artifact) : inMemory;
+        }
+    }
+
+    private final class Subscriber implements HttpResponse.BodySubscriber<StreamedBody> {
+        private final CompletableFuture<StreamedBody> result = new CompletableFuture<>();
+        private final List<String> failures;
+        private final ByteArrayOutputStream memory = new ByteArrayOutputStream();
+        private final Map<String, Object> seen = new HashMap<>();
+        private Flow.Subscription subscription;
+        private FileChannel spill;
+        private Path artifact;
+        private long size;
+        private JsonParser parser;
+
+        Subscriber(List<String> failures) {
+            this.failures = failures;
+            if (expectations.hasJsonPaths()) {
+                try {
+                    parser = JSON.createNonBlockingByteArrayParser();
+                } catch (IOException ex) {
+                    failures.add("cannot parse body as JSON: " + ex.getMessage());
+                }
+            }
+        }
+
+        @Override
+        public CompletionStage<StreamedBody> getBody() {
+            return result;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> buffers) {
+            try {
+                for (ByteBuffer buf : buffers) {
+                    byte[] chunk = new byte[buf.remaining()];
+                    buf.get(chunk);
+                    size += chunk.length;
+                    store(chunk);
+                    parse(chunk);
+                }
+                subscription.request(1);
+            } catch (IOException ex) {
+                subscription.cancel();
+                onError(ex);
+            }
+        }
+
+        private void store(byte[] chunk) throws IOException {
+            if (spill == null && memory.size() + chunk.length <= maxInMemoryBytes) {
+                memory.write(chunk);
+                return;
+            }
+            if (spill == null) {
+                Files.createDirectories(artifactDir);
+                artifact = artifactDir.resolve(UUID.randomUUID() + ".body");
+                spill = FileChannel.open(artifact, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+                writeFully(ByteBuffer.wrap(memory.toByteArray()));
+                // keep the preview filled up to the cap
+                memory.write(chunk, 0, Math.max(0, Math.min(chunk.length, maxInMemoryBytes - memory.size())));
+            }
+            writeFully(ByteBuffer.wrap(chunk));
+        }
+
+        private void writeFully(ByteBuffer buf) throws IOException {
+            while (buf.hasRemaining())
+                spill.write(buf);
+        }
+
+        private void parse(byte[] chunk) {
+            if (parser == null)
+                return;
+            try {
+                ((ByteArrayFeeder) parser.getNonBlockingInputFeeder()).feedInput(chunk, 0, chunk.length);
+                drain();
+            } catch (IOException ex) {
+                failures.add("body is not valid JSON: " + ex.getMessage());
+                parser = null; // keep streaming the body, stop matching paths
+            }
+        }
+
+        private void drain() throws IOException {
+            JsonToken t;
+            while ((t = parser.nextToken()) != null && t != JsonToken.NOT_AVAILABLE) {
+                if (t == JsonToken.FIELD_NAME || t == JsonToken.END_OBJECT || t == JsonToken.END_ARRAY)
+                    continue;
+                // a container's location is held by its parent context
+                JsonStreamContext ctx = t.isStructStart() ? parser.getParsingContext().getParent() : parser.getParsingContext();
+                if (ctx == null || ctx.getNestingDepth() > expectations.maxDepth())
+                    continue;
+                String pointer = ctx.pathAsPointer().toString();
+                if (!expectations.wants(pointer))
+                    continue;
+                seen.put(pointer, switch (t) {
+                    case START_OBJECT -> "{...}";
+                    case START_ARRAY -> "[...]";
+                    case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> parser.getNumberValue();
+                    case VALUE_TRUE -> Boolean.TRUE;
+                    case VALUE_FALSE -> Boolean.FALSE;
+                    case VALUE_NULL -> null;
+                    default -> parser.getText();
+                });
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            closeSpill();
+            result.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            if (parser != null) {
+                try {
+                    ((ByteArrayFeeder) parser.getNonBlockingInputFeeder()).endOfInput();
+                    drain();
+                } catch (IOException ex) {
+                    failures.add("body is not valid JSON: " + ex.getMessage());
+                }
+            }
+            closeSpill();
+            Map<String, Object> extracted = expectations.finish(seen, failures);
+            result.complete(new StreamedBody(memory.toByteArray(), artifact, size, failures, extracted));
+        }
+
+        private void closeSpill() {
+            if (spill == null)
+                return;
+            try {
+                spill.close();
+            } catch (IOException ignored) {
+                // the artifact is incomplete either way; the size reported is what was received
+            }
+        }
+    }
+}
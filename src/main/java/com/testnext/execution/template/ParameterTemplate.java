@@ -0,0 +1,184 @@
+package com.testnext.execution.template;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Step parameters with {@code ${...}} placeholders, compiled once per plan.
+ *
+ * Compilation turns the parameter tree into nodes: subtrees without placeholders
+ * become constants that are returned as the original objects, and strings with
+ * placeholders become a list of literal segments and pre-parsed {@link ValuePath}s.
+ * Resolving therefore only walks the dynamic parts: a value that is exactly one
+ * placeholder keeps its type (number, map, ...), and mixed strings are assembled
+ * in a single pre-sized builder. A literal "${" is written as "$${".
+ */
+public final class ParameterTemplate {
+    private static final ParameterTemplate EMPTY = new ParameterTemplate(new Constant(Map.of()));
+
+    private final Node root;
+
+    private ParameterTemplate(Node root) {
+        this.root = root;
+    }
+
+    public static ParameterTemplate compile(Map<String, Object> parameters) {
+        if (parameters == null || parameters.isEmpty())
+            return EMPTY;
+        return new ParameterTemplate(compileNode(parameters));
+    }
+
+    /** True when resolving returns the compiled parameters unchanged. */
+    public boolean isConstant() {
+        return root instanceof Constant;
+    }
+
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> resolve(TemplateContext ctx) {
+        return (Map<String, Object>) root.resolve(ctx);
+    }
+
+    private static Node compileNode(Object value) {
+        if (value instanceof String s)
+            return compileString(s);
+        if (value instanceof Map<?, ?> map) {
+            List<Object> keys = new ArrayList<>(map.size());
+            List<Node> children = new ArrayList<>(map.size());
+            boolean dynamic = false;
+            for (Map.Entry<?, ?> e : map.entrySet()) {
+                Node child = compileNode(e.getValue());
+                keys.add(e.getKey());
+                children.add(child);
+                dynamic |= !(child instanceof Constant);
+            }
+            return dynamic ? new MapNode(keys.toArray(), children.toArray(new Node[0])) : new Constant(value);
+        }
+        if (value instanceof List<?> list) {
+            Node[] children = new Node[list.size()];
+            boolean dynamic = false;
+            for (int i = 0; i < children.length; i++) {
+                children[i] = compileNode(list.get(i));
+                dynamic |= !(children[i] instanceof Constant);
+            }
+            return dynamic ? new ListNode(children) : new Constant(value);
+        }
+        return new Constant(value);
+    }
+
+    private static Node compileString(String s) {
+        if (s.indexOf("${") < 0)
+            return new Constant(s);
+        List<Object> parts = new ArrayList<>(); // String literal or ValuePath
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        int n = s.length();
+        while (i < n) {
+            if (s.startsWith("$${", i)) {
+                literal.append("${");
+                i += 3;
+            } else if (s.startsWith("${", i)) {
+                int close = s.indexOf('}', i + 2);
+                if (close < 0)
+                    throw new IllegalArgumentException("Unclosed placeholder in parameter: " + s);
+                if (literal.length() > 0) {
+                    parts.add(literal.toString());
+                    literal.setLength(0);
+                }
+                parts.add(ValuePath.parse(s.substring(i + 2, close)));
+                i = close + 1;
+            } else {
+                literal.append(s.charAt(i++));
+            }
+        }
+        if (literal.length() > 0)
+            parts.add(literal.toString());
+        if (parts.size() == 1 && parts.get(0) instanceof String only)
+            return new Constant(only); // only escapes, no placeholders
+        if (parts.size() == 1)
+            return new Placeholder((ValuePath) parts.get(0));
+        return new Interpolation(parts.toArray());
+    }
+
+    private interface Node {
+        Object resolve(TemplateContext ctx);
+    }
+
+    private record Constant(Object value) implements Node {
+        public Object resolve(TemplateContext ctx) {
+            return value;
+        }
+    }
+
+    private record Placeholder(ValuePath path) implements Node {
+        public Object resolve(TemplateContext ctx) {
+            Object v = ctx.resolve(path);
+            if (v == null)
+                throw new IllegalArgumentException("Unresolved placeholder ${" + path + "}");
+            return v;
+        }
+    }
+
+    private static final class Interpolation implements Node {
+        private final Object[] parts;
+        private final int literalLength;
+
+        Interpolation(Object[] parts) {
+            this.parts = parts;
+            int len = 0;
+            for (Object p : parts) {
+                if (p instanceof String s)
+                    len += s.length();
+            }
+            this.literalLength = len;
+        }
+
+        public Object resolve(TemplateContext ctx) {
+            StringBuilder sb = new StringBuilder(literalLength + 16 * parts.length);
+            for (Object p : parts) {
+                if (p instanceof String s) {
+                    sb.append(s);
+                } else {
+                    Object v = ctx.resolve((ValuePath) p);
+                    if (v == null)
+                        throw new IllegalArgumentException("Unresolved placeholder ${" + p + "}");
+                    sb.append(v);
+                }
+            }
+            return sb.toString();
+        }
+    }
+
+    private static final class MapNode implements Node {
+        private final Object[] keys;
+        private final Node[] children;
+
+        MapNode(Object[] keys, Node[] children) {
+            this.keys = keys;
+            this.children = children;
+        }
+
+        public Object resolve(TemplateContext ctx) {
+            Map<Object, Object> out = new LinkedHashMap<>(keys.length * 2);
+            for (int i = 0; i < keys.length; i++)
+                out.put(keys[i], children[i].resolve(ctx));
+            return out;
+        }
+    }
+
+    private static final class ListNode implements Node {
+        private final Node[] children;
+
+        ListNode(Node[] children) {
+            this.children = children;
+        }
+
+        public Object resolve(TemplateContext ctx) {
+            List<Object> out = new ArrayList<>(children.length);
+            for (Node child : children)
+                out.add(child.resolve(ctx));
+            return out;
+        }
+    }
+}
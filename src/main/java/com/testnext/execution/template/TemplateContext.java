@@ -0,0 +1,66 @@
+package com.testnext.execution.template;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Values placeholders resolve against during one execution.
+ *
+ * {@code ${env.name}} reads the environment lookup; {@code ${steps[n].field}}
+ * reads the output of the n-th step; any other root is the alias of an
+ * earlier step, e.g. {@code ${bookTrade.tradeId}}.
+ */
+public class TemplateContext {
+    private final Function<String, Object> env;
+    private final Map<String, Object> outputsByAlias = new ConcurrentHashMap<>();
+    private final List<Object> outputsByPosition = new ArrayList<>();
+
+    public TemplateContext(Function<String, Object> env) {
+        this.env = env == null ? name -> null : env;
+    }
+
+    /** Records a step's output under its alias (when set) and, if positional, in step order. */
+    public synchronized void putOutput(String alias, int position, Map<String, Object> output) {
+        Object value = output == null ? Map.of() : output;
+        if (alias != null)
+            outputsByAlias.put(alias, value);
+        if (position >= 0) {
+            while (outputsByPosition.size() <= position)
+                outputsByPosition.add(null);
+            outputsByPosition.set(position, value);
+        }
+    }
+
+    /** Binds an arbitrary root, e.g. the current dataset row. */
+    public void bind(String root, Object value) {
+        outputsByAlias.put(root, value);
+    }
+
+    Object resolve(ValuePath path) {
+        if (path.size() == 0)
+            return null;
+        Object root = path.segment(0);
+        if ("env".equals(root)) {
+            if (path.size() < 2)
+                return null;
+            return path.read(env.apply(String.valueOf(path.segment(1))), 2);
+        }
+        if ("steps".equals(root)) {
+            synchronized (this) {
+                return path.read(outputsByPosition, 1);
+            }
+        }
+        return path.read(outputsByAlias.get(root), 1);
+    }
+
+    /** Alias of a step: the last segment of its refId, e.g. {@code bookTrade} for {@code trade.bookTrade}. */
+    public static String aliasOf(String refId) {
+        if (refId == null)
+            return null;
+        int dot = refId.lastIndexOf('.');
+        return dot < 0 ? refId : refId.substring(dot + 1);
+    }
+}
@@ -0,0 +1,93 @@
+package com.testnext.execution.template;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pre-parsed path into a tree of maps and lists, e.g. {@code bookTrade.tradeId},
+ * {@code steps[0].body} or {@code $.items[2].id}. Parsing happens once; reading
+ * walks the segments without creating intermediate strings.
+ */
+public final class ValuePath {
+    private final String expression;
+    private final Object[] segments; // String for a map key, Integer for a list index
+
+    private ValuePath(String expression, Object[] segments) {
+        this.expression = expression;
+        this.segments = segments;
+    }
+
+    /** Parses a dotted path with optional {@code [n]} indexes and an optional leading {@code $.}. */
+    public static ValuePath parse(String expression) {
+        String p = expression.trim();
+        if (p.equals("$"))
+            p = "";
+        else if (p.startsWith("$."))
+            p = p.substring(2);
+        else if (p.startsWith("$["))
+            p = p.substring(1);
+        List<Object> out = new ArrayList<>();
+        int i = 0;
+        int n = p.length();
+        while (i < n) {
+            char c = p.charAt(i);
+            if (c == '.') {
+                i++;
+            } else if (c == '[') {
+                int close = p.indexOf(']', i);
+                if (close < 0)
+                    throw new IllegalArgumentException("Unclosed index in path: " + expression);
+                String inner = p.substring(i + 1, close).trim();
+                if (inner.length() >= 2 && (inner.charAt(0) == '\'' || inner.charAt(0) == '"'))
+                    out.add(inner.substring(1, inner.length() - 1));
+                else
+                    out.add(Integer.parseInt(inner));
+                i = close + 1;
+            } else {
+                int end = i;
+                while (end < n && p.charAt(end) != '.' && p.charAt(end) != '[')
+                    end++;
+                out.add(p.substring(i, end));
+                i = end;
+            }
+        }
+        return new ValuePath(expression, out.toArray());
+    }
+
+    public Object read(Object root) {
+        return read(root, 0);
+    }
+
+    /** Reads starting at segment {@code from}; returns null when any segment is missing. */
+    public Object read(Object root, int from) {
+        Object current = root;
+        for (int i = from; i < segments.length && current != null; i++) {
+            Object seg = segments[i];
+            if (seg instanceof Integer idx) {
+                current = current instanceof List<?> list && idx >= 0 && idx < list.size() ? list.get(idx) : null;
+            } else {
+                current = current instanceof Map<?, ?> map ? map.get(seg) : null;
+            }
+        }
+        return current;
+    }
+
+    public int size() { return segments.length; }
+
+    /** Segment at position i: a String key or an Integer index. */
+    public Object segment(int i) { return segments[i]; }
+
+    public String getExpression() { return expression; }
+
+    /** The path as an RFC 6901 JSON pointer, e.g. {@code /items/2/id}, for matching streamed JSON. */
+    public String toJsonPointer() {
+        StringBuilder sb = new StringBuilder();
+        for (Object seg : segments)
+            sb.append('/').append(seg.toString().replace("~", "~0").replace("/", "~1"));
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() { return expression; }
+}
@@ -5,7 +5,13 @@ import java.time.Instant;
 import java.util.UUID;
 
 @Entity
-@Table(name = "executions")
+@Table(name = "executions", indexes = {
+        @Index(name = "idx_executions_started", columnList = "started_at, id"),
+        @Index(name = "idx_executions_test_started", columnList = "test_id, started_at, id"),
+        @Index(name = "idx_executions_status_started", columnList = "status, started_at, id"),
+        @Index(name = "idx_executions_tenant_started", columnList = "tenant_id, started_at, id"),
+        @Index(name = "idx_executions_project_started", columnList = "project_id, started_at, id")
+})
 public class ExecutionEntity {
     @Id
     @Column(length = 36)
@@ -14,6 +20,12 @@ public class ExecutionEntity {
     @Column(name = "test_id", nullable = false)
     public Long testId;
 
+    @Column(name = "tenant_id")
+    public Long tenantId; // owner of the test's project, copied at start
+
+    @Column(name = "project_id")
+    public Long projectId;
+
     @Column(nullable = false)
     public String status;
 
@@ -22,4 +34,8 @@ public class ExecutionEntity {
 
     @Column(name = "finished_at")
     public Instant finishedAt;
+
+    @Lob
+    @Column(name = "iteration_summary_json")
+    public String iterationSummaryJson; // aggregate of dataset iterations, if any
 }
@@ -5,7 +5,11 @@ import java.util.UUID;
 import java.time.Instant;
 
 @Entity
-@Table(name = "execution_steps")
+@Table(name = "execution_steps", indexes = {
+        @Index(name = "idx_execution_steps_exec", columnList = "execution_id"),
+        @Index(name = "idx_execution_steps_result_ref", columnList = "result_ref"),
+        @Index(name = "idx_execution_steps_parameters_ref", columnList = "parameters_ref")
+})
 public class ExecutionStepEntity {
     @Id
     @Column(length = 36)
@@ -26,6 +30,20 @@ public class ExecutionStepEntity {
     @Lob
     public String parametersJson;
 
+    // hashes into result_blobs; when set, the matching *Json column is left empty
+    @Column(name = "result_ref", length = 64)
+    public String resultRef;
+
+    @Column(name = "parameters_ref", length = 64)
+    public String parametersRef;
+
+    @Lob
+    @Column(name = "assertions_json")
+    public String assertionsJson;
+
+    @Column(name = "created_at")
+    public Instant createdAt; // start of the execution; the partition key of execution history
+
     @Column(name = "started_at")
     public Instant startedAt;
 
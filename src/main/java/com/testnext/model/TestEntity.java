@@ -3,7 +3,7 @@ package com.testnext.model;
 import jakarta.persistence.*;
 
 @Entity
-@Table(name = "tests")
+@Table(name = "tests", indexes = @Index(name = "idx_tests_suite", columnList = "suite_id"))
 public class TestEntity {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -14,4 +14,8 @@ public class TestEntity {
 
     @Column(nullable = false)
     public String name;
+
+    @Lob
+    @Column(name = "dataset_json")
+    public String datasetJson; // optional dataset binding, one iteration per row
 }
@@ -3,7 +3,7 @@ package com.testnext.model;
 import jakarta.persistence.*;
 
 @Entity
-@Table(name = "test_steps")
+@Table(name = "test_steps", indexes = @Index(name = "idx_test_steps_test", columnList = "test_id"))
 public class TestStepEntity {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -17,4 +17,8 @@ public class TestStepEntity {
 
     @Lob
     public String parametersJson; // optional JSON of parameters
+
+    @Lob
+    @Column(name = "assertions_json")
+    public String assertionsJson; // optional declarative checks on the step output
 }
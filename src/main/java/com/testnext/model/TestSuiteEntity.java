@@ -3,7 +3,7 @@ package com.testnext.model;
 import jakarta.persistence.*;
 
 @Entity
-@Table(name = "test_suites")
+@Table(name = "test_suites", indexes = @Index(name = "idx_test_suites_project", columnList = "project_id"))
 public class TestSuiteEntity {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -1,6 +1,7 @@
 package com.testnext.observability;
 
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
 // Actuator health types are provided by Spring Boot Actuator. For Spring Boot 4 some
@@ -39,6 +40,7 @@ public class ObservabilityConfig {
         private final Counter executionsCompleted;
         private final Counter executionsFailed;
         private final Timer executionDuration;
+        private final DistributionSummary persistenceStatements;
 
         public ExecutionMetrics(MeterRegistry meterRegistry) {
             this.executionsStarted = Counter.builder("execution.started")
@@ -57,6 +59,11 @@ public class ObservabilityConfig {
                     .description("Duration of test executions")
                     .publishPercentiles(0.5, 0.95, 0.99)
                     .register(meterRegistry);
+
+            this.persistenceStatements = DistributionSummary.builder("execution.persistence.statements")
+                    .description("Database round trips spent persisting one execution's state")
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry);
         }
 
         public void recordExecutionStarted() {
@@ -78,5 +85,9 @@ public class ObservabilityConfig {
         public void recordExecutionStop(Timer.Sample sample) {
             sample.stop(executionDuration);
         }
+
+        public void recordPersistenceStatements(int statements) {
+            persistenceStatements.record(statements);
+        }
     }
 }
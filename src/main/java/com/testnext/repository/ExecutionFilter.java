@@ -0,0 +1,26 @@
+package com.testnext.repository;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Criteria for keyset-paginated execution listings. Null fields do not filter.
+ * Results are ordered by {@code (startedAt, id)} descending; {@code afterStartedAt}
+ * and {@code afterId} are the key of the last row of the previous page.
+ */
+public class ExecutionFilter {
+    public Long tenantId;
+    public Long projectId;
+    public Long suiteId;
+    public Long testId;
+    public String status;
+    public Instant from; // inclusive
+    public Instant to; // exclusive
+    public Instant afterStartedAt;
+    public UUID afterId;
+    /**
+     * Also match rows whose tenant/project columns are not filled yet, by walking
+     * test, suite and project. Needed until the ownership backfill has completed.
+     */
+    public boolean includeUnowned;
+}
@@ -0,0 +1,5 @@
+package com.testnext.repository;
+
+/** Tenant and project owning an execution; both are null on rows not backfilled yet. */
+public record ExecutionOwner(Long tenantId, Long projectId, Long testId) {
+}
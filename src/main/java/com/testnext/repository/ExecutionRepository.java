@@ -4,10 +4,18 @@ import com.testnext.model.ExecutionEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
 import java.util.UUID;
 
-public interface ExecutionRepository extends JpaRepository<ExecutionEntity, UUID> {
-    @org.springframework.data.jpa.repository.Query("SELECT e FROM ExecutionEntity e JOIN TestEntity t ON e.testId = t.id JOIN TestSuiteEntity s ON t.suiteId = s.id WHERE s.projectId = :projectId ORDER BY e.startedAt DESC")
+public interface ExecutionRepository extends JpaRepository<ExecutionEntity, UUID>, ExecutionRepositoryCustom {
+    // rows the ownership backfill has not reached yet are matched through test and suite
+    @org.springframework.data.jpa.repository.Query("SELECT e FROM ExecutionEntity e LEFT JOIN TestEntity t ON e.testId = t.id LEFT JOIN TestSuiteEntity s ON t.suiteId = s.id "
+            + "WHERE e.projectId = :projectId OR (e.projectId IS NULL AND s.projectId = :projectId) ORDER BY e.startedAt DESC")
     java.util.List<ExecutionEntity> findByProjectId(Long projectId);
 
-    @org.springframework.data.jpa.repository.Query("SELECT e FROM ExecutionEntity e JOIN TestEntity t ON e.testId = t.id JOIN TestSuiteEntity s ON t.suiteId = s.id JOIN ProjectEntity p ON s.projectId = p.id WHERE p.tenantId = :tenantId ORDER BY e.startedAt DESC")
+    @org.springframework.data.jpa.repository.Query("SELECT e FROM ExecutionEntity e LEFT JOIN TestEntity t ON e.testId = t.id LEFT JOIN TestSuiteEntity s ON t.suiteId = s.id "
+            + "WHERE e.tenantId = :tenantId OR (e.tenantId IS NULL AND s.projectId IN (SELECT p.id FROM ProjectEntity p WHERE p.tenantId = :tenantId)) "
+            + "ORDER BY e.startedAt DESC")
     java.util.List<ExecutionEntity> findByTenantId(Long tenantId);
+
+    /** Owner columns of one execution, by primary key. */
+    @org.springframework.data.jpa.repository.Query("SELECT new com.testnext.repository.ExecutionOwner(e.tenantId, e.projectId, e.testId) FROM ExecutionEntity e WHERE e.id = :id")
+    java.util.Optional<ExecutionOwner> findOwner(UUID id);
 }
@@ -0,0 +1,13 @@
+package com.testnext.repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface ExecutionRepositoryCustom {
+    /** Up to {@code limit} executions matching the filter, newest first, after the filter's key. */
+    List<ExecutionRow> findPage(ExecutionFilter filter, int limit);
+
+    /** The execution with its names, step counts and iteration summary, in one query. */
+    Optional<ExecutionRow> findRow(UUID id);
+}
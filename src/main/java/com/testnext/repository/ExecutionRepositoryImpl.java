@@ -0,0 +1,99 @@
+package com.testnext.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Keyset pagination over executions. Only the predicates a filter needs are added,
+ * so every query stays a range scan on one of the {@code (..., started_at, id)}
+ * indexes of {@code executions} and costs the same on the first page as on the last.
+ * Rows come back as {@link ExecutionRow} projections: test and suite names and step
+ * counts are part of the same query, so a page is one round trip however long it is.
+ *
+ * Executions without {@code started_at} are not listed: the keyset cannot place
+ * them. Every insert path sets it, and tenant migration V3 backfills older rows
+ * from {@code finished_at} or their steps' {@code created_at}.
+ */
+public class ExecutionRepositoryImpl implements ExecutionRepositoryCustom {
+    @PersistenceContext
+    private EntityManager em;
+
+    // constructor arguments of ExecutionRow; each query closes the expression
+    private static final String ROW = "new com.testnext.repository.ExecutionRow(e.id, e.testId, e.status, e.startedAt, "
+            + "e.finishedAt, t.name, s.name, "
+            + "(SELECT COUNT(st) FROM ExecutionStepEntity st WHERE st.executionId = e.id), "
+            + "(SELECT COUNT(sf) FROM ExecutionStepEntity sf WHERE sf.executionId = e.id "
+            + "AND UPPER(sf.status) IN ('FAILED', 'CIRCUIT_OPEN'))"; // the engine writes lower case
+    private static final String FROM = " FROM ExecutionEntity e LEFT JOIN TestEntity t ON e.testId = t.id "
+            + "LEFT JOIN TestSuiteEntity s ON t.suiteId = s.id";
+
+    @Override
+    public List<ExecutionRow> findPage(ExecutionFilter f, int limit) {
+        StringBuilder jpql = new StringBuilder("SELECT " + ROW + ")" + FROM);
+        List<String> where = new ArrayList<>();
+        Map<String, Object> params = new LinkedHashMap<>();
+
+        if (f.tenantId != null) {
+            where.add(f.includeUnowned
+                    ? "(e.tenantId = :tenantId OR (e.tenantId IS NULL AND s.projectId IN "
+                            + "(SELECT p.id FROM ProjectEntity p WHERE p.tenantId = :tenantId)))"
+                    : "e.tenantId = :tenantId");
+            params.put("tenantId", f.tenantId);
+        }
+        if (f.projectId != null) {
+            where.add(f.includeUnowned
+                    ? "(e.projectId = :projectId OR (e.projectId IS NULL AND s.projectId = :projectId))"
+                    : "e.projectId = :projectId");
+            params.put("projectId", f.projectId);
+        }
+        if (f.suiteId != null) {
+            where.add("t.suiteId = :suiteId");
+            params.put("suiteId", f.suiteId);
+        }
+        if (f.testId != null) {
+            where.add("e.testId = :testId");
+            params.put("testId", f.testId);
+        }
+        if (f.status != null) {
+            where.add("e.status = :status");
+            params.put("status", f.status);
+        }
+        if (f.from != null) {
+            where.add("e.startedAt >= :from");
+            params.put("from", f.from);
+        }
+        if (f.to != null) {
+            where.add("e.startedAt < :to");
+            params.put("to", f.to);
+        }
+        if (f.afterStartedAt != null && f.afterId != null) {
+            where.add("(e.startedAt < :afterStartedAt OR (e.startedAt = :afterStartedAt AND e.id < :afterId))");
+            params.put("afterStartedAt", f.afterStartedAt);
+            params.put("afterId", f.afterId);
+        } else {
+            where.add("e.startedAt IS NOT NULL");
+        }
+        jpql.append(" WHERE ").append(String.join(" AND ", where));
+        jpql.append(" ORDER BY e.startedAt DESC, e.id DESC");
+
+        TypedQuery<ExecutionRow> query = em.createQuery(jpql.toString(), ExecutionRow.class);
+        params.forEach(query::setParameter);
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public Optional<ExecutionRow> findRow(UUID id) {
+        return em.createQuery("SELECT " + ROW + ", e.iterationSummaryJson)" + FROM + " WHERE e.id = :id",
+                ExecutionRow.class)
+                .setParameter("id", id)
+                .getResultList().stream().findFirst();
+    }
+}
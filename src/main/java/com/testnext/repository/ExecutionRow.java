@@ -0,0 +1,19 @@
+package com.testnext.repository;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * An execution joined with the names of its test and suite and the counts of its
+ * steps, read in one query. {@code iterationSummaryJson} is only read for single
+ * executions; listings leave it null.
+ */
+public record ExecutionRow(UUID id, Long testId, String status, Instant startedAt, Instant finishedAt,
+        String testName, String suiteName, Long stepCount, Long failedStepCount, String iterationSummaryJson) {
+
+    /** Row of a listing, without the iteration summary. */
+    public ExecutionRow(UUID id, Long testId, String status, Instant startedAt, Instant finishedAt,
+            String testName, String suiteName, Long stepCount, Long failedStepCount) {
+        this(id, testId, status, startedAt, finishedAt, testName, suiteName, stepCount, failedStepCount, null);
+    }
+}
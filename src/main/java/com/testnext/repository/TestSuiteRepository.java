@@ -5,4 +5,11 @@ import org.springframework.data.jpa.repository.JpaRepository;
 
 public interface TestSuiteRepository extends JpaRepository<TestSuiteEntity, Long> {
     java.util.List<TestSuiteEntity> findByProjectId(Long projectId);
+
+    /** Every suite with its test count, grouped in one query (uses the tests(suite_id) index). */
+    @org.springframework.transaction.annotation.Transactional(readOnly = true)
+    @org.springframework.data.jpa.repository.Query("SELECT new com.testnext.repository.TestSuiteSummary(s.id, s.projectId, s.name, s.description, COUNT(t.id)) "
+            + "FROM TestSuiteEntity s LEFT JOIN TestEntity t ON t.suiteId = s.id "
+            + "GROUP BY s.id, s.projectId, s.name, s.description ORDER BY s.id")
+    java.util.List<TestSuiteSummary> findAllWithTestCounts();
 }
@@ -0,0 +1,5 @@
+package com.testnext.repository;
+
+/** A test suite with the number of tests in it, counted by the database. */
+public record TestSuiteSummary(Long id, Long projectId, String name, String description, Long testCount) {
+}
@@ -0,0 +1,218 @@
+package com.testnext.service;
+
+import com.testnext.repository.ProjectRepository;
+import com.testnext.repository.TestRepository;
+import com.testnext.repository.TestSuiteRepository;
+import com.testnext.tenant.TenantContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache of the ownership data request paths look up over and over:
+ * tests, suites and projects by id (step definitions have their own
+ * {@link StepDefinitionCache}). Values are small immutable snapshots, never managed
+ * entities, so a cached value cannot be modified or lazily loaded outside its session.
+ *
+ * Each tenant schema gets its own LRU partition bounded by
+ * {@code testnext.entity-cache.max-entries-per-tenant}; ids of different tenants
+ * never collide or evict each other. Misses are not cached.
+ *
+ * Consistency: services evict an entity when they update or delete it, once
+ * immediately and once more after the transaction commits, so a reader racing the
+ * writer cannot re-cache the old row. On a single node reads are therefore never
+ * stale after commit. With several nodes, evictions are passed to a
+ * {@link Broadcaster} bean when one is configured; the other nodes apply them with
+ * {@link #evictLocal}, so their staleness is bounded by broadcast latency. Lost
+ * broadcasts, and nodes without a broadcaster, are bounded by
+ * {@code testnext.entity-cache.ttl-seconds} (default 300). The cached fields (names,
+ * parent ids, tenant) are rarely changed, which is what makes this bound acceptable.
+ */
+@Component
+public class EntityCache {
+    public record TestRef(Long id, Long suiteId, String name) {
+    }
+
+    public record SuiteRef(Long id, Long projectId, String name) {
+    }
+
+    public record ProjectRef(Long id, Long tenantId, String name) {
+    }
+
+    /** Forwards evictions to the other nodes of a deployment. */
+    public interface Broadcaster {
+        void publish(String tenant, String type, Long id);
+    }
+
+    private static final String TEST = "test";
+    private static final String SUITE = "suite";
+    private static final String PROJECT = "project";
+
+    private final TestRepository testRepo;
+    private final TestSuiteRepository suiteRepo;
+    private final ProjectRepository projectRepo;
+    private final ObjectProvider<Broadcaster> broadcaster;
+    private final int maxEntriesPerTenant;
+    private final long ttlNanos;
+    private final Map<String, Partition> partitions = new ConcurrentHashMap<>();
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    public EntityCache(TestRepository testRepo, TestSuiteRepository suiteRepo, ProjectRepository projectRepo,
+            ObjectProvider<Broadcaster> broadcaster, MeterRegistry meterRegistry,
+            @Value("${testnext.entity-cache.max-entries-per-tenant:10000}") int maxEntriesPerTenant,
+            @Value("${testnext.entity-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.testRepo = testRepo;
+        this.suiteRepo = suiteRepo;
+        this.projectRepo = projectRepo;
+        this.broadcaster = broadcaster;
+        this.meterRegistry = meterRegistry;
+        this.maxEntriesPerTenant = maxEntriesPerTenant;
+        this.ttlNanos = ttlSeconds * 1_000_000_000L;
+    }
+
+    public Optional<TestRef> test(Long id) {
+        return get(TEST, id, () -> testRepo.findById(id).map(t -> new TestRef(t.id, t.suiteId, t.name)));
+    }
+
+    public Optional<SuiteRef> suite(Long id) {
+        return get(SUITE, id, () -> suiteRepo.findById(id).map(s -> new SuiteRef(s.id, s.projectId, s.name)));
+    }
+
+    public Optional<ProjectRef> project(Long id) {
+        return get(PROJECT, id, () -> projectRepo.findById(id).map(p -> new ProjectRef(p.getId(), p.getTenantId(), p.getName())));
+    }
+
+    /** Tenant owning the suite (suite, project), or null when either is missing. */
+    public Long tenantIdOfSuite(Long suiteId) {
+        return suite(suiteId).flatMap(s -> project(s.projectId())).map(ProjectRef::tenantId).orElse(null);
+    }
+
+    /** Tenant owning the test (test, suite, project), or null when any is missing. */
+    public Long tenantIdOfTest(Long testId) {
+        return test(testId).map(t -> tenantIdOfSuite(t.suiteId())).orElse(null);
+    }
+
+    /** Tenant and project owning the test; either is null when that part of the chain is missing. */
+    public com.testnext.repository.ExecutionOwner ownerOfTest(Long testId) {
+        Long projectId = test(testId).flatMap(t -> suite(t.suiteId())).map(SuiteRef::projectId).orElse(null);
+        Long tenantId = project(projectId).map(ProjectRef::tenantId).orElse(null);
+        return new com.testnext.repository.ExecutionOwner(tenantId, projectId, testId);
+    }
+
+    public void evictTest(Long id) {
+        evict(TEST, id);
+    }
+
+    public void evictSuite(Long id) {
+        evict(SUITE, id);
+    }
+
+    public void evictProject(Long id) {
+        evict(PROJECT, id);
+    }
+
+    /** Applies an eviction received from another node. */
+    public void evictLocal(String tenant, String type, Long id) {
+        Partition p = partitions.get(tenant);
+        if (p != null)
+            p.remove(type + ":" + id);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Optional<T> get(String type, Long id, Supplier<Optional<T>> loader) {
+        if (id == null)
+            return Optional.empty();
+        String tenant = tenant();
+        String key = type + ":" + id;
+        Partition p = partitions.computeIfAbsent(tenant, t -> new Partition(maxEntriesPerTenant));
+        Object cached = p.get(key, System.nanoTime());
+        counter(type, cached != null ? "hit" : "miss").increment();
+        if (cached != null)
+            return Optional.of((T) cached);
+        Optional<T> loaded = loader.get();
+        loaded.ifPresent(v -> p.put(key, new Entry(v, System.nanoTime() + ttlNanos)));
+        return loaded;
+    }
+
+    private void evict(String type, Long id) {
+        if (id == null)
+            return;
+        String tenant = tenant();
+        evictLocal(tenant, type, id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictLocal(tenant, type, id);
+                    broadcast(tenant, type, id);
+                }
+            });
+        } else {
+            broadcast(tenant, type, id);
+        }
+    }
+
+    private void broadcast(String tenant, String type, Long id) {
+        Broadcaster b = broadcaster.getIfAvailable();
+        if (b != null)
+            b.publish(tenant, type, id);
+    }
+
+    private static String tenant() {
+        return TenantContext.getTenant().orElse("public");
+    }
+
+    private Counter counter(String type, String result) {
+        return counters.computeIfAbsent(type + ":" + result, k -> Counter.builder("entity.cache")
+                .description("Tenant entity cache lookups")
+                .tag("type", type)
+                .tag("result", result)
+                .register(meterRegistry));
+    }
+
+    private record Entry(Object value, long expiresAtNanos) {
+    }
+
+    private static final class Partition {
+        private final LinkedHashMap<String, Entry> entries;
+
+        Partition(int maxEntries) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                    return size() > maxEntries;
+                }
+            };
+        }
+
+        synchronized Object get(String key, long now) {
+            Entry e = entries.get(key);
+            if (e == null)
+                return null;
+            if (now - e.expiresAtNanos() >= 0) {
+                entries.remove(key);
+                return null;
+            }
+            return e.value();
+        }
+
+        synchronized void put(String key, Entry e) {
+            entries.put(key, e);
+        }
+
+        synchronized void remove(String key) {
+            entries.remove(key);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.testnext.service;
+
+import com.testnext.repository.TenantRepository;
+import com.testnext.tenant.TenantContext;
+import com.testnext.tenant.entity.TenantEntity;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fills {@code executions.tenant_id} and {@code project_id} on rows written before
+ * those columns existed. Runs once after startup on a background thread, over the
+ * default schema and every active tenant schema, in batches of
+ * {@code testnext.backfill.batch-size} rows so no statement locks a large range.
+ * Rows whose test, suite or project is gone stay null and are skipped.
+ *
+ * Listings match unfilled rows through the old join until {@link #isComplete}
+ * reports that every schema was backfilled; a disabled or failed backfill keeps
+ * that fallback on.
+ */
+@Component
+public class ExecutionOwnershipBackfill {
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(ExecutionOwnershipBackfill.class);
+    private static final String OWNER = "FROM tests t JOIN test_suites s ON t.suite_id = s.id "
+            + "JOIN projects p ON s.project_id = p.id WHERE t.id = executions.test_id";
+
+    private final JdbcTemplate jdbc;
+    private final TenantRepository tenantRepository;
+    private final boolean enabled;
+    private final int batchSize;
+    private volatile boolean complete;
+
+    public ExecutionOwnershipBackfill(JdbcTemplate jdbc, TenantRepository tenantRepository,
+            @Value("${testnext.backfill.enabled:true}") boolean enabled,
+            @Value("${testnext.backfill.batch-size:5000}") int batchSize) {
+        this.jdbc = jdbc;
+        this.tenantRepository = tenantRepository;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled)
+            return;
+        Thread t = new Thread(this::runAll, "testnext-owner-backfill");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    /** True once every schema has been backfilled by this process. */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    void runAll() {
+        boolean allDone = true;
+        List<String> schemas = new ArrayList<>();
+        schemas.add(null);
+        try {
+            for (TenantEntity t : tenantRepository.findAll()) {
+                if (t.isActive())
+                    schemas.add(t.getSchemaName());
+            }
+        } catch (Exception ex) {
+            log.warn("Cannot list tenants for execution owner backfill", ex);
+            allDone = false;
+        }
+        for (String schema : schemas) {
+            try {
+                if (schema != null)
+                    TenantContext.setTenant(schema);
+                int rows = backfill();
+                if (rows > 0)
+                    log.info("Backfilled owner of {} execution(s) in {}", rows, schema == null ? "default schema" : schema);
+            } catch (Exception ex) {
+                log.warn("Execution owner backfill failed for schema {}", schema, ex);
+                allDone = false;
+            } finally {
+                TenantContext.clear();
+            }
+        }
+        complete = allDone;
+    }
+
+    /** Backfills the current schema; returns the rows updated. */
+    public int backfill() {
+        int total = 0;
+        int updated;
+        do {
+            updated = jdbc.update("UPDATE executions SET "
+                    + "project_id = (SELECT s.project_id " + OWNER + "), "
+                    + "tenant_id = (SELECT p.tenant_id " + OWNER + ") "
+                    + "WHERE id IN (SELECT id FROM executions WHERE tenant_id IS NULL "
+                    + "AND EXISTS (SELECT 1 " + OWNER + ") LIMIT " + batchSize + ")");
+            total += updated;
+        } while (updated == batchSize);
+        return total;
+    }
+}
@@ -0,0 +1,245 @@
+package com.testnext.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.testnext.repository.TenantRepository;
+import com.testnext.tenant.TenantContext;
+import com.testnext.tenant.entity.TenantEntity;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Archives and removes execution history older than the retention period.
+ *
+ * History is handled a calendar month (UTC, by execution start) at a time: the
+ * month's executions, their steps and the payloads the steps refer to are written
+ * to {@code <archive-dir>/<schema>/executions-YYYY-MM.jsonl.gz}, and only once the
+ * archive is complete is the month removed. Schemas partitioned with
+ * {@code sql/executions_partitioning.sql} drop the month's partitions, which costs
+ * no row deletes and no vacuum; other schemas delete the month's rows. Payloads
+ * no step refers to any more are collected afterwards.
+ *
+ * Disabled unless {@code testnext.retention.enabled=true}. The period is
+ * {@code testnext.retention.default-days} (0 keeps history forever), overridable
+ * per tenant with {@code testnext.retention.tenant.<schema>.days}.
+ */
+@Component
+public class ExecutionRetention implements DisposableBean {
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(ExecutionRetention.class);
+    private static final String MONTH_FILTER = "started_at >= ? AND started_at < ?";
+
+    private final JdbcTemplate jdbc;
+    private final ResultBlobStore blobs;
+    private final TenantRepository tenantRepository;
+    private final Environment env;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private ScheduledExecutorService scheduler;
+
+    public ExecutionRetention(JdbcTemplate jdbc, ResultBlobStore blobs, TenantRepository tenantRepository,
+            Environment env) {
+        this.jdbc = jdbc;
+        this.blobs = blobs;
+        this.tenantRepository = tenantRepository;
+        this.env = env;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!env.getProperty("testnext.retention.enabled", Boolean.class, false) || scheduler != null)
+            return;
+        long interval = env.getProperty("testnext.retention.interval-minutes", Long.class, 60L);
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "testnext-retention");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::runOnce, 1, interval, TimeUnit.MINUTES);
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (scheduler != null)
+            scheduler.shutdownNow();
+        scheduler = null;
+    }
+
+    /** One retention pass over the default schema and every active tenant schema. */
+    public void runOnce() {
+        List<String> schemas = new ArrayList<>();
+        schemas.add(null);
+        try {
+            for (TenantEntity t : tenantRepository.findAll()) {
+                if (t.isActive())
+                    schemas.add(t.getSchemaName());
+            }
+        } catch (Exception ex) {
+            log.warn("Cannot list tenants for retention", ex);
+        }
+        for (String schema : schemas) {
+            try {
+                if (schema == null)
+                    TenantContext.clear();
+                else
+                    TenantContext.setTenant(schema);
+                apply(schema == null ? "public" : schema, Instant.now());
+            } catch (Exception ex) {
+                log.warn("Retention failed for schema {}", schema, ex);
+            } finally {
+                TenantContext.clear();
+            }
+        }
+    }
+
+    /**
+     * Applies retention to the schema of the current tenant: archives and removes
+     * every month that ended before the cutoff, then keeps partitions created ahead.
+     * Returns the months removed.
+     */
+    public List<YearMonth> apply(String schema, Instant now) throws IOException {
+        int days = env.getProperty("testnext.retention.tenant." + schema + ".days", Integer.class,
+                env.getProperty("testnext.retention.default-days", Integer.class, 0));
+        boolean partitioned = tableExists("executions_default");
+        List<YearMonth> removed = new ArrayList<>();
+        if (days > 0) {
+            Instant cutoff = now.minus(Duration.ofDays(days));
+            Path dir = Path.of(env.getProperty("testnext.retention.archive-dir", "archive")).resolve(schema);
+            Timestamp oldest;
+            while ((oldest = jdbc.queryForObject("SELECT MIN(started_at) FROM executions", Timestamp.class)) != null) {
+                YearMonth month = YearMonth.from(oldest.toInstant().atZone(ZoneOffset.UTC));
+                if (start(month.plusMonths(1)).isAfter(cutoff))
+                    break;
+                archive(month, dir);
+                remove(month, partitioned);
+                removed.add(month);
+            }
+            if (!removed.isEmpty()) {
+                int collected = blobs.collectGarbage(cutoff);
+                log.info("Retention removed {} month(s) of history from {} and {} unreferenced payload(s)",
+                        removed.size(), schema, collected);
+            }
+        }
+        if (partitioned) {
+            int ahead = env.getProperty("testnext.retention.partitions-ahead", Integer.class, 2);
+            jdbc.queryForList("SELECT testnext_ensure_execution_partitions(?, ?)",
+                    Timestamp.from(start(YearMonth.from(now.atZone(ZoneOffset.UTC)))), ahead);
+        }
+        return removed;
+    }
+
+    /** Writes the month's executions, steps and referenced payloads; the file appears only when complete. */
+    void archive(YearMonth month, Path dir) throws IOException {
+        Files.createDirectories(dir);
+        Path target = dir.resolve("executions-" + month + ".jsonl.gz");
+        Path tmp = dir.resolve(target.getFileName() + ".tmp");
+        Object[] range = { Timestamp.from(start(month)), Timestamp.from(start(month.plusMonths(1))) };
+        Set<String> refs = new LinkedHashSet<>();
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(Files.newOutputStream(tmp)), StandardCharsets.UTF_8))) {
+            jdbc.query("SELECT * FROM executions WHERE " + MONTH_FILTER + " ORDER BY started_at", rs -> {
+                line(out, "execution", rs);
+            }, range);
+            jdbc.query("SELECT * FROM execution_steps WHERE execution_id IN (SELECT id FROM executions WHERE "
+                    + MONTH_FILTER + ") ORDER BY execution_id, id", rs -> {
+                        line(out, "step", rs);
+                        refs.add(rs.getString("result_ref"));
+                        refs.add(rs.getString("parameters_ref"));
+                    }, range);
+            refs.remove(null);
+            for (Map.Entry<String, String> e : blobs.getAll(refs).entrySet()) {
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("type", "blob");
+                row.put("hash", e.getKey());
+                row.put("payload", e.getValue());
+                out.write(mapper.writeValueAsString(row));
+                out.write('\n');
+            }
+        } catch (RuntimeException | IOException ex) {
+            Files.deleteIfExists(tmp);
+            throw ex;
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void remove(YearMonth month, boolean partitioned) {
+        String suffix = String.format("_p%04d_%02d", month.getYear(), month.getMonthValue());
+        if (partitioned && tableExists("executions" + suffix)) {
+            jdbc.execute("DROP TABLE IF EXISTS execution_steps" + suffix);
+            jdbc.execute("DROP TABLE IF EXISTS executions" + suffix);
+        }
+        // rows outside a month partition (default partition, unpartitioned schemas)
+        Object[] range = { Timestamp.from(start(month)), Timestamp.from(start(month.plusMonths(1))) };
+        jdbc.update("DELETE FROM execution_steps WHERE execution_id IN (SELECT id FROM executions WHERE "
+                + MONTH_FILTER + ")", range);
+        jdbc.update("DELETE FROM executions WHERE " + MONTH_FILTER, range);
+    }
+
+    private boolean tableExists(String name) {
+        return Boolean.TRUE.equals(jdbc.execute((ConnectionCallback<Boolean>) c -> {
+            String schema = c.getSchema();
+            for (String candidate : new String[] { name, name.toUpperCase() }) {
+                try (ResultSet rs = c.getMetaData().getTables(null, schema, candidate, null)) {
+                    if (rs.next())
+                        return true;
+                }
+            }
+            return false;
+        }));
+    }
+
+    private void line(Writer out, String type, ResultSet rs) throws SQLException {
+        ResultSetMetaData md = rs.getMetaData();
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("type", type);
+        for (int i = 1; i <= md.getColumnCount(); i++) {
+            Object v = rs.getObject(i);
+            if (v instanceof Timestamp ts)
+                v = ts.toInstant().toString();
+            else if (v instanceof java.sql.Clob clob)
+                v = clob.getSubString(1, (int) clob.length());
+            else if (v != null && !(v instanceof Number || v instanceof Boolean || v instanceof String))
+                v = v.toString();
+            row.put(md.getColumnLabel(i).toLowerCase(), v);
+        }
+        try {
+            out.write(mapper.writeValueAsString(row));
+            out.write('\n');
+        } catch (IOException ex) {
+            throw new RuntimeException("Failed to write execution archive", ex);
+        }
+    }
+
+    private static Instant start(YearMonth month) {
+        return month.atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC);
+    }
+}
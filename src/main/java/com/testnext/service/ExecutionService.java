@@ -1,11 +1,14 @@
 package com.testnext.service;
 
 import com.testnext.api.dto.ExecutionDto;
+import com.testnext.api.dto.ExecutionPage;
 import com.testnext.model.ExecutionEntity;
 import com.testnext.model.ExecutionStepEntity;
 import com.testnext.model.TestStepEntity;
 import com.testnext.observability.ObservabilityConfig;
+import com.testnext.repository.ExecutionFilter;
 import com.testnext.repository.ExecutionRepository;
+import com.testnext.repository.ExecutionRow;
 import com.testnext.repository.ExecutionStepRepository;
 import com.testnext.repository.TestStepRepository;
 import io.micrometer.core.instrument.Timer;
@@ -25,40 +28,65 @@ public class ExecutionService {
     private final TestStepRepository testStepRepo;
     private final ExecutionRepository execRepo;
     private final ExecutionStepRepository execStepRepo;
-    private final com.testnext.repository.StepDefinitionRepository stepDefRepo;
+    private final StepDefinitionCache stepDefCache;
     private final com.testnext.repository.TestRepository testRepo;
-    private final com.testnext.repository.TestSuiteRepository suiteRepo;
-    private final com.testnext.execution.SystemStepExecutor stepExecutor;
+    private final com.testnext.execution.StepDispatchTable dispatchTable;
     private final ObservabilityConfig.ExecutionMetrics metrics;
-    private final com.testnext.repository.ProjectRepository projectRepo;
+    private final org.springframework.core.env.Environment environment;
     private final com.testnext.user.SystemUserRepository userRepo;
     private final com.testnext.repository.TenantRepository tenantRepo;
+    private final com.testnext.db.TargetDataSources targetDataSources;
+    private final ExecutionWriter writer;
+    private final ResultBlobStore resultBlobs;
+    private final EntityCache entityCache;
+    private final ExecutionOwnershipBackfill ownershipBackfill;
+    private final com.testnext.stub.StubRuntime stubs;
+    private final org.springframework.transaction.support.TransactionTemplate pageTx;
+
+    static final int MAX_PAGE_SIZE = 500;
+    private static final int STREAM_PAGE_SIZE = 200;
+
     private final ExecutorService executor = Executors.newFixedThreadPool(10);
+    // data-driven runs wait on their iterations for the whole dataset, so they get a virtual thread, not a pool worker
+    private final ExecutorService datasetRuns = Executors.newVirtualThreadPerTaskExecutor();
     private final com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
 
     public ExecutionService(
             TestStepRepository testStepRepo,
             ExecutionRepository execRepo,
             ExecutionStepRepository execStepRepo,
-            com.testnext.repository.StepDefinitionRepository stepDefRepo,
+            StepDefinitionCache stepDefCache,
             com.testnext.repository.TestRepository testRepo,
-            com.testnext.repository.TestSuiteRepository suiteRepo,
-            com.testnext.repository.ProjectRepository projectRepo,
             com.testnext.user.SystemUserRepository userRepo,
             com.testnext.repository.TenantRepository tenantRepo,
-            com.testnext.execution.SystemStepExecutor stepExecutor,
-            ObservabilityConfig.ExecutionMetrics metrics) {
+            com.testnext.execution.StepDispatchTable dispatchTable,
+            ObservabilityConfig.ExecutionMetrics metrics,
+            org.springframework.core.env.Environment environment,
+            com.testnext.db.TargetDataSources targetDataSources,
+            ExecutionWriter writer,
+            ResultBlobStore resultBlobs,
+            EntityCache entityCache,
+            ExecutionOwnershipBackfill ownershipBackfill,
+            com.testnext.stub.StubRuntime stubs,
+            org.springframework.transaction.PlatformTransactionManager transactionManager) {
         this.testStepRepo = testStepRepo;
         this.execRepo = execRepo;
         this.execStepRepo = execStepRepo;
-        this.stepDefRepo = stepDefRepo;
+        this.stepDefCache = stepDefCache;
         this.testRepo = testRepo;
-        this.suiteRepo = suiteRepo;
-        this.projectRepo = projectRepo;
         this.userRepo = userRepo;
         this.tenantRepo = tenantRepo;
-        this.stepExecutor = stepExecutor;
+        this.dispatchTable = dispatchTable;
         this.metrics = metrics;
+        this.environment = environment;
+        this.targetDataSources = targetDataSources;
+        this.writer = writer;
+        this.resultBlobs = resultBlobs;
+        this.entityCache = entityCache;
+        this.ownershipBackfill = ownershipBackfill;
+        this.stubs = stubs;
+        this.pageTx = new org.springframework.transaction.support.TransactionTemplate(transactionManager);
+        this.pageTx.setReadOnly(true);
     }
 
     public void delete(UUID id) {
@@ -67,19 +95,13 @@ public class ExecutionService {
     }
 
     public Long getTenantIdForExecution(UUID executionId) {
-        ExecutionEntity e = execRepo.findById(executionId).orElse(null);
-        if (e == null)
-            return null;
-
-        com.testnext.model.TestEntity t = testRepo.findById(e.testId).orElse(null);
-        if (t == null)
-            return null;
-
-        com.testnext.model.TestSuiteEntity s = suiteRepo.findById(t.suiteId).orElse(null);
-        if (s == null)
+        com.testnext.repository.ExecutionOwner owner = execRepo.findOwner(executionId).orElse(null);
+        if (owner == null)
             return null;
-
-        return projectRepo.findById(s.projectId).map(p -> p.getTenantId()).orElse(null);
+        if (owner.tenantId() != null)
+            return owner.tenantId();
+        // row not backfilled yet: walk test -> suite -> project
+        return owner.testId() == null ? null : entityCache.tenantIdOfTest(owner.testId());
     }
 
     public List<ExecutionDto> startSuite(Long suiteId) {
@@ -95,109 +117,501 @@ public class ExecutionService {
         metrics.recordExecutionStarted();
         final Timer.Sample sample = metrics.recordExecutionStart();
 
-        // create execution record
+        com.testnext.model.TestEntity test = testRepo.findById(testId).orElse(null);
+        EntityCache.SuiteRef suite = test == null ? null : entityCache.suite(test.suiteId).orElse(null);
+
+        // create execution record, stamped with its owner so authorization and
+        // tenant listings never walk test -> suite -> project again
         ExecutionEntity e = new ExecutionEntity();
         e.id = UUID.randomUUID();
         e.testId = testId;
+        com.testnext.repository.ExecutionOwner owner = entityCache.ownerOfTest(testId);
+        e.projectId = owner.projectId();
+        e.tenantId = owner.tenantId();
         e.status = "ACCEPTED";
         e.startedAt = Instant.now();
-        e = execRepo.save(e);
+        writer.insertExecution(e);
 
-        // load test steps
-        List<TestStepEntity> steps = testStepRepo.findByTestIdOrderById(testId);
-        for (TestStepEntity ts : steps) {
+        // load test steps; ids are assigned here so all rows go out in one batch
+        List<TestStepEntity> testSteps = testStepRepo.findByTestIdOrderById(testId);
+        List<ExecutionStepEntity> steps = new java.util.ArrayList<>(testSteps.size());
+        for (TestStepEntity ts : testSteps) {
             ExecutionStepEntity ese = new ExecutionStepEntity();
             ese.id = UUID.randomUUID();
             ese.executionId = e.id;
+            ese.createdAt = e.startedAt;
             ese.stepDefinitionId = ts.stepDefinitionId;
             ese.parametersJson = ts.parametersJson;
+            ese.assertionsJson = ts.assertionsJson;
             ese.status = "PENDING";
             ese.resultJson = null;
-            execStepRepo.save(ese);
+            steps.add(ese);
         }
+        int statements = 1 + writer.insertSteps(steps);
+        String datasetJson = test == null ? null : test.datasetJson;
 
-        // dispatch async worker
-        UUID executionId = e.id;
-        executor.submit(() -> runExecution(executionId, sample));
+        // dispatch async worker with the rows just written (nothing is reloaded), carrying
+        // the caller's tenant so tenant-scoped step caches and schema routing apply there
+        (datasetJson == null ? executor : datasetRuns).submit(new ExecutionRun(e, steps, datasetJson, sample,
+                com.testnext.tenant.TenantContext.getTenant().orElse(null), statements));
 
-        return toDto(e, false);
+        return toDto(new ExecutionRow(e.id, e.testId, e.status, e.startedAt, null,
+                test == null ? null : test.name, suite == null ? null : suite.name(), (long) steps.size(), 0L));
     }
 
-    private void runExecution(UUID executionId, Timer.Sample sample) {
-        try {
-            List<ExecutionStepEntity> steps = execStepRepo.findByExecutionIdOrderById(executionId);
-            ExecutionEntity e = execRepo.findById(executionId).orElseThrow();
-            e.status = "RUNNING";
-            execRepo.save(e);
+    /**
+     * Runs the steps of one execution in order. When a step's bulkhead is saturated
+     * the run parks itself on the bulkhead and returns its worker thread; it is
+     * resubmitted from the step it stopped at once a permit is released.
+     *
+     * State changes are written in batches through {@link ExecutionWriter}: a step's
+     * final state is written together with the next step's start, so a step costs
+     * one round trip instead of two saves.
+     */
+    private final class ExecutionRun implements Runnable {
+        private final ExecutionEntity execution;
+        private final List<ExecutionStepEntity> steps;
+        private final String datasetJson;
+        private final Timer.Sample sample;
+        private final String tenant;
+        private final com.testnext.execution.template.TemplateContext context = new com.testnext.execution.template.TemplateContext(
+                ExecutionService.this::envValue);
+        private final List<ExecutionStepEntity> pendingWrites = new java.util.ArrayList<>();
+        private int statements; // round trips spent on persistence, reported per execution
+        private CompiledPlan plan;
+        private int next;
+
+        ExecutionRun(ExecutionEntity execution, List<ExecutionStepEntity> steps, String datasetJson, Timer.Sample sample,
+                String tenant, int statements) {
+            this.execution = execution;
+            this.steps = steps;
+            this.datasetJson = datasetJson;
+            this.sample = sample;
+            this.tenant = tenant;
+            this.statements = statements;
+        }
 
+        @Override
+        public void run() {
+            if (tenant != null)
+                com.testnext.tenant.TenantContext.setTenant(tenant);
+            com.testnext.stub.StubScope.setOwner(execution.id.toString());
+            try {
+                advance();
+            } finally {
+                com.testnext.stub.StubScope.clear();
+                com.testnext.tenant.TenantContext.clear();
+            }
+        }
+
+        private void advance() {
+            try {
+                if (plan == null) {
+                    execution.status = "RUNNING";
+                    statements++;
+                    if (!writer.updateExecution(execution)) {
+                        metrics.recordExecutionStop(sample); // deleted before it started
+                        return;
+                    }
+                    plan = compile(steps);
+                    if (datasetJson != null) {
+                        runIterations(com.testnext.execution.dataset.DatasetSpec.from(mapper.readValue(datasetJson,
+                                new com.fasterxml.jackson.core.type.TypeReference<Map<String, Object>>() {
+                                })));
+                        next = steps.size();
+                    }
+                }
+
+                while (next < steps.size()) {
+                    ExecutionStepEntity s = steps.get(next);
+                    com.testnext.execution.StepDispatchTable.StepHandle handle = dispatchTable.handle(plan.dispatch[next]);
+                    com.testnext.execution.Bulkhead bulkhead = handle == null ? null : handle.getBulkhead();
+                    if (bulkhead != null && !bulkhead.tryAcquire()) {
+                        flush(); // show the finished step while this run is parked
+                        bulkhead.onAvailable(() -> executor.submit(this));
+                        return;
+                    }
+                    try {
+                        runStep(next, handle);
+                    } finally {
+                        if (bulkhead != null)
+                            bulkhead.release();
+                    }
+                    next++;
+
+                    if ("FAILED".equals(s.status) || "CIRCUIT_OPEN".equals(s.status)) {
+                        execution.status = "FAILED";
+                        break;
+                    }
+                }
+
+                if (!"FAILED".equals(execution.status)) {
+                    execution.status = "FINISHED";
+                }
+                execution.finishedAt = Instant.now();
+                flush();
+                statements++;
+                writer.updateExecution(execution);
+                metrics.recordPersistenceStatements(statements);
+                metrics.recordExecutionCompleted();
+                metrics.recordExecutionStop(sample);
+                stubs.stopOwnedBy(execution.id.toString()); // stub servers the test left running
+            } catch (Exception ex) {
+                stubs.stopOwnedBy(execution.id.toString());
+                fail(ex);
+                metrics.recordExecutionFailed();
+                metrics.recordExecutionStop(sample);
+                throw new RuntimeException(ex);
+            }
+        }
+
+        /**
+         * Marks the execution and its running steps FAILED after an error outside any
+         * one step (a dataset that cannot be read, say), so they never stay RUNNING.
+         */
+        private void fail(Exception cause) {
+            try {
+                String error = errorJson(cause.getMessage());
+                for (ExecutionStepEntity s : steps) {
+                    if (!"RUNNING".equals(s.status))
+                        continue;
+                    s.status = "FAILED";
+                    s.resultJson = error;
+                    s.finishedAt = Instant.now();
+                    if (!pendingWrites.contains(s))
+                        pendingWrites.add(s);
+                }
+                flush();
+                execution.status = "FAILED";
+                execution.finishedAt = Instant.now();
+                writer.updateExecution(execution);
+            } catch (Exception writeFailure) {
+                cause.addSuppressed(writeFailure);
+            }
+        }
+
+        private void runStep(int i, com.testnext.execution.StepDispatchTable.StepHandle handle) {
+            ExecutionStepEntity s = steps.get(i);
+            s.status = "RUNNING";
+            s.startedAt = Instant.now();
+            pendingWrites.add(s);
+            flush(); // carries the previous step's result in the same batch
+
+            try {
+                com.testnext.execution.StepResult result = invoke(i, handle, context);
+                s.status = result.isSuccess() ? "FINISHED" : result.isCircuitOpen() ? "CIRCUIT_OPEN" : "FAILED";
+                s.resultJson = mapper.writeValueAsString(
+                        result.getOutput() != null ? result.getOutput()
+                                : Map.of("error", result.getErrorMessage()));
+                if (result.isSuccess())
+                    context.putOutput(plan.aliases[i], i, result.getOutput());
+            } catch (Exception ex) {
+                s.status = ex instanceof com.testnext.execution.CircuitOpenException ? "CIRCUIT_OPEN" : "FAILED";
+                s.resultJson = errorJson(ex.getMessage());
+            }
+
+            s.finishedAt = Instant.now();
+            pendingWrites.add(s);
+        }
+
+        private void flush() {
+            if (pendingWrites.isEmpty())
+                return;
+            statements += writer.updateSteps(pendingWrites);
+            pendingWrites.clear();
+        }
+
+        private com.testnext.execution.StepResult invoke(int i, com.testnext.execution.StepDispatchTable.StepHandle handle,
+                com.testnext.execution.template.TemplateContext ctx) throws Exception {
+            com.testnext.model.StepDefinitionEntity def = plan.definitions[i];
+            if (def == null)
+                throw new java.util.NoSuchElementException("Unknown step definition: " + steps.get(i).stepDefinitionId);
+            if (handle == null)
+                throw new IllegalStateException("No executor registered for step: " + def.name);
+            if (plan.compileErrors[i] != null)
+                throw new IllegalArgumentException(plan.compileErrors[i]);
+
+            // Resolve placeholders against earlier outputs and the environment
+            Map<String, Object> params = plan.templates[i].resolve(ctx);
+
+            // Execute; batchRows hands the executor all rows at once and persists one compact result
+            com.testnext.execution.StepResult result = com.testnext.execution.BatchResults.isBatch(params)
+                    ? com.testnext.execution.BatchResults.execute(handle.getExecutor(), def.refId, params)
+                    : handle.getExecutor().execute(def.refId, params);
+            return plan.assertions[i].apply(result);
+        }
+
+        /**
+         * Runs every step once per dataset row. Rows are read lazily and at most
+         * {@code maxInFlight} iterations run at once, each on its own virtual thread
+         * with its own placeholder context, so the dataset never has to fit in memory.
+         * Step rows store per-step counts and the execution stores the
+         * {@link com.testnext.execution.dataset.IterationSummary}.
+         */
+        private void runIterations(com.testnext.execution.dataset.DatasetSpec spec) throws Exception {
             for (ExecutionStepEntity s : steps) {
                 s.status = "RUNNING";
                 s.startedAt = Instant.now();
-                execStepRepo.save(s);
-
-                try {
-                    // Fetch step definition to get name
-                    com.testnext.model.StepDefinitionEntity def = stepDefRepo.findById(s.stepDefinitionId)
-                            .orElseThrow();
-
-                    // Parse parameters
-                    Map<String, Object> params = s.parametersJson != null ? mapper.readValue(s.parametersJson,
-                            new com.fasterxml.jackson.core.type.TypeReference<Map<String, Object>>() {
-                            }) : Map.of();
-
-                    // Execute
-                    com.testnext.execution.StepResult result = stepExecutor.execute(def.name, params);
-
-                    s.status = result.isSuccess() ? "FINISHED" : "FAILED";
-                    s.resultJson = mapper.writeValueAsString(
-                            result.getOutput() != null ? result.getOutput()
-                                    : Map.of("error", result.getErrorMessage()));
-                } catch (Exception ex) {
-                    s.status = "FAILED";
-                    s.resultJson = "{\"error\": \"" + ex.getMessage() + "\"}";
+            }
+            statements += writer.updateSteps(steps);
+            com.testnext.execution.dataset.IterationSummary summary = new com.testnext.execution.dataset.IterationSummary(
+                    steps.size(), 100);
+            java.util.concurrent.Semaphore inFlight = new java.util.concurrent.Semaphore(spec.maxInFlight);
+            java.nio.file.Path datasetsDir = java.nio.file.Path.of(environment.getProperty("testnext.datasets.dir", "datasets"));
+            try (com.testnext.execution.dataset.DatasetSource rows = com.testnext.execution.dataset.DatasetSource.open(spec,
+                    datasetsDir, targetDataSources);
+                    ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (long n = 0; n < spec.limit; n++) {
+                    inFlight.acquire();
+                    if (!rows.hasNext()) {
+                        inFlight.release();
+                        break;
+                    }
+                    Map<String, Object> row = rows.next();
+                    long iteration = n;
+                    workers.submit(() -> {
+                        try {
+                            runIteration(iteration, spec.alias, row, summary);
+                        } finally {
+                            inFlight.release();
+                        }
+                    });
                 }
+            } // closing the executor waits for the iterations still running
 
+            for (int i = 0; i < steps.size(); i++) {
+                ExecutionStepEntity s = steps.get(i);
+                s.status = summary.getFailed(i) == 0 ? "FINISHED" : "FAILED";
+                s.resultJson = mapper.writeValueAsString(summary.forStep(i));
                 s.finishedAt = Instant.now();
-                execStepRepo.save(s);
+            }
+            statements += writer.updateSteps(steps);
+            execution.iterationSummaryJson = mapper.writeValueAsString(summary.toMap());
+            if (summary.getFailed() > 0)
+                execution.status = "FAILED";
+        }
 
-                if ("FAILED".equals(s.status)) {
-                    e.status = "FAILED";
-                    break;
+        private void runIteration(long iteration, String alias, Map<String, Object> row,
+                com.testnext.execution.dataset.IterationSummary summary) {
+            com.testnext.execution.template.TemplateContext ctx = new com.testnext.execution.template.TemplateContext(
+                    ExecutionService.this::envValue);
+            ctx.bind(alias, row);
+            if (tenant != null)
+                com.testnext.tenant.TenantContext.setTenant(tenant);
+            com.testnext.stub.StubScope.setOwner(execution.id.toString());
+            try {
+                for (int i = 0; i < steps.size(); i++) {
+                    com.testnext.execution.StepDispatchTable.StepHandle handle = dispatchTable.handle(plan.dispatch[i]);
+                    com.testnext.execution.Bulkhead bulkhead = handle == null ? null : handle.getBulkhead();
+                    com.testnext.execution.StepResult result;
+                    try {
+                        // iterations own their virtual thread, so waiting for a permit blocks nothing else
+                        if (bulkhead != null && !bulkhead.tryAcquire(Long.MAX_VALUE, java.util.concurrent.TimeUnit.NANOSECONDS))
+                            throw new IllegalStateException("No permit from bulkhead " + bulkhead.getName());
+                        try {
+                            result = invoke(i, handle, ctx);
+                        } finally {
+                            if (bulkhead != null)
+                                bulkhead.release();
+                        }
+                    } catch (Exception ex) {
+                        result = com.testnext.execution.StepResult.failure(ex);
+                    }
+                    if (!result.isSuccess()) {
+                        summary.failed(iteration, i, result.getErrorMessage());
+                        return;
+                    }
+                    summary.stepPassed(i);
+                    ctx.putOutput(plan.aliases[i], i, result.getOutput());
                 }
+                summary.passed();
+            } finally {
+                com.testnext.stub.StubScope.clear();
+                com.testnext.tenant.TenantContext.clear();
             }
+        }
+    }
 
-            if (!"FAILED".equals(e.status)) {
-                e.status = "FINISHED";
+    /**
+     * Per-execution plan compiled once before the first step runs: each step's
+     * definition (from the in-process cache), executor slot, parameter template and
+     * output assertions.
+     * The step loop then dispatches by array index and only resolves placeholders.
+     */
+    private static final class CompiledPlan {
+        final com.testnext.model.StepDefinitionEntity[] definitions;
+        final int[] dispatch;
+        final com.testnext.execution.template.ParameterTemplate[] templates;
+        final String[] aliases;
+        final com.testnext.execution.assertion.Assertions[] assertions;
+        final String[] compileErrors; // reported when the step runs, like any other step failure
+
+        CompiledPlan(int size) {
+            definitions = new com.testnext.model.StepDefinitionEntity[size];
+            dispatch = new int[size];
+            templates = new com.testnext.execution.template.ParameterTemplate[size];
+            aliases = new String[size];
+            assertions = new com.testnext.execution.assertion.Assertions[size];
+            compileErrors = new String[size];
+        }
+    }
+
+    private CompiledPlan compile(List<ExecutionStepEntity> steps) {
+        CompiledPlan plan = new CompiledPlan(steps.size());
+        for (int i = 0; i < steps.size(); i++) {
+            ExecutionStepEntity s = steps.get(i);
+            com.testnext.model.StepDefinitionEntity def = stepDefCache.getById(s.stepDefinitionId).orElse(null);
+            plan.definitions[i] = def;
+            int slot = com.testnext.execution.StepDispatchTable.UNRESOLVED;
+            if (def != null) {
+                slot = dispatchTable.resolve(def.refId);
+                if (slot == com.testnext.execution.StepDispatchTable.UNRESOLVED)
+                    slot = dispatchTable.resolve(def.name);
+                plan.aliases[i] = com.testnext.execution.template.TemplateContext.aliasOf(def.refId);
+            }
+            plan.dispatch[i] = slot;
+            try {
+                Map<String, Object> params = s.parametersJson != null ? mapper.readValue(s.parametersJson,
+                        new com.fasterxml.jackson.core.type.TypeReference<Map<String, Object>>() {
+                        }) : Map.of();
+                plan.templates[i] = com.testnext.execution.template.ParameterTemplate.compile(params);
+            } catch (Exception ex) {
+                plan.compileErrors[i] = "Invalid step parameters: " + ex.getMessage();
             }
-            e.finishedAt = Instant.now();
-            execRepo.save(e);
-            metrics.recordExecutionCompleted();
+            plan.assertions[i] = com.testnext.execution.assertion.Assertions.NONE;
+            try {
+                if (s.assertionsJson != null)
+                    plan.assertions[i] = com.testnext.execution.assertion.Assertions.compile(
+                            mapper.readValue(s.assertionsJson, Object.class));
+            } catch (Exception ex) {
+                plan.compileErrors[i] = "Invalid step assertions: " + ex.getMessage();
+            }
+        }
+        return plan;
+    }
+
+    /** Environment values for {@code ${env.name}} placeholders, from {@code testnext.env.*} properties. */
+    private Object envValue(String name) {
+        return environment.getProperty("testnext.env." + name);
+    }
+
+    /**
+     * One page of the executions visible to the caller, newest first. The cursor is
+     * the {@code nextCursor} of the previous page (null for the first page); the
+     * limit is clamped to 1..{@value #MAX_PAGE_SIZE}.
+     */
+    @org.springframework.transaction.annotation.Transactional(readOnly = true)
+    public ExecutionPage page(Authentication auth, ExecutionFilter filter, String cursor, int limit) {
+        ExecutionPage page = new ExecutionPage();
+        page.items = new java.util.ArrayList<>();
+        if (!scopeToCaller(auth, filter))
+            return page;
+        decodeCursor(cursor, filter);
+        int size = Math.max(1, Math.min(MAX_PAGE_SIZE, limit));
+        List<ExecutionRow> rows = execRepo.findPage(filter, size + 1);
+        for (int i = 0; i < Math.min(size, rows.size()); i++)
+            page.items.add(toDto(rows.get(i)));
+        if (rows.size() > size)
+            page.nextCursor = encodeCursor(rows.get(size - 1));
+        return page;
+    }
+
+    /**
+     * Hands every execution visible to the caller to {@code sink}, newest first,
+     * reading one keyset page at a time so the listing is never held in memory.
+     * Each page is read in its own short read-only transaction, so a slow reader of
+     * the sink does not hold a pooled connection.
+     */
+    public void forEach(Authentication auth, ExecutionFilter filter, java.util.function.Consumer<ExecutionDto> sink) {
+        if (!scopeToCaller(auth, filter))
+            return;
+        walk(filter, sink);
+    }
+
+    public void forEachByProject(Long projectId, ExecutionFilter filter, java.util.function.Consumer<ExecutionDto> sink) {
+        filter.projectId = projectId;
+        filter.includeUnowned = !ownershipBackfill.isComplete();
+        walk(filter, sink);
+    }
+
+    public ExecutionDto get(UUID id) {
+        ExecutionRow row = execRepo.findRow(id).orElse(null);
+        if (row == null)
+            return null;
+        ExecutionDto out = toDto(row);
+        List<ExecutionStepEntity> stepRows = execStepRepo.findByExecutionIdOrderById(id);
+        List<String> refs = new java.util.ArrayList<>();
+        for (ExecutionStepEntity s : stepRows) {
+            refs.add(s.resultRef);
+            refs.add(s.parametersRef);
+        }
+        Map<String, String> blobs = resultBlobs.getAll(refs); // externalized payloads, one query per chunk
+        out.iterations = readMap(row.iterationSummaryJson());
+        out.steps = stepRows.stream().map(s -> {
+            ExecutionDto.ExecutionStepDto es = new ExecutionDto.ExecutionStepDto();
+            es.id = s.id;
+            es.stepDefinitionId = s.stepDefinitionId;
+            es.status = s.status;
+            es.parameters = readMap(s.parametersRef != null ? blobs.get(s.parametersRef) : s.parametersJson);
+            Map<String, Object> res = new java.util.HashMap<>();
+            res.put("raw", s.resultRef != null ? blobs.get(s.resultRef) : s.resultJson);
+            es.result = res;
+            return es;
+        }).collect(Collectors.toList());
+        return out;
+    }
+
+    private String errorJson(String message) {
+        try {
+            return mapper.writeValueAsString(Map.of("error", String.valueOf(message)));
+        } catch (com.fasterxml.jackson.core.JsonProcessingException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private Map<String, Object> readMap(String json) {
+        if (json == null)
+            return null;
+        try {
+            return mapper.readValue(json, new com.fasterxml.jackson.core.type.TypeReference<Map<String, Object>>() {
+            });
         } catch (Exception ex) {
-            metrics.recordExecutionFailed();
             throw new RuntimeException(ex);
-        } finally {
-            metrics.recordExecutionStop(sample);
         }
     }
 
-    public List<ExecutionDto> list(Authentication auth) {
+    private void walk(ExecutionFilter filter, java.util.function.Consumer<ExecutionDto> sink) {
+        while (true) {
+            List<ExecutionRow> rows = pageTx.execute(status -> execRepo.findPage(filter, STREAM_PAGE_SIZE));
+            for (ExecutionRow row : rows)
+                sink.accept(toDto(row));
+            if (rows.size() < STREAM_PAGE_SIZE)
+                return;
+            ExecutionRow last = rows.get(rows.size() - 1);
+            filter.afterStartedAt = last.startedAt();
+            filter.afterId = last.id();
+        }
+    }
+
+    /**
+     * Restricts the filter to what the caller may see: admins see everything, test
+     * managers their tenant. Returns false when the caller sees nothing.
+     */
+    private boolean scopeToCaller(Authentication auth, ExecutionFilter filter) {
         if (auth == null || !auth.isAuthenticated())
-            return java.util.Collections.emptyList();
+            return false;
 
         // Admin sees all
         boolean isAdmin = auth.getAuthorities().stream()
                 .anyMatch(a -> a.getAuthority().equals("ROLE_SYSTEM_ADMIN"));
-        if (isAdmin) {
-            return execRepo.findAll().stream()
-                    .map(e -> toDto(e, false))
-                    .collect(Collectors.toList());
-        }
+        if (isAdmin)
+            return true;
 
         // Others see only their tenant's executions
         String username = auth.getName();
         java.util.Optional<com.testnext.user.SystemUser> userOpt = userRepo.findByUsername(username);
         if (userOpt.isEmpty())
-            return java.util.Collections.emptyList();
+            return false;
 
         com.testnext.user.SystemUser user = userOpt.get();
         // If Test Manager, find their tenant
@@ -205,54 +619,45 @@ public class ExecutionService {
             java.util.Optional<com.testnext.tenant.entity.TenantEntity> tenantOpt = tenantRepo
                     .findByTestManagerId(user.getId());
             if (tenantOpt.isPresent()) {
-                return execRepo.findByTenantId(tenantOpt.get().getId()).stream()
-                        .map(e -> toDto(e, false))
-                        .collect(Collectors.toList());
+                filter.tenantId = tenantOpt.get().getId();
+                filter.includeUnowned = !ownershipBackfill.isComplete();
+                return true;
             }
         }
-
-        return java.util.Collections.emptyList();
+        return false;
     }
 
-    public ExecutionDto get(UUID id) {
-        ExecutionEntity e = execRepo.findById(id).orElse(null);
-        if (e == null)
-            return null;
-        return toDto(e, true);
+    /** Opaque cursor: the (started_at, id) key of the last row of a page. */
+    static String encodeCursor(ExecutionRow last) {
+        String key = last.startedAt().getEpochSecond() + ":" + last.startedAt().getNano() + ":" + last.id();
+        return java.util.Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(key.getBytes(java.nio.charset.StandardCharsets.UTF_8));
     }
 
-    public List<ExecutionDto> listByProject(Long projectId) {
-        return execRepo.findByProjectId(projectId).stream()
-                .map(e -> toDto(e, false))
-                .collect(Collectors.toList());
+    static void decodeCursor(String cursor, ExecutionFilter filter) {
+        if (cursor == null || cursor.isBlank())
+            return;
+        try {
+            String key = new String(java.util.Base64.getUrlDecoder().decode(cursor), java.nio.charset.StandardCharsets.UTF_8);
+            String[] parts = key.split(":", 3);
+            filter.afterStartedAt = Instant.ofEpochSecond(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+            filter.afterId = UUID.fromString(parts[2]);
+        } catch (RuntimeException ex) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
     }
 
-    private ExecutionDto toDto(ExecutionEntity e, boolean includeSteps) {
+    private static ExecutionDto toDto(ExecutionRow row) {
         ExecutionDto out = new ExecutionDto();
-        out.id = e.id;
-        out.testId = e.testId;
-        out.status = e.status;
-        out.startedAt = e.startedAt;
-        out.finishedAt = e.finishedAt;
-
-        // Populate names
-        testRepo.findById(e.testId).ifPresent(t -> {
-            out.testName = t.name;
-            suiteRepo.findById(t.suiteId).ifPresent(s -> out.suiteName = s.name);
-        });
-
-        if (includeSteps) {
-            out.steps = execStepRepo.findByExecutionIdOrderById(e.id).stream().map(s -> {
-                ExecutionDto.ExecutionStepDto es = new ExecutionDto.ExecutionStepDto();
-                es.id = s.id;
-                es.stepDefinitionId = s.stepDefinitionId;
-                es.status = s.status;
-                Map<String, Object> res = new java.util.HashMap<>();
-                res.put("raw", s.resultJson);
-                es.result = res;
-                return es;
-            }).collect(Collectors.toList());
-        }
+        out.id = row.id();
+        out.testId = row.testId();
+        out.status = row.status();
+        out.startedAt = row.startedAt();
+        out.finishedAt = row.finishedAt();
+        out.testName = row.testName();
+        out.suiteName = row.suiteName();
+        out.stepCount = row.stepCount();
+        out.failedStepCount = row.failedStepCount();
         return out;
     }
 }
@@ -0,0 +1,131 @@
+package com.testnext.service;
+
+import com.testnext.model.ExecutionEntity;
+import com.testnext.model.ExecutionStepEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * JDBC write path for execution progress, used by {@link ExecutionService} instead
+ * of per-row repository saves. Ids are generated up front, so nothing has to be
+ * read back: creating an execution is one insert plus one batched insert of all
+ * its steps, and step transitions are written as batched updates. Repository
+ * {@code save()} on an entity with an assigned id would merge, i.e. select first.
+ *
+ * Callers count the round trips for the {@code execution.persistence.statements}
+ * metric; the step methods return theirs. With PostgreSQL, set
+ * {@code reWriteBatchedInserts=true} on the JDBC URL so batches become multi-row
+ * inserts.
+ *
+ * Large parameter and result payloads go to the {@link ResultBlobStore}; the step
+ * row then carries only the payload's hash. Storing new payloads may take one more
+ * round trip per call, which the returned counts include.
+ */
+@Component
+public class ExecutionWriter {
+    private static final String INSERT_EXECUTION = "INSERT INTO executions (id, test_id, tenant_id, project_id, status, started_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_STEP = "INSERT INTO execution_steps "
+            + "(id, execution_id, step_definition_id, status, parameters_json, parameters_ref, assertions_json, created_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_STEP = "UPDATE execution_steps SET status = ?, result_json = ?, result_ref = ?, "
+            + "started_at = ?, finished_at = ? WHERE id = ?";
+    private static final String UPDATE_EXECUTION = "UPDATE executions SET status = ?, finished_at = ?, iteration_summary_json = ? "
+            + "WHERE id = ?";
+
+    private final JdbcTemplate jdbc;
+    private final ResultBlobStore blobs;
+
+    public ExecutionWriter(JdbcTemplate jdbc, ResultBlobStore blobs) {
+        this.jdbc = jdbc;
+        this.blobs = blobs;
+    }
+
+    /** Inserts the execution row; one statement. */
+    public void insertExecution(ExecutionEntity e) {
+        jdbc.update(INSERT_EXECUTION, e.id, e.testId, e.tenantId, e.projectId, e.status, timestamp(e.startedAt));
+    }
+
+    /** Inserts all step rows of an execution in one batch; returns the round trips taken. */
+    public int insertSteps(List<ExecutionStepEntity> steps) {
+        if (steps.isEmpty())
+            return 0;
+        int statements = externalize(steps, s -> s.parametersJson, (s, ref) -> s.parametersRef = ref);
+        jdbc.batchUpdate(INSERT_STEP, steps, steps.size(), (PreparedStatement ps, ExecutionStepEntity s) -> {
+            ps.setObject(1, s.id);
+            ps.setObject(2, s.executionId);
+            ps.setLong(3, s.stepDefinitionId);
+            ps.setString(4, s.status);
+            setText(ps, 5, s.parametersRef == null ? s.parametersJson : null);
+            ps.setString(6, s.parametersRef);
+            setText(ps, 7, s.assertionsJson);
+            ps.setTimestamp(8, timestamp(s.createdAt));
+        });
+        return statements + 1;
+    }
+
+    /** Writes the state of the given steps in one batch; returns the round trips taken. */
+    public int updateSteps(List<ExecutionStepEntity> steps) {
+        if (steps.isEmpty())
+            return 0;
+        int statements = externalize(steps, s -> s.resultJson, (s, ref) -> s.resultRef = ref);
+        jdbc.batchUpdate(UPDATE_STEP, steps, steps.size(), (PreparedStatement ps, ExecutionStepEntity s) -> {
+            ps.setString(1, s.status);
+            setText(ps, 2, s.resultRef == null ? s.resultJson : null);
+            ps.setString(3, s.resultRef);
+            ps.setTimestamp(4, timestamp(s.startedAt));
+            ps.setTimestamp(5, timestamp(s.finishedAt));
+            ps.setObject(6, s.id);
+        });
+        return statements + 1;
+    }
+
+    /** Moves large payloads of the steps into the blob store and sets their references. */
+    private int externalize(List<ExecutionStepEntity> steps, java.util.function.Function<ExecutionStepEntity, String> payload,
+            java.util.function.BiConsumer<ExecutionStepEntity, String> setRef) {
+        List<ExecutionStepEntity> large = new java.util.ArrayList<>();
+        List<String> payloads = new java.util.ArrayList<>();
+        for (ExecutionStepEntity s : steps) {
+            String json = payload.apply(s);
+            setRef.accept(s, null);
+            if (blobs.shouldStore(json)) {
+                large.add(s);
+                payloads.add(json);
+            }
+        }
+        if (large.isEmpty())
+            return 0;
+        ResultBlobStore.Stored stored = blobs.putAll(payloads);
+        for (int i = 0; i < large.size(); i++)
+            setRef.accept(large.get(i), stored.hashes().get(i));
+        return stored.statements();
+    }
+
+    /** Writes the execution's status; false when the row no longer exists (e.g. it was deleted). */
+    public boolean updateExecution(ExecutionEntity e) {
+        return jdbc.update(UPDATE_EXECUTION, ps -> {
+            ps.setString(1, e.status);
+            ps.setTimestamp(2, timestamp(e.finishedAt));
+            setText(ps, 3, e.iterationSummaryJson);
+            ps.setObject(4, e.id);
+        }) > 0;
+    }
+
+    private static void setText(PreparedStatement ps, int index, String value) throws SQLException {
+        if (value == null)
+            ps.setNull(index, Types.VARCHAR);
+        else
+            ps.setString(index, value);
+    }
+
+    private static Timestamp timestamp(Instant instant) {
+        return instant == null ? null : Timestamp.from(instant);
+    }
+}
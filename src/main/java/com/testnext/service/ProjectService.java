@@ -25,6 +25,7 @@ public class ProjectService {
         return new ProjectDto(saved.getId(), saved.getTenantId(), saved.getName(), saved.getDescription());
     }
 
+    @org.springframework.transaction.annotation.Transactional(readOnly = true)
     public List<ProjectDto> listByTenant(Long tenantId, String role, java.util.UUID userId) {
         // If user is Admin or Test Manager, return all. Else filter by assignment.
         // Assuming "ROLE_SYSTEM_ADMIN", "ROLE_TEST_MANAGER"
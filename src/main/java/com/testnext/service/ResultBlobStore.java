@@ -0,0 +1,239 @@
+package com.testnext.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Content-addressed store for step payloads ({@code result_blobs}).
+ *
+ * A payload is keyed by the SHA-256 of its JSON and stored once, deflated; rows
+ * of {@code execution_steps} keep only the 64-character hash. Repeated runs of a
+ * test mostly produce identical parameters and results, so they add no payload
+ * bytes at all. Payloads up to {@code testnext.result-blobs.inline-max-bytes}
+ * (default 128) stay inline, where a reference would save nothing.
+ *
+ * Hashes known to be stored are remembered per tenant (bounded LRU), so writing a
+ * repeated payload costs no round trip; new payloads of one batch are inserted in
+ * one statement. {@code created_at} is the last time a writer stored or reused the
+ * payload: inserting a hash that is already present refreshes it, and a remembered
+ * hash is only reused without a statement for
+ * {@code testnext.result-blobs.touch-interval-minutes} (default 60) after that.
+ * {@link #collectGarbage} never deletes a payload touched within twice that
+ * interval, so no writer on any node refers to a payload being deleted.
+ */
+@Component
+public class ResultBlobStore {
+    private static final String CODEC = "deflate";
+    private static final int READ_CHUNK = 500;
+
+    private final JdbcTemplate jdbc;
+    private final int inlineMaxBytes;
+    private final Map<String, Long> known; // tenant:hash -> when this node last touched it (epoch ms)
+    private final long touchMillis;
+    private final java.time.Clock clock;
+    private volatile String upsert;
+
+    @org.springframework.beans.factory.annotation.Autowired
+    public ResultBlobStore(JdbcTemplate jdbc,
+            @Value("${testnext.result-blobs.inline-max-bytes:128}") int inlineMaxBytes,
+            @Value("${testnext.result-blobs.known-hashes:10000}") int knownHashes,
+            @Value("${testnext.result-blobs.touch-interval-minutes:60}") long touchIntervalMinutes) {
+        this(jdbc, inlineMaxBytes, knownHashes, touchIntervalMinutes, java.time.Clock.systemUTC());
+    }
+
+    public ResultBlobStore(JdbcTemplate jdbc, int inlineMaxBytes, int knownHashes) {
+        this(jdbc, inlineMaxBytes, knownHashes, 60, java.time.Clock.systemUTC());
+    }
+
+    ResultBlobStore(JdbcTemplate jdbc, int inlineMaxBytes, int knownHashes, long touchIntervalMinutes,
+            java.time.Clock clock) {
+        this.jdbc = jdbc;
+        this.inlineMaxBytes = inlineMaxBytes;
+        this.touchMillis = touchIntervalMinutes * 60_000L;
+        this.clock = clock;
+        this.known = java.util.Collections.synchronizedMap(new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > knownHashes;
+            }
+        });
+    }
+
+    /** True when the payload is large enough to be stored by reference. */
+    public boolean shouldStore(String json) {
+        return json != null && json.length() > inlineMaxBytes;
+    }
+
+    public static String hash(String json) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /** Hashes of stored payloads, in input order, and the round trips storing them took. */
+    public record Stored(List<String> hashes, int statements) {
+    }
+
+    /**
+     * Stores the payloads that are not stored yet, and refreshes {@code created_at}
+     * of remembered ones not touched within the touch interval, in at most one
+     * statement where the database has an upsert, one or two per payload elsewhere.
+     */
+    public Stored putAll(List<String> payloads) {
+        String tenant = com.testnext.tenant.TenantContext.getTenant().orElse("public");
+        long now = clock.millis();
+        List<String> hashes = new ArrayList<>(payloads.size());
+        Map<String, String> missing = new LinkedHashMap<>();
+        for (String json : payloads) {
+            String h = hash(json);
+            hashes.add(h);
+            Long touched = known.get(tenant + ":" + h);
+            if (touched == null || now - touched >= touchMillis)
+                missing.putIfAbsent(h, json);
+        }
+        if (missing.isEmpty())
+            return new Stored(hashes, 0);
+        int statements = upsert(missing, now);
+        for (String h : missing.keySet())
+            known.put(tenant + ":" + h, now);
+        return new Stored(hashes, statements);
+    }
+
+    /** Returns the statements sent. */
+    private int upsert(Map<String, String> payloads, long nowMillis) {
+        List<Object[]> rows = new ArrayList<>(payloads.size());
+        java.sql.Timestamp now = new java.sql.Timestamp(nowMillis);
+        for (Map.Entry<String, String> e : payloads.entrySet()) {
+            byte[] raw = e.getValue().getBytes(StandardCharsets.UTF_8);
+            rows.add(new Object[] { e.getKey(), CODEC, raw.length, deflate(raw), now });
+        }
+        String sql = upsertSql();
+        if (sql != null) {
+            jdbc.batchUpdate(sql, rows);
+            return 1;
+        }
+        int statements = 0;
+        for (Object[] row : rows) {
+            statements++;
+            try {
+                jdbc.update("INSERT INTO result_blobs (hash, codec, raw_size, data, created_at) VALUES (?, ?, ?, ?, ?)", row);
+            } catch (DuplicateKeyException ex) {
+                // stored before, possibly by another node: keep it out of garbage collection
+                jdbc.update("UPDATE result_blobs SET created_at = ? WHERE hash = ?", now, row[0]);
+                statements++;
+            }
+        }
+        return statements;
+    }
+
+    /** Insert-or-touch for the databases we run on; null means "insert, touch on duplicate". */
+    private String upsertSql() {
+        String sql = upsert;
+        if (sql == null) {
+            String product = jdbc.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+            if ("PostgreSQL".equals(product))
+                sql = "INSERT INTO result_blobs (hash, codec, raw_size, data, created_at) VALUES (?, ?, ?, ?, ?) "
+                        + "ON CONFLICT (hash) DO UPDATE SET created_at = EXCLUDED.created_at";
+            else if ("H2".equals(product))
+                sql = "MERGE INTO result_blobs (hash, codec, raw_size, data, created_at) KEY (hash) VALUES (?, ?, ?, ?, ?)";
+            else
+                sql = "";
+            upsert = sql;
+        }
+        return sql.isEmpty() ? null : sql;
+    }
+
+    /** Payloads by hash, read in chunked {@code IN} queries; unknown hashes are absent. */
+    public Map<String, String> getAll(Collection<String> hashes) {
+        Set<String> unique = new LinkedHashSet<>(hashes);
+        unique.remove(null);
+        Map<String, String> out = new HashMap<>();
+        List<String> all = new ArrayList<>(unique);
+        for (int from = 0; from < all.size(); from += READ_CHUNK) {
+            List<String> chunk = all.subList(from, Math.min(all.size(), from + READ_CHUNK));
+            String sql = "SELECT hash, codec, raw_size, data FROM result_blobs WHERE hash IN (?" + ", ?".repeat(chunk.size() - 1) + ")";
+            jdbc.query(sql, rs -> {
+                out.put(rs.getString(1), new String(inflate(rs.getBytes(4), rs.getInt(3)), StandardCharsets.UTF_8));
+            }, chunk.toArray());
+        }
+        return out;
+    }
+
+    /**
+     * Deletes payloads no step refers to any more that were last touched before
+     * {@code olderThan}, and in any case before twice the touch interval ago: a
+     * payload touched more recently may be reused by a writer on any node without
+     * a statement, or belong to a step row still being written. Returns the number
+     * of payloads deleted.
+     */
+    public int collectGarbage(java.time.Instant olderThan) {
+        java.time.Instant leased = clock.instant().minusMillis(2 * touchMillis);
+        java.time.Instant cutoff = olderThan.isBefore(leased) ? olderThan : leased;
+        return jdbc.update("DELETE FROM result_blobs WHERE created_at < ? "
+                + "AND NOT EXISTS (SELECT 1 FROM execution_steps s WHERE s.result_ref = result_blobs.hash) "
+                + "AND NOT EXISTS (SELECT 1 FROM execution_steps s WHERE s.parameters_ref = result_blobs.hash)",
+                java.sql.Timestamp.from(cutoff));
+    }
+
+    public String get(String hash) {
+        return hash == null ? null : getAll(List.of(hash)).get(hash);
+    }
+
+    static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+            byte[] buf = new byte[8192];
+            while (!deflater.finished())
+                out.write(buf, 0, deflater.deflate(buf));
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    static byte[] inflate(byte[] data, int rawSize) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            byte[] raw = new byte[rawSize];
+            int n = 0;
+            while (n < rawSize && !inflater.finished()) {
+                int read = inflater.inflate(raw, n, rawSize - n);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+                    throw new IllegalStateException("Corrupt result blob"); // data ends before raw_size bytes
+                n += read;
+            }
+            return raw;
+        } catch (DataFormatException ex) {
+            throw new IllegalStateException("Corrupt result blob", ex);
+        } finally {
+            inflater.end();
+        }
+    }
+}
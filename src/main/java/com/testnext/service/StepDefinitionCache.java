@@ -0,0 +1,115 @@
+package com.testnext.service;
+
+import com.testnext.model.StepDefinitionEntity;
+import com.testnext.repository.StepDefinitionRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Read-through cache of the step definition library keyed by id, refId and name.
+ *
+ * The library is small and only changes on startup sync, create and delete, so the
+ * whole table is held as an immutable snapshot that is swapped on every change.
+ * Readers never lock; once the snapshot is loaded, resolving a step for dispatch
+ * costs no queries. A miss falls through to the repository so definitions created
+ * by another node are picked up on first use.
+ */
+@Component
+public class StepDefinitionCache {
+    private final StepDefinitionRepository repo;
+    private volatile Snapshot snapshot;
+
+    public StepDefinitionCache(StepDefinitionRepository repo) {
+        this.repo = repo;
+    }
+
+    public Optional<StepDefinitionEntity> getById(Long id) {
+        if (id == null)
+            return Optional.empty();
+        StepDefinitionEntity e = current().byId.get(id);
+        if (e != null)
+            return Optional.of(e);
+        return repo.findById(id).map(this::put);
+    }
+
+    public Optional<StepDefinitionEntity> getByRefId(String refId) {
+        if (refId == null)
+            return Optional.empty();
+        StepDefinitionEntity e = current().byRefId.get(refId);
+        if (e != null)
+            return Optional.of(e);
+        return repo.findByRefId(refId).map(this::put);
+    }
+
+    public Optional<StepDefinitionEntity> getByName(String name) {
+        if (name == null)
+            return Optional.empty();
+        StepDefinitionEntity e = current().byName.get(name);
+        if (e != null)
+            return Optional.of(e);
+        return repo.findByName(name).map(this::put);
+    }
+
+    /** All cached definitions in id order. */
+    public List<StepDefinitionEntity> all() {
+        return current().ordered;
+    }
+
+    /** Adds or replaces a definition after it has been saved. */
+    public synchronized StepDefinitionEntity put(StepDefinitionEntity e) {
+        Map<Long, StepDefinitionEntity> byId = new HashMap<>(current().byId);
+        byId.put(e.id, e);
+        snapshot = new Snapshot(byId);
+        return e;
+    }
+
+    public synchronized void evict(Long id) {
+        Map<Long, StepDefinitionEntity> byId = new HashMap<>(current().byId);
+        if (byId.remove(id) != null)
+            snapshot = new Snapshot(byId);
+    }
+
+    /** Reloads the whole library from the database. */
+    public synchronized void refresh() {
+        Map<Long, StepDefinitionEntity> byId = new HashMap<>();
+        for (StepDefinitionEntity e : repo.findAll())
+            byId.put(e.id, e);
+        snapshot = new Snapshot(byId);
+    }
+
+    private Snapshot current() {
+        Snapshot s = snapshot;
+        if (s == null) {
+            refresh();
+            s = snapshot;
+        }
+        return s;
+    }
+
+    private static final class Snapshot {
+        final Map<Long, StepDefinitionEntity> byId;
+        final Map<String, StepDefinitionEntity> byRefId = new HashMap<>();
+        final Map<String, StepDefinitionEntity> byName = new HashMap<>();
+        final List<StepDefinitionEntity> ordered;
+
+        Snapshot(Map<Long, StepDefinitionEntity> byId) {
+            this.byId = byId;
+            List<StepDefinitionEntity> list = new ArrayList<>(byId.values());
+            list.sort((a, b) -> Long.compare(a.id, b.id));
+            for (StepDefinitionEntity e : list) {
+                if (e.refId != null)
+                    byRefId.put(e.refId, e);
+                // first definition wins on duplicate display names
+                if (e.name != null)
+                    byName.putIfAbsent(e.name, e);
+            }
+            this.ordered = Collections.unmodifiableList(list);
+        }
+    }
+}
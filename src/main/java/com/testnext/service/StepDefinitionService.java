@@ -11,10 +11,12 @@ import java.util.stream.Collectors;
 @Service
 public class StepDefinitionService {
     private final StepDefinitionRepository repo;
+    private final StepDefinitionCache cache;
     private final com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
 
-    public StepDefinitionService(StepDefinitionRepository repo) {
+    public StepDefinitionService(StepDefinitionRepository repo, StepDefinitionCache cache) {
         this.repo = repo;
+        this.cache = cache;
     }
 
     public StepDefinitionDto create(StepDefinitionDto in) {
@@ -28,7 +30,7 @@ public class StepDefinitionService {
         } catch (Exception ex) {
             throw new RuntimeException(ex);
         }
-        e = repo.save(e);
+        e = cache.put(repo.save(e));
         return toDto(e);
     }
 
@@ -46,11 +48,25 @@ public class StepDefinitionService {
         } catch (Exception ex) {
             throw new RuntimeException(ex);
         }
-        repo.save(e);
+        cache.put(repo.save(e));
     }
 
     public List<StepDefinitionDto> list() {
-        return repo.findAll().stream().map(this::toDto).collect(Collectors.toList());
+        return cache.all().stream().map(this::toDto).collect(Collectors.toList());
+    }
+
+    public boolean existsByName(String name) {
+        return cache.getByName(name).isPresent();
+    }
+
+    public void delete(Long id) {
+        repo.deleteById(id);
+        cache.evict(id);
+    }
+
+    /** Reloads the cached library, e.g. once the startup sync has finished. */
+    public void refreshCache() {
+        cache.refresh();
     }
 
     private StepDefinitionDto toDto(StepDefinitionEntity e) {
@@ -11,18 +11,15 @@ import org.springframework.stereotype.Service;
 public class TestService {
     private final TestRepository repo;
     private final TestStepRepository stepRepo;
-    private final com.testnext.repository.TestSuiteRepository suiteRepo;
-    private final com.testnext.repository.ProjectRepository projectRepo;
+    private final EntityCache cache;
 
     public TestService(
             TestRepository repo,
             TestStepRepository stepRepo,
-            com.testnext.repository.TestSuiteRepository suiteRepo,
-            com.testnext.repository.ProjectRepository projectRepo) {
+            EntityCache cache) {
         this.repo = repo;
         this.stepRepo = stepRepo;
-        this.suiteRepo = suiteRepo;
-        this.projectRepo = projectRepo;
+        this.cache = cache;
     }
 
     private final com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
@@ -31,6 +28,15 @@ public class TestService {
         TestEntity e = new TestEntity();
         e.suiteId = suiteId;
         e.name = in.name;
+        if (in.dataset != null) {
+            // validated up front so a bad binding fails on save rather than on the first run
+            com.testnext.execution.dataset.DatasetSpec.from(in.dataset);
+            try {
+                e.datasetJson = mapper.writeValueAsString(in.dataset);
+            } catch (Exception ex) {
+                throw new RuntimeException(ex);
+            }
+        }
         e = repo.save(e);
         // persist steps if provided
         if (in.steps != null) {
@@ -40,6 +46,10 @@ public class TestService {
                 tse.stepDefinitionId = s.stepDefinitionId;
                 try {
                     tse.parametersJson = s.parameters == null ? null : mapper.writeValueAsString(s.parameters);
+                    if (s.assertions != null) {
+                        com.testnext.execution.assertion.Assertions.compile(s.assertions);
+                        tse.assertionsJson = mapper.writeValueAsString(s.assertions);
+                    }
                 } catch (Exception ex) {
                     throw new RuntimeException(ex);
                 }
@@ -50,15 +60,18 @@ public class TestService {
         out.id = e.id;
         out.suiteId = e.suiteId;
         out.name = e.name;
+        out.dataset = in.dataset;
         return out;
     }
 
+    @org.springframework.transaction.annotation.Transactional(readOnly = true)
     public java.util.List<TestDto> list(Long suiteId) {
         return repo.findBySuiteId(suiteId).stream().map(e -> {
             TestDto dto = new TestDto();
             dto.id = e.id;
             dto.suiteId = e.suiteId;
             dto.name = e.name;
+            dto.dataset = readDataset(e.datasetJson);
             // TODO: fetch steps
             return dto;
         }).collect(java.util.stream.Collectors.toList());
@@ -67,25 +80,33 @@ public class TestService {
     public void delete(Long id) {
         stepRepo.deleteAll(stepRepo.findByTestIdOrderById(id));
         repo.deleteById(id);
+        cache.evictTest(id);
     }
 
     public Long getTenantIdForTest(Long testId) {
-        TestEntity t = repo.findById(testId).orElse(null);
-        if (t == null)
-            return null;
-        com.testnext.model.TestSuiteEntity s = suiteRepo.findById(t.suiteId).orElse(null);
-        if (s == null)
-            return null;
-        return projectRepo.findById(s.projectId).map(p -> p.getTenantId()).orElse(null);
+        return cache.tenantIdOfTest(testId);
     }
 
+    @org.springframework.transaction.annotation.Transactional(readOnly = true)
     public java.util.List<TestDto> listByProject(Long projectId) {
         return repo.findByProjectId(projectId).stream().map(e -> {
             TestDto dto = new TestDto();
             dto.id = e.id;
             dto.suiteId = e.suiteId;
             dto.name = e.name;
+            dto.dataset = readDataset(e.datasetJson);
             return dto;
         }).collect(java.util.stream.Collectors.toList());
     }
+
+    private java.util.Map<String, Object> readDataset(String json) {
+        if (json == null)
+            return null;
+        try {
+            return mapper.readValue(json, new com.fasterxml.jackson.core.type.TypeReference<java.util.Map<String, Object>>() {
+            });
+        } catch (Exception ex) {
+            throw new RuntimeException(ex);
+        }
+    }
 }
@@ -8,11 +8,11 @@ import org.springframework.stereotype.Service;
 @Service
 public class TestSuiteService {
     private final TestSuiteRepository repo;
-    private final com.testnext.repository.ProjectRepository projectRepo;
+    private final EntityCache cache;
 
-    public TestSuiteService(TestSuiteRepository repo, com.testnext.repository.ProjectRepository projectRepo) {
+    public TestSuiteService(TestSuiteRepository repo, EntityCache cache) {
         this.repo = repo;
-        this.projectRepo = projectRepo;
+        this.cache = cache;
     }
 
     public TestSuiteDto create(Long projectId, String name, String description) {
@@ -24,10 +24,12 @@ public class TestSuiteService {
         return toDto(e);
     }
 
+    @org.springframework.transaction.annotation.Transactional(readOnly = true)
     public java.util.List<TestSuiteDto> listAll() {
         return repo.findAll().stream().map(this::toDto).collect(java.util.stream.Collectors.toList());
     }
 
+    @org.springframework.transaction.annotation.Transactional(readOnly = true)
     public java.util.List<TestSuiteDto> listByProject(Long projectId) {
         return repo.findByProjectId(projectId).stream().map(this::toDto).collect(java.util.stream.Collectors.toList());
     }
@@ -39,6 +41,7 @@ public class TestSuiteService {
         if (description != null)
             e.description = description;
         e = repo.save(e);
+        cache.evictSuite(id);
         return toDto(e);
     }
 
@@ -48,6 +51,7 @@ public class TestSuiteService {
 
     public void delete(Long id) {
         repo.deleteById(id);
+        cache.evictSuite(id);
     }
 
     private TestSuiteDto toDto(TestSuiteEntity e) {
@@ -57,7 +61,7 @@ public class TestSuiteService {
         s.name = e.name;
         s.description = e.description;
         // Fetch tenantId from project
-        projectRepo.findById(e.projectId).ifPresent(p -> s.tenantId = p.getTenantId());
+        cache.project(e.projectId).ifPresent(p -> s.tenantId = p.tenantId());
         return s;
     }
 }
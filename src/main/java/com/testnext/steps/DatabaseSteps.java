@@ -1,36 +1,216 @@
 package com.testnext.steps;
 
 import com.testnext.annotation.TestStep;
+import com.testnext.db.TargetDataSources;
 import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
 
 @Component
 public class DatabaseSteps {
 
     private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(DatabaseSteps.class);
 
+    // table and column names are spliced into SQL, so only plain (optionally schema-qualified) identifiers are allowed
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*(\\.[A-Za-z_][A-Za-z0-9_]*)?");
+    private static final int MAX_ROWS = 1000;
+    private static final int MAX_REPORTED_MISMATCHES = 50;
+
+    private final TargetDataSources targets;
+
+    public DatabaseSteps(TargetDataSources targets) {
+        this.targets = targets;
+    }
+
     @TestStep(id = "db.runSql", name = "Run SQL Query", description = "Executes a SQL query against the connected database")
-    public void runSql(String query) {
-        log.debug("Executing SQL: {}", query);
+    public Map<String, Object> runSql(Map<String, Object> params) throws SQLException {
+        String sql = (String) params.get("query");
+        if (sql == null)
+            throw new IllegalArgumentException("query parameter required");
+        List<?> args = params.get("params") instanceof List<?> l ? l : List.of();
+        int maxRows = params.get("max_rows") == null ? MAX_ROWS : Integer.parseInt(params.get("max_rows").toString());
+        log.debug("Executing SQL on {}: {}", params.get("target"), sql);
+
+        return targets.withConnection((String) params.get("target"), c -> {
+            try (PreparedStatement ps = c.prepareStatement(sql)) {
+                for (int i = 0; i < args.size(); i++)
+                    ps.setObject(i + 1, args.get(i));
+                ps.setMaxRows(maxRows + 1);
+                if (!ps.execute())
+                    return Map.of("updateCount", ps.getUpdateCount());
+                try (ResultSet rs = ps.getResultSet()) {
+                    List<Map<String, Object>> rows = readRows(rs, maxRows);
+                    boolean truncated = rs.next();
+                    return Map.of("rows", rows, "rowCount", rows.size(), "truncated", truncated);
+                }
+            }
+        });
+    }
+
+    // reference data (securities, counterparties) is read many times per run and rarely changes
+    @TestStep(id = "db.lookupRow", name = "Look Up DB Row", description = "Read one row by key, e.g. reference data; memoized per tenant for five minutes", cacheable = true, ttlSeconds = 300)
+    public Map<String, Object> lookupRow(Map<String, Object> params) throws SQLException {
+        String tableName = requireIdentifier((String) params.get("table_name"));
+        String keyColumn = requireIdentifier((String) params.getOrDefault("key_column", "id"));
+        Object id = params.get("id");
+        if (id == null)
+            throw new IllegalArgumentException("id parameter required");
+
+        return targets.withConnection((String) params.get("target"), c -> {
+            try (PreparedStatement ps = c.prepareStatement("SELECT * FROM " + tableName + " WHERE " + keyColumn + " = ?")) {
+                ps.setObject(1, id);
+                try (ResultSet rs = ps.executeQuery()) {
+                    List<Map<String, Object>> rows = readRows(rs, 1);
+                    if (rows.isEmpty())
+                        throw new IllegalStateException("No row in " + tableName + " with " + keyColumn + "=" + id);
+                    return rows.get(0);
+                }
+            }
+        });
     }
 
     @TestStep(id = "db.validateFields", name = "Validate DB Fields", description = "Validate that a record in the database matches expected values")
     @SuppressWarnings("unchecked")
-    public Map<String, Object> validateFields(Map<String, Object> params) {
+    public Map<String, Object> validateFields(Map<String, Object> params) throws SQLException {
         String tableName = (String) params.get("table_name");
-        String idInfo = (String) params.get("id");
+        Object id = params.get("id");
+        String keyColumn = (String) params.getOrDefault("key_column", "id");
         Map<String, Object> expected = (Map<String, Object>) params.get("expected_values");
+        if (expected == null)
+            throw new IllegalArgumentException("expected_values parameter required");
+
+        log.debug("Validating table {} id {}", tableName, id);
+        Map<String, Object> row = new LinkedHashMap<>(expected);
+        row.put(keyColumn, id);
+        List<String> mismatches = validate((String) params.get("target"), tableName, keyColumn, List.of(row), MAX_ROWS);
+        if (!mismatches.isEmpty())
+            throw new RuntimeException("Validation failed: " + String.join("; ", mismatches));
+        return Map.of("status", "PASSED", "message", "All fields match");
+    }
 
-        // Simulate DB validation
-        log.debug("Validating table {} id {}", tableName, idInfo);
+    @TestStep(id = "db.validateRows", name = "Validate DB Rows", description = "Validate many expected rows with set-based queries keyed by a column")
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> validateRows(Map<String, Object> params) throws SQLException {
+        String tableName = (String) params.get("table_name");
+        String keyColumn = (String) params.getOrDefault("key_column", "id");
+        List<Map<String, Object>> expectedRows = (List<Map<String, Object>>) params.get("expected_rows");
+        if (expectedRows == null)
+            throw new IllegalArgumentException("expected_rows parameter required");
+        int chunk = params.get("chunk_size") == null ? MAX_ROWS : Integer.parseInt(params.get("chunk_size").toString());
 
-        // In a real implementation, we would query the DB here
-        boolean match = true; // simulate success
+        List<String> mismatches = validate((String) params.get("target"), tableName, keyColumn, expectedRows, chunk);
+        if (!mismatches.isEmpty()) {
+            throw new RuntimeException("Validation failed with " + mismatches.size() + " mismatches in "
+                    + expectedRows.size() + " rows: "
+                    + String.join("; ", mismatches.subList(0, Math.min(MAX_REPORTED_MISMATCHES, mismatches.size()))));
+        }
+        return Map.of("status", "PASSED", "checked", expectedRows.size(), "message", "All rows match");
+    }
 
-        if (match) {
-            return Map.of("status", "PASSED", "message", "All fields match");
-        } else {
-            throw new RuntimeException("Validation failed: fields do not match");
+    /**
+     * Fetches the rows for all expected keys with one {@code WHERE key IN (...)} query
+     * per chunk and compares them column by column. Returns one message per mismatch.
+     */
+    private List<String> validate(String target, String tableName, String keyColumn, List<Map<String, Object>> expectedRows,
+            int chunkSize) throws SQLException {
+        requireIdentifier(tableName);
+        requireIdentifier(keyColumn);
+        Set<String> columns = new LinkedHashSet<>();
+        columns.add(keyColumn);
+        for (Map<String, Object> row : expectedRows) {
+            if (!row.containsKey(keyColumn))
+                throw new IllegalArgumentException("Expected row without key column " + keyColumn + ": " + row);
+            for (String col : row.keySet())
+                columns.add(requireIdentifier(col));
         }
+        String select = "SELECT " + String.join(", ", columns) + " FROM " + tableName + " WHERE " + keyColumn + " IN (";
+
+        List<String> mismatches = new ArrayList<>();
+        targets.withConnection(target, c -> {
+            for (int from = 0; from < expectedRows.size(); from += chunkSize) {
+                List<Map<String, Object>> chunk = expectedRows.subList(from, Math.min(expectedRows.size(), from + chunkSize));
+                String sql = select + "?" + ", ?".repeat(chunk.size() - 1) + ")";
+                Map<String, Map<String, Object>> actualByKey = new HashMap<>();
+                try (PreparedStatement ps = c.prepareStatement(sql)) {
+                    for (int i = 0; i < chunk.size(); i++)
+                        ps.setObject(i + 1, chunk.get(i).get(keyColumn));
+                    try (ResultSet rs = ps.executeQuery()) {
+                        for (Map<String, Object> actual : readRows(rs, Integer.MAX_VALUE))
+                            actualByKey.put(String.valueOf(valueOf(actual, keyColumn)), actual);
+                    }
+                }
+                for (Map<String, Object> expected : chunk)
+                    compare(expected, actualByKey.get(String.valueOf(expected.get(keyColumn))), keyColumn, mismatches);
+            }
+            return null;
+        });
+        return mismatches;
+    }
+
+    private static void compare(Map<String, Object> expected, Map<String, Object> actual, String keyColumn,
+            List<String> mismatches) {
+        Object key = expected.get(keyColumn);
+        if (actual == null) {
+            mismatches.add(keyColumn + "=" + key + ": row not found");
+            return;
+        }
+        for (Map.Entry<String, Object> e : expected.entrySet()) {
+            Object actualValue = valueOf(actual, e.getKey());
+            if (!sameValue(e.getValue(), actualValue))
+                mismatches.add(keyColumn + "=" + key + ": " + e.getKey() + " expected " + e.getValue() + " but was " + actualValue);
+        }
+    }
+
+    private static boolean sameValue(Object expected, Object actual) {
+        if (expected == null || actual == null)
+            return expected == actual;
+        if (expected instanceof Number || actual instanceof Number) {
+            try {
+                return new BigDecimal(expected.toString()).compareTo(new BigDecimal(actual.toString())) == 0;
+            } catch (NumberFormatException ex) {
+                return false;
+            }
+        }
+        return expected.toString().equals(actual.toString());
+    }
+
+    // result column labels come back in the database's case (upper in H2, lower in PostgreSQL)
+    private static Object valueOf(Map<String, Object> row, String column) {
+        for (Map.Entry<String, Object> e : row.entrySet()) {
+            if (e.getKey().equalsIgnoreCase(column))
+                return e.getValue();
+        }
+        return null;
+    }
+
+    private static List<Map<String, Object>> readRows(ResultSet rs, int maxRows) throws SQLException {
+        ResultSetMetaData md = rs.getMetaData();
+        int n = md.getColumnCount();
+        List<Map<String, Object>> rows = new ArrayList<>();
+        while (rows.size() < maxRows && rs.next()) {
+            Map<String, Object> row = new LinkedHashMap<>(n * 2);
+            for (int i = 1; i <= n; i++)
+                row.put(md.getColumnLabel(i), rs.getObject(i));
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static String requireIdentifier(String name) {
+        if (name == null || !IDENTIFIER.matcher(name).matches())
+            throw new IllegalArgumentException("Invalid table or column name: " + name);
+        return name;
     }
 }
@@ -0,0 +1,57 @@
+package com.testnext.steps;
+
+import com.testnext.annotation.TestStep;
+import com.testnext.stub.StubDefinition;
+import com.testnext.stub.StubRuntime;
+import com.testnext.stub.StubServer;
+import com.testnext.tenant.TenantContext;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@Component
+public class StubSteps {
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(StubSteps.class);
+
+    private final StubRuntime runtime;
+
+    public StubSteps(StubRuntime runtime) {
+        this.runtime = runtime;
+    }
+
+    @TestStep(id = "stub.start", name = "Start Stub Server", description = "Serve declarative HTTP stubs with optional latency and error injection")
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> start(Map<String, Object> params) throws Exception {
+        String name = params.get("name") == null ? "default" : params.get("name").toString();
+        int port = params.get("port") == null ? 0 : Integer.parseInt(params.get("port").toString());
+        List<StubDefinition> stubs = new ArrayList<>();
+        if (params.get("stubs") instanceof List<?> specs) {
+            for (Object spec : specs)
+                stubs.add(StubDefinition.from((Map<String, Object>) spec));
+        }
+
+        StubServer server = runtime.start(TenantContext.getTenant().orElse("public"), name, port, stubs);
+        log.debug("Stub server {} serving {} stubs on port {}", name, stubs.size(), server.getPort());
+        return Map.of(
+                "name", name,
+                "port", server.getPort(),
+                "baseUrl", runtime.baseUrl(server),
+                "stubs", server.getStubCount());
+    }
+
+    @TestStep(id = "stub.stop", name = "Stop Stub Server", description = "Stop a stub server and report how many requests it served")
+    public Map<String, Object> stop(Map<String, Object> params) {
+        String name = params.get("name") == null ? "default" : params.get("name").toString();
+        StubServer server = runtime.stop(TenantContext.getTenant().orElse("public"), name);
+        if (server == null)
+            throw new IllegalStateException("No stub server running: " + name);
+        return Map.of(
+                "name", name,
+                "requests", server.getRequests(),
+                "unmatched", server.getUnmatched(),
+                "injectedErrors", server.getInjectedErrors());
+    }
+}
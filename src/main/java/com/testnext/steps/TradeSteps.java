@@ -1,7 +1,10 @@
 package com.testnext.steps;
 
+import com.testnext.annotation.BatchTestStep;
 import com.testnext.annotation.TestStep;
 import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 @Component
@@ -9,21 +12,49 @@ public class TradeSteps {
 
         private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(TradeSteps.class);
 
-        @TestStep(id = "trade.bookTrade", name = "Book a Trade", description = "Book a trade with specified parameters")
+        // The shared trading sandbox tolerates only a handful of concurrent bookings
+        @TestStep(id = "trade.bookTrade", name = "Book a Trade", description = "Book a trade with specified parameters", bulkhead = "trading-sandbox", maxConcurrency = 5)
         public Map<String, Object> bookTrade(Map<String, Object> params) {
-                String securityId = (String) params.get("security_id");
-                Integer quantity = params.get("quantity") instanceof Integer ? (Integer) params.get("quantity")
-                                : Integer.parseInt(params.get("quantity").toString());
-                Double price = params.get("price") instanceof Double ? (Double) params.get("price")
-                                : Double.parseDouble(params.get("price").toString());
-                String side = (String) params.get("side");
+                Booking b = Booking.from(params);
 
                 // Simulate booking logic
-                log.debug("Booking trade: {} {} {} @ {}", side, quantity, securityId, price);
+                log.debug("Booking trade: {} {} {} @ {}", b.side(), b.quantity(), b.securityId(), b.price());
 
                 return Map.of(
                                 "tradeId", "TRD-" + System.currentTimeMillis(),
                                 "status", "BOOKED",
                                 "message", "Trade booked successfully");
         }
+
+        // Books many rows in one call; a real sandbox would take them through its bulk booking API
+        @BatchTestStep(id = "trade.bookTrade")
+        public List<Map<String, Object>> bookTrades(List<Map<String, Object>> rows) {
+                List<Booking> bookings = new ArrayList<>(rows.size());
+                for (Map<String, Object> row : rows)
+                        bookings.add(Booking.from(row));
+
+                log.debug("Booking {} trades in one batch", bookings.size());
+
+                String batchId = "TRD-" + System.currentTimeMillis();
+                List<Map<String, Object>> results = new ArrayList<>(bookings.size());
+                for (int i = 0; i < bookings.size(); i++) {
+                        results.add(Map.of(
+                                        "tradeId", batchId + "-" + i,
+                                        "status", "BOOKED",
+                                        "message", "Trade booked successfully"));
+                }
+                return results;
+        }
+
+        private record Booking(String securityId, Integer quantity, Double price, String side) {
+                static Booking from(Map<String, Object> params) {
+                        String securityId = (String) params.get("security_id");
+                        Integer quantity = params.get("quantity") instanceof Integer ? (Integer) params.get("quantity")
+                                        : Integer.parseInt(params.get("quantity").toString());
+                        Double price = params.get("price") instanceof Double ? (Double) params.get("price")
+                                        : Double.parseDouble(params.get("price").toString());
+                        String side = (String) params.get("side");
+                        return new Booking(securityId, quantity, price, side);
+                }
+        }
 }
@@ -0,0 +1,129 @@
+package com.testnext.stub;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * One declarative stub: which requests it answers and how.
+ *
+ * <pre>
+ * { "method": "POST", "path": "/trades/*", "status": 201,
+ *   "headers": { "Content-Type": "application/json" }, "body": { "status": "BOOKED" },
+ *   "latencyMs": 20, "jitterMs": 10, "errorRate": 0.05, "errorStatus": 503, "fault": "reset" }
+ * </pre>
+ *
+ * A path ending in {@code *} matches by prefix; a missing method matches any method.
+ * {@code errorRate} is the share of matching requests that get {@code errorStatus}
+ * instead, or a dropped connection when {@code fault} is {@code reset}. The
+ * response bytes are rendered once when the stub is defined.
+ */
+public class StubDefinition {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final String method;
+    private final String path;
+    private final boolean prefix;
+    private final long latencyMs;
+    private final long jitterMs;
+    private final double errorRate;
+    private final boolean resetOnError;
+    private final byte[] response;
+    private final byte[] errorResponse;
+
+    StubDefinition(String method, String path, long latencyMs, long jitterMs, double errorRate, boolean resetOnError,
+            byte[] response, byte[] errorResponse) {
+        this.method = method;
+        this.prefix = path.endsWith("*");
+        this.path = prefix ? path.substring(0, path.length() - 1) : path;
+        this.latencyMs = latencyMs;
+        this.jitterMs = jitterMs;
+        this.errorRate = errorRate;
+        this.resetOnError = resetOnError;
+        this.response = response;
+        this.errorResponse = errorResponse;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static StubDefinition from(Map<String, Object> spec) throws Exception {
+        String method = spec.get("method") == null ? null : spec.get("method").toString().toUpperCase();
+        String path = spec.get("path") == null ? "/*" : spec.get("path").toString();
+        int status = intOf(spec.get("status"), 200);
+        Map<String, String> headers = new LinkedHashMap<>();
+        if (spec.get("headers") instanceof Map<?, ?> h)
+            h.forEach((k, v) -> headers.put(String.valueOf(k), String.valueOf(v)));
+        Object body = spec.get("body");
+        byte[] bodyBytes;
+        if (body == null) {
+            bodyBytes = new byte[0];
+        } else if (body instanceof String s) {
+            bodyBytes = s.getBytes(StandardCharsets.UTF_8);
+        } else {
+            bodyBytes = MAPPER.writeValueAsBytes(body);
+            headers.putIfAbsent("Content-Type", "application/json");
+        }
+        int errorStatus = intOf(spec.get("errorStatus"), 500);
+        return new StubDefinition(method, path,
+                intOf(spec.get("latencyMs"), 0), intOf(spec.get("jitterMs"), 0),
+                spec.get("errorRate") == null ? 0 : Double.parseDouble(spec.get("errorRate").toString()),
+                "reset".equals(spec.get("fault")),
+                render(status, headers, bodyBytes),
+                render(errorStatus, Map.of(), ("injected error " + errorStatus).getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static int intOf(Object v, int dflt) {
+        return v == null ? dflt : (int) Double.parseDouble(v.toString());
+    }
+
+    static byte[] render(int status, Map<String, String> headers, byte[] body) {
+        StringBuilder head = new StringBuilder(128);
+        head.append("HTTP/1.1 ").append(status).append(' ').append(reason(status)).append("\r\n");
+        headers.forEach((k, v) -> {
+            if (!k.equalsIgnoreCase("Content-Length"))
+                head.append(k).append(": ").append(v).append("\r\n");
+        });
+        head.append("Content-Length: ").append(body.length).append("\r\n\r\n");
+        byte[] h = head.toString().getBytes(StandardCharsets.ISO_8859_1);
+        byte[] out = new byte[h.length + body.length];
+        System.arraycopy(h, 0, out, 0, h.length);
+        System.arraycopy(body, 0, out, h.length, body.length);
+        return out;
+    }
+
+    private static String reason(int status) {
+        return switch (status) {
+            case 200 -> "OK";
+            case 201 -> "Created";
+            case 204 -> "No Content";
+            case 400 -> "Bad Request";
+            case 404 -> "Not Found";
+            case 413 -> "Payload Too Large";
+            case 500 -> "Internal Server Error";
+            case 502 -> "Bad Gateway";
+            case 503 -> "Service Unavailable";
+            case 504 -> "Gateway Timeout";
+            default -> "Status";
+        };
+    }
+
+    boolean matches(String requestMethod, String requestPath) {
+        if (method != null && !method.equals("*") && !method.equals(requestMethod))
+            return false;
+        return prefix ? requestPath.startsWith(path) : requestPath.equals(path);
+    }
+
+    long delayMs() {
+        return jitterMs > 0 ? latencyMs + ThreadLocalRandom.current().nextLong(jitterMs + 1) : latencyMs;
+    }
+
+    boolean injectError() {
+        return errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate;
+    }
+
+    boolean isResetOnError() { return resetOnError; }
+    byte[] getResponse() { return response; }
+    byte[] getErrorResponse() { return errorResponse; }
+}
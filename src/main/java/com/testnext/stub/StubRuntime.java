@@ -0,0 +1,423 @@
+package com.testnext.stub;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hosts every stub server of the node on one non-blocking event loop.
+ *
+ * A single selector thread accepts, reads and writes for all stub ports, so the
+ * cost of a stub is a listening socket and its open connections, not a thread.
+ * Requests are parsed as HTTP/1.1 with keep-alive and pipelining (one request in
+ * flight per connection). Injected latency is a timer that hands the pre-rendered
+ * response back to the loop; nothing ever blocks the selector thread.
+ *
+ * A stub started while a {@link StubScope} owner is set belongs to that execution
+ * and is stopped by {@link #stopOwnedBy} when the execution ends, so a test that
+ * never reaches its {@code stub.stop} step does not leave the port open.
+ */
+@Component
+public class StubRuntime implements DisposableBean {
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(StubRuntime.class);
+    private static final int INITIAL_BUFFER = 8 * 1024;
+    private static final int MAX_REQUEST_BYTES = 1024 * 1024;
+    private static final byte[] TOO_LARGE = StubDefinition.render(413, Map.of(), new byte[0]);
+    private static final byte[] BAD_REQUEST = StubDefinition.render(400, Map.of(), new byte[0]);
+
+    private final String bindAddress;
+    private final Map<String, StubServer> servers = new ConcurrentHashMap<>();
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final Map<StubServer, Set<Connection>> connections = new HashMap<>(); // loop thread only
+    private Selector selector;
+    private Thread loop;
+    private ScheduledExecutorService timers;
+    private volatile boolean running;
+
+    public StubRuntime(@Value("${testnext.stub.bind-address:127.0.0.1}") String bindAddress) {
+        this.bindAddress = bindAddress;
+    }
+
+    /**
+     * Starts a stub server, or replaces the stubs of a running one with the same
+     * tenant and name (it keeps its port). Port 0 binds an ephemeral port. The
+     * server belongs to the current {@link StubScope} owner, if any.
+     */
+    public synchronized StubServer start(String tenant, String name, int port, List<StubDefinition> definitions)
+            throws IOException {
+        String key = tenant + "/" + name;
+        String owner = StubScope.getOwner().orElse(null);
+        StubServer existing = servers.get(key);
+        if (existing != null) {
+            existing.replaceDefinitions(definitions);
+            existing.setOwner(owner);
+            return existing;
+        }
+        ensureRunning();
+        ServerSocketChannel channel = ServerSocketChannel.open();
+        try {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+            channel.bind(new InetSocketAddress(bindAddress, port), 1024);
+        } catch (IOException ex) {
+            channel.close();
+            throw ex;
+        }
+        StubServer server = new StubServer(tenant, name, channel,
+                ((InetSocketAddress) channel.getLocalAddress()).getPort(), definitions);
+        server.setOwner(owner);
+        servers.put(key, server);
+        onLoop(() -> {
+            try {
+                channel.register(selector, SelectionKey.OP_ACCEPT, server);
+                connections.put(server, new HashSet<>());
+            } catch (IOException ex) {
+                log.warn("Cannot register stub server {}", key, ex);
+            }
+        });
+        return server;
+    }
+
+    /** Stops the stub server and drops its connections; returns it for its counters, or null. */
+    public synchronized StubServer stop(String tenant, String name) {
+        StubServer server = servers.remove(tenant + "/" + name);
+        if (server != null)
+            onLoop(() -> close(server));
+        return server;
+    }
+
+    /** Stops every stub server the owner started; returns how many. */
+    public synchronized int stopOwnedBy(String owner) {
+        int stopped = 0;
+        for (StubServer s : List.copyOf(servers.values())) {
+            if (owner.equals(s.getOwner()) && stop(s.getTenant(), s.getName()) != null)
+                stopped++;
+        }
+        if (stopped > 0)
+            log.debug("Stopped {} stub server(s) left running by {}", stopped, owner);
+        return stopped;
+    }
+
+    public StubServer get(String tenant, String name) {
+        return servers.get(tenant + "/" + name);
+    }
+
+    /** Base URL clients use to reach a stub server. */
+    public String baseUrl(StubServer server) {
+        String host = bindAddress.equals("0.0.0.0") ? "localhost" : bindAddress;
+        return "http://" + host + ":" + server.getPort();
+    }
+
+    private void ensureRunning() throws IOException {
+        if (running)
+            return;
+        selector = Selector.open();
+        timers = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "testnext-stub-timer");
+            t.setDaemon(true);
+            return t;
+        });
+        running = true;
+        loop = new Thread(this::runLoop, "testnext-stub-loop");
+        loop.setDaemon(true);
+        loop.start();
+    }
+
+    private void onLoop(Runnable task) {
+        tasks.add(task);
+        selector.wakeup();
+    }
+
+    private void runLoop() {
+        try {
+            while (running) {
+                try {
+                    selector.select();
+                    Runnable task;
+                    while ((task = tasks.poll()) != null)
+                        task.run();
+                } catch (Exception ex) {
+                    log.warn("Stub event loop error", ex);
+                }
+                Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                while (it.hasNext()) {
+                    SelectionKey key = it.next();
+                    it.remove();
+                    handle(key);
+                }
+            }
+        } finally {
+            try {
+                selector.close();
+            } catch (IOException ex) {
+                log.debug("Cannot close stub selector", ex);
+            }
+        }
+    }
+
+    /** Handles one ready key; a failure only affects the connection it happened on. */
+    private void handle(SelectionKey key) {
+        if (!key.isValid())
+            return;
+        if (key.isAcceptable()) {
+            try {
+                accept(key);
+            } catch (IOException ex) {
+                log.warn("Cannot accept stub connection", ex);
+            }
+            return;
+        }
+        Connection c = (Connection) key.attachment();
+        try {
+            if (key.isReadable())
+                c.read();
+            if (key.isValid() && key.isWritable())
+                c.flush();
+        } catch (IOException ex) {
+            c.close();
+        } catch (RuntimeException ex) {
+            log.warn("Stub connection error", ex);
+            c.close();
+        }
+    }
+
+    private void accept(SelectionKey key) throws IOException {
+        StubServer server = (StubServer) key.attachment();
+        SocketChannel ch;
+        while ((ch = server.channel().accept()) != null) {
+            ch.configureBlocking(false);
+            ch.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            Connection c = new Connection(server, ch);
+            c.key = ch.register(selector, SelectionKey.OP_READ, c);
+            connections.computeIfAbsent(server, s -> new HashSet<>()).add(c);
+        }
+    }
+
+    private void close(StubServer server) {
+        try {
+            server.channel().close();
+        } catch (IOException ignored) {
+            // already closed
+        }
+        Set<Connection> open = connections.remove(server);
+        if (open != null)
+            List.copyOf(open).forEach(Connection::close);
+    }
+
+    /** Stops every stub server and the event loop, and waits for the selector to close. */
+    @Override
+    public synchronized void destroy() throws InterruptedException {
+        if (!running)
+            return;
+        List.copyOf(servers.values()).forEach(s -> stop(s.getTenant(), s.getName()));
+        onLoop(() -> running = false);
+        timers.shutdownNow();
+        loop.join(5000);
+    }
+
+    /** One client connection; only touched on the loop thread. */
+    private final class Connection {
+        final StubServer server;
+        final SocketChannel ch;
+        SelectionKey key;
+        ByteBuffer in = ByteBuffer.allocate(INITIAL_BUFFER);
+        final ArrayDeque<ByteBuffer> out = new ArrayDeque<>();
+        boolean busy; // a response is pending; further pipelined requests wait in the buffer
+        boolean keepAlive = true;
+        boolean closed;
+
+        Connection(StubServer server, SocketChannel ch) {
+            this.server = server;
+            this.ch = ch;
+        }
+
+        void read() throws IOException {
+            if (!in.hasRemaining()) {
+                if (in.capacity() >= MAX_REQUEST_BYTES) {
+                    respond(TOO_LARGE, false);
+                    return;
+                }
+                ByteBuffer bigger = ByteBuffer.allocate(Math.min(MAX_REQUEST_BYTES, in.capacity() * 2));
+                in.flip();
+                bigger.put(in);
+                in = bigger;
+            }
+            if (ch.read(in) < 0) {
+                close();
+                return;
+            }
+            next();
+        }
+
+        /** Parses the next complete request in the buffer, if any, and dispatches it. */
+        void next() {
+            if (busy || closed)
+                return;
+            byte[] buf = in.array();
+            int limit = in.position();
+            int headEnd = indexOfHeaderEnd(buf, limit);
+            if (headEnd < 0)
+                return;
+            String head = new String(buf, 0, headEnd, StandardCharsets.ISO_8859_1);
+            String[] lines = head.split("\r\n");
+            String[] requestLine = lines[0].split(" ");
+            if (requestLine.length < 3) {
+                respond(BAD_REQUEST, false);
+                return;
+            }
+            long contentLength = 0;
+            boolean http11 = requestLine[2].equals("HTTP/1.1");
+            keepAlive = http11;
+            for (int i = 1; i < lines.length; i++) {
+                int colon = lines[i].indexOf(':');
+                if (colon < 0)
+                    continue;
+                String name = lines[i].substring(0, colon).trim();
+                String value = lines[i].substring(colon + 1).trim();
+                if (name.equalsIgnoreCase("Content-Length")) {
+                    contentLength = parseLength(value);
+                    if (contentLength < 0) {
+                        // the body cannot be delimited, so nothing after it can be read either
+                        respond(BAD_REQUEST, false);
+                        return;
+                    }
+                } else if (name.equalsIgnoreCase("Connection"))
+                    keepAlive = http11 ? !value.equalsIgnoreCase("close") : value.equalsIgnoreCase("keep-alive");
+            }
+            long total = headEnd + 4 + contentLength;
+            if (total > MAX_REQUEST_BYTES) {
+                respond(TOO_LARGE, false);
+                return;
+            }
+            if (limit < total)
+                return; // wait for the rest of the body
+            in.flip();
+            in.position((int) total);
+            in.compact();
+
+            String target = requestLine[1];
+            int q = target.indexOf('?');
+            String path = q < 0 ? target : target.substring(0, q);
+            busy = true;
+            dispatch(requestLine[0], path);
+        }
+
+        void dispatch(String method, String path) {
+            StubDefinition stub = server.find(method, path);
+            if (stub == null) {
+                respond(StubServer.NOT_FOUND, keepAlive);
+                return;
+            }
+            boolean error = stub.injectError();
+            if (error)
+                server.countInjectedError();
+            long delay = stub.delayMs();
+            Runnable reply = () -> {
+                if (error && stub.isResetOnError())
+                    reset();
+                else
+                    respond(error ? stub.getErrorResponse() : stub.getResponse(), keepAlive);
+            };
+            if (delay > 0)
+                timers.schedule(() -> onLoop(reply), delay, TimeUnit.MILLISECONDS);
+            else
+                reply.run();
+        }
+
+        void respond(byte[] response, boolean keepOpen) {
+            if (closed)
+                return;
+            keepAlive = keepOpen;
+            out.add(ByteBuffer.wrap(response));
+            try {
+                flush();
+            } catch (IOException ex) {
+                close();
+            }
+        }
+
+        void flush() throws IOException {
+            while (!out.isEmpty()) {
+                ByteBuffer head = out.peek();
+                ch.write(head);
+                if (head.hasRemaining()) {
+                    key.interestOps(SelectionKey.OP_WRITE);
+                    return;
+                }
+                out.poll();
+            }
+            if (!keepAlive) {
+                close();
+                return;
+            }
+            key.interestOps(SelectionKey.OP_READ);
+            if (busy) {
+                busy = false;
+                next(); // a pipelined request may already be buffered
+            }
+        }
+
+        void reset() {
+            try {
+                ch.setOption(StandardSocketOptions.SO_LINGER, 0);
+            } catch (IOException ignored) {
+                // closing anyway
+            }
+            close();
+        }
+
+        void close() {
+            if (closed)
+                return;
+            closed = true;
+            Set<Connection> open = connections.get(server);
+            if (open != null)
+                open.remove(this);
+            try {
+                ch.close();
+            } catch (IOException ignored) {
+                // nothing left to release
+            }
+        }
+    }
+
+    /** Content-Length value, or -1 when it is not a non-negative number. */
+    private static long parseLength(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+
+    private static int indexOfHeaderEnd(byte[] buf, int limit) {
+        for (int i = 0; i + 3 < limit; i++) {
+            if (buf[i] == '\r' && buf[i + 1] == '\n' && buf[i + 2] == '\r' && buf[i + 3] == '\n')
+                return i;
+        }
+        return -1;
+    }
+}
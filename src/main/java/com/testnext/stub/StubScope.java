@@ -0,0 +1,23 @@
+package com.testnext.stub;
+
+import java.util.Optional;
+
+/**
+ * The execution stub servers started on this thread belong to; the
+ * {@link StubRuntime} stops them when that execution ends.
+ */
+public class StubScope {
+    private static final ThreadLocal<String> currentOwner = new ThreadLocal<>();
+
+    public static void setOwner(String owner) {
+        currentOwner.set(owner);
+    }
+
+    public static Optional<String> getOwner() {
+        return Optional.ofNullable(currentOwner.get());
+    }
+
+    public static void clear() {
+        currentOwner.remove();
+    }
+}
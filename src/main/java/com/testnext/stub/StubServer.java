@@ -0,0 +1,69 @@
+package com.testnext.stub;
+
+import java.nio.channels.ServerSocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A running stub endpoint: one listening port and the stubs it serves. All its
+ * connections are handled by the shared {@link StubRuntime} event loop.
+ */
+public class StubServer {
+    static final byte[] NOT_FOUND = StubDefinition.render(404, Map.of(),
+            "no stub matches this request".getBytes(StandardCharsets.UTF_8));
+
+    private final String tenant;
+    private final String name;
+    private final ServerSocketChannel channel;
+    private final int port;
+    private volatile List<StubDefinition> definitions;
+    private volatile String owner; // execution that started (or last redefined) it; null for none
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong unmatched = new AtomicLong();
+    private final AtomicLong injectedErrors = new AtomicLong();
+
+    StubServer(String tenant, String name, ServerSocketChannel channel, int port, List<StubDefinition> definitions) {
+        this.tenant = tenant;
+        this.name = name;
+        this.channel = channel;
+        this.port = port;
+        this.definitions = List.copyOf(definitions);
+    }
+
+    /** First stub matching the request, or null. */
+    StubDefinition find(String method, String path) {
+        requests.incrementAndGet();
+        for (StubDefinition d : definitions) {
+            if (d.matches(method, path))
+                return d;
+        }
+        unmatched.incrementAndGet();
+        return null;
+    }
+
+    void replaceDefinitions(List<StubDefinition> definitions) {
+        this.definitions = List.copyOf(definitions);
+    }
+
+    void setOwner(String owner) {
+        this.owner = owner;
+    }
+
+    String getOwner() { return owner; }
+
+    void countInjectedError() {
+        injectedErrors.incrementAndGet();
+    }
+
+    ServerSocketChannel channel() { return channel; }
+
+    public String getTenant() { return tenant; }
+    public String getName() { return name; }
+    public int getPort() { return port; }
+    public int getStubCount() { return definitions.size(); }
+    public long getRequests() { return requests.get(); }
+    public long getUnmatched() { return unmatched.get(); }
+    public long getInjectedErrors() { return injectedErrors.get(); }
+}
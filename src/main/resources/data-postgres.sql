@@ -14,3 +14,13 @@ VALUES (
     NOW()
 )
 ON CONFLICT (username) DO NOTHING;
+
+-- Deduplicated step payloads (ResultBlobStore); plain JDBC, so not created by Hibernate.
+-- Tenant schemas get the same table from db/tenant/V1__baseline.sql.
+CREATE TABLE IF NOT EXISTS result_blobs (
+    hash VARCHAR(64) PRIMARY KEY,
+    codec VARCHAR(16) NOT NULL,
+    raw_size INT NOT NULL,
+    data BYTEA NOT NULL,
+    created_at TIMESTAMP
+);
@@ -0,0 +1,71 @@
+-- Tenant schema tables. ${schema} is the quoted tenant schema; ${text} and ${bytes}
+-- are the dialect's large text and binary types.
+-- Schemas created before versioning already have some of these tables, so every
+-- statement tolerates existing objects and the ALTERs bring older tables up to date.
+
+CREATE TABLE IF NOT EXISTS ${schema}.test_suites (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  project_id BIGINT NOT NULL,
+  name VARCHAR(255) NOT NULL,
+  description VARCHAR(1000)
+);
+
+CREATE TABLE IF NOT EXISTS ${schema}.tests (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  suite_id BIGINT NOT NULL,
+  name VARCHAR(255) NOT NULL,
+  dataset_json ${text}
+);
+ALTER TABLE ${schema}.tests ADD COLUMN IF NOT EXISTS dataset_json ${text};
+
+CREATE TABLE IF NOT EXISTS ${schema}.test_steps (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  test_id BIGINT NOT NULL,
+  step_definition_id BIGINT NOT NULL,
+  parameters_json ${text},
+  assertions_json ${text}
+);
+ALTER TABLE ${schema}.test_steps ADD COLUMN IF NOT EXISTS assertions_json ${text};
+
+CREATE TABLE IF NOT EXISTS ${schema}.executions (
+  id UUID PRIMARY KEY,
+  test_id BIGINT NOT NULL,
+  tenant_id BIGINT,
+  project_id BIGINT,
+  status VARCHAR(50) NOT NULL,
+  started_at TIMESTAMP,
+  finished_at TIMESTAMP,
+  iteration_summary_json ${text}
+);
+ALTER TABLE ${schema}.executions ADD COLUMN IF NOT EXISTS iteration_summary_json ${text};
+ALTER TABLE ${schema}.executions ADD COLUMN IF NOT EXISTS tenant_id BIGINT;
+ALTER TABLE ${schema}.executions ADD COLUMN IF NOT EXISTS project_id BIGINT;
+
+CREATE TABLE IF NOT EXISTS ${schema}.execution_steps (
+  id UUID PRIMARY KEY,
+  execution_id UUID NOT NULL,
+  step_definition_id BIGINT NOT NULL,
+  status VARCHAR(50) NOT NULL,
+  result_json ${text},
+  parameters_json ${text},
+  assertions_json ${text},
+  result_ref VARCHAR(64),
+  parameters_ref VARCHAR(64),
+  created_at TIMESTAMP,
+  started_at TIMESTAMP,
+  finished_at TIMESTAMP,
+  attempts INT
+);
+ALTER TABLE ${schema}.execution_steps ADD COLUMN IF NOT EXISTS assertions_json ${text};
+ALTER TABLE ${schema}.execution_steps ADD COLUMN IF NOT EXISTS result_ref VARCHAR(64);
+ALTER TABLE ${schema}.execution_steps ADD COLUMN IF NOT EXISTS parameters_ref VARCHAR(64);
+ALTER TABLE ${schema}.execution_steps ADD COLUMN IF NOT EXISTS created_at TIMESTAMP;
+
+CREATE TABLE IF NOT EXISTS ${schema}.result_blobs (
+  hash VARCHAR(64) PRIMARY KEY,
+  codec VARCHAR(16) NOT NULL,
+  raw_size INT NOT NULL,
+  data ${bytes} NOT NULL,
+  created_at TIMESTAMP
+);
+ALTER TABLE ${schema}.result_blobs ADD COLUMN IF NOT EXISTS created_at TIMESTAMP;
@@ -0,0 +1,14 @@
+-- Indexes behind the per-tenant lookups and listings.
+
+CREATE INDEX IF NOT EXISTS idx_test_suites_project ON ${schema}.test_suites (project_id);
+CREATE INDEX IF NOT EXISTS idx_tests_suite ON ${schema}.tests (suite_id);
+CREATE INDEX IF NOT EXISTS idx_test_steps_test ON ${schema}.test_steps (test_id);
+
+-- keyset listings: newest first, optionally by test, status, tenant or project
+CREATE INDEX IF NOT EXISTS idx_executions_started ON ${schema}.executions (started_at, id);
+CREATE INDEX IF NOT EXISTS idx_executions_test_started ON ${schema}.executions (test_id, started_at, id);
+CREATE INDEX IF NOT EXISTS idx_executions_status_started ON ${schema}.executions (status, started_at, id);
+CREATE INDEX IF NOT EXISTS idx_executions_tenant_started ON ${schema}.executions (tenant_id, started_at, id);
+CREATE INDEX IF NOT EXISTS idx_executions_project_started ON ${schema}.executions (project_id, started_at, id);
+
+CREATE INDEX IF NOT EXISTS idx_execution_steps_exec ON ${schema}.execution_steps (execution_id);
@@ -0,0 +1,8 @@
+-- Listings page on (started_at, id) and leave out executions without a start time.
+-- Every insert path sets started_at; rows written before it did get their earliest
+-- known time instead.
+
+UPDATE ${schema}.executions SET started_at = COALESCE(finished_at,
+    (SELECT MIN(s.created_at) FROM ${schema}.execution_steps s WHERE s.execution_id = executions.id),
+    CURRENT_TIMESTAMP)
+  WHERE started_at IS NULL;
@@ -0,0 +1,4 @@
+-- Blob garbage collection asks, per result_blobs row, whether any step still points at it.
+
+CREATE INDEX IF NOT EXISTS idx_execution_steps_result_ref ON ${schema}.execution_steps (result_ref);
+CREATE INDEX IF NOT EXISTS idx_execution_steps_parameters_ref ON ${schema}.execution_steps (parameters_ref);
@@ -249,6 +249,57 @@ public class TestSuiteAndCaseApiTest {
                                 .andExpect(jsonPath("$[0].name").value("List Test Case"));
         }
 
+        @Test
+        void testListSuitesCountsTests() throws Exception {
+                TestSuiteDto suite = new TestSuiteDto();
+                suite.name = "Counted Suite";
+                MvcResult suiteResult = mockMvc.perform(post("/api/projects/" + projectId + "/suites")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(suite))
+                                .with(jwt().jwt(builder -> builder.subject(testManagerUsername).claim("username",
+                                                testManagerUsername))
+                                                .authorities(new SimpleGrantedAuthority("ROLE_TEST_MANAGER"))))
+                                .andExpect(status().isOk())
+                                .andReturn();
+                TestSuiteDto counted = objectMapper.readValue(suiteResult.getResponse().getContentAsString(),
+                                TestSuiteDto.class);
+
+                for (String name : new String[] { "Counted A", "Counted B" }) {
+                        TestDto testCase = new TestDto();
+                        testCase.name = name;
+                        mockMvc.perform(post("/api/test-suites/" + counted.id + "/tests")
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .content(objectMapper.writeValueAsString(testCase))
+                                        .with(jwt().jwt(builder -> builder.subject(testManagerUsername).claim("username",
+                                                        testManagerUsername))
+                                                        .authorities(new SimpleGrantedAuthority("ROLE_TEST_MANAGER"))))
+                                        .andExpect(status().isOk());
+                }
+
+                TestSuiteDto empty = new TestSuiteDto(); // no tests, no description
+                empty.name = "Empty Suite";
+                MvcResult emptyResult = mockMvc.perform(post("/api/projects/" + projectId + "/suites")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(empty))
+                                .with(jwt().jwt(builder -> builder.subject(testManagerUsername).claim("username",
+                                                testManagerUsername))
+                                                .authorities(new SimpleGrantedAuthority("ROLE_TEST_MANAGER"))))
+                                .andExpect(status().isOk())
+                                .andReturn();
+                Long emptyId = objectMapper.readValue(emptyResult.getResponse().getContentAsString(),
+                                TestSuiteDto.class).id;
+
+                mockMvc.perform(get("/api/test-suites")
+                                .with(jwt().jwt(builder -> builder.subject(testManagerUsername).claim("username",
+                                                testManagerUsername))
+                                                .authorities(new SimpleGrantedAuthority("ROLE_TEST_MANAGER"))))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$[?(@.id == " + counted.id + ")].testCount")
+                                                .value(org.hamcrest.Matchers.hasItem(2)))
+                                .andExpect(jsonPath("$[?(@.id == " + emptyId + ")].testCount")
+                                                .value(org.hamcrest.Matchers.hasItem(0)));
+        }
+
         @Test
         void testListTestCasesByProject() throws Exception {
                 mockMvc.perform(get("/api/projects/" + projectId + "/tests")
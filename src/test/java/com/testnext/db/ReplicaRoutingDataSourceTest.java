@@ -0,0 +1,81 @@
+package com.testnext.db;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ReplicaRoutingDataSourceTest {
+
+    private JdbcDataSource primary;
+    private JdbcDataSource replica;
+
+    private static JdbcDataSource database(String name, String lag) {
+        JdbcDataSource ds = new JdbcDataSource();
+        ds.setURL("jdbc:h2:mem:" + name + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbc = new JdbcTemplate(ds);
+        jdbc.execute("CREATE TABLE node (name VARCHAR(16))");
+        jdbc.update("INSERT INTO node VALUES (?)", name);
+        jdbc.execute("CREATE TABLE replica_lag (seconds DOUBLE)");
+        jdbc.update("INSERT INTO replica_lag VALUES (?)", Double.valueOf(lag));
+        return ds;
+    }
+
+    @BeforeEach
+    public void setUp() {
+        primary = database("primary", "0");
+        replica = database("replica", "1.5");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    private static String node(DataSource ds) {
+        return new JdbcTemplate(ds).queryForObject("SELECT name FROM node", String.class);
+    }
+
+    @Test
+    public void readOnlyTransactionsUseTheReplica() {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, replica, "SELECT seconds FROM replica_lag", 5000);
+
+        assertEquals("primary", node(routing));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertEquals("replica", node(routing));
+    }
+
+    @Test
+    public void laggingReplicaFallsBackUntilItCatchesUp() {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, replica, "SELECT seconds FROM replica_lag", 1000);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertFalse(routing.checkLag());
+        assertEquals("primary", node(routing));
+
+        new JdbcTemplate(replica).update("UPDATE replica_lag SET seconds = 0.2");
+        assertTrue(routing.checkLag());
+        assertEquals("replica", node(routing));
+    }
+
+    @Test
+    public void unreachableReplicaFallsBackToPrimary() throws SQLException {
+        DataSource down = mock(DataSource.class);
+        when(down.getConnection()).thenThrow(new SQLException("connection refused", "08001"));
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, down, "SELECT 0", 5000);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertEquals("primary", node(routing));
+        assertFalse(routing.isReplicaUsable());
+        assertFalse(routing.checkLag());
+    }
+}
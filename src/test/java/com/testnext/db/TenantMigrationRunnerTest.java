@@ -0,0 +1,184 @@
+package com.testnext.db;
+
+import com.testnext.repository.TenantRepository;
+import com.testnext.tenant.entity.TenantEntity;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TenantMigrationRunnerTest {
+
+    private JdbcDataSource ds;
+    private JdbcTemplate jdbc;
+    private TenantRepository tenants;
+    private MockEnvironment env;
+
+    @BeforeEach
+    public void setUp() {
+        ds = new JdbcDataSource();
+        ds.setURL("jdbc:h2:mem:migrations" + System.nanoTime() + ";DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000");
+        jdbc = new JdbcTemplate(ds);
+        tenants = mock(TenantRepository.class);
+        env = new MockEnvironment().withProperty("testnext.tenant-migrations.concurrency", "4");
+    }
+
+    private void register(String... schemas) {
+        List<TenantEntity> all = new ArrayList<>();
+        for (String s : schemas) {
+            TenantEntity t = new TenantEntity();
+            t.setSchemaName(s);
+            all.add(t);
+        }
+        when(tenants.findAll()).thenReturn(all);
+    }
+
+    private TenantMigrationRunner runner(List<TenantMigrationRunner.Migration> migrations) {
+        return new TenantMigrationRunner(jdbc, new DataSourceTransactionManager(ds), tenants, env, migrations);
+    }
+
+    private int version(String schema) {
+        return jdbc.queryForObject("SELECT MAX(version) FROM \"" + schema + "\".tenant_schema_history", Integer.class);
+    }
+
+    @Test
+    public void allTenantsAreMigratedInParallelAndOnlyOnce() {
+        List<String> schemas = new ArrayList<>();
+        for (int i = 0; i < 20; i++)
+            schemas.add("tenant_" + i);
+        register(schemas.toArray(new String[0]));
+        TenantMigrationRunner runner = runner(TenantMigrationRunner.load("classpath:db/tenant/V*__*.sql"));
+
+        TenantMigrationRunner.Progress progress = runner.migrateAll();
+
+        assertFalse(progress.running());
+        assertEquals(20, progress.total());
+        assertEquals(20, progress.completed());
+        assertEquals(20, progress.migrated());
+        assertEquals(0, progress.failed());
+        for (String s : schemas)
+            assertEquals(runner.latestVersion(), version(s));
+        assertEquals(1, jdbc.queryForObject("SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES "
+                + "WHERE TABLE_SCHEMA = 'tenant_7' AND INDEX_NAME = 'IDX_EXECUTIONS_PROJECT_STARTED'", Integer.class));
+        assertEquals(2, jdbc.queryForObject("SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES "
+                + "WHERE TABLE_SCHEMA = 'tenant_7' AND INDEX_NAME LIKE 'IDX_EXECUTION_STEPS_%_REF'", Integer.class));
+
+        assertEquals(0, runner.migrateAll().migrated());
+    }
+
+    @Test
+    public void newVersionIsAppliedOnlyWhereMissing() {
+        register("acme");
+        List<TenantMigrationRunner.Migration> migrations = new ArrayList<>(TenantMigrationRunner.load("classpath:db/tenant/V*__*.sql"));
+        runner(migrations).migrate("acme");
+        int before = version("acme");
+
+        migrations.add(new TenantMigrationRunner.Migration(before + 1, "notes",
+                "ALTER TABLE ${schema}.tests ADD COLUMN notes ${text};\n", 1L));
+
+        assertEquals(1, runner(migrations).migrate("acme"));
+        assertEquals(before + 1, version("acme"));
+        assertEquals(0, runner(migrations).migrate("acme"));
+    }
+
+    @Test
+    public void failingSchemaIsReportedWithoutStoppingOthers() {
+        register("good_one", "bad\"name", "good_two");
+        TenantMigrationRunner runner = runner(TenantMigrationRunner.load("classpath:db/tenant/V*__*.sql"));
+
+        TenantMigrationRunner.Progress progress = runner.migrateAll();
+
+        assertEquals(3, progress.completed());
+        assertEquals(2, progress.migrated());
+        assertEquals(1, progress.failed());
+        assertTrue(progress.failures().containsKey("bad\"name"));
+        assertEquals(runner.latestVersion(), version("good_two"));
+    }
+
+    @Test
+    public void placeholdersFollowTheDialect() {
+        List<String> pg = TenantMigrationRunner.statements(
+                "-- comment\nCREATE TABLE ${schema}.t (a ${text}, b ${bytes});\nSELECT 1;\n", "\"x\"", "postgresql");
+
+        assertEquals(List.of("CREATE TABLE \"x\".t (a TEXT, b BYTEA)", "SELECT 1"), pg);
+        assertEquals("CREATE TABLE \"x\".t (a CLOB, b BLOB)",
+                TenantMigrationRunner.statements("CREATE TABLE ${schema}.t (a ${text}, b ${bytes})", "\"x\"", "h2").get(0));
+    }
+
+    @Test
+    public void backgroundRunReportsItselfAndRejectsASecondRun() throws Exception {
+        register("acme");
+        java.util.concurrent.atomic.AtomicBoolean hold = new java.util.concurrent.atomic.AtomicBoolean();
+        CountDownLatch gate = new CountDownLatch(1);
+        JdbcTemplate gated = new JdbcTemplate(ds) {
+            @Override
+            public void execute(String sql) {
+                if (hold.get() && sql.startsWith("CREATE SCHEMA")) {
+                    try {
+                        gate.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                super.execute(sql);
+            }
+        };
+        TenantMigrationRunner runner = new TenantMigrationRunner(gated, new DataSourceTransactionManager(ds), tenants,
+                env, TenantMigrationRunner.load("classpath:db/tenant/V*__*.sql"));
+        runner.migrateAll(); // an earlier, finished run
+        hold.set(true);
+
+        TenantMigrationRunner.Progress started = runner.startAll();
+
+        assertTrue(started.running()); // the new run, not the finished one
+        assertEquals(1, started.total());
+        assertEquals(0, started.completed());
+        assertThrows(IllegalStateException.class, runner::startAll);
+        assertThrows(IllegalStateException.class, runner::migrateAll);
+
+        gate.countDown();
+        for (int i = 0; i < 500 && runner.progress().running(); i++)
+            Thread.sleep(10);
+        assertFalse(runner.progress().running());
+        assertEquals(1, runner.progress().completed());
+        assertEquals(0, runner.progress().failed());
+        runner.destroy();
+    }
+
+    @Test
+    public void concurrentMigrationsOfOneSchemaApplyEachVersionOnce() throws Exception {
+        register("acme");
+        List<TenantMigrationRunner.Migration> migrations = TenantMigrationRunner.load("classpath:db/tenant/V*__*.sql");
+        TenantMigrationRunner runner = runner(migrations);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            // provisioning a tenant while migrateAll reaches the same schema
+            Future<Integer> provision = callers.submit(() -> { start.await(); return runner.migrate("acme"); });
+            Future<TenantMigrationRunner.Progress> all = callers.submit(() -> { start.await(); return runner.migrateAll(); });
+            start.countDown();
+
+            provision.get();
+            assertEquals(0, all.get().failed());
+        } finally {
+            callers.shutdownNow();
+        }
+        assertEquals(runner.latestVersion(), version("acme"));
+        assertEquals(migrations.size(),
+                jdbc.queryForObject("SELECT COUNT(*) FROM \"acme\".tenant_schema_history", Integer.class));
+    }
+}
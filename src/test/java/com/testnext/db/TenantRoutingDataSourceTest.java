@@ -0,0 +1,161 @@
+package com.testnext.db;
+
+import com.testnext.tenant.TenantContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.env.MockEnvironment;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class TenantRoutingDataSourceTest {
+
+    private DataSource pool;
+    private Connection connection;
+    private Statement statement;
+    private ResultSet registry;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        pool = mock(DataSource.class);
+        connection = mock(Connection.class);
+        statement = mock(Statement.class);
+        registry = mock(ResultSet.class);
+        DatabaseMetaData md = mock(DatabaseMetaData.class);
+        PreparedStatement lookup = mock(PreparedStatement.class);
+        when(pool.getConnection()).thenReturn(connection);
+        when(connection.getMetaData()).thenReturn(md);
+        when(md.getDatabaseProductName()).thenReturn("PostgreSQL");
+        when(connection.createStatement()).thenReturn(statement);
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(connection.prepareStatement(anyString())).thenReturn(lookup);
+        when(lookup.executeQuery()).thenReturn(registry);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        TenantContext.clear();
+    }
+
+    private TenantRoutingDataSource routing() {
+        return new TenantRoutingDataSource(pool);
+    }
+
+    @Test
+    public void pooledConnectionIsResetWhenNoTenant() throws Exception {
+        when(registry.next()).thenReturn(true);
+        TenantRoutingDataSource ds = routing();
+
+        TenantContext.setTenant("acme");
+        ds.getConnection();
+        TenantContext.clear();
+        ds.getConnection(); // same physical connection, next borrower has no tenant
+
+        verify(statement).execute("SET search_path TO \"acme\",public");
+        verify(statement).execute("SET search_path TO public");
+        verify(statement, times(2)).close();
+    }
+
+    @Test
+    public void pathIsOnlySetWhenItChanges() throws Exception {
+        when(registry.next()).thenReturn(true);
+        TenantRoutingDataSource ds = routing();
+
+        ds.getConnection(); // a fresh connection's path is unknown, so it is set once
+        ds.getConnection();
+        TenantContext.setTenant("acme");
+        ds.getConnection();
+        ds.getConnection();
+
+        verify(statement, times(1)).execute("SET search_path TO public");
+        verify(statement, times(1)).execute("SET search_path TO \"acme\",public");
+    }
+
+    @Test
+    public void pathIsSetAgainWhenATransactionCouldUndoIt() throws Exception {
+        when(connection.getAutoCommit()).thenReturn(false);
+        TenantRoutingDataSource ds = routing();
+
+        ds.getConnection();
+        ds.getConnection();
+
+        verify(statement, times(2)).execute("SET search_path TO public");
+    }
+
+    @Test
+    public void schemaNamesKeepTheMigrationRunnersRules() throws Exception {
+        when(registry.next()).thenReturn(true);
+        TenantContext.setTenant("Acme-EU");
+
+        routing().getConnection();
+
+        verify(statement).execute("SET search_path TO \"Acme-EU\",public");
+        TenantContext.setTenant("acme\",evil");
+        assertThrows(IllegalArgumentException.class, () -> routing().getConnection());
+    }
+
+    @Test
+    public void unregisteredTenantIsRejectedAndConnectionClosed() throws Exception {
+        when(registry.next()).thenReturn(false);
+        TenantContext.setTenant("other");
+
+        assertThrows(IllegalArgumentException.class, () -> routing().getConnection());
+        verify(connection).close();
+        verify(statement, never()).execute(anyString());
+    }
+
+    @Test
+    public void registeredTenantIsLookedUpOnce() throws Exception {
+        when(registry.next()).thenReturn(true);
+        TenantRoutingDataSource ds = routing();
+        TenantContext.setTenant("acme");
+
+        ds.getConnection();
+        ds.getConnection();
+
+        verify(connection, times(1)).prepareStatement(anyString());
+    }
+
+    @Test
+    public void otherDatabasesArePassedThrough() throws Exception {
+        when(connection.getMetaData().getDatabaseProductName()).thenReturn("H2");
+        TenantContext.setTenant("acme");
+
+        assertSame(connection, routing().getConnection());
+        verify(connection, never()).createStatement();
+    }
+
+    @Test
+    public void routingIsAddedOnlyInFrontOfTheReplicaPools() throws Exception {
+        BeanPostProcessor processor = TenantDataSourceConfig.tenantRoutingDataSourcePostProcessor(new MockEnvironment());
+        assertSame(pool, processor.postProcessAfterInitialization(pool, "dataSource"));
+
+        LazyConnectionDataSourceProxy lazy = new LazyConnectionDataSourceProxy(
+                new ReplicaRoutingDataSource(pool, pool, "SELECT 0", 5000));
+        assertSame(lazy, processor.postProcessAfterInitialization(lazy, "dataSource"));
+        assertInstanceOf(TenantRoutingDataSource.class, lazy.getTargetDataSource());
+    }
+
+    @Test
+    public void singlePoolIsRoutedWhenEnabled() throws Exception {
+        BeanPostProcessor processor = TenantDataSourceConfig.tenantRoutingDataSourcePostProcessor(
+                new MockEnvironment().withProperty("testnext.datasource.tenant-routing.enabled", "true"));
+
+        Object routed = processor.postProcessAfterInitialization(pool, "dataSource");
+
+        assertInstanceOf(TenantRoutingDataSource.class, routed);
+        assertSame(routed, processor.postProcessAfterInitialization(routed, "dataSource"));
+        assertSame(pool, processor.postProcessAfterInitialization(pool, "otherDataSource"));
+    }
+}
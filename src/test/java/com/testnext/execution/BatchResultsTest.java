@@ -0,0 +1,29 @@
+package com.testnext.execution;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BatchResultsTest {
+
+    @Test
+    public void rowsOverlaySharedParametersAndFoldIntoOneResult() throws Exception {
+        Map<String, Object> params = Map.of("side", "BUY",
+                BatchResults.ROWS_PARAMETER, List.of(Map.of("qty", 1), Map.of("qty", 2, "side", "SELL")));
+        StepExecutor echo = (id, p) -> "SELL".equals(p.get("side"))
+                ? new StepResult(false, null, "sell disabled")
+                : new StepResult(true, Map.of("qty", p.get("qty"), "side", p.get("side")), null);
+
+        assertTrue(BatchResults.isBatch(params));
+        StepResult result = BatchResults.execute(echo, "trade.bookTrade", params);
+
+        assertFalse(result.isSuccess());
+        assertEquals(Map.of("rows", 2, "succeeded", 1, "failed", 1), result.getOutput().get("batch"));
+        assertEquals(List.of("qty", "side"), result.getOutput().get("columns"));
+        assertEquals(List.of(List.of(1, "BUY"), java.util.Arrays.asList(null, null)), result.getOutput().get("values"));
+        assertEquals(Map.of("1", "sell disabled"), result.getOutput().get("errors"));
+    }
+}
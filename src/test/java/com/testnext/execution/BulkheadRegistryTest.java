@@ -0,0 +1,32 @@
+package com.testnext.execution;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BulkheadRegistryTest {
+
+    @Test
+    public void stepsOfAGroupShareOneBulkheadWithTheStrictestLimit() {
+        BulkheadRegistry registry = new BulkheadRegistry();
+
+        Bulkhead first = registry.define("db", 4);
+        Bulkhead second = registry.define("db", 2);
+        registry.define("db", 8);
+
+        assertSame(first, second);
+        assertSame(first, registry.get("db"));
+        assertEquals(2, first.getMaxConcurrent());
+    }
+
+    @Test
+    public void noGroupOrNoLimitMeansUnlimited() {
+        BulkheadRegistry registry = new BulkheadRegistry();
+
+        assertNull(registry.define(null, 4));
+        assertNull(registry.define(" ", 4));
+        assertNull(registry.define("db", 0));
+        assertNull(registry.get("db"));
+        assertNull(registry.get(null));
+    }
+}
@@ -0,0 +1,125 @@
+package com.testnext.execution;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BulkheadTest {
+
+    @Test
+    public void permitsAreLimited() {
+        Bulkhead bulkhead = new Bulkhead("db", 2);
+
+        assertTrue(bulkhead.tryAcquire());
+        assertTrue(bulkhead.tryAcquire());
+        assertFalse(bulkhead.tryAcquire());
+        assertEquals(2, bulkhead.getInFlight());
+
+        bulkhead.release();
+        assertTrue(bulkhead.tryAcquire());
+        assertFalse(bulkhead.tryAcquire());
+    }
+
+    @Test
+    public void waitersAreWokenOneAtATimeInParkingOrder() {
+        Bulkhead bulkhead = new Bulkhead("db", 1);
+        assertTrue(bulkhead.tryAcquire());
+        List<String> woken = new ArrayList<>();
+        bulkhead.onAvailable(() -> woken.add("first"));
+        bulkhead.onAvailable(() -> woken.add("second"));
+        assertEquals(2, bulkhead.getWaiting());
+
+        bulkhead.release();
+        assertEquals(List.of("first"), woken);
+        assertTrue(bulkhead.tryAcquire()); // what the woken continuation does
+        bulkhead.release();
+
+        assertEquals(List.of("first", "second"), woken);
+        assertEquals(0, bulkhead.getWaiting());
+    }
+
+    @Test
+    public void parkingWhenAPermitIsAlreadyFreeWakesAtOnce() {
+        Bulkhead bulkhead = new Bulkhead("db", 1);
+        AtomicBoolean woken = new AtomicBoolean();
+
+        bulkhead.onAvailable(() -> woken.set(true));
+
+        assertTrue(woken.get());
+        assertEquals(0, bulkhead.getWaiting());
+    }
+
+    @Test
+    public void cancelledWaiterIsSkipped() {
+        Bulkhead bulkhead = new Bulkhead("db", 1);
+        assertTrue(bulkhead.tryAcquire());
+        AtomicBoolean gone = new AtomicBoolean();
+        AtomicBoolean live = new AtomicBoolean();
+        Bulkhead.Waiter stale = bulkhead.onAvailable(() -> gone.set(true));
+        bulkhead.onAvailable(() -> live.set(true));
+
+        stale.cancel();
+        bulkhead.release();
+
+        assertFalse(gone.get());
+        assertTrue(live.get());
+    }
+
+    @Test
+    public void wakeUpOfAWaiterThatLeftGoesToTheNextOne() {
+        Bulkhead bulkhead = new Bulkhead("db", 1);
+        assertTrue(bulkhead.tryAcquire());
+        Bulkhead.Waiter ended = bulkhead.onAvailable(() -> { }); // its owner never acts on the wake-up
+        AtomicBoolean live = new AtomicBoolean();
+        bulkhead.onAvailable(() -> live.set(true));
+
+        bulkhead.release();
+        assertFalse(live.get());
+        ended.cancel();
+
+        assertTrue(live.get());
+    }
+
+    @Test
+    public void blockingAcquireWaitsForARelease() throws Exception {
+        Bulkhead bulkhead = new Bulkhead("db", 1);
+        assertTrue(bulkhead.tryAcquire());
+        CountDownLatch acquired = new CountDownLatch(1);
+        Thread waiter = Thread.ofVirtual().start(() -> {
+            try {
+                if (bulkhead.tryAcquire(5, TimeUnit.SECONDS))
+                    acquired.countDown();
+            } catch (InterruptedException ignored) {
+                // test ends
+            }
+        });
+        while (bulkhead.getWaiting() == 0)
+            Thread.sleep(5);
+
+        bulkhead.release();
+
+        assertTrue(acquired.await(5, TimeUnit.SECONDS));
+        waiter.join();
+        assertEquals(1, bulkhead.getInFlight());
+    }
+
+    @Test
+    public void timedOutAcquireLeavesNoWaiterBehind() throws Exception {
+        Bulkhead bulkhead = new Bulkhead("db", 1);
+        assertTrue(bulkhead.tryAcquire());
+
+        assertFalse(bulkhead.tryAcquire(20, TimeUnit.MILLISECONDS));
+
+        assertEquals(0, bulkhead.getWaiting());
+        AtomicBoolean live = new AtomicBoolean();
+        bulkhead.onAvailable(() -> live.set(true));
+        bulkhead.release();
+        assertTrue(live.get());
+    }
+}
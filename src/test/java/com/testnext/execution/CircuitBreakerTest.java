@@ -0,0 +1,69 @@
+package com.testnext.execution;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CircuitBreakerTest {
+
+    @Test
+    public void opensAfterConsecutiveFailuresAndRefusesAtOnce() {
+        CircuitBreaker cb = new CircuitBreaker("http:down.example", 3, 60_000, 1);
+        for (int i = 0; i < 2; i++) {
+            assertTrue(cb.tryAcquire());
+            cb.onFailure();
+        }
+        assertTrue(cb.tryAcquire());
+        cb.onSuccess(); // a success resets the count
+        for (int i = 0; i < 3; i++) {
+            assertTrue(cb.tryAcquire());
+            cb.onFailure();
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, cb.getState());
+        assertFalse(cb.tryAcquire());
+        CircuitOpenException ex = assertThrows(CircuitOpenException.class, cb::acquire);
+        assertEquals("http:down.example", ex.getKey());
+        assertTrue(ex.getRetryAfterMillis() > 0);
+        assertTrue(StepResult.failure(ex).isCircuitOpen());
+    }
+
+    @Test
+    public void halfOpenProbeClosesOrReopens() throws Exception {
+        CircuitBreaker cb = new CircuitBreaker("db:default", 1, 20, 1);
+        assertTrue(cb.tryAcquire());
+        cb.onFailure();
+        assertFalse(cb.tryAcquire());
+
+        Thread.sleep(40);
+        assertTrue(cb.tryAcquire()); // the probe
+        assertEquals(CircuitBreaker.State.HALF_OPEN, cb.getState());
+        assertFalse(cb.tryAcquire()); // only one probe at a time
+        cb.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, cb.getState());
+
+        Thread.sleep(40);
+        assertTrue(cb.tryAcquire());
+        cb.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, cb.getState());
+        assertTrue(cb.tryAcquire());
+    }
+
+    @Test
+    public void registrySharesBreakersAndReadsPerTargetSettings() {
+        Map<String, String> props = Map.of(
+                "testnext.circuit.failure-threshold", "10",
+                "testnext.circuit.db.reporting.failure-threshold", "1");
+        CircuitBreakerRegistry registry = new CircuitBreakerRegistry(props::get, null);
+
+        assertSame(registry.get("db:reporting"), registry.get("db:reporting"));
+        registry.get("db:reporting").onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, registry.get("db:reporting").getState());
+        registry.get("db:orders").onFailure();
+        assertEquals(CircuitBreaker.State.CLOSED, registry.get("db:orders").getState());
+
+        assertNull(new CircuitBreakerRegistry(Map.of("testnext.circuit.enabled", "false")::get, null).get("db:x"));
+    }
+}
@@ -51,4 +51,65 @@ public class ExecutionEngineTest {
         assertEquals(2, res.getStepResults().size());
         engine.shutdown();
     }
+
+    @Test
+    public void executionIsStampedWithItsOwner() throws Exception {
+        StepExecutorRegistry registry = new StepExecutorRegistry();
+        registry.register("noop", (id, p) -> new StepResult(true, Map.of(), null));
+        ExecutionRepository executionRepo = mock(ExecutionRepository.class);
+        ExecutionStepRepository stepRepo = mock(ExecutionStepRepository.class);
+        when(executionRepo.save(any(ExecutionEntity.class))).thenAnswer(i -> i.getArguments()[0]);
+        when(stepRepo.save(any(ExecutionStepEntity.class))).thenAnswer(i -> i.getArguments()[0]);
+        ExecutionEngine engine = new ExecutionEngine(1, registry, executionRepo, stepRepo, new ObjectMapper());
+        engine.setOwnerLookup(testId -> new com.testnext.repository.ExecutionOwner(42L, 3L, testId));
+
+        TestStep s1 = new TestStep();
+        s1.setId("s1");
+        s1.setExecutorName("noop");
+        s1.setStepDefinitionId("1");
+        engine.runTest(new TestPlan(7L, List.of(s1))).get();
+
+        org.mockito.ArgumentCaptor<ExecutionEntity> saved = org.mockito.ArgumentCaptor.forClass(ExecutionEntity.class);
+        Mockito.verify(executionRepo, Mockito.atLeastOnce()).save(saved.capture());
+        ExecutionEntity first = saved.getAllValues().get(0);
+        assertEquals(7L, first.testId);
+        assertEquals(42L, first.tenantId);
+        assertEquals(3L, first.projectId);
+        engine.shutdown();
+    }
+
+    @Test
+    public void placeholdersResolveEnvironmentAndStepPositions() throws Exception {
+        StepExecutorRegistry registry = new StepExecutorRegistry();
+        Map<String, Object> seen = new java.util.concurrent.ConcurrentHashMap<>();
+        registry.register("book", (id, p) -> new StepResult(true, Map.of("tradeId", "T-9"), null));
+        registry.register("check", (id, p) -> {
+            seen.putAll(p);
+            return new StepResult(true, Map.of(), null);
+        });
+        ExecutionRepository executionRepo = mock(ExecutionRepository.class);
+        ExecutionStepRepository stepRepo = mock(ExecutionStepRepository.class);
+        when(executionRepo.save(any(ExecutionEntity.class))).thenAnswer(i -> i.getArguments()[0]);
+        when(stepRepo.save(any(ExecutionStepEntity.class))).thenAnswer(i -> i.getArguments()[0]);
+        ExecutionEngine engine = new ExecutionEngine(1, registry, executionRepo, stepRepo, new ObjectMapper());
+        engine.setEnvironment(name -> "region".equals(name) ? "emea" : null);
+
+        TestStep s1 = new TestStep();
+        s1.setId("s1");
+        s1.setExecutorName("book");
+        s1.setStepDefinitionId("1");
+        TestStep s2 = new TestStep();
+        s2.setId("s2");
+        s2.setExecutorName("check");
+        s2.setStepDefinitionId("2");
+        s2.setDependent(true);
+        s2.setDependsOnKey("s1");
+        s2.setParameters(Map.of("trade", "${steps[0].tradeId}", "region", "${env.region}"));
+        ExecutionResult res = engine.runTest(new TestPlan(List.of(s1, s2))).get();
+
+        assertTrue(res.getStepResults().get("s2").isSuccess());
+        assertEquals("T-9", seen.get("trade"));
+        assertEquals("emea", seen.get("region"));
+        engine.shutdown();
+    }
 }
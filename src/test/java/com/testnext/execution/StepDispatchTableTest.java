@@ -0,0 +1,41 @@
+package com.testnext.execution;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StepDispatchTableTest {
+    @Test
+    public void keysShareOneSlot() {
+        StepDispatchTable t = new StepDispatchTable();
+        StepExecutor e = (id, p) -> new StepResult(true, null, null);
+        int idx = t.register(e, null, 0, "trade.bookTrade", "Book a Trade");
+        assertEquals(idx, t.resolve("trade.bookTrade"));
+        assertEquals(idx, t.resolve("Book a Trade"));
+        assertSame(e, t.handle(idx).getExecutor());
+    }
+
+    @Test
+    public void reRegisterReplacesInPlaceAndUnregisterNeverReusesSlot() {
+        StepDispatchTable t = new StepDispatchTable();
+        int first = t.register((id, p) -> new StepResult(true, null, null), null, 0, "a");
+        StepExecutor replacement = (id, p) -> new StepResult(false, null, "v2");
+        assertEquals(first, t.register(replacement, null, 0, "a"));
+        assertSame(replacement, t.handle(first).getExecutor());
+
+        t.unregister("a");
+        assertNull(t.handle(first));
+        assertEquals(StepDispatchTable.UNRESOLVED, t.resolve("a"));
+        assertNotEquals(first, t.register(replacement, null, 0, "b"));
+    }
+
+    @Test
+    public void groupSharesBulkhead() {
+        StepDispatchTable t = new StepDispatchTable();
+        int a = t.register((id, p) -> null, "sandbox", 5, "a");
+        int b = t.register((id, p) -> null, "sandbox", 2, "b");
+        assertSame(t.handle(a).getBulkhead(), t.handle(b).getBulkhead());
+        assertEquals(2, t.handle(a).getBulkhead().getMaxConcurrent());
+        t.register((id, p) -> null, null, 0, "c");
+        assertNull(t.lookup("c").getBulkhead());
+    }
+}
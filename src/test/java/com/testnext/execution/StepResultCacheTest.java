@@ -0,0 +1,99 @@
+package com.testnext.execution;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StepResultCacheTest {
+
+    private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+    private final StepResultCache cache = new StepResultCache(2, meters);
+
+    private static StepResult ok(String value) {
+        return new StepResult(true, Map.of("value", value), null);
+    }
+
+    private double count(String tenant, String result) {
+        return meters.get("step.result.cache").tag("tenant", tenant).tag("result", result).counter().count();
+    }
+
+    @Test
+    public void keyIsCanonicalAcrossParameterOrder() {
+        Map<String, Object> ab = new LinkedHashMap<>();
+        ab.put("a", 1);
+        ab.put("b", Map.of("x", "y"));
+        Map<String, Object> ba = new LinkedHashMap<>();
+        ba.put("b", Map.of("x", "y"));
+        ba.put("a", 1);
+
+        assertEquals(cache.key("db.lookupRow", ab), cache.key("db.lookupRow", ba));
+        assertNotEquals(cache.key("db.lookupRow", ab), cache.key("db.runSql", ab));
+        assertNotEquals(cache.key("db.lookupRow", ab), cache.key("db.lookupRow", Map.of("a", 2)));
+        assertEquals(cache.key("s", null), cache.key("s", Map.of()));
+    }
+
+    @Test
+    public void hitsAndMissesAreCountedPerTenant() {
+        String key = cache.key("s", Map.of("id", 1));
+
+        assertNull(cache.get("acme", key));
+        cache.put("acme", key, ok("one"), 60);
+        assertEquals("one", cache.get("acme", key).getOutput().get("value"));
+        assertEquals("one", cache.get("acme", key).getOutput().get("value"));
+        assertNull(cache.get("other", key)); // tenants never share results
+
+        assertEquals(2, count("acme", "hit"));
+        assertEquals(1, count("acme", "miss"));
+        assertEquals(1, count("other", "miss"));
+        assertEquals(4, meters.find("step.result.cache").counters().size());
+    }
+
+    @Test
+    public void onlySuccessfulResultsWithATtlAreStored() {
+        String key = cache.key("s", Map.of());
+
+        cache.put("acme", key, new StepResult(false, null, "boom"), 60);
+        cache.put("acme", cache.key("t", Map.of()), ok("x"), 0);
+
+        assertNull(cache.get("acme", key));
+        assertNull(cache.get("acme", cache.key("t", Map.of())));
+    }
+
+    @Test
+    public void leastRecentlyUsedEntryIsEvicted() {
+        cache.put("acme", "k1", ok("1"), 60);
+        cache.put("acme", "k2", ok("2"), 60);
+        assertNotNull(cache.get("acme", "k1")); // k2 is now the eldest
+        cache.put("acme", "k3", ok("3"), 60);
+
+        assertNotNull(cache.get("acme", "k1"));
+        assertNull(cache.get("acme", "k2"));
+        assertNotNull(cache.get("acme", "k3"));
+    }
+
+    @Test
+    public void invalidatingATenantDropsOnlyItsResults() {
+        cache.put("acme", "k", ok("a"), 60);
+        cache.put("other", "k", ok("o"), 60);
+
+        cache.invalidateTenant("acme");
+
+        assertNull(cache.get("acme", "k"));
+        assertEquals("o", cache.get("other", "k").getOutput().get("value"));
+    }
+
+    @Test
+    public void storedResultsCannotBeChangedByTheCaller() {
+        Map<String, Object> out = new LinkedHashMap<>(Map.of("value", "v"));
+        cache.put("acme", "k", new StepResult(true, out, null), 60);
+        out.put("value", "changed");
+
+        StepResult cached = cache.get("acme", "k");
+        assertEquals("v", cached.getOutput().get("value"));
+        assertThrows(UnsupportedOperationException.class, () -> cached.getOutput().put("x", 1));
+    }
+}
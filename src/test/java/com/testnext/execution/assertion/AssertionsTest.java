@@ -0,0 +1,68 @@
+package com.testnext.execution.assertion;
+
+import com.testnext.execution.StepResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AssertionsTest {
+
+    private static final Map<String, Object> OUTPUT = Map.of(
+            "status", 200,
+            "trade", Map.of("id", "T-42", "price", 101.5, "legs", List.of(Map.of("qty", 10))),
+            "body", Map.of("id", "abc", "count", 3));
+
+    @Test
+    public void passingChecksLeaveTheResultUnchanged() {
+        Assertions a = Assertions.compile(List.of(
+                Map.of("path", "status", "equals", 200L),
+                Map.of("path", "$.trade.id", "matches", "^T-\\d+$"),
+                Map.of("path", "trade.price", "min", 100, "max", 200),
+                Map.of("path", "trade.legs[0].qty", "equals", 10.0),
+                Map.of("path", "error", "exists", false),
+                Map.of("path", "body", "schema", Map.of("type", "object", "required", List.of("id"),
+                        "properties", Map.of("count", Map.of("type", "integer", "minimum", 0))))));
+        StepResult ok = new StepResult(true, OUTPUT, null);
+
+        assertSame(ok, a.apply(ok));
+    }
+
+    @Test
+    public void allFailuresAreReportedInOneDiff() {
+        Assertions a = Assertions.compile(List.of(
+                Map.of("path", "status", "equals", 201),
+                Map.of("path", "trade.price", "max", 100),
+                Map.of("path", "body", "schema", Map.of("properties", Map.of("count", Map.of("type", "string"))))));
+
+        StepResult r = a.apply(new StepResult(true, OUTPUT, null));
+
+        assertFalse(r.isSuccess());
+        List<?> failures = (List<?>) r.getOutput().get("assertionFailures");
+        assertEquals(3, failures.size());
+        assertEquals(Map.of("path", "status", "expected", 201, "actual", 200), failures.get(0));
+        assertEquals("schema: $.count is number, expected string", ((Map<?, ?>) failures.get(2)).get("expected"));
+        assertTrue(r.getErrorMessage().startsWith("3 assertion(s) failed"));
+        assertEquals(200, r.getOutput().get("status"));
+    }
+
+    @Test
+    public void failFastStopsAtTheFirstFailure() {
+        Assertions a = Assertions.compile(Map.of("failFast", true, "checks", List.of(
+                Map.of("path", "status", "equals", 500),
+                Map.of("path", "trade.id", "equals", "other"))));
+
+        assertEquals(1, a.check(OUTPUT).size());
+    }
+
+    @Test
+    public void invalidSpecsFailAtCompileTime() {
+        assertThrows(IllegalArgumentException.class, () -> Assertions.compile(List.of(Map.of("equals", 1))));
+        assertThrows(IllegalArgumentException.class,
+                () -> Assertions.compile(List.of(Map.of("path", "a", "within", 1))));
+        assertThrows(IllegalArgumentException.class,
+                () -> Assertions.compile(List.of(Map.of("path", "a", "schema", Map.of("type", "text")))));
+    }
+}
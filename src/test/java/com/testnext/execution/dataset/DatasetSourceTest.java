@@ -0,0 +1,79 @@
+package com.testnext.execution.dataset;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DatasetSourceTest {
+
+    @TempDir
+    Path dir;
+
+    private static List<Map<String, Object>> readAll(DatasetSource source) throws Exception {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        try (source) {
+            while (source.hasNext())
+                rows.add(source.next());
+        }
+        return rows;
+    }
+
+    @Test
+    public void csvRowsAreKeyedByHeaderAndHonourQuotes() throws Exception {
+        Files.writeString(dir.resolve("trades.csv"),
+                "security_id,qty,note\r\nIBM,100,\"plain\"\r\n\r\nMSFT,5,\"with, comma and \"\"quote\"\"\"\nAAPL,7\n");
+        DatasetSpec spec = DatasetSpec.from(Map.of("type", "csv", "path", "trades.csv"));
+
+        List<Map<String, Object>> rows = readAll(DatasetSource.open(spec, dir, null));
+
+        assertEquals(3, rows.size());
+        assertEquals("IBM", rows.get(0).get("security_id"));
+        assertEquals("plain", rows.get(0).get("note"));
+        assertEquals("with, comma and \"quote\"", rows.get(1).get("note"));
+        assertNull(rows.get(2).get("note"));
+        assertEquals("row", spec.alias);
+    }
+
+    @Test
+    public void jsonlRowsKeepTheirTypes() throws Exception {
+        Files.writeString(dir.resolve("rows.jsonl"), "{\"id\":1,\"ok\":true}\n\n{\"id\":2,\"tags\":[\"a\"]}");
+        List<Map<String, Object>> rows = readAll(
+                DatasetSource.open(DatasetSpec.from(Map.of("type", "jsonl", "path", "rows.jsonl")), dir, null));
+
+        assertEquals(2, rows.size());
+        assertEquals(1, rows.get(0).get("id"));
+        assertEquals(true, rows.get(0).get("ok"));
+        assertEquals(List.of("a"), rows.get(1).get("tags"));
+    }
+
+    @Test
+    public void pathsOutsideTheDatasetsDirectoryAreRejected() {
+        DatasetSpec spec = DatasetSpec.from(Map.of("type", "csv", "path", "../secrets.csv"));
+        assertThrows(IllegalArgumentException.class, () -> DatasetSource.open(spec, dir, null));
+    }
+
+    @Test
+    public void summaryTracksFailedIterationsCompactly() {
+        IterationSummary summary = new IterationSummary(2, 1);
+        summary.stepPassed(0);
+        summary.stepPassed(1);
+        summary.passed();
+        summary.stepPassed(0);
+        summary.failed(1, 1, "boom");
+        summary.failed(2, 0, "again");
+
+        Map<String, Object> out = summary.toMap();
+        assertEquals(3L, out.get("iterations"));
+        assertEquals(2L, out.get("failed"));
+        assertEquals(1, ((List<?>) out.get("failures")).size());
+        assertEquals(1L, summary.getFailed(1));
+        assertEquals(1L, summary.getFailed(0));
+    }
+}
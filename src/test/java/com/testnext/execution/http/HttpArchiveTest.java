@@ -0,0 +1,81 @@
+package com.testnext.execution.http;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HttpArchiveTest {
+
+    @Test
+    public void keyIgnoresQueryOrderAndJsonFormatting() {
+        RequestMatcher matcher = new RequestMatcher(null);
+        String a = matcher.key("post", URI.create("HTTP://Pricing/quote?ccy=EUR&qty=5"), Map.of("side", "BUY", "qty", 5));
+        String b = matcher.key("POST", URI.create("http://pricing/quote?qty=5&ccy=EUR"), "{ \"qty\": 5, \"side\": \"BUY\" }");
+        assertEquals(a, b);
+
+        RequestMatcher urlOnly = new RequestMatcher(List.of("method", "url"));
+        assertEquals(urlOnly.key("GET", URI.create("http://h/x"), "one"), urlOnly.key("GET", URI.create("http://h/x"), "two"));
+    }
+
+    @Test
+    public void recordingsSurviveReopenAndLatestWins(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("trades.archive");
+        try (HttpArchive archive = HttpArchive.open(file)) {
+            archive.record("k", 500, Map.of(), "first".getBytes(StandardCharsets.UTF_8));
+            archive.record("k", 200, Map.of("Content-Type", List.of("application/json")), "{}".getBytes(StandardCharsets.UTF_8));
+        }
+        try (HttpArchive archive = HttpArchive.open(file)) {
+            HttpArchive.Recorded r = archive.find("k");
+            assertEquals(1, archive.size());
+            assertEquals(200, r.status);
+            assertEquals(List.of("application/json"), r.headers.get("Content-Type"));
+            assertEquals("{}", new String(r.body, StandardCharsets.UTF_8));
+            assertNull(archive.find("missing"));
+        }
+    }
+
+    @Test
+    public void spilledBodiesAreCopiedFromTheirFile(@TempDir Path dir) throws Exception {
+        byte[] large = "0123456789abcdef".repeat(64 * 1024).getBytes(StandardCharsets.UTF_8);
+        Path artifact = Files.write(dir.resolve("body.bin"), large);
+        Path file = dir.resolve("trades.archive");
+        try (HttpArchive archive = HttpArchive.open(file)) {
+            archive.record("large", 200, Map.of("Content-Type", List.of("text/plain")), artifact, large.length);
+            assertThrows(java.io.IOException.class,
+                    () -> archive.record("short", 200, Map.of(), artifact, large.length + 1L));
+            archive.record("small", 201, Map.of(), "ok".getBytes(StandardCharsets.UTF_8));
+        }
+        try (HttpArchive archive = HttpArchive.open(file)) {
+            assertEquals(2, archive.size());
+            assertArrayEquals(large, archive.find("large").body);
+            assertEquals(List.of("text/plain"), archive.find("large").headers.get("Content-Type"));
+            assertNull(archive.find("short"));
+            assertEquals(201, archive.find("small").status); // the failed copy left nothing behind
+        }
+    }
+
+    @Test
+    public void closingArchivesReleasesOpenFiles(@TempDir Path dir) throws Exception {
+        HttpArchives archives = new HttpArchives(dir);
+        HttpArchive archive = archives.get("acme", "trades");
+        assertSame(archive, archives.get("acme", "trades"));
+        archive.record("k", 200, Map.of(), "ok".getBytes(StandardCharsets.UTF_8));
+
+        archives.close();
+
+        assertThrows(java.nio.channels.ClosedChannelException.class,
+                () -> archive.record("k2", 200, Map.of(), new byte[0]));
+        HttpArchive reopened = archives.get("acme", "trades");
+        assertNotSame(archive, reopened);
+        assertEquals(200, reopened.find("k").status);
+        archives.close();
+    }
+}
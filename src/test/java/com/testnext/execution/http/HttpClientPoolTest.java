@@ -0,0 +1,180 @@
+package com.testnext.execution.http;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HttpClientPoolTest {
+
+    private HttpServer server;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private volatile CountDownLatch hold = new CountDownLatch(0);
+    private volatile int status = 200;
+    private SimpleMeterRegistry meters;
+    private HttpClientPool pool;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            int now = inFlight.incrementAndGet();
+            maxInFlight.accumulateAndGet(now, Math::max);
+            try {
+                hold.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            byte[] body = "ok".getBytes();
+            exchange.sendResponseHeaders(status, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        meters = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.stop(0);
+        if (pool != null)
+            pool.shutdown();
+    }
+
+    private HttpClientPool pool(MockEnvironment env) {
+        pool = new HttpClientPool(env.withProperty("testnext.http.profile.default.version", "HTTP_1_1"), meters);
+        return pool;
+    }
+
+    private HttpRequest get(Duration timeout) {
+        return HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/x"))
+                .timeout(timeout).GET().build();
+    }
+
+    @Test
+    public void clientIsSharedPerTenantAndProfile() {
+        HttpClientPool p = pool(new MockEnvironment());
+
+        HttpClient a = p.client("acme", null);
+        assertSame(a, p.client("acme", "default"));
+        assertNotSame(a, p.client("other", null));
+        assertNotSame(a, p.client("acme", "slow"));
+        assertEquals(3.0, meters.get("http.step.clients.created").counter().count());
+        assertEquals(3.0, meters.get("http.step.clients").gauge().value());
+    }
+
+    @Test
+    public void profileSettingsAreApplied() throws Exception {
+        HttpClientPool p = pool(new MockEnvironment()
+                .withProperty("testnext.http.profile.slow.request-timeout-ms", "90000")
+                .withProperty("testnext.http.profile.slow.follow-redirects", "false"));
+
+        assertEquals(Duration.ofSeconds(90), p.requestTimeout("slow"));
+        assertEquals(Duration.ofSeconds(30), p.requestTimeout(null));
+        assertEquals(HttpClient.Redirect.NEVER, p.client("acme", "slow").followRedirects());
+
+        HttpResponse<String> r = p.send("acme", null, get(Duration.ofSeconds(5)), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, r.statusCode());
+        assertEquals("ok", r.body());
+        assertEquals(HttpClient.Version.HTTP_1_1, r.version());
+        assertEquals(1, meters.get("http.step.requests").tag("status", "2xx").tag("protocol", "HTTP_1_1").timer().count());
+
+        int meterCount = meters.getMeters().size();
+        p.send("acme", null, get(Duration.ofSeconds(5)), HttpResponse.BodyHandlers.ofString());
+        assertEquals(meterCount, meters.getMeters().size());
+        assertEquals(2, meters.get("http.step.requests").tag("status", "2xx").timer().count());
+        assertEquals(2, meters.get("http.step.limit.wait").timer().count());
+    }
+
+    @Test
+    public void requestsToOneHostStayWithinItsConcurrencyLimit() throws Exception {
+        HttpClientPool p = pool(new MockEnvironment().withProperty("testnext.http.max-concurrency-per-host", "2"));
+        hold = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(6);
+        try {
+            List<Future<HttpResponse<String>>> calls = new ArrayList<>();
+            for (int i = 0; i < 6; i++)
+                calls.add(callers.submit(() -> p.send("acme", null, get(Duration.ofSeconds(10)),
+                        HttpResponse.BodyHandlers.ofString())));
+            for (int i = 0; i < 200 && inFlight.get() < 2; i++)
+                Thread.sleep(10);
+            Thread.sleep(100); // give callers over the limit the chance to get through, which they must not
+            assertEquals(2, inFlight.get());
+            hold.countDown();
+            for (Future<HttpResponse<String>> c : calls)
+                assertEquals(200, c.get(10, TimeUnit.SECONDS).statusCode());
+        } finally {
+            callers.shutdownNow();
+        }
+        assertEquals(2, maxInFlight.get());
+        assertEquals(6, meters.get("http.step.limit.wait").timer().count());
+    }
+
+    @Test
+    public void waitingForAPermitCountsAgainstTheTimeout() throws Exception {
+        String host = "127.0.0.1:" + server.getAddress().getPort();
+        HttpClientPool p = pool(new MockEnvironment().withProperty("testnext.http.host." + host + ".max-concurrency", "1"));
+        hold = new CountDownLatch(1);
+        ExecutorService callers = Executors.newSingleThreadExecutor();
+        try {
+            Future<HttpResponse<String>> first = callers.submit(() -> p.send("acme", null, get(Duration.ofSeconds(10)),
+                    HttpResponse.BodyHandlers.ofString()));
+            for (int i = 0; i < 200 && inFlight.get() < 1; i++)
+                Thread.sleep(10);
+
+            assertThrows(TimeoutException.class,
+                    () -> p.send("acme", null, get(Duration.ofMillis(100)), HttpResponse.BodyHandlers.ofString()));
+            hold.countDown();
+            assertEquals(200, first.get(10, TimeUnit.SECONDS).statusCode());
+        } finally {
+            callers.shutdownNow();
+        }
+        assertEquals(1, maxInFlight.get());
+    }
+
+    @Test
+    public void circuitKeyAlwaysCarriesThePort() {
+        assertEquals("http:api.example.com:443", HttpClientPool.circuitKey(URI.create("https://api.example.com/quotes")));
+        assertEquals("http:api.example.com:80", HttpClientPool.circuitKey(URI.create("http://api.example.com/quotes")));
+        assertEquals("http:api.example.com:8443", HttpClientPool.circuitKey(URI.create("https://api.example.com:8443/q")));
+    }
+
+    @Test
+    public void gatewayErrorsOpenTheHostCircuit() throws Exception {
+        HttpClientPool p = pool(new MockEnvironment().withProperty("testnext.circuit.failure-threshold", "2"));
+        status = 503;
+
+        for (int i = 0; i < 2; i++)
+            assertEquals(503, p.send("acme", null, get(Duration.ofSeconds(5)), HttpResponse.BodyHandlers.ofString()).statusCode());
+
+        assertThrows(com.testnext.execution.CircuitOpenException.class,
+                () -> p.send("acme", null, get(Duration.ofSeconds(5)), HttpResponse.BodyHandlers.ofString()));
+        assertEquals(2, meters.get("http.step.requests").tag("status", "5xx").timer().count());
+        assertEquals(1.0, meters.get("circuit.state")
+                .tag("target", "http:127.0.0.1:" + server.getAddress().getPort()).gauge().value()); // open
+    }
+}
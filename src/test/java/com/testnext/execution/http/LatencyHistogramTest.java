@@ -0,0 +1,37 @@
+package com.testnext.execution.http;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void percentilesStayWithinBucketPrecision() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (long v = 1; v <= 100_000; v++)
+            h.record(v);
+
+        assertEquals(100_000, h.getCount());
+        assertEquals(50_000, h.percentile(50), 50_000 * 0.02);
+        assertEquals(99_000, h.percentile(99), 99_000 * 0.02);
+        assertEquals(100_000, h.percentile(100));
+    }
+
+    @Test
+    public void stallIsBackFilledWhenCorrectingForCoordinatedOmission() {
+        LatencyHistogram raw = new LatencyHistogram();
+        LatencyHistogram corrected = new LatencyHistogram();
+        // 1ms responses every 10ms, then a single 1s stall
+        for (int i = 0; i < 99; i++) {
+            raw.record(1_000);
+            corrected.recordCorrected(1_000, 10_000);
+        }
+        raw.record(1_000_000);
+        corrected.recordCorrected(1_000_000, 10_000);
+
+        assertTrue(raw.percentile(90) < 2_000);
+        assertEquals(199, corrected.getCount());
+        assertTrue(corrected.percentile(90) > 100_000);
+    }
+}
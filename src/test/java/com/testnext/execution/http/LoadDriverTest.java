@@ -0,0 +1,142 @@
+package com.testnext.execution.http;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class LoadDriverTest {
+
+    private final HttpRequest request = HttpRequest.newBuilder(URI.create("http://target.test/quote")).GET().build();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private volatile long serviceMillis;
+    private volatile int status = 200;
+    private LoadDriver driver;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        // fake target: answers after serviceMillis and tracks how many requests it serves at once
+        HttpResponse<?> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenAnswer(inv -> status);
+        HttpClientPool pool = mock(HttpClientPool.class);
+        when(pool.send(any(), any(), any(), any())).thenAnswer(inv -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(serviceMillis);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            return response;
+        });
+        driver = new LoadDriver(pool);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> latency(Map<String, Object> out) {
+        return (Map<String, Object>) out.get("latencyMs");
+    }
+
+    @Test
+    public void openModelHoldsTheTargetRate() throws Exception {
+        serviceMillis = 5;
+
+        Map<String, Object> out = driver.run("acme", null, request,
+                LoadDriver.Settings.from(Map.of("mode", "open", "rate", 100, "concurrency", 10, "durationSeconds", 1)));
+
+        assertEquals(100L, out.get("requests"));
+        assertEquals(0L, out.get("errors"));
+        double achieved = (Double) out.get("achievedRate");
+        assertTrue(achieved > 85 && achieved <= 101, "achieved rate " + achieved);
+        assertEquals(100L, latency(out).get("count"));
+        assertTrue((Double) latency(out).get("min") >= 5.0, out.toString());
+        assertEquals(Map.of("2xx", 100L), out.get("statusCounts"));
+        assertTrue(maxInFlight.get() <= 10);
+    }
+
+    @Test
+    public void openModelCapsOutstandingRequestsAndMeasuresFromTheSchedule() throws Exception {
+        // 100/s wanted, but two outstanding 50ms requests only serve 40/s
+        serviceMillis = 50;
+
+        Map<String, Object> out = driver.run("acme", null, request,
+                LoadDriver.Settings.from(Map.of("mode", "open", "rate", 100, "concurrency", 2, "durationSeconds", 0.3)));
+
+        assertEquals(2, maxInFlight.get());
+        assertEquals(30L, out.get("requests"));
+        assertTrue((Double) out.get("achievedRate") < 60, out.toString());
+        // the queueing behind the cap shows up in the latencies, not only in the rate
+        assertTrue((Double) latency(out).get("max") >= 400, out.toString());
+        assertEquals(true, out.get("coordinatedOmissionCorrected"));
+    }
+
+    @Test
+    public void closedModelRunsOneRequestPerWorkerAtATime() throws Exception {
+        serviceMillis = 20;
+        status = 503;
+
+        Map<String, Object> out = driver.run("acme", null, request,
+                LoadDriver.Settings.from(Map.of("concurrency", 3, "durationSeconds", 0.3)));
+
+        assertEquals(3, maxInFlight.get());
+        long requests = (Long) out.get("requests");
+        assertTrue(requests >= 30 && requests <= 48, out.toString()); // 3 workers x 15 rounds of 20ms at most
+        assertEquals(requests, out.get("errors"));
+        assertEquals(Map.of("5xx", requests), out.get("statusCounts"));
+        assertEquals(requests, latency(out).get("count"));
+        assertEquals(false, out.get("coordinatedOmissionCorrected"));
+    }
+
+    @Test
+    public void runWaitsForOutstandingRequests() throws Exception {
+        serviceMillis = 200;
+
+        Map<String, Object> out = driver.run("acme", null, request,
+                LoadDriver.Settings.from(Map.of("concurrency", 2, "durationSeconds", 0.05)));
+
+        assertEquals(0, inFlight.get());
+        assertEquals(2L, out.get("requests"));
+        assertTrue((Long) out.get("durationMs") >= 200, out.toString());
+    }
+
+    @Test
+    public void interruptStopsTheRunAndItsRequests() throws Exception {
+        serviceMillis = 10_000;
+        AtomicReference<Throwable> thrown = new AtomicReference<>();
+        Thread runner = new Thread(() -> {
+            try {
+                driver.run("acme", null, request,
+                        LoadDriver.Settings.from(Map.of("mode", "open", "rate", 50, "concurrency", 4, "durationSeconds", 60)));
+            } catch (Throwable t) {
+                thrown.set(t);
+            }
+        });
+        runner.start();
+        for (int i = 0; i < 200 && inFlight.get() < 4; i++)
+            Thread.sleep(10);
+
+        runner.interrupt();
+        runner.join(5_000);
+
+        assertFalse(runner.isAlive());
+        assertInstanceOf(InterruptedException.class, thrown.get());
+        assertEquals(0, inFlight.get());
+    }
+
+    @Test
+    public void invalidSettingsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> LoadDriver.Settings.from(Map.of("mode", "burst")));
+        assertThrows(IllegalArgumentException.class, () -> LoadDriver.Settings.from(Map.of("mode", "open")));
+        assertThrows(IllegalArgumentException.class, () -> LoadDriver.Settings.from(Map.of("concurrency", 0)));
+    }
+}
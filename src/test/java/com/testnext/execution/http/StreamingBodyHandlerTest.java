@@ -0,0 +1,73 @@
+package com.testnext.execution.http;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Flow;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StreamingBodyHandlerTest {
+
+    private static HttpResponse.ResponseInfo info(int status) {
+        return new HttpResponse.ResponseInfo() {
+            public int statusCode() { return status; }
+            public HttpHeaders headers() { return HttpHeaders.of(Map.of("Content-Type", List.of("application/json")), (k, v) -> true); }
+            public HttpClient.Version version() { return HttpClient.Version.HTTP_2; }
+        };
+    }
+
+    private static StreamingBodyHandler.StreamedBody stream(StreamingBodyHandler handler, int status, String body, int chunkSize)
+            throws Exception {
+        HttpResponse.BodySubscriber<StreamingBodyHandler.StreamedBody> sub = handler.apply(info(status));
+        sub.onSubscribe(new Flow.Subscription() {
+            public void request(long n) { }
+            public void cancel() { }
+        });
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < bytes.length; i += chunkSize)
+            sub.onNext(List.of(ByteBuffer.wrap(bytes, i, Math.min(chunkSize, bytes.length - i))));
+        sub.onComplete();
+        return sub.getBody().toCompletableFuture().get();
+    }
+
+    @Test
+    public void largeBodySpillsToArtifactAndPathsMatchAcrossChunks(@TempDir Path dir) throws Exception {
+        ResponseExpectations expect = ResponseExpectations.compile(
+                Map.of("status", 200, "headers", Map.of("Content-Type", "application/json"),
+                        "json", Map.of("$.status", "BOOKED", "$.legs[1].id", "L2")),
+                Map.of("tradeId", "$.id"));
+        String body = "{\"id\":42,\"status\":\"BOOKED\",\"legs\":[{\"id\":\"L1\"},{\"id\":\"L2\"}]}";
+
+        StreamingBodyHandler.StreamedBody result = stream(new StreamingBodyHandler(expect, 16, dir), 200, body, 5);
+
+        assertTrue(result.getFailures().isEmpty(), result.getFailures().toString());
+        assertEquals(42, result.getExtracted().get("tradeId"));
+        assertTrue(result.isSpilled());
+        assertEquals(body.length(), result.getSize());
+        assertEquals(16, result.text().length());
+        assertEquals(body, Files.readString(result.getArtifact()));
+    }
+
+    @Test
+    public void smallBodyStaysInMemoryAndReportsFailures(@TempDir Path dir) throws Exception {
+        ResponseExpectations expect = ResponseExpectations.compile(
+                Map.of("json", Map.of("$.status", "BOOKED", "$.missing", 1)), null);
+
+        StreamingBodyHandler.StreamedBody result = stream(new StreamingBodyHandler(expect, 1024, dir), 500,
+                "{\"status\":\"REJECTED\"}", 4);
+
+        assertFalse(result.isSpilled());
+        assertEquals("{\"status\":\"REJECTED\"}", result.text());
+        assertEquals(3, result.getFailures().size()); // status, $.status, $.missing
+    }
+}
@@ -0,0 +1,44 @@
+package com.testnext.execution.template;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParameterTemplateTest {
+
+    @Test
+    public void resolvesAliasesPositionsAndEnvironment() {
+        TemplateContext ctx = new TemplateContext(name -> "baseUrl".equals(name) ? "http://sandbox" : null);
+        ctx.putOutput("bookTrade", 0, Map.of("tradeId", 42, "legs", List.of(Map.of("id", "L1"))));
+
+        ParameterTemplate t = ParameterTemplate.compile(Map.of(
+                "id", "${bookTrade.tradeId}",
+                "url", "${env.baseUrl}/trades/${steps[0].tradeId}",
+                "leg", "${bookTrade.legs[0].id}",
+                "literal", "$${not.a.placeholder}"));
+        Map<String, Object> params = t.resolve(ctx);
+
+        assertEquals(42, params.get("id")); // a whole-value placeholder keeps its type
+        assertEquals("http://sandbox/trades/42", params.get("url"));
+        assertEquals("L1", params.get("leg"));
+        assertEquals("${not.a.placeholder}", params.get("literal"));
+    }
+
+    @Test
+    public void constantParametersAreReturnedAsIs() {
+        Map<String, Object> raw = Map.of("sql", "select 1", "nested", Map.of("a", 1));
+        ParameterTemplate t = ParameterTemplate.compile(raw);
+        assertTrue(t.isConstant());
+        assertSame(raw, t.resolve(new TemplateContext(null)));
+    }
+
+    @Test
+    public void unresolvedPlaceholderFails() {
+        ParameterTemplate t = ParameterTemplate.compile(Map.of("id", "${missing.value}"));
+        assertThrows(IllegalArgumentException.class, () -> t.resolve(new TemplateContext(null)));
+        assertThrows(IllegalArgumentException.class, () -> ParameterTemplate.compile(Map.of("id", "${open")));
+    }
+}
@@ -0,0 +1,176 @@
+package com.testnext.repository;
+
+import com.testnext.model.ExecutionEntity;
+import com.testnext.model.ExecutionStepEntity;
+import com.testnext.model.TestEntity;
+import com.testnext.model.TestSuiteEntity;
+import com.testnext.project.entity.ProjectEntity;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** The keyset JPQL of {@link ExecutionRepositoryImpl}, run by Hibernate against H2. */
+public class ExecutionRepositoryImplTest {
+
+    private static final Instant T = Instant.parse("2026-10-01T12:00:00Z");
+
+    private SessionFactory sessions;
+    private EntityManager em;
+    private ExecutionRepositoryImpl repo;
+    private Long testId;
+
+    @BeforeEach
+    public void setUp() {
+        sessions = new Configuration()
+                .addAnnotatedClass(ExecutionEntity.class)
+                .addAnnotatedClass(ExecutionStepEntity.class)
+                .addAnnotatedClass(TestEntity.class)
+                .addAnnotatedClass(TestSuiteEntity.class)
+                .addAnnotatedClass(ProjectEntity.class)
+                .setProperty("hibernate.connection.url", "jdbc:h2:mem:executions" + System.nanoTime() + ";DB_CLOSE_DELAY=-1")
+                .setProperty("hibernate.hbm2ddl.auto", "create-drop")
+                .setProperty("hibernate.generate_statistics", "true")
+                .buildSessionFactory();
+        em = sessions.createEntityManager();
+        repo = new ExecutionRepositoryImpl();
+        ReflectionTestUtils.setField(repo, "em", em);
+
+        em.getTransaction().begin();
+        ProjectEntity project = new ProjectEntity();
+        project.setTenantId(9L);
+        project.setName("Trading");
+        em.persist(project);
+        TestSuiteEntity suite = new TestSuiteEntity();
+        suite.projectId = project.getId();
+        suite.name = "Trades";
+        em.persist(suite);
+        TestEntity test = new TestEntity();
+        test.suiteId = suite.id;
+        test.name = "Book trade";
+        em.persist(test);
+        em.getTransaction().commit();
+        testId = test.id;
+    }
+
+    @AfterEach
+    public void tearDown() {
+        em.close();
+        sessions.close();
+    }
+
+    private UUID execution(Instant startedAt, Long tenantId) {
+        ExecutionEntity e = new ExecutionEntity();
+        e.id = UUID.randomUUID();
+        e.testId = testId;
+        e.tenantId = tenantId;
+        e.status = "FINISHED";
+        e.startedAt = startedAt;
+        em.getTransaction().begin();
+        em.persist(e);
+        em.getTransaction().commit();
+        return e.id;
+    }
+
+    private void step(UUID executionId, String status) {
+        ExecutionStepEntity s = new ExecutionStepEntity();
+        s.id = UUID.randomUUID();
+        s.executionId = executionId;
+        s.stepDefinitionId = 1L;
+        s.status = status;
+        em.getTransaction().begin();
+        em.persist(s);
+        em.getTransaction().commit();
+    }
+
+    private List<UUID> pageThrough(ExecutionFilter f, int limit) {
+        List<UUID> seen = new ArrayList<>();
+        for (int pages = 0; pages < 20; pages++) {
+            List<ExecutionRow> page = repo.findPage(f, limit);
+            page.forEach(r -> seen.add(r.id()));
+            if (page.size() < limit)
+                return seen;
+            ExecutionRow last = page.get(page.size() - 1);
+            f.afterStartedAt = last.startedAt();
+            f.afterId = last.id();
+        }
+        throw new AssertionError("paging did not end");
+    }
+
+    @Test
+    public void pagesCoverRowsWithIdenticalStartTimesExactlyOnce() {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++)
+            ids.add(execution(T, 9L)); // same started_at: only the id orders them
+        ids.add(execution(T.minusSeconds(60), 9L));
+        ids.add(execution(T.plusSeconds(60), 9L));
+        execution(null, 9L); // no start time: not listed
+
+        List<UUID> paged = pageThrough(new ExecutionFilter(), 2);
+        List<UUID> all = repo.findPage(new ExecutionFilter(), 100).stream().map(ExecutionRow::id).toList();
+
+        assertEquals(7, paged.size());
+        assertEquals(new HashSet<>(ids), new HashSet<>(paged));
+        assertEquals(all, paged); // same order as one unpaged read
+        ExecutionRow first = repo.findPage(new ExecutionFilter(), 1).get(0);
+        assertEquals(T.plusSeconds(60), first.startedAt());
+        assertEquals("Book trade", first.testName());
+        assertEquals("Trades", first.suiteName());
+        assertEquals(0L, first.stepCount());
+    }
+
+    @Test
+    public void unownedRowsAreMatchedByJoinOnlyWhenAsked() {
+        UUID owned = execution(T, 9L);
+        UUID unowned = execution(T.minusSeconds(1), null);
+        execution(T.minusSeconds(2), 10L);
+
+        ExecutionFilter strict = new ExecutionFilter();
+        strict.tenantId = 9L;
+        ExecutionFilter fallback = new ExecutionFilter();
+        fallback.tenantId = 9L;
+        fallback.includeUnowned = true;
+
+        assertEquals(List.of(owned), pageThrough(strict, 10));
+        assertEquals(List.of(owned, unowned), pageThrough(fallback, 1));
+    }
+
+    @Test
+    public void aPageOrARowIsOneStatementAndCountsFailedStepsOfEitherWriter() {
+        UUID id = execution(T, 9L);
+        step(id, "FINISHED");
+        step(id, "FAILED");       // ExecutionService
+        step(id, "failed");       // ExecutionEngine
+        step(id, "circuit_open");
+        step(id, "success");
+        for (int i = 1; i <= 3; i++)
+            execution(T.minusSeconds(i), 9L);
+        em.clear();
+        org.hibernate.stat.Statistics stats = sessions.getStatistics();
+
+        stats.clear();
+        List<ExecutionRow> page = repo.findPage(new ExecutionFilter(), 10);
+        assertEquals(1, stats.getPrepareStatementCount());
+        assertEquals(4, page.size());
+        assertEquals(5L, page.get(0).stepCount());
+        assertEquals(3L, page.get(0).failedStepCount());
+        assertEquals(0L, page.get(1).failedStepCount());
+
+        stats.clear();
+        ExecutionRow row = repo.findRow(id).orElseThrow();
+        assertEquals(1, stats.getPrepareStatementCount());
+        assertEquals(3L, row.failedStepCount());
+        assertEquals("Book trade", row.testName());
+    }
+}
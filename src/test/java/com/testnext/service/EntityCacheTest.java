@@ -0,0 +1,109 @@
+package com.testnext.service;
+
+import com.testnext.model.TestEntity;
+import com.testnext.model.TestSuiteEntity;
+import com.testnext.project.entity.ProjectEntity;
+import com.testnext.repository.ProjectRepository;
+import com.testnext.repository.TestRepository;
+import com.testnext.repository.TestSuiteRepository;
+import com.testnext.tenant.TenantContext;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class EntityCacheTest {
+
+    private TestRepository testRepo;
+    private TestSuiteRepository suiteRepo;
+    private ProjectRepository projectRepo;
+    private EntityCache.Broadcaster broadcaster;
+    private SimpleMeterRegistry meters;
+    private EntityCache cache;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        testRepo = mock(TestRepository.class);
+        suiteRepo = mock(TestSuiteRepository.class);
+        projectRepo = mock(ProjectRepository.class);
+        broadcaster = mock(EntityCache.Broadcaster.class);
+        ObjectProvider<EntityCache.Broadcaster> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(broadcaster);
+        meters = new SimpleMeterRegistry();
+        cache = new EntityCache(testRepo, suiteRepo, projectRepo, provider, meters, 100, 300);
+
+        TestEntity t = new TestEntity();
+        t.id = 1L;
+        t.suiteId = 2L;
+        t.name = "Book trade";
+        TestSuiteEntity s = new TestSuiteEntity();
+        s.id = 2L;
+        s.projectId = 3L;
+        s.name = "Trades";
+        ProjectEntity p = new ProjectEntity();
+        p.setId(3L);
+        p.setTenantId(42L);
+        when(testRepo.findById(1L)).thenReturn(Optional.of(t));
+        when(suiteRepo.findById(2L)).thenReturn(Optional.of(s));
+        when(projectRepo.findById(3L)).thenReturn(Optional.of(p));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        TenantContext.clear();
+    }
+
+    @Test
+    public void ownershipChainIsLoadedOnce() {
+        for (int i = 0; i < 10; i++)
+            assertEquals(42L, cache.tenantIdOfTest(1L));
+
+        verify(testRepo, times(1)).findById(1L);
+        verify(suiteRepo, times(1)).findById(2L);
+        verify(projectRepo, times(1)).findById(3L);
+        assertEquals(27.0, meters.get("entity.cache").tag("result", "hit").counters().stream()
+                .mapToDouble(c -> c.count()).sum());
+    }
+
+    @Test
+    public void tenantsHaveSeparatePartitions() {
+        TenantContext.setTenant("tenant_a");
+        cache.suite(2L);
+        TenantContext.setTenant("tenant_b");
+        cache.suite(2L);
+        cache.suite(2L);
+
+        verify(suiteRepo, times(2)).findById(2L);
+    }
+
+    @Test
+    public void evictionReloadsAndIsBroadcast() {
+        cache.suite(2L);
+        cache.evictSuite(2L);
+        cache.suite(2L);
+
+        verify(suiteRepo, times(2)).findById(2L);
+        verify(broadcaster).publish("public", "suite", 2L);
+
+        cache.evictLocal("public", "suite", 2L); // as received from another node
+        cache.suite(2L);
+        verify(suiteRepo, times(3)).findById(2L);
+    }
+
+    @Test
+    public void missesAreNotCached() {
+        when(testRepo.findById(9L)).thenReturn(Optional.empty());
+
+        assertNull(cache.tenantIdOfTest(9L));
+        assertNull(cache.tenantIdOfTest(9L));
+
+        verify(testRepo, times(2)).findById(9L);
+    }
+}
@@ -0,0 +1,134 @@
+package com.testnext.service;
+
+import com.testnext.execution.StepDispatchTable;
+import com.testnext.execution.StepResult;
+import com.testnext.model.ExecutionEntity;
+import com.testnext.model.ExecutionStepEntity;
+import com.testnext.model.StepDefinitionEntity;
+import com.testnext.model.TestEntity;
+import com.testnext.model.TestStepEntity;
+import com.testnext.repository.ExecutionOwner;
+import com.testnext.repository.TestRepository;
+import com.testnext.repository.TestStepRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/** Data-driven executions run through ExecutionService: one iteration per dataset row. */
+public class ExecutionDatasetRunTest {
+
+    @TempDir
+    Path datasets;
+
+    private TestRepository testRepo;
+    private ExecutionWriter writer;
+    private ExecutionService service;
+    private final List<String> booked = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicReference<ExecutionEntity> execution = new AtomicReference<>();
+    private final List<ExecutionStepEntity> steps = new ArrayList<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        testRepo = mock(TestRepository.class);
+        TestStepRepository testStepRepo = mock(TestStepRepository.class);
+        TestStepEntity step = new TestStepEntity();
+        step.id = 10L;
+        step.testId = 1L;
+        step.stepDefinitionId = 100L;
+        step.parametersJson = "{\"security\":\"${row.security_id}\"}";
+        when(testStepRepo.findByTestIdOrderById(1L)).thenReturn(List.of(step));
+
+        StepDefinitionCache definitions = mock(StepDefinitionCache.class);
+        StepDefinitionEntity def = new StepDefinitionEntity();
+        def.id = 100L;
+        def.refId = "trade.book";
+        def.name = "Book trade";
+        when(definitions.getById(100L)).thenReturn(Optional.of(def));
+
+        StepDispatchTable dispatch = new StepDispatchTable();
+        dispatch.register((id, params) -> {
+            String security = String.valueOf(params.get("security"));
+            booked.add(security);
+            return "HALTED".equals(security) ? new StepResult(false, null, "instrument halted")
+                    : new StepResult(true, Map.of("booked", security), null);
+        }, null, 0, "trade.book");
+
+        EntityCache entityCache = mock(EntityCache.class);
+        when(entityCache.ownerOfTest(1L)).thenReturn(new ExecutionOwner(5L, 7L, 1L));
+        writer = mock(ExecutionWriter.class);
+        doAnswer(inv -> { execution.set(inv.getArgument(0)); return null; }).when(writer).insertExecution(any());
+        doAnswer(inv -> { steps.addAll(inv.getArgument(0)); return 1; }).when(writer).insertSteps(any());
+        when(writer.updateExecution(any())).thenReturn(true);
+
+        service = new ExecutionService(testStepRepo, mock(com.testnext.repository.ExecutionRepository.class),
+                mock(com.testnext.repository.ExecutionStepRepository.class), definitions, testRepo,
+                mock(com.testnext.user.SystemUserRepository.class), mock(com.testnext.repository.TenantRepository.class),
+                dispatch, mock(com.testnext.observability.ObservabilityConfig.ExecutionMetrics.class),
+                new MockEnvironment().withProperty("testnext.datasets.dir", datasets.toString()),
+                mock(com.testnext.db.TargetDataSources.class), writer, mock(ResultBlobStore.class), entityCache,
+                mock(ExecutionOwnershipBackfill.class), mock(com.testnext.stub.StubRuntime.class),
+                mock(org.springframework.transaction.PlatformTransactionManager.class));
+    }
+
+    private void dataset(String json) {
+        TestEntity test = new TestEntity();
+        test.id = 1L;
+        test.name = "Book trades";
+        test.datasetJson = json;
+        when(testRepo.findById(1L)).thenReturn(Optional.of(test));
+    }
+
+    private ExecutionEntity awaitFinished() throws InterruptedException {
+        for (int i = 0; i < 500 && execution.get().finishedAt == null; i++)
+            Thread.sleep(10);
+        ExecutionEntity e = execution.get();
+        assertNotNull(e.finishedAt, "execution did not finish");
+        return e;
+    }
+
+    @Test
+    public void everyRowRunsTheStepsAndFailuresAreSummarized() throws Exception {
+        Files.writeString(datasets.resolve("trades.csv"), "security_id\nIBM\nHALTED\nMSFT\n");
+        dataset("{\"type\":\"csv\",\"path\":\"trades.csv\",\"maxInFlight\":2}");
+
+        service.start(1L, null);
+        ExecutionEntity e = awaitFinished();
+
+        assertEquals(List.of("HALTED", "IBM", "MSFT"), booked.stream().sorted().toList());
+        assertEquals("FAILED", e.status); // one iteration failed
+        assertTrue(e.iterationSummaryJson.contains("\"iterations\":3"), e.iterationSummaryJson);
+        assertTrue(e.iterationSummaryJson.contains("\"passed\":2"), e.iterationSummaryJson);
+        assertEquals("FAILED", steps.get(0).status);
+        assertTrue(steps.get(0).resultJson.contains("\"passed\":2"), steps.get(0).resultJson);
+        assertEquals(Long.valueOf(5L), e.tenantId);
+    }
+
+    @Test
+    public void unreadableDatasetFailsTheExecutionAndItsSteps() throws Exception {
+        dataset("{\"type\":\"csv\",\"path\":\"missing.csv\"}");
+
+        service.start(1L, null);
+        ExecutionEntity e = awaitFinished();
+
+        assertEquals("FAILED", e.status);
+        assertEquals("FAILED", steps.get(0).status);
+        assertNotNull(steps.get(0).finishedAt);
+        assertTrue(steps.get(0).resultJson.contains("error"));
+        assertTrue(booked.isEmpty());
+    }
+}
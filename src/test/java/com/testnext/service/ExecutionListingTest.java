@@ -0,0 +1,163 @@
+package com.testnext.service;
+
+import com.testnext.api.dto.ExecutionDto;
+import com.testnext.api.dto.ExecutionPage;
+import com.testnext.model.ExecutionStepEntity;
+import com.testnext.repository.ExecutionFilter;
+import com.testnext.repository.ExecutionRepository;
+import com.testnext.repository.ExecutionRow;
+import com.testnext.repository.ExecutionStepRepository;
+import com.testnext.repository.TestRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/** Listing and reading executions costs a fixed number of round trips, however many rows there are. */
+public class ExecutionListingTest {
+
+    private final Authentication admin = new UsernamePasswordAuthenticationToken("admin", null,
+            List.of(new SimpleGrantedAuthority("ROLE_SYSTEM_ADMIN")));
+
+    private ExecutionRepository execRepo;
+    private ExecutionStepRepository execStepRepo;
+    private TestRepository testRepo;
+    private ExecutionOwnershipBackfill backfill;
+    private ResultBlobStore blobs;
+    private PlatformTransactionManager transactions;
+    private ExecutionService service;
+
+    @BeforeEach
+    public void setUp() {
+        execRepo = mock(ExecutionRepository.class);
+        execStepRepo = mock(ExecutionStepRepository.class);
+        testRepo = mock(TestRepository.class);
+        backfill = mock(ExecutionOwnershipBackfill.class);
+        blobs = mock(ResultBlobStore.class);
+        transactions = mock(PlatformTransactionManager.class);
+        service = new ExecutionService(mock(com.testnext.repository.TestStepRepository.class), execRepo, execStepRepo,
+                mock(StepDefinitionCache.class), testRepo, mock(com.testnext.user.SystemUserRepository.class),
+                mock(com.testnext.repository.TenantRepository.class), new com.testnext.execution.StepDispatchTable(),
+                mock(com.testnext.observability.ObservabilityConfig.ExecutionMetrics.class),
+                mock(org.springframework.core.env.Environment.class), mock(com.testnext.db.TargetDataSources.class),
+                mock(ExecutionWriter.class), blobs, mock(EntityCache.class),
+                backfill, mock(com.testnext.stub.StubRuntime.class), transactions);
+    }
+
+    private static List<ExecutionRow> rows(int n) {
+        List<ExecutionRow> rows = new ArrayList<>();
+        Instant t = Instant.parse("2026-10-01T00:00:00Z");
+        for (int i = 0; i < n; i++)
+            rows.add(new ExecutionRow(UUID.randomUUID(), 1L, "FINISHED", t.minusSeconds(i), t, "Book trade", "Trades", 3L, 0L));
+        return rows;
+    }
+
+    @Test
+    public void pageIsOneQueryWithNamesAndCounts() {
+        List<ExecutionRow> rows = rows(51);
+        when(execRepo.findPage(any(), eq(51))).thenReturn(rows);
+
+        ExecutionPage page = service.page(admin, new ExecutionFilter(), null, 50);
+
+        assertEquals(50, page.items.size());
+        assertEquals("Book trade", page.items.get(0).testName);
+        assertEquals("Trades", page.items.get(0).suiteName);
+        assertEquals(3L, page.items.get(0).stepCount);
+        verify(execRepo, times(1)).findPage(any(), anyInt());
+        verifyNoInteractions(testRepo, execStepRepo);
+
+        ExecutionFilter next = new ExecutionFilter();
+        ExecutionService.decodeCursor(page.nextCursor, next);
+        assertEquals(rows.get(49).startedAt(), next.afterStartedAt);
+        assertEquals(rows.get(49).id(), next.afterId);
+    }
+
+    @Test
+    public void streamingWalkReadsOneQueryPerPage() {
+        when(execRepo.findPage(any(), anyInt())).thenReturn(rows(200), rows(200), rows(17));
+        List<ExecutionDto> all = new ArrayList<>();
+
+        service.forEach(admin, new ExecutionFilter(), all::add);
+
+        assertEquals(417, all.size());
+        verify(execRepo, times(3)).findPage(any(), anyInt());
+        // a read-only transaction per page, none around the whole walk
+        verify(transactions, times(3)).getTransaction(argThat(TransactionDefinition::isReadOnly));
+        verify(transactions, times(3)).commit(any());
+        verifyNoInteractions(testRepo, execStepRepo);
+    }
+
+    @Test
+    public void getReadsExecutionAndStepsOnly() {
+        ExecutionRow row = rows(1).get(0);
+        when(execRepo.findRow(row.id())).thenReturn(Optional.of(row));
+        when(execStepRepo.findByExecutionIdOrderById(row.id())).thenReturn(List.of());
+
+        ExecutionDto dto = service.get(row.id());
+
+        assertEquals("Trades", dto.suiteName);
+        assertTrue(dto.steps.isEmpty());
+        verify(execRepo, never()).findById(any());
+        verifyNoInteractions(testRepo);
+    }
+
+    @Test
+    public void getReadsExternalizedPayloadsBack() {
+        ExecutionRow row = rows(1).get(0);
+        ExecutionStepEntity inline = new ExecutionStepEntity();
+        inline.id = UUID.randomUUID();
+        inline.parametersJson = "{\"qty\":1}";
+        inline.resultJson = "{\"ok\":true}";
+        ExecutionStepEntity stored = new ExecutionStepEntity();
+        stored.id = UUID.randomUUID();
+        stored.parametersRef = "p1";
+        stored.resultRef = "r1";
+        when(execRepo.findRow(row.id())).thenReturn(Optional.of(row));
+        when(execStepRepo.findByExecutionIdOrderById(row.id())).thenReturn(List.of(inline, stored));
+        when(blobs.getAll(any())).thenReturn(Map.of("p1", "{\"legs\":[1,2]}", "r1", "{\"rows\":3}"));
+
+        ExecutionDto dto = service.get(row.id());
+
+        assertEquals(Map.of("qty", 1), dto.steps.get(0).parameters);
+        assertEquals("{\"ok\":true}", dto.steps.get(0).result.get("raw"));
+        assertEquals(Map.of("legs", List.of(1, 2)), dto.steps.get(1).parameters);
+        assertEquals("{\"rows\":3}", dto.steps.get(1).result.get("raw"));
+        verify(blobs, times(1)).getAll(any());
+    }
+
+    @Test
+    public void invalidCursorIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> service.page(admin, new ExecutionFilter(), "not-a-cursor", 10));
+    }
+
+    @Test
+    public void unownedRowsAreMatchedUntilBackfillCompletes() {
+        when(execRepo.findPage(any(), anyInt())).thenReturn(List.of());
+        org.mockito.ArgumentCaptor<ExecutionFilter> filters = org.mockito.ArgumentCaptor.forClass(ExecutionFilter.class);
+
+        service.forEachByProject(3L, new ExecutionFilter(), dto -> { });
+        when(backfill.isComplete()).thenReturn(true);
+        service.forEachByProject(3L, new ExecutionFilter(), dto -> { });
+
+        verify(execRepo, times(2)).findPage(filters.capture(), anyInt());
+        assertTrue(filters.getAllValues().get(0).includeUnowned);
+        assertFalse(filters.getAllValues().get(1).includeUnowned);
+    }
+}
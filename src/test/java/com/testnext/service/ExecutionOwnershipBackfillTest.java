@@ -0,0 +1,60 @@
+package com.testnext.service;
+
+import com.testnext.repository.TenantRepository;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+public class ExecutionOwnershipBackfillTest {
+
+    @Test
+    public void fillsOwnerInBatchesAndSkipsOrphans() {
+        JdbcDataSource ds = new JdbcDataSource();
+        ds.setURL("jdbc:h2:mem:owner" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbc = new JdbcTemplate(ds);
+        jdbc.execute("CREATE TABLE projects (id BIGINT PRIMARY KEY, tenant_id BIGINT NOT NULL)");
+        jdbc.execute("CREATE TABLE test_suites (id BIGINT PRIMARY KEY, project_id BIGINT NOT NULL)");
+        jdbc.execute("CREATE TABLE tests (id BIGINT PRIMARY KEY, suite_id BIGINT NOT NULL)");
+        jdbc.execute("CREATE TABLE executions (id UUID PRIMARY KEY, test_id BIGINT, tenant_id BIGINT, project_id BIGINT)");
+        jdbc.update("INSERT INTO projects VALUES (3, 42)");
+        jdbc.update("INSERT INTO test_suites VALUES (2, 3)");
+        jdbc.update("INSERT INTO tests VALUES (1, 2)");
+        for (int i = 0; i < 7; i++)
+            jdbc.update("INSERT INTO executions (id, test_id) VALUES (?, 1)", UUID.randomUUID());
+        UUID orphan = UUID.randomUUID();
+        jdbc.update("INSERT INTO executions (id, test_id) VALUES (?, 99)", orphan);
+
+        ExecutionOwnershipBackfill backfill = new ExecutionOwnershipBackfill(jdbc, mock(TenantRepository.class), true, 3);
+
+        assertEquals(7, backfill.backfill());
+        assertEquals(7, jdbc.queryForObject(
+                "SELECT COUNT(*) FROM executions WHERE tenant_id = 42 AND project_id = 3", Integer.class));
+        Map<String, Object> left = jdbc.queryForMap("SELECT tenant_id, project_id FROM executions WHERE id = ?", orphan);
+        assertNull(left.get("TENANT_ID"));
+        assertEquals(0, backfill.backfill());
+    }
+
+    @Test
+    public void completeOnlyAfterEverySchemaRan() {
+        JdbcDataSource ds = new JdbcDataSource();
+        ds.setURL("jdbc:h2:mem:owner" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbc = new JdbcTemplate(ds);
+        ExecutionOwnershipBackfill backfill = new ExecutionOwnershipBackfill(jdbc, mock(TenantRepository.class), true, 3);
+
+        backfill.runAll(); // no tables yet: the default schema fails
+        assertFalse(backfill.isComplete());
+
+        jdbc.execute("CREATE TABLE projects (id BIGINT PRIMARY KEY, tenant_id BIGINT NOT NULL)");
+        jdbc.execute("CREATE TABLE test_suites (id BIGINT PRIMARY KEY, project_id BIGINT NOT NULL)");
+        jdbc.execute("CREATE TABLE tests (id BIGINT PRIMARY KEY, suite_id BIGINT NOT NULL)");
+        jdbc.execute("CREATE TABLE executions (id UUID PRIMARY KEY, test_id BIGINT, tenant_id BIGINT, project_id BIGINT)");
+        backfill.runAll();
+        assertTrue(backfill.isComplete());
+    }
+}
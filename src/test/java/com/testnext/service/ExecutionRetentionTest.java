@@ -0,0 +1,112 @@
+package com.testnext.service;
+
+import com.testnext.repository.TenantRepository;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+public class ExecutionRetentionTest {
+
+    @TempDir
+    Path archiveDir;
+
+    private JdbcTemplate jdbc;
+    private ResultBlobStore blobs;
+    private MockEnvironment env;
+
+    @BeforeEach
+    public void setUp() {
+        JdbcDataSource ds = new JdbcDataSource();
+        ds.setURL("jdbc:h2:mem:retention" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        jdbc = new JdbcTemplate(ds);
+        jdbc.execute("CREATE TABLE executions (id UUID PRIMARY KEY, test_id BIGINT NOT NULL, status VARCHAR(32) NOT NULL, "
+                + "started_at TIMESTAMP, finished_at TIMESTAMP, iteration_summary_json CLOB)");
+        jdbc.execute("CREATE TABLE execution_steps (id UUID PRIMARY KEY, execution_id UUID NOT NULL, "
+                + "status VARCHAR(32), result_json CLOB, result_ref VARCHAR(64), parameters_ref VARCHAR(64), "
+                + "created_at TIMESTAMP)");
+        jdbc.execute("CREATE TABLE result_blobs (hash VARCHAR(64) PRIMARY KEY, codec VARCHAR(16) NOT NULL, "
+                + "raw_size INT NOT NULL, data BLOB NOT NULL, created_at TIMESTAMP)");
+        blobs = new ResultBlobStore(jdbc, 16, 100, 60,
+                java.time.Clock.fixed(Instant.parse("2026-10-19T00:00:00Z"), java.time.ZoneOffset.UTC));
+        env = new MockEnvironment()
+                .withProperty("testnext.retention.default-days", "30")
+                .withProperty("testnext.retention.archive-dir", archiveDir.toString());
+    }
+
+    private UUID execution(String startedAt, String resultRef) {
+        UUID id = UUID.randomUUID();
+        Timestamp ts = Timestamp.from(Instant.parse(startedAt));
+        jdbc.update("INSERT INTO executions (id, test_id, status, started_at) VALUES (?, 1, 'PASSED', ?)", id, ts);
+        jdbc.update("INSERT INTO execution_steps (id, execution_id, status, result_ref, created_at) VALUES (?, ?, 'PASSED', ?, ?)",
+                UUID.randomUUID(), id, resultRef, ts);
+        return id;
+    }
+
+    @Test
+    public void expiredMonthsAreArchivedThenRemoved() throws Exception {
+        String oldPayload = "{\"rows\":\"" + "a".repeat(100) + "\"}";
+        String sharedPayload = "{\"rows\":\"" + "b".repeat(100) + "\"}";
+        List<String> hashes = blobs.putAll(List.of(oldPayload, sharedPayload)).hashes();
+        jdbc.update("UPDATE result_blobs SET created_at = ?", Timestamp.from(Instant.parse("2026-01-01T00:00:00Z")));
+        execution("2026-01-10T08:00:00Z", hashes.get(0));
+        execution("2026-02-20T08:00:00Z", hashes.get(1));
+        UUID recent = execution("2026-10-01T08:00:00Z", hashes.get(1));
+
+        ExecutionRetention retention = new ExecutionRetention(jdbc, blobs, mock(TenantRepository.class), env);
+        List<YearMonth> removed = retention.apply("public", Instant.parse("2026-10-19T00:00:00Z"));
+
+        // months with history that ended before the cutoff (2026-09-19) go
+        assertEquals(List.of(YearMonth.of(2026, 1), YearMonth.of(2026, 2)), removed);
+        assertEquals(List.of(recent), jdbc.queryForList("SELECT id FROM executions", UUID.class));
+        assertEquals(1, jdbc.queryForObject("SELECT COUNT(*) FROM execution_steps", Integer.class));
+        // only the payload still referenced by the recent execution survives
+        assertNull(blobs.get(hashes.get(0)));
+        assertEquals(sharedPayload, blobs.get(hashes.get(1)));
+
+        List<String> january = read(archiveDir.resolve("public/executions-2026-01.jsonl.gz"));
+        assertEquals(3, january.size());
+        assertTrue(january.get(0).contains("\"type\":\"execution\""));
+        assertTrue(january.get(0).contains("\"started_at\":\"2026-01-10T08:00:00Z\""));
+        assertTrue(january.get(1).contains("\"type\":\"step\""));
+        assertTrue(january.get(2).contains("\"type\":\"blob\"") && january.get(2).contains("aaaa"));
+        assertTrue(Files.exists(archiveDir.resolve("public/executions-2026-02.jsonl.gz")));
+        assertFalse(Files.exists(archiveDir.resolve("public/executions-2026-03.jsonl.gz")));
+    }
+
+    @Test
+    public void zeroDaysKeepsHistory() throws Exception {
+        env.setProperty("testnext.retention.tenant.public.days", "0");
+        execution("2020-01-10T08:00:00Z", null);
+
+        ExecutionRetention retention = new ExecutionRetention(jdbc, blobs, mock(TenantRepository.class), env);
+
+        assertTrue(retention.apply("public", Instant.now()).isEmpty());
+        assertEquals(1, jdbc.queryForObject("SELECT COUNT(*) FROM executions", Integer.class));
+    }
+
+    private static List<String> read(Path gz) throws Exception {
+        try (BufferedReader r = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(gz)), StandardCharsets.UTF_8))) {
+            return r.lines().collect(Collectors.toList());
+        }
+    }
+}
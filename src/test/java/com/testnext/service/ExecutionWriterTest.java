@@ -0,0 +1,221 @@
+package com.testnext.service;
+
+import com.testnext.execution.StepDispatchTable;
+import com.testnext.execution.StepResult;
+import com.testnext.model.ExecutionEntity;
+import com.testnext.model.ExecutionStepEntity;
+import com.testnext.model.StepDefinitionEntity;
+import com.testnext.model.TestEntity;
+import com.testnext.model.TestStepEntity;
+import com.testnext.observability.ObservabilityConfig;
+import com.testnext.repository.ExecutionOwner;
+import com.testnext.repository.TestRepository;
+import com.testnext.repository.TestStepRepository;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.env.MockEnvironment;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/** The JDBC write path on H2, with every statement sent to the database counted. */
+public class ExecutionWriterTest {
+
+    private final AtomicInteger roundTrips = new AtomicInteger();
+    private JdbcTemplate jdbc;
+    private ResultBlobStore blobs;
+    private ExecutionWriter writer;
+
+    @BeforeEach
+    public void setUp() {
+        JdbcDataSource ds = new JdbcDataSource();
+        ds.setURL("jdbc:h2:mem:writer" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate plain = new JdbcTemplate(ds);
+        plain.execute("CREATE TABLE executions (id UUID PRIMARY KEY, test_id BIGINT, tenant_id BIGINT, project_id BIGINT, "
+                + "status VARCHAR(32) NOT NULL, started_at TIMESTAMP, finished_at TIMESTAMP, iteration_summary_json CLOB)");
+        plain.execute("CREATE TABLE execution_steps (id UUID PRIMARY KEY, execution_id UUID NOT NULL, "
+                + "step_definition_id BIGINT, status VARCHAR(32), parameters_json CLOB, parameters_ref VARCHAR(64), "
+                + "assertions_json CLOB, result_json CLOB, result_ref VARCHAR(64), created_at TIMESTAMP, "
+                + "started_at TIMESTAMP, finished_at TIMESTAMP)");
+        plain.execute("CREATE TABLE result_blobs (hash VARCHAR(64) PRIMARY KEY, codec VARCHAR(16) NOT NULL, "
+                + "raw_size INT NOT NULL, data BLOB NOT NULL, created_at TIMESTAMP)");
+        jdbc = new JdbcTemplate(counting(ds));
+        blobs = new ResultBlobStore(jdbc, 128, 100);
+        writer = new ExecutionWriter(jdbc, blobs);
+    }
+
+    /** Wraps the datasource so each execute call on a statement counts as one round trip. */
+    private DataSource counting(DataSource target) {
+        return (DataSource) proxy(target, DataSource.class);
+    }
+
+    private Object proxy(Object target, Class<?> type) {
+        return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { type }, (p, method, args) -> {
+            if (Statement.class.isAssignableFrom(type) && method.getName().startsWith("execute"))
+                roundTrips.incrementAndGet();
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException ex) {
+                throw ex.getCause();
+            }
+            if (result instanceof Connection c && method.getReturnType() == Connection.class)
+                return proxy(c, Connection.class);
+            if (result instanceof Statement s && Statement.class.isAssignableFrom(method.getReturnType()))
+                return proxy(s, method.getReturnType());
+            return result;
+        });
+    }
+
+    private static ExecutionStepEntity step(UUID executionId, String parametersJson) {
+        ExecutionStepEntity s = new ExecutionStepEntity();
+        s.id = UUID.randomUUID();
+        s.executionId = executionId;
+        s.stepDefinitionId = 100L;
+        s.status = "PENDING";
+        s.parametersJson = parametersJson;
+        s.createdAt = Instant.now();
+        return s;
+    }
+
+    @Test
+    public void oneExecutionIsWrittenInTheReportedNumberOfStatements() {
+        ExecutionEntity e = new ExecutionEntity();
+        e.id = UUID.randomUUID();
+        e.testId = 1L;
+        e.tenantId = 5L;
+        e.projectId = 7L;
+        e.status = "ACCEPTED";
+        e.startedAt = Instant.now();
+        String largeParameters = "{\"legs\":[" + "{\"qty\":100},".repeat(50) + "{}]}";
+        List<ExecutionStepEntity> steps = List.of(step(e.id, "{\"a\":1}"), step(e.id, largeParameters), step(e.id, null));
+
+        writer.insertExecution(e);
+        int reported = 1 + writer.insertSteps(steps);
+        assertEquals(3, reported); // execution, the large parameters' blob, one batch of steps
+        for (ExecutionStepEntity s : steps) {
+            s.status = "FINISHED";
+            s.startedAt = Instant.now();
+            s.finishedAt = Instant.now();
+            s.resultJson = s == steps.get(2) ? "{\"rows\":\"" + "x".repeat(500) + "\"}" : "{\"ok\":true}";
+        }
+        reported += writer.updateSteps(steps);
+        e.status = "FINISHED";
+        e.finishedAt = Instant.now();
+        e.iterationSummaryJson = "{\"iterations\":1}";
+        assertTrue(writer.updateExecution(e));
+        reported += 1;
+
+        assertEquals(reported, roundTrips.get());
+        assertEquals(6, reported);
+
+        Map<String, Object> row = jdbc.queryForMap("SELECT * FROM executions WHERE id = ?", e.id);
+        assertEquals("FINISHED", row.get("STATUS"));
+        assertEquals(5L, row.get("TENANT_ID"));
+        assertEquals(7L, row.get("PROJECT_ID"));
+        assertNotNull(row.get("FINISHED_AT"));
+        assertEquals(3, jdbc.queryForObject("SELECT COUNT(*) FROM execution_steps WHERE execution_id = ? AND status = 'FINISHED'",
+                Integer.class, e.id));
+        Map<String, Object> large = jdbc.queryForMap("SELECT parameters_json, parameters_ref FROM execution_steps WHERE id = ?",
+                steps.get(1).id);
+        assertNull(large.get("PARAMETERS_JSON"));
+        assertEquals(largeParameters, blobs.get((String) large.get("PARAMETERS_REF")));
+        assertEquals(steps.get(2).resultRef, jdbc.queryForObject("SELECT result_ref FROM execution_steps WHERE id = ?",
+                String.class, steps.get(2).id));
+        assertEquals(2, jdbc.queryForObject("SELECT COUNT(*) FROM result_blobs", Integer.class));
+    }
+
+    @Test
+    public void updatingADeletedExecutionReportsIt() {
+        ExecutionEntity e = new ExecutionEntity();
+        e.id = UUID.randomUUID();
+        e.status = "RUNNING";
+
+        assertFalse(writer.updateExecution(e));
+        assertEquals(0, writer.insertSteps(List.of()));
+        assertEquals(0, writer.updateSteps(List.of()));
+        assertEquals(1, roundTrips.get());
+    }
+
+    /** A service running test 1: three steps of the trade.book definition, written through {@link #writer}. */
+    private ExecutionService service(StepDispatchTable dispatch, ObservabilityConfig.ExecutionMetrics metrics) {
+        TestRepository testRepo = mock(TestRepository.class);
+        TestEntity test = new TestEntity();
+        test.id = 1L;
+        test.name = "Book trades";
+        when(testRepo.findById(1L)).thenReturn(Optional.of(test));
+        TestStepRepository testStepRepo = mock(TestStepRepository.class);
+        List<TestStepEntity> testSteps = new ArrayList<>();
+        for (long i = 0; i < 3; i++) {
+            TestStepEntity ts = new TestStepEntity();
+            ts.id = 10L + i;
+            ts.testId = 1L;
+            ts.stepDefinitionId = 100L;
+            ts.parametersJson = "{\"n\":" + i + "}";
+            testSteps.add(ts);
+        }
+        when(testStepRepo.findByTestIdOrderById(1L)).thenReturn(testSteps);
+        StepDefinitionCache definitions = mock(StepDefinitionCache.class);
+        StepDefinitionEntity def = new StepDefinitionEntity();
+        def.id = 100L;
+        def.refId = "trade.book";
+        def.name = "Book trade";
+        when(definitions.getById(100L)).thenReturn(Optional.of(def));
+        EntityCache entityCache = mock(EntityCache.class);
+        when(entityCache.ownerOfTest(1L)).thenReturn(new ExecutionOwner(5L, 7L, 1L));
+        return new ExecutionService(testStepRepo, mock(com.testnext.repository.ExecutionRepository.class),
+                mock(com.testnext.repository.ExecutionStepRepository.class), definitions, testRepo,
+                mock(com.testnext.user.SystemUserRepository.class), mock(com.testnext.repository.TenantRepository.class),
+                dispatch, metrics, new MockEnvironment(), mock(com.testnext.db.TargetDataSources.class), writer, blobs,
+                entityCache, mock(ExecutionOwnershipBackfill.class), mock(com.testnext.stub.StubRuntime.class),
+                mock(org.springframework.transaction.PlatformTransactionManager.class));
+    }
+
+    @Test
+    public void statementMetricMatchesTheStatementsOfAnExecution() {
+        StepDispatchTable dispatch = new StepDispatchTable();
+        dispatch.register((id, params) -> new StepResult(true, Map.of("booked", true), null), null, 0, "trade.book");
+        ObservabilityConfig.ExecutionMetrics metrics = mock(ObservabilityConfig.ExecutionMetrics.class);
+        ExecutionService service = service(dispatch, metrics);
+
+        UUID id = service.start(1L, null).id;
+
+        verify(metrics, timeout(5_000)).recordPersistenceStatements(8);
+        // insert execution and steps, RUNNING, one batch per step start, the last step's result, FINISHED
+        assertEquals(8, roundTrips.get());
+        assertEquals("FINISHED", jdbc.queryForObject("SELECT status FROM executions WHERE id = ?", String.class, id));
+        assertEquals(3, jdbc.queryForObject("SELECT COUNT(*) FROM execution_steps WHERE execution_id = ? AND status = 'FINISHED'",
+                Integer.class, id));
+    }
+
+    @Test
+    public void stepErrorsAreStoredAsValidJson() throws Exception {
+        String message = "rejected: \"qty\" must be\npositive";
+        StepDispatchTable dispatch = new StepDispatchTable();
+        dispatch.register((id, params) -> { throw new IllegalStateException(message); }, null, 0, "trade.book");
+        ObservabilityConfig.ExecutionMetrics metrics = mock(ObservabilityConfig.ExecutionMetrics.class);
+
+        UUID id = service(dispatch, metrics).start(1L, null).id;
+
+        verify(metrics, timeout(5_000)).recordPersistenceStatements(anyInt());
+        // the first step fails and ends the run
+        String json = jdbc.queryForObject("SELECT result_json FROM execution_steps WHERE execution_id = ? AND status = 'FAILED'",
+                String.class, id);
+        assertEquals(Map.of("error", message), new com.fasterxml.jackson.databind.ObjectMapper().readValue(json, Map.class));
+    }
+}
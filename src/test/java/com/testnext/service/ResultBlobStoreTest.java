@@ -0,0 +1,164 @@
+package com.testnext.service;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResultBlobStoreTest {
+
+    private JdbcTemplate jdbc;
+    private ResultBlobStore store;
+
+    @BeforeEach
+    public void setUp() {
+        JdbcDataSource ds = new JdbcDataSource();
+        ds.setURL("jdbc:h2:mem:blobs" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        jdbc = new JdbcTemplate(ds);
+        jdbc.execute("CREATE TABLE result_blobs (hash VARCHAR(64) PRIMARY KEY, codec VARCHAR(16) NOT NULL, "
+                + "raw_size INT NOT NULL, data BLOB NOT NULL, created_at TIMESTAMP)");
+        jdbc.execute("CREATE TABLE execution_steps (id UUID PRIMARY KEY, result_ref VARCHAR(64), parameters_ref VARCHAR(64))");
+        store = new ResultBlobStore(jdbc, 128, 100);
+    }
+
+    @Test
+    public void identicalPayloadsAreStoredOnceAndCompressed() {
+        String payload = "{\"rows\":[" + "{\"status\":\"BOOKED\",\"qty\":100},".repeat(200) + "{}]}";
+
+        ResultBlobStore.Stored first = store.putAll(List.of(payload, payload));
+        ResultBlobStore.Stored again = store.putAll(List.of(payload));
+
+        assertEquals(first.hashes().get(0), first.hashes().get(1));
+        assertEquals(first.hashes().get(0), again.hashes().get(0));
+        assertEquals(1, first.statements());
+        assertEquals(0, again.statements()); // known hash, no round trip
+        assertEquals(1, jdbc.queryForObject("SELECT COUNT(*) FROM result_blobs", Integer.class));
+        int stored = jdbc.queryForObject("SELECT LENGTH(data) FROM result_blobs", Integer.class);
+        assertTrue(stored * 10 < payload.length(), "compressed to " + stored + " bytes");
+
+        assertEquals(payload, store.get(first.hashes().get(0)));
+    }
+
+    @Test
+    public void concurrentWritersOfTheSamePayloadDoNotConflict() {
+        String payload = "x".repeat(500);
+        store.putAll(List.of(payload));
+        ResultBlobStore other = new ResultBlobStore(jdbc, 128, 100); // another node: nothing known yet
+
+        assertEquals(1, other.putAll(List.of(payload)).statements());
+        Map<String, String> read = other.getAll(List.of(ResultBlobStore.hash(payload), "missing"));
+        assertEquals(Map.of(ResultBlobStore.hash(payload), payload), read);
+    }
+
+    @Test
+    public void smallPayloadsStayInline() {
+        assertFalse(store.shouldStore("{\"ok\":true}"));
+        assertFalse(store.shouldStore(null));
+        assertTrue(store.shouldStore("y".repeat(129)));
+    }
+
+    /** Clock a test moves by hand. */
+    private static final class MovingClock extends Clock {
+        final AtomicReference<Instant> now = new AtomicReference<>(Instant.parse("2026-10-19T00:00:00Z"));
+
+        void advance(Duration d) { now.updateAndGet(t -> t.plus(d)); }
+        @Override public Instant instant() { return now.get(); }
+        @Override public ZoneId getZone() { return ZoneId.of("UTC"); }
+        @Override public Clock withZone(ZoneId zone) { return this; }
+    }
+
+    private boolean stored(String payload) {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM result_blobs WHERE hash = ?", Integer.class,
+                ResultBlobStore.hash(payload)) == 1;
+    }
+
+    @Test
+    public void reusedPayloadIsTouchedAndSurvivesGarbageCollection() {
+        MovingClock clock = new MovingClock();
+        ResultBlobStore node = new ResultBlobStore(jdbc, 128, 100, 60, clock);
+        ResultBlobStore collector = new ResultBlobStore(jdbc, 128, 100, 60, clock);
+        String payload = "z".repeat(500);
+        node.putAll(List.of(payload));
+
+        clock.advance(Duration.ofMinutes(30));
+        assertEquals(0, node.putAll(List.of(payload)).statements()); // remembered, no round trip
+        // no step refers to it yet, but the writer may be about to: too young to collect
+        assertEquals(0, collector.collectGarbage(clock.instant()));
+
+        clock.advance(Duration.ofMinutes(60));
+        assertEquals(1, node.putAll(List.of(payload)).statements()); // lease ran out: touched again
+        assertEquals(Timestamp.from(clock.instant()),
+                jdbc.queryForObject("SELECT created_at FROM result_blobs", Timestamp.class));
+
+        clock.advance(Duration.ofMinutes(110));
+        assertEquals(0, collector.collectGarbage(clock.instant()));
+        assertTrue(stored(payload));
+
+        clock.advance(Duration.ofMinutes(20));
+        assertEquals(1, collector.collectGarbage(clock.instant()));
+        assertEquals(1, node.putAll(List.of(payload)).statements()); // the writer's lease is over too
+        assertTrue(stored(payload));
+    }
+
+    @Test
+    public void garbageCollectionNeverDeletesWhatAConcurrentWriterRefersTo() throws Exception {
+        ResultBlobStore collector = new ResultBlobStore(jdbc, 128, 100);
+        String shared = "shared".repeat(100);
+        store.putAll(List.of(shared));
+
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 200; i++) {
+                String own = "p" + i + "-".repeat(200);
+                ResultBlobStore.Stored s = store.putAll(List.of(shared, own)); // shared is remembered
+                jdbc.update("INSERT INTO execution_steps (id, result_ref, parameters_ref) VALUES (?, ?, ?)",
+                        UUID.randomUUID(), s.hashes().get(1), s.hashes().get(0));
+            }
+        });
+        writer.start();
+        while (writer.isAlive())
+            collector.collectGarbage(Instant.now());
+        writer.join();
+        collector.collectGarbage(Instant.now());
+
+        assertEquals(0, jdbc.queryForObject("SELECT COUNT(*) FROM execution_steps s WHERE NOT EXISTS "
+                + "(SELECT 1 FROM result_blobs b WHERE b.hash = s.result_ref) OR NOT EXISTS "
+                + "(SELECT 1 FROM result_blobs b WHERE b.hash = s.parameters_ref)", Integer.class));
+    }
+
+    @Test
+    public void statementsOfTheGenericFallbackAreCounted() {
+        String known = "k".repeat(300);
+        store.putAll(List.of(known));
+        ResultBlobStore other = new ResultBlobStore(jdbc, 128, 100);
+        ReflectionTestUtils.setField(other, "upsert", ""); // a database without an upsert statement
+
+        // the known payload: INSERT, then UPDATE on the duplicate; the new ones: one INSERT each
+        assertEquals(4, other.putAll(List.of(known, "a".repeat(300), "b".repeat(300))).statements());
+        assertEquals(3, jdbc.queryForObject("SELECT COUNT(*) FROM result_blobs", Integer.class));
+    }
+
+    @Test
+    public void truncatedOrMislabelledBlobsFailInsteadOfSpinning() {
+        byte[] raw = "{\"rows\":[1,2,3]}".repeat(50).getBytes(java.nio.charset.StandardCharsets.UTF_8);
+        byte[] data = ResultBlobStore.deflate(raw);
+
+        assertArrayEquals(raw, ResultBlobStore.inflate(data, raw.length));
+        assertThrows(IllegalStateException.class,
+                () -> ResultBlobStore.inflate(Arrays.copyOf(data, data.length / 2), raw.length));
+        assertThrows(IllegalStateException.class, () -> ResultBlobStore.inflate(new byte[0], raw.length));
+    }
+}
@@ -0,0 +1,53 @@
+package com.testnext.service;
+
+import com.testnext.model.StepDefinitionEntity;
+import com.testnext.repository.StepDefinitionRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class StepDefinitionCacheTest {
+
+    private static StepDefinitionEntity def(long id, String refId, String name) {
+        StepDefinitionEntity e = new StepDefinitionEntity();
+        e.id = id;
+        e.refId = refId;
+        e.name = name;
+        return e;
+    }
+
+    @Test
+    public void lookupsAfterLoadDoNotQuery() {
+        StepDefinitionRepository repo = mock(StepDefinitionRepository.class);
+        when(repo.findAll()).thenReturn(List.of(def(1, "trade.bookTrade", "Book a Trade"), def(2, "db.runSql", "Run SQL Query")));
+        StepDefinitionCache cache = new StepDefinitionCache(repo);
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals("Book a Trade", cache.getById(1L).orElseThrow().name);
+            assertEquals(2L, cache.getByRefId("db.runSql").orElseThrow().id);
+            assertEquals(1L, cache.getByName("Book a Trade").orElseThrow().id);
+        }
+
+        verify(repo, times(1)).findAll();
+        verify(repo, never()).findById(any());
+    }
+
+    @Test
+    public void missReadsThroughAndEvictRemoves() {
+        StepDefinitionRepository repo = mock(StepDefinitionRepository.class);
+        when(repo.findAll()).thenReturn(List.of());
+        when(repo.findById(7L)).thenReturn(Optional.of(def(7, "x.y", "Late Step")));
+        StepDefinitionCache cache = new StepDefinitionCache(repo);
+
+        assertTrue(cache.getById(7L).isPresent());
+        assertTrue(cache.getByName("Late Step").isPresent());
+        verify(repo, times(1)).findById(7L);
+
+        cache.evict(7L);
+        assertTrue(cache.all().isEmpty());
+    }
+}
@@ -0,0 +1,100 @@
+package com.testnext.steps;
+
+import com.testnext.db.TargetDataSources;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DatabaseStepsTest {
+
+    private TargetDataSources targets;
+    private DatabaseSteps steps;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        MockEnvironment env = new MockEnvironment()
+                .withProperty("testnext.db.targets.default.url", "jdbc:h2:mem:dbsteps;DB_CLOSE_DELAY=-1")
+                .withProperty("testnext.db.targets.default.username", "sa");
+        targets = new TargetDataSources(env);
+        steps = new DatabaseSteps(targets);
+        steps.runSql(Map.of("query", "CREATE TABLE trades (id BIGINT PRIMARY KEY, status VARCHAR(20), qty INT)"));
+        for (int i = 1; i <= 2500; i++)
+            steps.runSql(Map.of("query", "INSERT INTO trades VALUES (?, ?, ?)", "params", List.of(i, "BOOKED", i * 10)));
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        steps.runSql(Map.of("query", "DROP TABLE trades"));
+        targets.destroy();
+    }
+
+    @Test
+    public void runSqlReturnsRowsForQueries() throws Exception {
+        Map<String, Object> out = steps.runSql(Map.of("query", "SELECT status, qty FROM trades WHERE id = ?", "params", List.of(7)));
+        assertEquals(1, out.get("rowCount"));
+        @SuppressWarnings("unchecked")
+        Map<String, Object> row = ((List<Map<String, Object>>) out.get("rows")).get(0);
+        assertEquals("BOOKED", row.get("STATUS"));
+    }
+
+    @Test
+    public void validateRowsChecksAllRowsInChunks() throws Exception {
+        List<Map<String, Object>> expected = new ArrayList<>();
+        for (int i = 1; i <= 2500; i++)
+            expected.add(Map.of("id", i, "status", "BOOKED", "qty", i * 10));
+        Map<String, Object> out = steps.validateRows(Map.of("table_name", "trades", "expected_rows", expected));
+        assertEquals("PASSED", out.get("status"));
+        assertEquals(2500, out.get("checked"));
+
+        expected.set(10, Map.of("id", 11, "status", "CANCELLED"));
+        expected.add(Map.of("id", 99999, "status", "BOOKED"));
+        RuntimeException ex = assertThrows(RuntimeException.class,
+                () -> steps.validateRows(Map.of("table_name", "trades", "expected_rows", expected)));
+        assertTrue(ex.getMessage().contains("2 mismatches"), ex.getMessage());
+    }
+
+    @Test
+    public void validateFieldsComparesOneRow() throws Exception {
+        assertEquals("PASSED", steps.validateFields(Map.of("table_name", "trades", "id", 3,
+                "expected_values", Map.of("status", "BOOKED", "qty", 30))).get("status"));
+        assertThrows(RuntimeException.class, () -> steps.validateFields(Map.of("table_name", "trades", "id", 3,
+                "expected_values", Map.of("qty", 31))));
+
+        IllegalArgumentException missing = assertThrows(IllegalArgumentException.class,
+                () -> steps.validateFields(Map.of("table_name", "trades", "id", 3)));
+        assertEquals("expected_values parameter required", missing.getMessage());
+    }
+
+    @Test
+    public void rejectsUnsafeIdentifiers() {
+        assertThrows(IllegalArgumentException.class, () -> steps.validateRows(Map.of(
+                "table_name", "trades; DROP TABLE trades", "expected_rows", List.of(Map.of("id", 1)))));
+    }
+
+    @Test
+    public void lookupRowIsMemoizedPerTenant() throws Exception {
+        com.testnext.execution.SystemStepExecutor executor = new com.testnext.execution.SystemStepExecutor(
+                new com.testnext.execution.StepDispatchTable(), new io.micrometer.core.instrument.simple.SimpleMeterRegistry(), 100);
+        java.lang.reflect.Method method = DatabaseSteps.class.getMethod("lookupRow", Map.class);
+        executor.register("Look Up DB Row", method.getAnnotation(com.testnext.annotation.TestStep.class), steps, method);
+        Map<String, Object> params = Map.of("table_name", "trades", "id", 7);
+
+        com.testnext.tenant.TenantContext.setTenant("acme");
+        try {
+            assertEquals(70, executor.execute("db.lookupRow", params).getOutput().get("QTY"));
+            steps.runSql(Map.of("query", "UPDATE trades SET qty = 1 WHERE id = 7"));
+            assertEquals(70, executor.execute("db.lookupRow", params).getOutput().get("QTY")); // memoized
+        } finally {
+            com.testnext.tenant.TenantContext.clear();
+        }
+        assertEquals(1, executor.execute("db.lookupRow", params).getOutput().get("QTY")); // another tenant reads again
+        assertFalse(executor.execute("db.lookupRow", Map.of("table_name", "trades", "id", 99999)).isSuccess());
+    }
+}
@@ -0,0 +1,161 @@
+package com.testnext.stub;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ConnectException;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StubRuntimeTest {
+
+    private StubRuntime runtime;
+
+    @BeforeEach
+    public void setUp() {
+        runtime = new StubRuntime("127.0.0.1");
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        runtime.destroy();
+        StubScope.clear();
+    }
+
+    private StubServer start(String name) throws Exception {
+        return runtime.start("public", name, 0, List.of(StubDefinition.from(Map.of(
+                "method", "POST", "path", "/trades/*", "status", 201, "body", Map.of("status", "BOOKED")))));
+    }
+
+    private static Socket connect(StubServer server) throws IOException {
+        Socket s = new Socket("127.0.0.1", server.getPort());
+        s.setSoTimeout(5000);
+        return s;
+    }
+
+    /** Reads one response (head and Content-Length body); null when the server closed the connection. */
+    private static String readResponse(InputStream in) throws IOException {
+        ByteArrayOutputStream head = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) >= 0) {
+            head.write(b);
+            String h = head.toString(StandardCharsets.ISO_8859_1);
+            if (h.endsWith("\r\n\r\n")) {
+                int length = 0;
+                for (String line : h.split("\r\n")) {
+                    if (line.toLowerCase().startsWith("content-length:"))
+                        length = Integer.parseInt(line.substring(15).trim());
+                }
+                return h + new String(in.readNBytes(length), StandardCharsets.UTF_8);
+            }
+        }
+        return head.size() == 0 ? null : head.toString(StandardCharsets.ISO_8859_1);
+    }
+
+    @Test
+    public void roundTrip() throws Exception {
+        StubServer server = start("trades");
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+        HttpResponse<String> booked = client.send(HttpRequest.newBuilder(URI.create(runtime.baseUrl(server) + "/trades/1"))
+                .POST(HttpRequest.BodyPublishers.ofString("{\"qty\":100}")).build(), HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> missing = client.send(HttpRequest.newBuilder(URI.create(runtime.baseUrl(server) + "/other"))
+                .GET().build(), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(201, booked.statusCode());
+        assertEquals("{\"status\":\"BOOKED\"}", booked.body());
+        assertEquals(404, missing.statusCode());
+        assertEquals(2, server.getRequests());
+        assertEquals(1, server.getUnmatched());
+    }
+
+    @Test
+    public void keepAliveServesPipelinedRequestsOnOneConnection() throws Exception {
+        StubServer server = start("trades");
+        try (Socket s = connect(server)) {
+            OutputStream out = s.getOutputStream();
+            String request = "POST /trades/1 HTTP/1.1\r\nHost: x\r\nContent-Length: 2\r\n\r\n{}";
+            out.write((request + request).getBytes(StandardCharsets.ISO_8859_1));
+            out.flush();
+            InputStream in = s.getInputStream();
+
+            assertTrue(readResponse(in).startsWith("HTTP/1.1 201"));
+            assertTrue(readResponse(in).startsWith("HTTP/1.1 201"));
+
+            out.write("GET /trades/2 HTTP/1.1\r\nHost: x\r\nConnection: close\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1));
+            out.flush();
+            assertTrue(readResponse(in).startsWith("HTTP/1.1 404"));
+            assertNull(readResponse(in)); // closed as asked
+        }
+        assertEquals(3, server.getRequests());
+    }
+
+    @Test
+    public void malformedContentLengthIsRejectedAndClosed() throws Exception {
+        StubServer server = start("trades");
+        for (String length : List.of("abc", "-5")) {
+            try (Socket s = connect(server)) {
+                s.getOutputStream().write(("POST /trades/1 HTTP/1.1\r\nContent-Length: " + length + "\r\n\r\n{}")
+                        .getBytes(StandardCharsets.ISO_8859_1));
+                InputStream in = s.getInputStream();
+
+                assertTrue(readResponse(in).startsWith("HTTP/1.1 400"), length);
+                assertNull(readResponse(in));
+            }
+        }
+        // the loop is still serving other connections
+        try (Socket s = connect(server)) {
+            s.getOutputStream().write("POST /trades/1 HTTP/1.1\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1));
+            assertTrue(readResponse(s.getInputStream()).startsWith("HTTP/1.1 201"));
+        }
+        assertEquals(1, server.getRequests());
+    }
+
+    @Test
+    public void stubsOfAnExecutionAreStoppedWhenItEnds() throws Exception {
+        StubScope.setOwner("exec-1");
+        StubServer owned = start("owned");
+        StubScope.clear();
+        StubServer other = start("other");
+
+        assertEquals(1, runtime.stopOwnedBy("exec-1"));
+
+        assertNull(runtime.get("public", "owned"));
+        assertSame(other, runtime.get("public", "other"));
+        assertThrows(ConnectException.class, () -> awaitClosed(owned));
+    }
+
+    @Test
+    public void destroyClosesEveryPortAndConnection() throws Exception {
+        StubServer server = start("trades");
+        Socket open = connect(server);
+
+        runtime.destroy();
+
+        assertEquals(-1, open.getInputStream().read());
+        open.close();
+        assertThrows(ConnectException.class, () -> awaitClosed(server));
+        assertNull(runtime.get("public", "trades"));
+    }
+
+    /** Connects until the port refuses; stops happen on the loop thread. */
+    private static void awaitClosed(StubServer server) throws Exception {
+        for (int i = 0; i < 50; i++) {
+            connect(server).close();
+            Thread.sleep(20);
+        }
+    }
+}